@@ -10,7 +10,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 
+import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.internal.context.notification.Policy;
 import org.mule.runtime.core.privileged.context.notification.OptimisedNotificationHandler;
 import org.mule.tck.junit4.AbstractMuleTestCase;
@@ -167,6 +169,16 @@ public class NotificationManagerTestCase extends AbstractMuleTestCase {
     assertTrue(listener2.isNotified());
   }
 
+  @Test
+  public void asyncNotificationBeforeInitialiseIsDropped() throws ClassNotFoundException {
+    registerDefaultEvents();
+    registerDefaultListeners();
+    manager.setMuleContext(mock(MuleContext.class));
+
+    manager.fireNotification(new Event2());
+    assertNoListenersNotified();
+  }
+
   protected void assertNoListenersNotified() {
     assertFalse(listener1.isNotified());
     assertFalse(listener2.isNotified());
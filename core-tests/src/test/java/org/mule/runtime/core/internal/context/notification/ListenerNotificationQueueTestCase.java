@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.context.notification;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.api.context.notification.NotificationOverflowPolicy.DROP;
+import static org.mule.runtime.core.api.context.notification.NotificationOverflowPolicy.SAMPLE;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.context.notification.Notification;
+import org.mule.runtime.core.api.context.notification.NotificationListener;
+import org.mule.runtime.core.api.context.notification.NotificationOverflowPolicy;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class ListenerNotificationQueueTestCase extends AbstractMuleTestCase {
+
+  private static final int CAPACITY = 16;
+  private static final int BATCH_SIZE = 4;
+
+  private final Queue<Runnable> submittedTasks = new LinkedList<>();
+  private final List<Notification> delivered = new ArrayList<>();
+  private final NotificationListener<Notification> listener = delivered::add;
+  private Scheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = mock(Scheduler.class);
+    when(scheduler.submit(any(Runnable.class))).thenAnswer(invocation -> {
+      submittedTasks.add(invocation.getArgumentAt(0, Runnable.class));
+      return null;
+    });
+  }
+
+  @Test
+  public void deliversInBatchesWithSingleSubmission() {
+    ListenerNotificationQueue queue = createQueue(DROP);
+    List<Notification> fired = fire(queue, 10);
+
+    assertThat(submittedTasks.size(), is(1));
+    assertThat(delivered.isEmpty(), is(true));
+
+    submittedTasks.poll().run();
+    assertThat(delivered, is(fired.subList(0, BATCH_SIZE)));
+    assertThat(submittedTasks.size(), is(1));
+
+    runSubmittedTasks();
+    assertThat(delivered, is(fired));
+    assertThat(queue.size(), is(0));
+  }
+
+  @Test
+  public void dropsWhenFull() {
+    ListenerNotificationQueue queue = createQueue(DROP);
+    List<Notification> fired = fire(queue, CAPACITY + 5);
+
+    assertThat(queue.size(), is(CAPACITY));
+    assertThat(queue.getDroppedCount(), is(5L));
+
+    runSubmittedTasks();
+    assertThat(delivered, is(fired.subList(0, CAPACITY)));
+  }
+
+  @Test
+  public void samplesWhenHalfFull() {
+    ListenerNotificationQueue queue = createQueue(SAMPLE);
+    fire(queue, CAPACITY / 2 + 20);
+
+    assertThat(queue.size(), is(CAPACITY / 2 + 2));
+    assertThat(queue.getDroppedCount(), is(18L));
+  }
+
+  @Test
+  public void listenerExceptionDoesNotStopDelivery() {
+    ListenerNotificationQueue queue = new ListenerNotificationQueue(notification -> {
+      delivered.add(notification);
+      throw new IllegalStateException();
+    }, scheduler, CAPACITY, BATCH_SIZE, DROP, 10);
+    fire(queue, 3);
+
+    runSubmittedTasks();
+    assertThat(delivered.size(), is(3));
+  }
+
+  @Test
+  public void keepsPendingWhenSchedulerStopped() {
+    when(scheduler.isShutdown()).thenReturn(true);
+    ListenerNotificationQueue queue = createQueue(DROP);
+    fire(queue, 3);
+
+    assertThat(submittedTasks.isEmpty(), is(true));
+    assertThat(queue.size(), is(3));
+  }
+
+  @Test
+  public void deliversOnCallingThreadWhenRejected() {
+    when(scheduler.submit(any(Runnable.class))).thenThrow(new RejectedExecutionException());
+    ListenerNotificationQueue queue = createQueue(DROP);
+    List<Notification> fired = fire(queue, 10);
+
+    assertThat(delivered, is(fired));
+    assertThat(queue.size(), is(0));
+  }
+
+  private ListenerNotificationQueue createQueue(NotificationOverflowPolicy overflowPolicy) {
+    return new ListenerNotificationQueue(listener, scheduler, CAPACITY, BATCH_SIZE, overflowPolicy, 10);
+  }
+
+  private List<Notification> fire(ListenerNotificationQueue queue, int count) {
+    List<Notification> fired = new ArrayList<>();
+    for (int i = 0; i < count; ++i) {
+      Notification notification = mock(Notification.class);
+      fired.add(notification);
+      queue.offer(notification);
+    }
+    return fired;
+  }
+
+  private void runSubmittedTasks() {
+    Runnable task;
+    while ((task = submittedTasks.poll()) != null) {
+      task.run();
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.mule.runtime.core.api.util.func.CheckedSupplier;
 import org.mule.runtime.dsl.api.component.config.DefaultComponentLocation.DefaultLocationPart;
 import org.mule.tck.junit4.AbstractMuleContextTestCase;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -476,6 +477,37 @@ public class DefaultEventContextTestCase extends AbstractMuleContextTestCase {
     assertCompletionDone(parent);
   }
 
+  @Test
+  @Description("Parent EventContext with many child contexts only completes once the last of them completes.")
+  public void manyChildren() throws Exception {
+    BaseEventContext parent = context.get();
+    List<BaseEventContext> children = new ArrayList<>();
+    for (int i = 0; i < 10000; ++i) {
+      children.add(DefaultEventContext.child(parent, empty()));
+    }
+
+    parent.success();
+    for (BaseEventContext child : children) {
+      assertCompletionNotDone(parent);
+      child.success();
+    }
+
+    assertCompletionDone(parent);
+  }
+
+  @Test
+  @Description("Publishers obtained after the response and completion happened are already terminated.")
+  public void publishersObtainedAfterCompletion() throws Exception {
+    BaseEventContext parent = context.get();
+    BaseEvent event = testEvent();
+
+    parent.success(event);
+
+    assertThat(from(parent.getBeforeResponsePublisher()).block(ofMillis(BLOCK_TIMEOUT)), equalTo(event));
+    awaitAndAssertResponse(parent, event);
+    assertCompletionDone(parent);
+  }
+
   @Test
   @Description("EventContext response publisher completes with value of result but the completion publisher only completes "
       + " once the external publisher completes.")
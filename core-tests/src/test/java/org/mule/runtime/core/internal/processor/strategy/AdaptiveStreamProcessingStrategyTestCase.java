@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mule.runtime.core.internal.processor.strategy.AdaptiveStreamProcessingStrategyFactory.AdaptiveStreamProcessingStrategy.SubscriberCountController.IDLE_RUNS_BEFORE_SCALE_DOWN;
+import static org.mule.test.allure.AllureConstants.ProcessingStrategiesFeature.PROCESSING_STRATEGIES;
+import static org.mule.test.allure.AllureConstants.ProcessingStrategiesFeature.ProcessingStrategiesStory.ADAPTIVE;
+
+import org.mule.runtime.core.internal.processor.strategy.AdaptiveStreamProcessingStrategyFactory.AdaptiveStreamProcessingStrategy.SubscriberCountController;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.qameta.allure.Description;
+import io.qameta.allure.Feature;
+import io.qameta.allure.Story;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.Disposable;
+
+@SmallTest
+@Feature(PROCESSING_STRATEGIES)
+@Story(ADAPTIVE)
+public class AdaptiveStreamProcessingStrategyTestCase extends AbstractMuleTestCase {
+
+  private static final int BUFFER_SIZE = 256;
+
+  private final List<Disposable> created = new ArrayList<>();
+  private final AtomicLong pending = new AtomicLong();
+  private double loadPerCore = 0;
+  private SubscriberCountController controller;
+
+  @Before
+  public void before() {
+    controller = new SubscriberCountController(() -> {
+      Disposable subscriber = mock(Disposable.class);
+      created.add(subscriber);
+      return subscriber;
+    }, 1, 4, () -> pending.get(), BUFFER_SIZE, () -> loadPerCore);
+    controller.start();
+  }
+
+  @Test
+  @Description("The minimum number of subscribers is created when the controller starts.")
+  public void startsWithMinSubscribers() {
+    assertThat(controller.getSubscriberCount(), is(1));
+  }
+
+  @Test
+  @Description("A subscriber is added each run while the ring-buffer is backing up, up to the maximum.")
+  public void scalesUpToMaxWhenBackedUp() {
+    pending.set(BUFFER_SIZE);
+    for (int i = 0; i < 10; ++i) {
+      controller.run();
+    }
+    assertThat(controller.getSubscriberCount(), is(4));
+  }
+
+  @Test
+  @Description("No subscriber is added when the cores are already saturated, even if the ring-buffer is backing up.")
+  public void doesNotScaleUpWhenCoresSaturated() {
+    pending.set(BUFFER_SIZE);
+    loadPerCore = 2;
+    controller.run();
+    assertThat(controller.getSubscriberCount(), is(1));
+  }
+
+  @Test
+  @Description("A subscriber is removed only after the ring-buffer has been idle for a number of consecutive runs.")
+  public void scalesDownAfterIdleRuns() {
+    pending.set(BUFFER_SIZE);
+    controller.run();
+    assertThat(controller.getSubscriberCount(), is(2));
+
+    pending.set(0);
+    for (int i = 0; i < IDLE_RUNS_BEFORE_SCALE_DOWN - 1; ++i) {
+      controller.run();
+    }
+    assertThat(controller.getSubscriberCount(), is(2));
+    controller.run();
+    assertThat(controller.getSubscriberCount(), is(1));
+    verify(created.get(1)).dispose();
+    verify(created.get(0), never()).dispose();
+  }
+
+  @Test
+  @Description("Never goes below the minimum number of subscribers.")
+  public void doesNotScaleBelowMin() {
+    for (int i = 0; i < IDLE_RUNS_BEFORE_SCALE_DOWN * 2; ++i) {
+      controller.run();
+    }
+    assertThat(controller.getSubscriberCount(), is(1));
+  }
+
+  @Test
+  @Description("Disposing the controller disposes all the subscribers and stops further adaptation.")
+  public void dispose() {
+    pending.set(BUFFER_SIZE);
+    controller.run();
+    controller.dispose();
+    controller.run();
+
+    assertThat(controller.getSubscriberCount(), is(0));
+    created.forEach(subscriber -> verify(subscriber).dispose());
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class AffinityWorkerTestCase extends AbstractMuleTestCase {
+
+  private Scheduler scheduler;
+  private AffinityWorker worker;
+
+  @Before
+  public void before() {
+    scheduler = mock(Scheduler.class);
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArguments()[0]).run();
+      return null;
+    }).when(scheduler).execute(any(Runnable.class));
+    worker = new AffinityWorker(scheduler);
+  }
+
+  @Test
+  public void currentWorkerWhileRunningTask() {
+    AtomicReference<AffinityWorker> current = new AtomicReference<>();
+    worker.execute(() -> current.set(AffinityWorker.current()));
+    assertThat(current.get(), sameInstance(worker));
+  }
+
+  @Test
+  public void noCurrentWorkerAfterTask() {
+    worker.execute(() -> {
+    });
+    assertThat(AffinityWorker.current(), is(nullValue()));
+  }
+
+  @Test
+  public void nestedWorkerRestoresPrevious() {
+    AffinityWorker other = new AffinityWorker(scheduler);
+    AtomicReference<AffinityWorker> current = new AtomicReference<>();
+    worker.execute(() -> {
+      other.execute(() -> {
+      });
+      current.set(AffinityWorker.current());
+    });
+    assertThat(current.get(), sameInstance(worker));
+  }
+
+  @Test
+  public void stopStopsScheduler() {
+    worker.stop();
+    verify(scheduler).stop();
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BlockingSink;
+
+@SmallTest
+public class BatchingSinkTestCase extends AbstractMuleTestCase {
+
+  private static final int MAX_BATCH_SIZE = 3;
+  private static final long BATCH_WINDOW = 10;
+  private static final long SOURCE_TIMEOUT = 5000;
+
+  private final List<List<BaseEvent>> published = new CopyOnWriteArrayList<>();
+  private final List<Runnable> flushTasks = new CopyOnWriteArrayList<>();
+  private final ScheduledFuture<?> flushFuture = mock(ScheduledFuture.class);
+  private final reactor.core.Disposable subscriptions = mock(reactor.core.Disposable.class);
+  private Subscription subscription;
+  private ScheduledExecutorService timer;
+  private BatchingSink sink;
+
+  @Before
+  public void before() {
+    timer = mock(ScheduledExecutorService.class);
+    doAnswer(invocation -> {
+      flushTasks.add((Runnable) invocation.getArguments()[0]);
+      return flushFuture;
+    }).when(timer).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+    BlockingSink<List<BaseEvent>> blockingSink = BlockingSink.create(new Subscriber<List<BaseEvent>>() {
+
+      @Override
+      public void onSubscribe(Subscription s) {
+        subscription = s;
+      }
+
+      @Override
+      public void onNext(List<BaseEvent> batch) {
+        published.add(batch);
+      }
+
+      @Override
+      public void onError(Throwable t) {}
+
+      @Override
+      public void onComplete() {}
+    });
+    sink = new BatchingSink(blockingSink, subscriptions, event -> {
+    }, timer, MAX_BATCH_SIZE, BATCH_WINDOW);
+  }
+
+  @Test
+  public void sizeTriggeredFlush() {
+    subscription.request(Long.MAX_VALUE);
+    BaseEvent first = mock(BaseEvent.class);
+    BaseEvent second = mock(BaseEvent.class);
+    BaseEvent third = mock(BaseEvent.class);
+
+    assertThat(sink.emit(first), is(true));
+    assertThat(sink.emit(second), is(true));
+    assertThat(published, is(empty()));
+
+    assertThat(sink.emit(third), is(true));
+    assertThat(published, contains(asList(first, second, third)));
+    verify(flushFuture).cancel(false);
+  }
+
+  @Test
+  public void windowTriggeredFlush() {
+    subscription.request(Long.MAX_VALUE);
+    BaseEvent event = mock(BaseEvent.class);
+
+    sink.accept(event);
+    verify(timer).schedule(any(Runnable.class), eq(BATCH_WINDOW), eq(MILLISECONDS));
+    assertThat(published, is(empty()));
+
+    flushTasks.get(0).run();
+    assertThat(published, contains(asList(event)));
+  }
+
+  @Test
+  public void emitWhenSaturated() {
+    BaseEvent first = mock(BaseEvent.class);
+    BaseEvent second = mock(BaseEvent.class);
+    BaseEvent rejected = mock(BaseEvent.class);
+    BaseEvent third = mock(BaseEvent.class);
+
+    assertThat(sink.emit(first), is(true));
+    assertThat(sink.emit(second), is(true));
+    assertThat(sink.emit(rejected), is(false));
+    assertThat(published, is(empty()));
+
+    subscription.request(1);
+    assertThat(sink.emit(third), is(true));
+    assertThat(published, contains(asList(first, second, third)));
+  }
+
+  @Test
+  public void windowFlushWhenSaturatedIsRetried() {
+    BaseEvent event = mock(BaseEvent.class);
+    sink.emit(event);
+
+    flushTasks.get(0).run();
+    assertThat(published, is(empty()));
+    assertThat(flushTasks, hasSize(2));
+
+    subscription.request(1);
+    flushTasks.get(1).run();
+    assertThat(published, contains(asList(event)));
+  }
+
+  @Test
+  public void acceptBlocksWhenSaturated() throws Exception {
+    BaseEvent first = mock(BaseEvent.class);
+    BaseEvent second = mock(BaseEvent.class);
+    BaseEvent third = mock(BaseEvent.class);
+    sink.accept(first);
+    sink.accept(second);
+
+    Thread source = new Thread(() -> sink.accept(third));
+    source.start();
+    source.join(100);
+    assertThat(source.isAlive(), is(true));
+    assertThat(published, is(empty()));
+
+    subscription.request(1);
+    source.join(SOURCE_TIMEOUT);
+    assertThat(source.isAlive(), is(false));
+    assertThat(published, contains(asList(first, second, third)));
+  }
+
+  @Test
+  public void disposePublishesPendingEvents() {
+    subscription.request(Long.MAX_VALUE);
+    BaseEvent event = mock(BaseEvent.class);
+    sink.emit(event);
+
+    sink.dispose();
+    assertThat(published, contains(asList(event)));
+    verify(subscriptions).dispose();
+  }
+
+}
@@ -17,6 +17,7 @@ import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -213,7 +214,7 @@ public class ProactorStreamProcessingStrategyTestCase extends AbstractProcessing
   }
 
   @Test
-  @Description("If IO pool is busy OVERLOAD error is thrown")
+  @Description("If IO pool is busy with other tasks, processing is done on the offloading cpu-light thread")
   public void blockingRejectedExecution() throws Exception {
     Scheduler blockingSchedulerSpy = spy(blocking);
     Scheduler rejectingSchedulerSpy = spy(new RejectingScheduler(blockingSchedulerSpy));
@@ -231,17 +232,17 @@ public class ProactorStreamProcessingStrategyTestCase extends AbstractProcessing
     flow.initialise();
     flow.start();
     processFlow(testEvent());
-    verify(rejectingSchedulerSpy, times(11)).submit(any(Runnable.class));
-    verify(blockingSchedulerSpy, times(1)).submit(any(Runnable.class));
+    verify(rejectingSchedulerSpy, times(2)).submit(any(Runnable.class));
+    verify(blockingSchedulerSpy, never()).submit(any(Runnable.class));
     assertThat(threads, hasSize(1));
-    assertThat(threads.stream().filter(name -> name.startsWith(IO)).count(), equalTo(1l));
-    assertThat(threads, not(hasItem(startsWith(CPU_LIGHT))));
+    assertThat(threads.stream().filter(name -> name.startsWith(CPU_LIGHT)).count(), equalTo(1l));
+    assertThat(threads, not(hasItem(startsWith(IO))));
     assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
     assertThat(threads, not(hasItem(startsWith(CUSTOM))));
   }
 
   @Test
-  @Description("If CPU INTENSIVE pool is busy OVERLOAD error is thrown")
+  @Description("If CPU INTENSIVE pool is busy with other tasks, processing is done on the offloading cpu-light thread")
   public void cpuIntensiveRejectedExecution() throws Exception {
     Scheduler cpuIntensiveSchedulerSpy = spy(cpuIntensive);
     Scheduler rejectingSchedulerSpy = spy(new RejectingScheduler(cpuIntensiveSchedulerSpy));
@@ -259,12 +260,12 @@ public class ProactorStreamProcessingStrategyTestCase extends AbstractProcessing
     flow.initialise();
     flow.start();
     processFlow(testEvent());
-    verify(rejectingSchedulerSpy, times(11)).submit(any(Runnable.class));
-    verify(cpuIntensiveSchedulerSpy, times(1)).submit(any(Runnable.class));
+    verify(rejectingSchedulerSpy, times(2)).submit(any(Runnable.class));
+    verify(cpuIntensiveSchedulerSpy, never()).submit(any(Runnable.class));
     assertThat(threads, hasSize(1));
-    assertThat(threads.stream().filter(name -> name.startsWith(CPU_INTENSIVE)).count(), equalTo(1l));
-    assertThat(threads, not(hasItem(startsWith(CPU_LIGHT))));
+    assertThat(threads.stream().filter(name -> name.startsWith(CPU_LIGHT)).count(), equalTo(1l));
     assertThat(threads, not(hasItem(startsWith(IO))));
+    assertThat(threads, not(hasItem(startsWith(CPU_INTENSIVE))));
     assertThat(threads, not(hasItem(startsWith(CUSTOM))));
   }
 
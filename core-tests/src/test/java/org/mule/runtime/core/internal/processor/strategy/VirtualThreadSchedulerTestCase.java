@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.util.concurrent.Latch;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class VirtualThreadSchedulerTestCase extends AbstractMuleTestCase {
+
+  private static final long TIMEOUT = 5000;
+  private static final int MAX_CONCURRENCY = 2;
+
+  private Scheduler delegate;
+  private VirtualThreadScheduler scheduler;
+
+  @Before
+  public void before() {
+    assumeTrue(VirtualThreadScheduler.isSupported());
+    delegate = mock(Scheduler.class);
+    when(delegate.getName()).thenReturn("test.BLOCKING");
+    scheduler = new VirtualThreadScheduler(delegate, MAX_CONCURRENCY);
+  }
+
+  @After
+  public void after() {
+    if (scheduler != null) {
+      scheduler.stop();
+    }
+  }
+
+  @Test
+  public void runsOnVirtualThread() throws Exception {
+    AtomicReference<String> threadName = new AtomicReference<>();
+    scheduler.submit(() -> threadName.set(Thread.currentThread().getName())).get(TIMEOUT, MILLISECONDS);
+    assertThat(threadName.get(), startsWith("test.BLOCKING.virtual."));
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void rejectsOverMaxConcurrency() throws Exception {
+    Latch release = new Latch();
+    CountDownLatch running = new CountDownLatch(MAX_CONCURRENCY);
+    try {
+      for (int i = 0; i < MAX_CONCURRENCY; ++i) {
+        scheduler.execute(() -> {
+          running.countDown();
+          awaitQuietly(release);
+        });
+      }
+      assertThat(running.await(TIMEOUT, MILLISECONDS), is(true));
+      scheduler.execute(() -> {
+      });
+    } finally {
+      release.release();
+    }
+  }
+
+  @Test
+  public void permitReleasedOnCompletion() throws Exception {
+    for (int i = 0; i < MAX_CONCURRENCY * 4; ++i) {
+      scheduler.submit(() -> {
+      }).get(TIMEOUT, MILLISECONDS);
+    }
+  }
+
+  @Test
+  public void stopStopsDelegate() {
+    scheduler.stop();
+    verify(delegate).stop();
+    assertThat(scheduler.isShutdown(), is(true));
+  }
+
+  private void awaitQuietly(Latch latch) {
+    try {
+      latch.await(TIMEOUT, MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
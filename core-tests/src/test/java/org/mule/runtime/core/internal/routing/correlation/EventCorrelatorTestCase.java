@@ -6,8 +6,12 @@
  */
 package org.mule.runtime.core.internal.routing.correlation;
 
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -116,6 +120,16 @@ public class EventCorrelatorTestCase extends AbstractMuleTestCase {
     verify(mockEventGroup, times(1)).initAfterDeserialisation(mockMuleContext);
   }
 
+  @Test
+  public void eventForGroupProcessedWhileWaitingForItsLockIsDropped() throws Exception {
+    when(mockMuleEvent.getCorrelationId()).thenReturn(TEST_GROUP_ID);
+    when(mockProcessedGroups.contains(TEST_GROUP_ID)).thenReturn(false, true);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+
+    assertThat(eventCorrelator.process(mockMuleEvent), nullValue());
+    verify(mockEventGroup, never()).addEvent(any(BaseEvent.class));
+  }
+
   @Test
   @Ignore("MULE-7311")
   @Issue("MULE-7311")
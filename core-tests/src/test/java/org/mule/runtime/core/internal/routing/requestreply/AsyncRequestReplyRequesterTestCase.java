@@ -146,6 +146,25 @@ public class AsyncRequestReplyRequesterTestCase extends AbstractMuleContextTestC
     }
   }
 
+  @Test
+  public void replyStoredByAnotherNode() throws Exception {
+    asyncReplyMP = new TestAsyncRequestReplyRequester(muleContext);
+    asyncReplyMP.setTimeout(RECEIVE_TIMEOUT);
+    // the reply is not received by the reply source but stored right away, as another node of the cluster would
+    asyncReplyMP.setListener(event -> {
+      MultipleRequestReplierEvent reply = new MultipleRequestReplierEvent();
+      reply.addEvent(event);
+      asyncReplyMP.store.store(event.getContext().getCorrelationId(), reply);
+      return event;
+    });
+    asyncReplyMP.setReplySource(mock(MessageSource.class));
+
+    BaseEvent resultEvent = asyncReplyMP.process(testEvent());
+
+    assertEquals(((PrivilegedEvent) testEvent()).getMessageAsString(muleContext),
+                 ((PrivilegedEvent) resultEvent).getMessageAsString(muleContext));
+  }
+
   @Test
   @Ignore("See MULE-8830")
   public void returnsNullWhenInterruptedWhileWaitingForReply() throws Exception {
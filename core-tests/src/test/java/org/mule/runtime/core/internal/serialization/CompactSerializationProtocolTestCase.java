@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.message.Message.of;
+
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.tck.core.internal.serialization.AbstractSerializerProtocolContractTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+
+import org.junit.Test;
+
+public class CompactSerializationProtocolTestCase extends AbstractSerializerProtocolContractTestCase {
+
+  @Override
+  protected void doSetUp() throws Exception {
+    serializationProtocol = createSerializer().getInternalProtocol();
+  }
+
+  @Test(expected = SerializationException.class)
+  public void notSerializable() throws Exception {
+    serializationProtocol.serialize(new Object());
+  }
+
+  @Test
+  public void event() throws Exception {
+    BaseEvent event = eventBuilder().message(of(TEST_PAYLOAD)).addVariable("foo", "bar").build();
+
+    BaseEvent deserialized = serializationProtocol.deserialize(serializationProtocol.serialize(event));
+
+    assertThat(deserialized.getContext().getId(), equalTo(event.getContext().getId()));
+    assertThat(deserialized.getMessage().getPayload().getValue(), equalTo(TEST_PAYLOAD));
+    assertThat(deserialized.getVariables().get("FOO").getValue(), equalTo("bar"));
+  }
+
+  @Test
+  public void smallerThanJavaSerialization() throws Exception {
+    BaseEvent event = eventBuilder().message(of(TEST_PAYLOAD)).addVariable("foo", "bar").build();
+    SerializationProtocol javaProtocol = muleContext.getObjectSerializer().getExternalProtocol();
+
+    assertThat(serializationProtocol.serialize(event).length, lessThan(javaProtocol.serialize(event).length));
+    assertThat(serializationProtocol.serialize(event.getMessage()).length,
+               lessThan(javaProtocol.serialize(event.getMessage()).length));
+  }
+
+  @Test
+  public void unregisteredClass() throws Exception {
+    TestObject object = new TestObject("foo", 5);
+
+    TestObject deserialized = serializationProtocol.deserialize(serializationProtocol.serialize(object));
+
+    assertThat(deserialized, equalTo(object));
+  }
+
+  @Test
+  public void additionalRegisteredClass() throws Exception {
+    CompactObjectSerializer serializer = createSerializer();
+    serializer.setRegisteredClasses(singletonList(TestObject.class.getName()));
+    SerializationProtocol registeringProtocol = serializer.getInternalProtocol();
+    TestObject object = new TestObject("foo", 5);
+
+    byte[] bytes = registeringProtocol.serialize(object);
+
+    assertThat(bytes.length, lessThan(serializationProtocol.serialize(object).length));
+    assertThat(registeringProtocol.deserialize(bytes), equalTo(object));
+  }
+
+  @Test
+  public void serializeToStream() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    serializationProtocol.serialize(TEST_PAYLOAD, out);
+
+    assertThat(serializationProtocol.deserialize(out.toByteArray()), is(TEST_PAYLOAD));
+  }
+
+  private CompactObjectSerializer createSerializer() {
+    CompactObjectSerializer serializer = new CompactObjectSerializer();
+    serializer.setMuleContext(muleContext);
+    return serializer;
+  }
+
+  private static class TestObject implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final int count;
+
+    private TestObject(String name, int count) {
+      this.name = name;
+      this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof TestObject && ((TestObject) obj).name.equals(name) && ((TestObject) obj).count == count;
+    }
+
+    @Override
+    public int hashCode() {
+      return name.hashCode() + count;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.api.event.BaseEventContext.create;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.api.event.BaseEventContext;
+import org.mule.runtime.core.api.exception.NullExceptionHandler;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Before;
+import org.junit.Test;
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class CursorManagerTestCase extends AbstractMuleTestCase {
+
+  private MutableStreamingStatistics statistics = new MutableStreamingStatistics();
+  private CursorManager cursorManager = new CursorManager(statistics);
+  private BaseEventContext eventContext;
+  private BaseEvent event;
+  private CursorStreamProvider provider;
+  private CursorStream cursor;
+
+  @Before
+  public void before() {
+    eventContext = create("id", "serverId", TEST_CONNECTOR_LOCATION, NullExceptionHandler.getInstance());
+    event = mock(BaseEvent.class);
+    when(event.getContext()).thenReturn(eventContext);
+
+    provider = mock(CursorStreamProvider.class);
+    cursor = mock(CursorStream.class);
+    when(provider.openCursor()).thenReturn(cursor);
+  }
+
+  @Test
+  public void stateAttachedToEventContext() {
+    cursorManager.manage(provider, event);
+    EventStreamingState state = eventContext.getStreamingState(() -> new EventStreamingState(statistics));
+
+    cursorManager.manage(mock(CursorStreamProvider.class), event);
+    assertThat(eventContext.getStreamingState(() -> new EventStreamingState(statistics)), is(sameInstance(state)));
+  }
+
+  @Test
+  public void sameProviderTrackedOnce() {
+    cursorManager.manage(provider, event);
+    cursorManager.manage(provider, event);
+
+    assertThat(statistics.getOpenCursorProvidersCount(), is(1));
+  }
+
+  @Test
+  public void releasedOnCompletion() throws Exception {
+    cursorManager.manage(provider, event).openCursor();
+    assertThat(statistics.getOpenCursorProvidersCount(), is(1));
+    assertThat(statistics.getOpenCursorsCount(), is(1));
+
+    eventContext.success();
+
+    verify(provider).close();
+    verify(provider).releaseResources();
+    verify(cursor).release();
+    assertThat(statistics.getOpenCursorProvidersCount(), is(0));
+    assertThat(statistics.getOpenCursorsCount(), is(0));
+  }
+
+  @Test
+  public void releasedWhenManagedAfterCompletion() throws Exception {
+    eventContext.success();
+
+    cursorManager.manage(provider, event);
+
+    verify(provider).close();
+    verify(provider).releaseResources();
+    assertThat(statistics.getOpenCursorProvidersCount(), is(0));
+  }
+
+  @Test
+  public void closedCursorNotReleasedOnCompletion() throws Exception {
+    cursorManager.manage(provider, event).openCursor().close();
+    assertThat(statistics.getOpenCursorsCount(), is(0));
+
+    eventContext.success();
+
+    verify(cursor, never()).release();
+    verify(provider).releaseResources();
+  }
+
+  @Test
+  public void releasedWhenLastCursorOfClosedProviderCloses() throws Exception {
+    CursorStream managedCursor = (CursorStream) cursorManager.manage(provider, event).openCursor();
+    when(provider.isClosed()).thenReturn(true);
+
+    managedCursor.close();
+
+    verify(provider).releaseResources();
+    assertThat(statistics.getOpenCursorsCount(), is(0));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.api.util.DataUnit.BYTE;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+import org.mule.runtime.api.streaming.exception.StreamingBufferSizeExceededException;
+import org.mule.runtime.api.util.DataSize;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Test;
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class InMemoryStreamBufferTestCase extends AbstractMuleTestCase {
+
+  private static final int INITIAL_SIZE = 100;
+  private static final int INCREMENT = 30;
+
+  private PoolingByteBufferManager bufferManager = new PoolingByteBufferManager();
+  private String data = randomAlphabetic(INITIAL_SIZE + INCREMENT * 3);
+  private InMemoryStreamBuffer buffer = createBuffer(0);
+
+  @After
+  public void after() {
+    buffer.close();
+    bufferManager.dispose();
+  }
+
+  @Test
+  public void readOnlySlices() {
+    ByteBuffer slice = buffer.get(0, INITIAL_SIZE);
+    assertThat(slice.isReadOnly(), is(true));
+    assertThat(toString(slice), equalTo(data.substring(0, INITIAL_SIZE)));
+  }
+
+  @Test
+  public void sliceDoesNotSpanSegments() {
+    final int position = INITIAL_SIZE - 10;
+    buffer.get(0, data.length());
+
+    assertThat(toString(buffer.get(position, INCREMENT)), equalTo(data.substring(position, INITIAL_SIZE)));
+    assertThat(toString(buffer.get(INITIAL_SIZE, INCREMENT * 2)),
+               equalTo(data.substring(INITIAL_SIZE, INITIAL_SIZE + INCREMENT)));
+  }
+
+  @Test
+  public void readBehindTipAfterStreamConsumed() {
+    final int position = INITIAL_SIZE + INCREMENT + 5;
+    assertThat(toString(buffer.get(position, 10)), equalTo(data.substring(position, position + 10)));
+    assertThat(toString(buffer.get(5, 10)), equalTo(data.substring(5, 15)));
+  }
+
+  @Test
+  public void nullAfterEndOfStream() {
+    buffer.get(data.length() - 1, 1);
+    assertThat(buffer.get(data.length(), 1), is(nullValue()));
+  }
+
+  @Test(expected = StreamingBufferSizeExceededException.class)
+  public void maxBufferSizeExceeded() {
+    buffer.close();
+    buffer = createBuffer(INITIAL_SIZE + INCREMENT);
+    buffer.get(data.length() - 1, 1);
+  }
+
+  private InMemoryStreamBuffer createBuffer(int maxBufferSize) {
+    InMemoryCursorStreamConfig config = new InMemoryCursorStreamConfig(new DataSize(INITIAL_SIZE, BYTE),
+                                                                       new DataSize(INCREMENT, BYTE),
+                                                                       new DataSize(maxBufferSize, BYTE));
+    return new InMemoryStreamBuffer(new ByteArrayInputStream(data.getBytes()), config, bufferManager);
+  }
+
+  private String toString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes);
+  }
+}
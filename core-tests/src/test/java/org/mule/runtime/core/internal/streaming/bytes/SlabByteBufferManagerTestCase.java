@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_STREAMING_MAX_MEMORY;
+import static org.mule.runtime.core.internal.streaming.bytes.SlabByteBufferManager.MAX_POOLED_CAPACITY;
+import static org.mule.runtime.core.internal.streaming.bytes.SlabByteBufferManager.SLAB_SIZE;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+import org.mule.runtime.api.util.Reference;
+import org.mule.runtime.core.api.util.concurrent.Latch;
+import org.mule.runtime.core.internal.streaming.MemoryManager;
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class SlabByteBufferManagerTestCase extends AbstractMuleTestCase {
+
+  private static final int CAPACITY = 100;
+  private static final int SIZE_CLASS_CAPACITY = 128;
+  private static final int LARGE_CAPACITY = SLAB_SIZE * 2;
+  private static final long WAIT_TIMEOUT_MILLIS = SECONDS.toMillis(2);
+
+  private MutableStreamingStatistics statistics = new MutableStreamingStatistics();
+  private SlabByteBufferManager bufferManager = new SlabByteBufferManager(mockMemoryManager(Long.MAX_VALUE / 4),
+                                                                          WAIT_TIMEOUT_MILLIS, statistics);
+
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  @After
+  public void after() {
+    bufferManager.dispose();
+  }
+
+  @Test
+  public void directBufferOfSizeClass() {
+    ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+    assertThat(buffer.isDirect(), is(true));
+    assertThat(buffer.capacity(), is(SIZE_CLASS_CAPACITY));
+    assertThat(buffer.limit(), is(CAPACITY));
+    assertThat(buffer.position(), is(0));
+  }
+
+  @Test
+  public void pooling() {
+    ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+    bufferManager.deallocate(buffer);
+
+    ByteBuffer newBuffer = bufferManager.allocate(SIZE_CLASS_CAPACITY - 1);
+    assertThat(buffer, is(sameInstance(newBuffer)));
+    assertThat(newBuffer.limit(), is(SIZE_CLASS_CAPACITY - 1));
+  }
+
+  @Test
+  public void largeBufferPooling() {
+    ByteBuffer buffer = bufferManager.allocate(LARGE_CAPACITY);
+    bufferManager.deallocate(buffer);
+
+    assertThat(bufferManager.allocate(LARGE_CAPACITY), is(sameInstance(buffer)));
+  }
+
+  @Test
+  public void grow() {
+    ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+    ByteBuffer newBuffer = bufferManager.allocate(CAPACITY);
+
+    assertThat(buffer, not(sameInstance(newBuffer)));
+  }
+
+  @Test
+  public void differentSizeClasses() {
+    ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+    bufferManager.deallocate(buffer);
+
+    ByteBuffer otherBuffer = bufferManager.allocate(SIZE_CLASS_CAPACITY + 1);
+    assertThat(buffer, not(sameInstance(otherBuffer)));
+    assertThat(otherBuffer.capacity(), is(SIZE_CLASS_CAPACITY * 2));
+  }
+
+  @Test
+  public void notPooledOverMaxCapacity() {
+    ByteBuffer buffer = bufferManager.allocate(MAX_POOLED_CAPACITY + 1);
+    assertThat(buffer.capacity(), is(MAX_POOLED_CAPACITY + 1));
+    bufferManager.deallocate(buffer);
+    assertThat(statistics.getReservedBufferMemory(), is(0L));
+  }
+
+  @Test
+  public void statistics() {
+    ByteBuffer buffer = bufferManager.allocate(LARGE_CAPACITY);
+    assertThat(statistics.getBufferMemoryInUse(), is((long) LARGE_CAPACITY));
+    assertThat(statistics.getReservedBufferMemory(), is((long) LARGE_CAPACITY));
+
+    bufferManager.deallocate(buffer);
+    assertThat(statistics.getBufferMemoryInUse(), is(0L));
+    assertThat(statistics.getReservedBufferMemory(), is((long) LARGE_CAPACITY));
+
+    bufferManager.dispose();
+    assertThat(statistics.getReservedBufferMemory(), is(0L));
+  }
+
+  @Test
+  public void limitTotalMemory() throws Exception {
+    bufferManager = new SlabByteBufferManager(mockMemoryManager(LARGE_CAPACITY * 2L), WAIT_TIMEOUT_MILLIS, statistics);
+    assertMemoryLimit(LARGE_CAPACITY);
+  }
+
+  @Test
+  public void limitTotalMemoryOfSlabSizeClasses() throws Exception {
+    bufferManager = new SlabByteBufferManager(mockMemoryManager(SIZE_CLASS_CAPACITY * 2L), WAIT_TIMEOUT_MILLIS, statistics);
+    assertMemoryLimit(SIZE_CLASS_CAPACITY);
+  }
+
+  @Test
+  public void limitTotalMemoryThroughSystemProperty() throws Exception {
+    setProperty(MULE_STREAMING_MAX_MEMORY, String.valueOf(LARGE_CAPACITY * 2));
+    try {
+      bufferManager = new SlabByteBufferManager(mock(MemoryManager.class), WAIT_TIMEOUT_MILLIS, statistics);
+      assertMemoryLimit(LARGE_CAPACITY);
+    } finally {
+      clearProperty(MULE_STREAMING_MAX_MEMORY);
+    }
+  }
+
+  @Test
+  public void idleLargeBuffersReleasedWhenExhausted() {
+    bufferManager = new SlabByteBufferManager(mockMemoryManager(LARGE_CAPACITY * 4L), WAIT_TIMEOUT_MILLIS, statistics);
+    bufferManager.deallocate(bufferManager.allocate(LARGE_CAPACITY * 2));
+
+    ByteBuffer buffer = bufferManager.allocate(LARGE_CAPACITY * 4);
+    assertThat(buffer.capacity(), is(LARGE_CAPACITY * 4));
+  }
+
+  @Test
+  public void invalidMemoryCapThroughSystemProperty() throws Exception {
+    setProperty(MULE_STREAMING_MAX_MEMORY, "don't spend that much memory please");
+    try {
+      expectedException.expect(IllegalArgumentException.class);
+      bufferManager = new SlabByteBufferManager(mock(MemoryManager.class), 10, statistics);
+    } finally {
+      clearProperty(MULE_STREAMING_MAX_MEMORY);
+    }
+  }
+
+  private void assertMemoryLimit(int bufferCapacity) throws InterruptedException {
+    ByteBuffer buffer1 = bufferManager.allocate(bufferCapacity);
+    ByteBuffer buffer2 = bufferManager.allocate(bufferCapacity);
+    assertThat(buffer1.limit(), is(bufferCapacity));
+    assertThat(buffer2.limit(), is(bufferCapacity));
+
+    Latch latch = new Latch();
+    Reference<Boolean> maxMemoryExhausted = new Reference<>(false);
+
+    new Thread(() -> {
+      try {
+        bufferManager.allocate(bufferCapacity);
+        latch.release();
+      } catch (MaxStreamingMemoryExceededException e) {
+        maxMemoryExhausted.set(true);
+      }
+    }).start();
+
+    assertThat(latch.await(WAIT_TIMEOUT_MILLIS * 2, MILLISECONDS), is(false));
+    assertThat(maxMemoryExhausted.get(), is(true));
+
+    bufferManager.deallocate(buffer1);
+
+    Latch secondLatch = new Latch();
+    new Thread(() -> {
+      try {
+        bufferManager.allocate(bufferCapacity);
+        maxMemoryExhausted.set(false);
+      } finally {
+        secondLatch.release();
+      }
+    }).start();
+
+    assertThat(secondLatch.await(WAIT_TIMEOUT_MILLIS, MILLISECONDS), is(true));
+    assertThat(maxMemoryExhausted.get(), is(false));
+  }
+
+  private MemoryManager mockMemoryManager(long maxMemory) {
+    MemoryManager memoryManager = mock(MemoryManager.class);
+    when(memoryManager.getMaxMemory()).thenReturn(maxMemory * 2);
+    return memoryManager;
+  }
+}
@@ -100,6 +100,16 @@ public class GraphTransformerResolverTestCase extends AbstractMuleTestCase {
     assertNotSame(transformer1, transformer2);
   }
 
+  @Test
+  public void resolvesConverterAddedAfterCachedMiss() throws ResolverException {
+    assertNull(graphResolver.resolve(XML_DATA_TYPE, JSON_DATA_TYPE));
+
+    Converter xmlToJson = new MockConverterBuilder().named("xmlToJson").from(XML_DATA_TYPE).to(JSON_DATA_TYPE).build();
+    graphResolver.transformerChange(xmlToJson, TransformerResolver.RegistryAction.ADDED);
+
+    assertEquals(xmlToJson, graphResolver.resolve(XML_DATA_TYPE, JSON_DATA_TYPE));
+  }
+
   @Test
   public void ignoresAddedTransformer() throws ResolverException {
     Converter xmlToJson = new MockConverterBuilder().named("xmlToJson").from(XML_DATA_TYPE).to(JSON_DATA_TYPE).build();
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertThat;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+@SmallTest
+public class PersistentCaseInsensitiveMapTestCase extends AbstractMuleTestCase {
+
+  private static final String KEY1 = "FOO";
+  private static final String KEY2 = "doo";
+
+  // "0_", "1@" and "2!" have the same case insensitive hash
+  private static final String[] COLLIDING_KEYS = {"0_", "1@", "2!"};
+
+  @Test
+  public void caseInsensitive() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+
+    assertThat(map.get("foo"), is("BAR"));
+    assertThat(map.get("DOO"), is("DAR"));
+    assertThat(map.containsKey("Foo"), is(true));
+    assertThat(map.keySet(), containsInAnyOrder(KEY1, KEY2));
+  }
+
+  @Test
+  public void replacingValueKeepsKeyCase() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap().plus("foo", "BAZ");
+
+    assertThat(map.size(), is(2));
+    assertThat(map.get(KEY1), is("BAZ"));
+    assertThat(map.keySet(), containsInAnyOrder(KEY1, KEY2));
+  }
+
+  @Test
+  public void changesDoNotAffectOriginal() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+
+    PersistentCaseInsensitiveMap<String> added = map.plus("new", "val");
+    PersistentCaseInsensitiveMap<String> removed = map.minus("foo");
+
+    assertThat(map.size(), is(2));
+    assertThat(map.get("new"), is(nullValue()));
+    assertThat(map.get(KEY1), is("BAR"));
+    assertThat(added.size(), is(3));
+    assertThat(added.get("NEW"), is("val"));
+    assertThat(removed.size(), is(1));
+    assertThat(removed.containsKey(KEY1), is(false));
+  }
+
+  @Test
+  public void noopChangesReturnSameInstance() {
+    PersistentCaseInsensitiveMap<String> map = createTestMap();
+
+    assertThat(map.minus("missing"), is(sameInstance(map)));
+    assertThat(map.plus("foo", map.get(KEY1)), is(sameInstance(map)));
+    assertThat(PersistentCaseInsensitiveMap.copyOf(map), is(sameInstance(map)));
+  }
+
+  @Test
+  public void collidingKeys() {
+    PersistentCaseInsensitiveMap<Integer> map = PersistentCaseInsensitiveMap.empty();
+    for (int i = 0; i < COLLIDING_KEYS.length; ++i) {
+      map = map.plus(COLLIDING_KEYS[i], i);
+    }
+
+    assertThat(map.size(), is(COLLIDING_KEYS.length));
+    assertThat(map.keySet(), containsInAnyOrder(COLLIDING_KEYS));
+    for (int i = 0; i < COLLIDING_KEYS.length; ++i) {
+      assertThat(map.get(COLLIDING_KEYS[i]), is(i));
+    }
+
+    map = map.minus(COLLIDING_KEYS[1]);
+    assertThat(map.size(), is(COLLIDING_KEYS.length - 1));
+    assertThat(map.get(COLLIDING_KEYS[0]), is(0));
+    assertThat(map.containsKey(COLLIDING_KEYS[1]), is(false));
+    assertThat(map.get(COLLIDING_KEYS[2]), is(2));
+  }
+
+  @Test
+  public void manyEntries() {
+    Map<String, Integer> expected = new HashMap<>();
+    PersistentCaseInsensitiveMap<Integer> map = PersistentCaseInsensitiveMap.empty();
+    for (int i = 0; i < 5000; ++i) {
+      map = map.plus("key" + i, i);
+      expected.put("key" + i, i);
+    }
+    for (int i = 0; i < 5000; i += 3) {
+      map = map.minus("KEY" + i);
+      expected.remove("key" + i);
+    }
+
+    assertThat(map.size(), is(expected.size()));
+    assertThat(map, is(expected));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void immutable() {
+    createTestMap().put("new", "val");
+  }
+
+  @Test
+  public void serialize() {
+    PersistentCaseInsensitiveMap<String> map = SerializationUtils.deserialize(SerializationUtils.serialize(createTestMap()));
+
+    assertThat(map.size(), is(2));
+    assertThat(map.get("foo"), is("BAR"));
+    assertThat(map.plus("new", "val").get("NEW"), is("val"));
+    assertThat(map, is(createTestMap()));
+  }
+
+  private PersistentCaseInsensitiveMap<String> createTestMap() {
+    return PersistentCaseInsensitiveMap.<String>empty().plus(KEY1, "BAR").plus(KEY2, "DAR");
+  }
+}
@@ -7,6 +7,9 @@
 package org.mule.runtime.core.internal.util.journal.queue;
 
 import static java.lang.Math.abs;
+import static java.lang.System.clearProperty;
+import static java.lang.System.setProperty;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.Is.is;
@@ -14,6 +17,7 @@ import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.internal.util.journal.TransactionJournal.GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY;
 import static org.mule.runtime.core.internal.util.journal.TransactionJournal.TX1_LOG_FILE_NAME;
 import static org.mule.runtime.core.internal.util.journal.TransactionJournal.TX2_LOG_FILE_NAME;
 
@@ -25,7 +29,11 @@ import com.google.common.collect.Multimap;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -228,6 +236,73 @@ public class LocalTxQueueTransactionJournalTestCase extends AbstractMuleContextT
     }
   }
 
+  @Test
+  public void rollOverWhenAllFilesHavePendingTransactions() throws Exception {
+    LocalTxQueueTransactionJournal transactionJournal =
+        new LocalTxQueueTransactionJournal(temporaryFolder.getRoot().getAbsolutePath(), muleContext, 1);
+    // none of the transactions is resolved, so every file is kept once it exceeds the maximum
+    for (int i = 0; i < 14; i++) {
+      logAddWith100kbEntry(transactionJournal, i);
+    }
+    assertLogFileIsWithinBoundaries(getFirstLogFile());
+    assertLogFileIsWithinBoundaries(getSecondLogFile());
+    File logFile3 = new File(temporaryFolder.getRoot().getAbsolutePath(), "tx3.log");
+    assertThat(logFile3.length(), greaterThan(0l));
+    transactionJournal.close();
+
+    transactionJournal = new LocalTxQueueTransactionJournal(temporaryFolder.getRoot().getAbsolutePath(), muleContext, 1);
+    assertThat(transactionJournal.getAllLogEntries().keySet().size(), is(14));
+  }
+
+  @Test
+  public void groupCommit() throws Exception {
+    setProperty(GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY, "1");
+    ExecutorService executor = newFixedThreadPool(4);
+    try {
+      LocalTxQueueTransactionJournal transactionJournal =
+          new LocalTxQueueTransactionJournal(temporaryFolder.getRoot().getAbsolutePath(), muleContext);
+      List<Future<?>> writers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        final int writer = i;
+        writers.add(executor.submit(() -> {
+          for (int txId = writer * 100; txId < writer * 100 + 100; txId++) {
+            transactionJournal.logAdd(txId, mockQueueInfo, "data");
+            if (txId % 2 == 0) {
+              transactionJournal.logCommit(txId);
+            }
+          }
+        }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      transactionJournal.close();
+
+      LocalTxQueueTransactionJournal recoveredJournal =
+          new LocalTxQueueTransactionJournal(temporaryFolder.getRoot().getAbsolutePath(), muleContext);
+      Multimap<Integer, LocalQueueTxJournalEntry> allEntries = recoveredJournal.getAllLogEntries();
+      assertThat(allEntries.size(), is(200));
+      for (Integer txId : allEntries.keySet()) {
+        assertThat(txId % 2, is(1));
+      }
+      recoveredJournal.close();
+    } finally {
+      executor.shutdownNow();
+      clearProperty(GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY);
+    }
+  }
+
+  @Test
+  public void negativeGroupCommitLatency() throws Exception {
+    setProperty(GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY, "-1");
+    try {
+      expectedException.expect(IllegalArgumentException.class);
+      new LocalTxQueueTransactionJournal(temporaryFolder.getRoot().getAbsolutePath(), muleContext);
+    } finally {
+      clearProperty(GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY);
+    }
+  }
+
   private void assertLogFileIsWithinBoundaries(File file) {
     assertThat(file.length(), lessThan(MAXIMUM_FILE_SIZE_EXPECTED));
   }
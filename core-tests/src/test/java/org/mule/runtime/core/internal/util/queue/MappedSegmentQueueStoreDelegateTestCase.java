@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.queue;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.internal.util.queue.DualRandomAccessFileQueueStoreDelegate.MAX_LENGTH_PER_FILE_PROPERTY_KEY;
+import static org.mule.runtime.core.internal.util.queue.MappedSegmentQueueStoreDelegate.RELAXED_SYNC_PROPERTY_KEY;
+import static org.mule.tck.SerializationTestUtils.addJavaSerializerToMockMuleContext;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.tck.MuleTestUtils;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class MappedSegmentQueueStoreDelegateTestCase extends AbstractMuleTestCase {
+
+  private static final int MAXIMUM_NUMBER_OF_BYTES = 200;
+  private static final int NUMBER_OF_MESSAGES = 50;
+  public static final String TEST_QUEUE_NAME = "test-queue";
+
+  @Rule
+  public TemporaryFolder workingDirectory = new TemporaryFolder();
+
+  private MuleContext mockMuleContext;
+
+  @Before
+  public void before() {
+    mockMuleContext = mock(MuleContext.class);
+    when(mockMuleContext.getExecutionClassLoader()).thenReturn(getClass().getClassLoader());
+    addJavaSerializerToMockMuleContext(mockMuleContext);
+  }
+
+  @Test
+  public void nameWithInvalidCharacters() throws IOException {
+    String[] testNames = new String[] {"test-test", "test:/test", "test?test", "test:\\test", "test:/test", "test&test",
+        "test|test", "seda.queue(post:\\Customer:ApiTest-config.1)"};
+
+    for (String testName : testNames) {
+      MappedSegmentQueueStoreDelegate queue =
+          new MappedSegmentQueueStoreDelegate(testName, workingDirectory.getRoot().getAbsolutePath(), mockMuleContext, 1);
+      queue.putNow("item");
+      queue.dispose();
+    }
+  }
+
+  @Test
+  public void recoverMessagesInOrderAcrossSegments() throws Exception {
+    MuleTestUtils.testWithSystemProperty(MAX_LENGTH_PER_FILE_PROPERTY_KEY, String.valueOf(MAXIMUM_NUMBER_OF_BYTES), () -> {
+      MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+        queueStore.putNow(createTestDataForIndex(i));
+      }
+      for (int i = 0; i < NUMBER_OF_MESSAGES / 2; i++) {
+        assertThat((String) queueStore.poll(0), is(createTestDataForIndex(i)));
+      }
+      queueStore.close();
+
+      queueStore = createTestQueueStore();
+      assertThat(queueStore.getSize(), is(NUMBER_OF_MESSAGES / 2));
+      for (int i = NUMBER_OF_MESSAGES / 2; i < NUMBER_OF_MESSAGES; i++) {
+        assertThat((String) queueStore.poll(0), is(createTestDataForIndex(i)));
+      }
+      queueStore.close();
+    });
+  }
+
+  @Test
+  public void recoverUntakenMessageAtHead() throws Exception {
+    MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+    queueStore.putNow(createTestDataForIndex(1));
+    queueStore.putNow(createTestDataForIndex(2));
+    queueStore.untake(createTestDataForIndex(0));
+    queueStore.close();
+
+    queueStore = createTestQueueStore();
+    for (int i = 0; i < 3; i++) {
+      assertThat((String) queueStore.poll(0), is(createTestDataForIndex(i)));
+    }
+    assertThat(queueStore.poll(0), is(nullValue()));
+  }
+
+  @Test
+  public void removeAndContains() throws Exception {
+    MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+    for (int i = 0; i < 3; i++) {
+      queueStore.putNow(createTestDataForIndex(i));
+    }
+    queueStore.remove(createTestDataForIndex(1));
+    assertThat(queueStore.contains(createTestDataForIndex(1)), is(false));
+    assertThat(queueStore.contains(createTestDataForIndex(2)), is(true));
+    queueStore.close();
+
+    queueStore = createTestQueueStore();
+    List<Serializable> expected = new ArrayList<>();
+    expected.add(createTestDataForIndex(0));
+    expected.add(createTestDataForIndex(2));
+    assertThat(new ArrayList<>(queueStore.allElements()), is(expected));
+  }
+
+  @Test
+  public void consumedSegmentsDeleted() throws Exception {
+    MuleTestUtils.testWithSystemProperty(MAX_LENGTH_PER_FILE_PROPERTY_KEY, String.valueOf(MAXIMUM_NUMBER_OF_BYTES), () -> {
+      MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+        queueStore.putNow(createTestDataForIndex(i));
+      }
+      assertThat(countQueueFiles() > 2, is(true));
+
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+        queueStore.poll(0);
+      }
+      // the index and the current segment
+      assertThat(countQueueFiles(), is(2));
+      queueStore.dispose();
+    });
+  }
+
+  @Test
+  public void recoverWithCorruptedIndex() throws Exception {
+    MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+    queueStore.putNow(createTestDataForIndex(0));
+    queueStore.close();
+
+    try (FileOutputStream indexStream = new FileOutputStream(new File(getQueueFolder(), TEST_QUEUE_NAME + "-idx"))) {
+      indexStream.write(2000);
+    }
+
+    queueStore = createTestQueueStore();
+    assertThat((String) queueStore.poll(0), is(createTestDataForIndex(0)));
+  }
+
+  @Test
+  public void migrateDualFileQueueStore() throws Exception {
+    DualRandomAccessFileQueueStoreDelegate legacyStore =
+        new DualRandomAccessFileQueueStoreDelegate(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath(),
+                                                   mockMuleContext, 0);
+    for (int i = 0; i < 3; i++) {
+      legacyStore.putNow(createTestDataForIndex(i));
+    }
+    legacyStore.close();
+
+    MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+    for (int i = 0; i < 3; i++) {
+      assertThat((String) queueStore.poll(0), is(createTestDataForIndex(i)));
+    }
+    assertThat(DualRandomAccessFileQueueStoreDelegate.hasData(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath()),
+               is(false));
+  }
+
+  @Test
+  public void allFilesDeletedAfterDispose() {
+    MappedSegmentQueueStoreDelegate queueStore = createTestQueueStore();
+    queueStore.putNow("item");
+    assertThat(countQueueFiles() > 0, is(true));
+
+    queueStore.dispose();
+    assertThat(countQueueFiles(), is(0));
+  }
+
+  @Test
+  public void forcesWritesByDefault() throws Exception {
+    AtomicInteger forcedWrites = new AtomicInteger();
+    MappedSegmentQueueStoreDelegate queueStore = createForceCountingQueueStore(forcedWrites);
+    queueStore.putNow("item");
+    assertThat(forcedWrites.get() > 0, is(true));
+
+    forcedWrites.set(0);
+    queueStore.poll(0);
+    assertThat(forcedWrites.get() > 0, is(true));
+    queueStore.close();
+  }
+
+  @Test
+  public void relaxedSyncDoesNotForceWrites() throws Exception {
+    MuleTestUtils.testWithSystemProperty(RELAXED_SYNC_PROPERTY_KEY, "true", () -> {
+      AtomicInteger forcedWrites = new AtomicInteger();
+      MappedSegmentQueueStoreDelegate queueStore = createForceCountingQueueStore(forcedWrites);
+      queueStore.putNow("item");
+      queueStore.poll(0);
+      assertThat(forcedWrites.get(), is(0));
+      queueStore.close();
+    });
+  }
+
+  private File getQueueFolder() {
+    return new File(workingDirectory.getRoot().getAbsolutePath() + "/queuestore");
+  }
+
+  private int countQueueFiles() {
+    int count = 0;
+    for (File file : getQueueFolder().listFiles()) {
+      if (file.getName().contains(TEST_QUEUE_NAME)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private String createTestDataForIndex(int numberOfMesagesCreated) {
+    return "some value " + numberOfMesagesCreated;
+  }
+
+  private MappedSegmentQueueStoreDelegate createForceCountingQueueStore(AtomicInteger forcedWrites) {
+    return new MappedSegmentQueueStoreDelegate(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath(),
+                                               mockMuleContext, 0) {
+
+      @Override
+      void force(MappedByteBuffer buffer) {
+        forcedWrites.incrementAndGet();
+        super.force(buffer);
+      }
+    };
+  }
+
+  private MappedSegmentQueueStoreDelegate createTestQueueStore() {
+    return new MappedSegmentQueueStoreDelegate(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath(),
+                                               mockMuleContext, 0);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.rx;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.mule.runtime.core.api.util.concurrent.Latch;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class ParkingExecutorServiceDecoratorTestCase extends AbstractMuleTestCase {
+
+  private static final long TIMEOUT = 5000;
+
+  private ThreadPoolExecutor delegate;
+  private ParkingExecutorServiceDecorator executor;
+
+  @Before
+  public void before() {
+    // Single thread and no queue, so the delegate rejects tasks while busy.
+    delegate = new ThreadPoolExecutor(1, 1, 0, MILLISECONDS, new SynchronousQueue<>());
+    executor = new ParkingExecutorServiceDecorator(delegate, 2);
+  }
+
+  @After
+  public void after() {
+    delegate.shutdownNow();
+  }
+
+  @Test
+  public void parkedTaskResumedWhenInFlightTaskCompletes() throws Exception {
+    Latch release = new Latch();
+    CountDownLatch done = new CountDownLatch(2);
+    executor.execute(() -> {
+      await(release);
+      done.countDown();
+    });
+    executor.execute(() -> done.countDown());
+
+    assertThat(executor.getPendingCount(), is(1));
+    release.release();
+    assertThat(done.await(TIMEOUT, MILLISECONDS), is(true));
+    assertThat(executor.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void runsInCallingThreadWhenBusyWithForeignTasks() throws Exception {
+    Latch release = new Latch();
+    AtomicReference<Thread> runningThread = new AtomicReference<>();
+    try {
+      delegate.execute(() -> await(release));
+      executor.execute(() -> runningThread.set(currentThread()));
+
+      assertThat(runningThread.get(), sameInstance(currentThread()));
+      assertThat(executor.getPendingCount(), is(0));
+    } finally {
+      release.release();
+    }
+  }
+
+  @Test
+  public void runsInCallingThreadWhenPendingQueueFull() throws Exception {
+    Latch release = new Latch();
+    AtomicReference<Thread> runningThread = new AtomicReference<>();
+    try {
+      executor.execute(() -> await(release));
+      executor.execute(() -> {
+      });
+      executor.execute(() -> {
+      });
+      executor.execute(() -> runningThread.set(currentThread()));
+
+      assertThat(runningThread.get(), sameInstance(currentThread()));
+      assertThat(executor.getPendingCount(), is(2));
+    } finally {
+      release.release();
+    }
+  }
+
+  @Test
+  public void parkedTaskRunOnShutdown() throws Exception {
+    Latch release = new Latch();
+    Latch done = new Latch();
+    try {
+      executor.execute(() -> await(release));
+      executor.execute(() -> done.release());
+      assertThat(executor.getPendingCount(), is(1));
+
+      executor.shutdown();
+      assertThat(done.await(0, MILLISECONDS), is(true));
+      assertThat(executor.getPendingCount(), is(0));
+    } finally {
+      release.release();
+    }
+  }
+
+  @Test(expected = RejectedExecutionException.class)
+  public void rejectsAfterShutdown() throws Exception {
+    executor.shutdown();
+    executor.execute(() -> {
+    });
+  }
+
+  private void await(Latch latch) {
+    try {
+      latch.await(TIMEOUT, MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
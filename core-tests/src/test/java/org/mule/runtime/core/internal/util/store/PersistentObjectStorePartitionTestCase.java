@@ -7,8 +7,12 @@
 
 package org.mule.runtime.core.internal.util.store;
 
+import static java.util.Arrays.asList;
 import static junit.framework.Assert.assertFalse;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
@@ -18,10 +22,14 @@ import org.mule.runtime.api.store.ObjectDoesNotExistException;
 import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.config.MuleConfiguration;
+import org.mule.runtime.core.internal.util.store.PersistentObjectStorePartition.StoreValue;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -111,4 +119,94 @@ public class PersistentObjectStorePartitionTestCase extends AbstractMuleTestCase
     partition.clear();
     assertEquals(0, partition.allKeys().size());
   }
+
+  @Test
+  public void entriesSurviveReopening() throws Exception {
+    partition.store("key1", "value1");
+    partition.store("key2", "value2");
+    partition.store("key3", "value3");
+    partition.remove("key2");
+    partition.close();
+
+    PersistentObjectStorePartition reopened = reopen();
+    assertThat(reopened.allKeys(), is(asList("key1", "key3")));
+    assertEquals("value3", reopened.retrieve("key3"));
+  }
+
+  @Test
+  public void entriesSurviveReopeningWithoutClosing() throws Exception {
+    partition.store("key1", "value1");
+    partition.close();
+    partition.store("key2", "value2");
+    partition.remove("key1");
+
+    PersistentObjectStorePartition reopened = reopen();
+    assertThat(reopened.allKeys(), is(asList("key2")));
+    assertEquals("value2", reopened.retrieve("key2"));
+  }
+
+  @Test
+  public void incompleteRecordIsDiscarded() throws Exception {
+    partition.store("key1", "value1");
+    try (FileOutputStream log = new FileOutputStream(new File(objectStoreFolder.getRoot(), "partition-log"), true)) {
+      log.write(new byte[] {1, 0, 0, 0});
+    }
+
+    PersistentObjectStorePartition reopened = reopen();
+    assertThat(reopened.allKeys(), is(asList("key1")));
+    reopened.store("key2", "value2");
+    assertThat(reopen().allKeys(), is(asList("key1", "key2")));
+  }
+
+  @Test
+  public void expireOldestEntriesOverMaxEntries() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      partition.store("key" + i, "value" + i);
+    }
+    partition.expire(0, 3);
+    assertThat(partition.allKeys(), is(asList("key7", "key8", "key9")));
+    assertThat(reopen().allKeys(), is(asList("key7", "key8", "key9")));
+  }
+
+  @Test
+  public void expireEntriesOverTtl() throws Exception {
+    partition.store("key", "value");
+    Thread.sleep(10);
+    partition.expire(1, 0);
+    assertThat(partition.allKeys().size(), is(0));
+  }
+
+  @Test
+  public void compactRemovedEntries() throws Exception {
+    File log = new File(objectStoreFolder.getRoot(), "partition-log");
+    byte[] value = new byte[1024];
+    for (int i = 0; i < 3000; i++) {
+      partition.store("key" + i, value);
+    }
+    long fullLength = log.length();
+    partition.expire(0, 10);
+
+    assertThat(log.length(), lessThan(fullLength / 100));
+    assertThat(partition.allKeys().size(), is(10));
+    assertThat(reopen().allKeys().size(), is(10));
+  }
+
+  @Test
+  public void migrateEntriesFromObjectFiles() throws Exception {
+    File objectFile = new File(objectStoreFolder.getRoot(), "entry.obj");
+    try (ObjectOutputStream objectOutputStream =
+        new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(objectFile)))) {
+      muleContext.getObjectSerializer().getInternalProtocol().serialize(new StoreValue<>("key", "value"), objectOutputStream);
+    }
+
+    assertThat(partition.allKeys(), is(asList("key")));
+    assertEquals("value", partition.retrieve("key"));
+    assertFalse(objectFile.exists());
+  }
+
+  private PersistentObjectStorePartition reopen() throws ObjectStoreException {
+    PersistentObjectStorePartition reopened = new PersistentObjectStorePartition(muleContext, objectStoreFolder.getRoot());
+    reopened.open();
+    return reopened;
+  }
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.timer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.tck.util.MuleContextUtils.mockContextWithServices;
+
+import org.mule.runtime.core.internal.util.timer.TimingWheel.Timeout;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+@SmallTest
+public class TimingWheelTestCase extends AbstractMuleTestCase {
+
+  private static final int WHEEL_SIZE = 8;
+
+  private TimingWheel timingWheel;
+
+  private volatile long currentNanoTime = MILLISECONDS.toNanos(1);
+
+  @Before
+  public void setup() {
+    timingWheel = new TimingWheel(1, MILLISECONDS, WHEEL_SIZE) {
+
+      @Override
+      protected long getCurrentNanoTime() {
+        return currentNanoTime;
+      }
+    };
+    timingWheel.setMuleContext(mockContextWithServices());
+  }
+
+  @After
+  public void dispose() {
+    timingWheel.dispose();
+  }
+
+  @Test
+  public void expiresOnceDelayElapsed() {
+    AtomicInteger runs = new AtomicInteger();
+    Timeout timeout = timingWheel.schedule(runs::incrementAndGet, 5, MILLISECONDS);
+
+    advanceMillis(4);
+    assertThat(runs.get(), is(0));
+
+    advanceMillis(1);
+    assertThat(runs.get(), is(1));
+    assertThat(timeout.isExpired(), is(true));
+
+    advanceMillis(WHEEL_SIZE * 2);
+    assertThat(runs.get(), is(1));
+  }
+
+  @Test
+  public void expiresAfterSeveralRotations() {
+    AtomicInteger runs = new AtomicInteger();
+    timingWheel.schedule(runs::incrementAndGet, WHEEL_SIZE * 3 + 2, MILLISECONDS);
+
+    advanceMillis(WHEEL_SIZE * 3 + 1);
+    assertThat(runs.get(), is(0));
+    assertThat(timingWheel.size(), is(1));
+
+    advanceMillis(1);
+    assertThat(runs.get(), is(1));
+    assertThat(timingWheel.size(), is(0));
+  }
+
+  @Test
+  public void cancelledTimeoutIsNotRun() {
+    AtomicInteger runs = new AtomicInteger();
+    Timeout timeout = timingWheel.schedule(runs::incrementAndGet, 5, MILLISECONDS);
+    advanceMillis(1);
+
+    assertThat(timeout.cancel(), is(true));
+    assertThat(timeout.cancel(), is(false));
+
+    advanceMillis(10);
+    assertThat(runs.get(), is(0));
+    assertThat(timeout.isCancelled(), is(true));
+    assertThat(timingWheel.size(), is(0));
+  }
+
+  @Test
+  public void expiredTimeoutCannotBeCancelled() {
+    Timeout timeout = timingWheel.schedule(() -> {
+    }, 1, MILLISECONDS);
+    advanceMillis(1);
+
+    assertThat(timeout.cancel(), is(false));
+    assertThat(timeout.isExpired(), is(true));
+  }
+
+  @Test
+  public void exceptionInTaskDoesNotPreventOtherExpirations() {
+    AtomicInteger runs = new AtomicInteger();
+    timingWheel.schedule(() -> {
+      throw new IllegalStateException();
+    }, 2, MILLISECONDS);
+    timingWheel.schedule(runs::incrementAndGet, 2, MILLISECONDS);
+
+    advanceMillis(2);
+    assertThat(runs.get(), is(1));
+  }
+
+  @Test
+  public void manyTimeoutsExpireInOrderOfTheirDeadlines() {
+    int count = 1000;
+    AtomicInteger lastExpired = new AtomicInteger(-1);
+    AtomicInteger outOfOrder = new AtomicInteger();
+    for (int i = 0; i < count; ++i) {
+      final int delay = i;
+      timingWheel.schedule(() -> {
+        if (lastExpired.getAndSet(delay) > delay) {
+          outOfOrder.incrementAndGet();
+        }
+      }, delay, MILLISECONDS);
+    }
+
+    for (int i = 0; i < count; ++i) {
+      advanceMillis(1);
+    }
+    assertThat(lastExpired.get(), is(count - 1));
+    assertThat(outOfOrder.get(), is(0));
+    assertThat(timingWheel.size(), is(0));
+  }
+
+  private void advanceMillis(long millis) {
+    currentNanoTime += MILLISECONDS.toNanos(millis);
+    timingWheel.advance();
+  }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.context.notification;
+
+/**
+ * What the {@link ServerNotificationManager} does with asynchronous notifications for a listener that doesn't keep up with
+ * them, once the buffer of pending notifications of that listener starts filling up.
+ *
+ * @since 4.0
+ */
+public enum NotificationOverflowPolicy {
+
+  /**
+   * Buffer every notification while there is room, and drop the ones that don't fit.
+   */
+  DROP,
+
+  /**
+   * Once the buffer is half full, buffer only one of every {@link ServerNotificationManager#setOverflowSampleRate(int) sample
+   * rate} notifications and drop the rest, so the listener still gets a sample of what happens while it catches up. The ones
+   * that don't fit are dropped.
+   */
+  SAMPLE
+}
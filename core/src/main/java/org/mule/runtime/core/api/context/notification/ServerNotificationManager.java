@@ -8,6 +8,7 @@ package org.mule.runtime.core.api.context.notification;
 
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
+import static org.mule.runtime.core.api.context.notification.NotificationOverflowPolicy.DROP;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import org.mule.runtime.api.lifecycle.InitialisationException;
@@ -16,14 +17,16 @@ import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.context.MuleContextAware;
 import org.mule.runtime.core.api.util.ClassUtils;
 import org.mule.runtime.core.internal.context.notification.Configuration;
+import org.mule.runtime.core.internal.context.notification.ListenerNotificationQueue;
 import org.mule.runtime.core.internal.context.notification.Policy;
 import org.mule.runtime.core.privileged.context.notification.OptimisedNotificationHandler;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 
 import org.slf4j.Logger;
@@ -53,18 +56,34 @@ import org.slf4j.Logger;
  * <li>Disabling an event or interface disables all uses of that class or any subclass.</li>
  * <li>Enquiring whether an event is enabled returns true if any subclass is enabled.</li>
  * </ul>
+ *
+ * <p>
+ * Asynchronous notifications are buffered per listener in a bounded {@link ListenerNotificationQueue} and delivered to it in
+ * batches, so firing them doesn't take a lock nor submit a task for every listener and notification. What happens when a
+ * listener doesn't keep up is set by the {@link NotificationOverflowPolicy}. By default, once {@link #DEFAULT_ASYNC_BUFFER_SIZE}
+ * notifications are pending for a listener the following ones are dropped, logging a warning with the number dropped so far.
+ * Asynchronous notifications fired before {@link #initialise()} or after {@link #dispose()} are dropped as well.
  */
 public class ServerNotificationManager implements ServerNotificationHandler, MuleContextAware {
 
   private static final Logger logger = getLogger(ServerNotificationManager.class);
 
+  public static final int DEFAULT_ASYNC_BUFFER_SIZE = 4096;
+  public static final int DEFAULT_ASYNC_BATCH_SIZE = 256;
+  public static final int DEFAULT_OVERFLOW_SAMPLE_RATE = 10;
+
   private boolean dynamic = false;
-  private Configuration configuration = new Configuration();
-  private ReentrantReadWriteLock disposeLock = new ReentrantReadWriteLock();
+  private volatile Configuration configuration = new Configuration();
   private AtomicBoolean disposed = new AtomicBoolean(false);
   private MuleContext muleContext;
-  private Scheduler notificationsLiteScheduler;
-  private Scheduler notificationsIoScheduler;
+  private volatile Scheduler notificationsLiteScheduler;
+  private volatile Scheduler notificationsIoScheduler;
+
+  private final ConcurrentMap<NotificationListener, ListenerNotificationQueue> asyncQueues = new ConcurrentHashMap<>();
+  private int asyncBufferSize = DEFAULT_ASYNC_BUFFER_SIZE;
+  private int asyncBatchSize = DEFAULT_ASYNC_BATCH_SIZE;
+  private NotificationOverflowPolicy overflowPolicy = DROP;
+  private int overflowSampleRate = DEFAULT_OVERFLOW_SAMPLE_RATE;
 
   @Override
   public boolean isNotificationDynamic() {
@@ -80,6 +99,34 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
     this.dynamic = dynamic;
   }
 
+  /**
+   * @param asyncBufferSize the maximum number of asynchronous notifications buffered for each listener
+   */
+  public void setAsyncBufferSize(int asyncBufferSize) {
+    this.asyncBufferSize = asyncBufferSize;
+  }
+
+  /**
+   * @param asyncBatchSize the maximum number of asynchronous notifications delivered to a listener by each task
+   */
+  public void setAsyncBatchSize(int asyncBatchSize) {
+    this.asyncBatchSize = asyncBatchSize;
+  }
+
+  /**
+   * @param overflowPolicy what to do with the asynchronous notifications of a listener whose buffer fills up
+   */
+  public void setOverflowPolicy(NotificationOverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /**
+   * @param overflowSampleRate one of how many notifications are kept when {@link NotificationOverflowPolicy#SAMPLE sampling}
+   */
+  public void setOverflowSampleRate(int overflowSampleRate) {
+    this.overflowSampleRate = overflowSampleRate;
+  }
+
   /**
    * Do not make this object {@link org.mule.runtime.api.lifecycle.Initialisable}. It needs to be initialised before every other
    * object to send notifications.
@@ -117,6 +164,7 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
    */
   public void removeListener(NotificationListener<?> listener) {
     configuration.removeListener(listener);
+    asyncQueues.remove(listener);
   }
 
   public void disableInterface(Class<? extends NotificationListener> iface) {
@@ -144,34 +192,49 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
 
   @Override
   public void fireNotification(Notification notification) {
-    disposeLock.readLock().lock();
-    try {
-      if (disposed.get()) {
-        logger.warn("Notification not enqueued after ServerNotificationManager disposal: " + notification);
+    if (disposed.get()) {
+      logger.warn("Notification not enqueued after ServerNotificationManager disposal: " + notification);
+      return;
+    }
+
+    if (notification instanceof AbstractServerNotification) {
+      ((AbstractServerNotification) notification).setServerId(muleContext.getId());
+    }
+    if (notification.isSynchronous()) {
+      notifyListeners(notification, (listener, nfn) -> listener.onNotification(nfn));
+    } else {
+      notifyListeners(notification, this::enqueueNotification);
+    }
+  }
+
+  private void enqueueNotification(NotificationListener listener, Notification notification) {
+    ListenerNotificationQueue queue = asyncQueues.get(listener);
+    if (queue == null) {
+      // Not cached when the scheduler is missing, so that the queue gets the scheduler once it is available
+      queue = asyncQueues.computeIfAbsent(listener, this::createAsyncQueue);
+      if (queue == null) {
+        logger.debug("Notification " + notification + " for listener " + listener + " dropped, no scheduler available");
         return;
       }
+    }
+    queue.offer(notification);
+  }
 
-      if (notification instanceof AbstractServerNotification) {
-        ((AbstractServerNotification) notification).setServerId(muleContext.getId());
-      }
-      if (notification.isSynchronous()) {
-        notifyListeners(notification, (listener, nfn) -> listener.onNotification(nfn));
-      } else {
-        notifyListeners(notification, (listener, nfn) -> {
-          if (listener.isBlocking()) {
-            notificationsIoScheduler.submit(() -> listener.onNotification(nfn));
-          } else {
-            notificationsLiteScheduler.submit(() -> listener.onNotification(nfn));
-          }
-        });
-      }
-    } finally {
-      disposeLock.readLock().unlock();
+  private ListenerNotificationQueue createAsyncQueue(NotificationListener listener) {
+    Scheduler scheduler = listener.isBlocking() ? notificationsIoScheduler : notificationsLiteScheduler;
+    if (scheduler == null) {
+      return null;
     }
+    return new ListenerNotificationQueue(listener, scheduler, asyncBufferSize, asyncBatchSize, overflowPolicy,
+                                         overflowSampleRate);
   }
 
   protected void notifyListeners(Notification notification, NotifierCallback notifier) {
-    configuration.getPolicy().dispatch(notification, notifier);
+    Configuration currentConfiguration = configuration;
+    // the configuration is discarded on disposal
+    if (currentConfiguration != null) {
+      currentConfiguration.getPolicy().dispatch(notification, notifier);
+    }
   }
 
   @Override
@@ -190,23 +253,20 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
    * Do not make this object {@link org.mule.runtime.api.lifecycle.Disposable}. It needs to be alive after everything else has
    * died
    */
-  public void dispose() {
-    disposeLock.writeLock().lock();
-    try {
-      if (notificationsLiteScheduler != null) {
-        notificationsLiteScheduler.stop();
-        notificationsLiteScheduler = null;
-      }
-      if (notificationsIoScheduler != null) {
-        notificationsIoScheduler.stop();
-        notificationsIoScheduler = null;
-      }
-
-      disposed.set(true);
-      configuration = null;
-    } finally {
-      disposeLock.writeLock().unlock();
+  public synchronized void dispose() {
+    // Notifications fired after this are rejected, and the ones still buffered are discarded along with the queues
+    disposed.set(true);
+    if (notificationsLiteScheduler != null) {
+      notificationsLiteScheduler.stop();
+      notificationsLiteScheduler = null;
     }
+    if (notificationsIoScheduler != null) {
+      notificationsIoScheduler.stop();
+      notificationsIoScheduler = null;
+    }
+
+    asyncQueues.clear();
+    configuration = null;
   }
 
   /**
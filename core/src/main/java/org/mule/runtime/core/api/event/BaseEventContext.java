@@ -14,10 +14,12 @@ import org.mule.runtime.core.api.context.notification.ProcessorsTrace;
 import org.mule.runtime.core.api.exception.MessagingExceptionHandler;
 import org.mule.runtime.core.api.management.stats.ProcessingTime;
 import org.mule.runtime.core.internal.event.DefaultEventContext;
+import org.mule.runtime.core.internal.streaming.EventStreamingState;
 
 import org.reactivestreams.Publisher;
 
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import reactor.core.publisher.Mono;
 
@@ -124,6 +126,18 @@ public interface BaseEventContext extends EventContext {
    */
   Publisher<Void> getCompletionPublisher();
 
+  /**
+   * Returns the state used by the runtime to keep track of the streaming resources opened during the processing of this
+   * context. The state is created through the given {@code factory} the first time it is requested, and disposed once this
+   * context completes. Resources tracked after that are disposed right away.
+   * <p>
+   * This method is for internal use of the runtime only.
+   *
+   * @param factory creates the state if this context doesn't have one yet
+   * @return the {@link EventStreamingState} of this context
+   */
+  EventStreamingState getStreamingState(Supplier<EventStreamingState> factory);
+
   /**
    * Builds a new execution context with the given parameters.
    *
@@ -19,20 +19,24 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.function.LongSupplier;
+
+/**
+ * An in memory {@link PartitionableExpirableObjectStore}.
+ * <p>
+ * Each partition keeps its entries in a {@link ConcurrentMap}, so that they can be read without locking, and links them in the
+ * order in which they were stored. Stores, removals and expirations only need to lock the partition while linking or unlinking
+ * the affected entries, so all of them take constant time per entry, no matter how many entries the partition has.
+ */
 public class PartitionedInMemoryObjectStore<T extends Serializable> extends AbstractPartitionableObjectStore<T>
     implements PartitionableExpirableObjectStore<T>, InternalComponent {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedInMemoryObjectStore.class);
 
-  private ConcurrentMap<String, ConcurrentMap<String, T>> partitions = new ConcurrentHashMap<>();
-  private ConcurrentMap<String, ConcurrentLinkedQueue<ExpiryEntry>> expiryInfoPartition = new ConcurrentHashMap<>();
+  private ConcurrentMap<String, Partition<T>> partitions = new ConcurrentHashMap<>();
 
   @Override
   public boolean isPersistent() {
@@ -41,8 +45,9 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
 
   @Override
   protected boolean doContains(String key, String partitionName) throws ObjectStoreException {
-    if (partitions.containsKey(partitionName)) {
-      return partitions.get(partitionName).containsKey(key);
+    Partition<T> partition = partitions.get(partitionName);
+    if (partition != null) {
+      return partition.entries.containsKey(key);
     } else {
       return false;
     }
@@ -50,44 +55,38 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
 
   @Override
   protected void doStore(String key, T value, String partitionName) throws ObjectStoreException {
-    T oldValue = getPartition(partitionName).putIfAbsent(key, value);
-    if (oldValue != null) {
+    Partition<T> partition = getPartition(partitionName);
+    ExpiryEntry<T> entry = new ExpiryEntry<>(key, value);
+    if (partition.entries.putIfAbsent(key, entry) != null) {
       throw new ObjectAlreadyExistsException();
     }
-    getExpiryInfoPartition(partitionName).add(new ExpiryEntry(getCurrentNanoTime(), key));
+    partition.link(entry, this::getCurrentNanoTime);
   }
 
   @Override
   protected T doRetrieve(String key, String partitionName) throws ObjectStoreException {
-    T value = getPartition(partitionName).get(key);
-    if (value == null) {
+    ExpiryEntry<T> entry = getPartition(partitionName).entries.get(key);
+    if (entry == null) {
       throw new ObjectDoesNotExistException();
     }
-    return value;
+    return entry.getValue();
   }
 
   @Override
   protected T doRemove(String key, String partitionName) throws ObjectStoreException {
-    T removedValue = getPartition(partitionName).remove(key);
-    if (removedValue == null) {
+    Partition<T> partition = getPartition(partitionName);
+    ExpiryEntry<T> removedEntry = partition.entries.remove(key);
+    if (removedEntry == null) {
       throw new ObjectDoesNotExistException();
     }
+    partition.unlink(removedEntry);
 
-    Iterator<ExpiryEntry> iterator = getExpiryInfoPartition(partitionName).iterator();
-    while (iterator.hasNext()) {
-      ExpiryEntry entry = iterator.next();
-      if (key.equals(entry.getKey())) {
-        iterator.remove();
-        break;
-      }
-    }
-
-    return removedValue;
+    return removedEntry.getValue();
   }
 
   @Override
   public List<String> allKeys(String partitionName) throws ObjectStoreException {
-    return new ArrayList<>(getPartition(partitionName).keySet());
+    return new ArrayList<>(getPartition(partitionName).entries.keySet());
   }
 
   @Override
@@ -100,26 +99,10 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     return new ArrayList<>(partitions.keySet());
   }
 
-  private ConcurrentMap<String, T> getPartition(String partitionName) {
-    ConcurrentMap<String, T> partition = partitions.get(partitionName);
+  private Partition<T> getPartition(String partitionName) {
+    Partition<T> partition = partitions.get(partitionName);
     if (partition == null) {
-      partition = new ConcurrentHashMap<>();
-      ConcurrentMap<String, T> previous = partitions.putIfAbsent(partitionName, partition);
-      if (previous != null) {
-        partition = previous;
-      }
-    }
-    return partition;
-  }
-
-  private ConcurrentLinkedQueue<ExpiryEntry> getExpiryInfoPartition(String partitionName) {
-    ConcurrentLinkedQueue<ExpiryEntry> partition = expiryInfoPartition.get(partitionName);
-    if (partition == null) {
-      partition = new ConcurrentLinkedQueue<>();
-      ConcurrentLinkedQueue<ExpiryEntry> previous = expiryInfoPartition.putIfAbsent(partitionName, partition);
-      if (previous != null) {
-        partition = previous;
-      }
+      partition = partitions.computeIfAbsent(partitionName, name -> new Partition<>());
     }
     return partition;
   }
@@ -142,24 +125,24 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
   @Override
   public void expire(long entryTTL, int maxEntries, String partitionName) throws ObjectStoreException {
     final long now = getCurrentNanoTime();
+    Partition<T> partition = getPartition(partitionName);
     int expiredEntries = 0;
-    ExpiryEntry oldestEntry;
-    ConcurrentLinkedQueue<ExpiryEntry> store = getExpiryInfoPartition(partitionName);
-    ConcurrentMap<String, T> partition = getPartition(partitionName);
 
-    trimToMaxSize(store, maxEntries, partition);
+    synchronized (partition) {
+      trimToMaxSize(partition, maxEntries);
 
-    if (entryTTL == UNBOUNDED) {
-      return;
-    }
+      if (entryTTL == UNBOUNDED) {
+        return;
+      }
 
-    while ((oldestEntry = store.peek()) != null) {
-      if (NANOSECONDS.toMillis(now - oldestEntry.getTime()) >= entryTTL) {
-        oldestEntry = store.remove();
-        partition.remove(oldestEntry.getKey());
-        expiredEntries++;
-      } else {
-        break;
+      ExpiryEntry<T> oldestEntry;
+      while ((oldestEntry = partition.head) != null) {
+        if (NANOSECONDS.toMillis(now - oldestEntry.getTime()) >= entryTTL) {
+          partition.expireHead();
+          expiredEntries++;
+        } else {
+          break;
+        }
       }
     }
 
@@ -168,18 +151,15 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     }
   }
 
-  private void trimToMaxSize(ConcurrentLinkedQueue<ExpiryEntry> store, int maxEntries, ConcurrentMap<String, T> partition) {
+  private void trimToMaxSize(Partition<T> partition, int maxEntries) {
     if (maxEntries == UNBOUNDED) {
       return;
     }
 
-    int currentSize = store.size();
-    int excess = (currentSize - maxEntries);
+    int excess = (partition.size - maxEntries);
     if (excess > 0) {
-      while (currentSize > maxEntries) {
-        ExpiryEntry toRemove = store.remove();
-        partition.remove(toRemove.getKey());
-        currentSize--;
+      while (partition.size > maxEntries) {
+        partition.expireHead();
       }
 
       if (LOGGER.isDebugEnabled()) {
@@ -190,37 +170,114 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
 
   @Override
   public void disposePartition(String partitionName) throws ObjectStoreException {
-    Map partition = partitions.remove(partitionName);
+    Partition<T> partition = partitions.remove(partitionName);
     if (partition != null) {
       partition.clear();
     }
-
-    ConcurrentLinkedQueue<ExpiryEntry> entries = expiryInfoPartition.remove(partitionName);
-    if (entries != null) {
-      entries.clear();
-    }
   }
 
   protected long getCurrentNanoTime() {
     return System.nanoTime();
   }
 
-  private static class ExpiryEntry {
+  /**
+   * The entries of a partition, linked in the order in which they were stored. The links, and the {@code linked} and
+   * {@code removed} flags of each entry, are guarded by the partition's monitor.
+   */
+  private static class Partition<T> {
+
+    private final ConcurrentMap<String, ExpiryEntry<T>> entries = new ConcurrentHashMap<>();
+
+    private ExpiryEntry<T> head;
+    private ExpiryEntry<T> tail;
+    private int size;
+
+    /**
+     * Links an entry which was just added to {@link #entries}, unless it was removed in the meantime. The time of the entry is
+     * taken while holding the lock, so that the entries are linked in time order.
+     */
+    private synchronized void link(ExpiryEntry<T> entry, LongSupplier timeSupplier) {
+      if (entry.removed) {
+        return;
+      }
+      entry.time = timeSupplier.getAsLong();
+      entry.previous = tail;
+      if (tail == null) {
+        head = entry;
+      } else {
+        tail.next = entry;
+      }
+      tail = entry;
+      entry.linked = true;
+      size++;
+    }
+
+    /**
+     * Unlinks an entry which was just removed from {@link #entries}.
+     */
+    private synchronized void unlink(ExpiryEntry<T> entry) {
+      entry.removed = true;
+      if (!entry.linked) {
+        return;
+      }
+      if (entry.previous == null) {
+        head = entry.next;
+      } else {
+        entry.previous.next = entry.next;
+      }
+      if (entry.next == null) {
+        tail = entry.previous;
+      } else {
+        entry.next.previous = entry.previous;
+      }
+      entry.previous = null;
+      entry.next = null;
+      entry.linked = false;
+      size--;
+    }
 
-    private final long time;
-    private final Serializable key;
+    private synchronized void expireHead() {
+      ExpiryEntry<T> oldestEntry = head;
+      entries.remove(oldestEntry.getKey(), oldestEntry);
+      unlink(oldestEntry);
+    }
+
+    private synchronized void clear() {
+      // entries which are still being stored must not be linked after the partition is cleared
+      entries.values().forEach(entry -> entry.removed = true);
+      entries.clear();
+      head = null;
+      tail = null;
+      size = 0;
+    }
+  }
 
-    public ExpiryEntry(long time, Serializable key) {
-      this.time = time;
+  private static class ExpiryEntry<T> {
+
+    private final String key;
+    private final T value;
+    private long time;
+
+    private ExpiryEntry<T> previous;
+    private ExpiryEntry<T> next;
+    private boolean linked;
+    private boolean removed;
+
+    public ExpiryEntry(String key, T value) {
       this.key = key;
+      this.value = value;
     }
 
     public long getTime() {
       return time;
     }
 
-    public Serializable getKey() {
+    public String getKey() {
       return key;
     }
+
+    public T getValue() {
+      return value;
+    }
   }
 }
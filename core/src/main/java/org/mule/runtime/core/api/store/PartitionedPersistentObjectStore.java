@@ -10,6 +10,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.i18n.I18nMessage;
+import org.mule.runtime.api.lifecycle.Disposable;
 import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.component.InternalComponent;
@@ -30,7 +31,7 @@ import java.util.List;
 import java.util.Map;
 
 public class PartitionedPersistentObjectStore<T extends Serializable> extends AbstractPartitionableObjectStore<T>
-    implements PartitionableExpirableObjectStore<T>, InternalComponent, MuleContextAware {
+    implements PartitionableExpirableObjectStore<T>, InternalComponent, MuleContextAware, Disposable {
 
   private static final Logger LOGGER = getLogger(PartitionedPersistentObjectStore.class);
   public static final String OBJECT_STORE_DIR = "objectstore";
@@ -74,7 +75,23 @@ public class PartitionedPersistentObjectStore<T extends Serializable> extends Ab
   }
 
   @Override
-  public void close(String partitionName) throws ObjectStoreException {}
+  public void close(String partitionName) throws ObjectStoreException {
+    PersistentObjectStorePartition partition = partitionsByName.get(partitionName);
+    if (partition != null) {
+      partition.close();
+    }
+  }
+
+  @Override
+  public synchronized void dispose() {
+    for (PersistentObjectStorePartition partition : partitionsByName.values()) {
+      try {
+        partition.close();
+      } catch (ObjectStoreException e) {
+        LOGGER.warn("Could not close object store partition " + partition.getPartitionName(), e);
+      }
+    }
+  }
 
   private void createPartition(String partitionName) throws ObjectStoreException {
     PersistentObjectStorePartition persistentObjectStorePartition =
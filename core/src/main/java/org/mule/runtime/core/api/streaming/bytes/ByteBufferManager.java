@@ -25,11 +25,15 @@ public interface ByteBufferManager {
   /**
    * Returns a {@link ByteBuffer} of the given {@code capacity}.
    * <p>
+   * Implementations may return a buffer with a bigger {@link ByteBuffer#capacity()}, in which case its
+   * {@link ByteBuffer#limit()} is set to the given {@code capacity}. Invokers should rely on the limit of the
+   * returned buffer rather than on its capacity. The returned buffer may not be backed by an array.
+   * <p>
    * Invokers <b>MUST</b> call the {@link #deallocate(ByteBuffer)} method with the returned
    * buffer once it's no longer needed.
    *
    * @param capacity the capacity of the returned buffer
-   * @return a {@link ByteBuffer} of the given {@code capacity}
+   * @return a {@link ByteBuffer} with a limit of the given {@code capacity}
    * @throws MaxStreamingMemoryExceededException if no more streaming memory is available
    */
   ByteBuffer allocate(int capacity);
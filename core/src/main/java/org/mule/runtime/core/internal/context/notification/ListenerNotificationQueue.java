@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.context.notification;
+
+import static org.mule.runtime.core.api.context.notification.NotificationOverflowPolicy.SAMPLE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.context.notification.Notification;
+import org.mule.runtime.core.api.context.notification.NotificationListener;
+import org.mule.runtime.core.api.context.notification.NotificationOverflowPolicy;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+
+/**
+ * Delivers the asynchronous notifications of a single {@link NotificationListener}.
+ * <p>
+ * Notifications are buffered in a bounded ring buffer which any number of threads can add to without locking. A single drain
+ * task delivers them to the listener in order, in batches, so firing a notification costs a scheduler submission only when the
+ * listener has caught up with the previous ones. When the buffer fills up, notifications are dropped according to a
+ * {@link NotificationOverflowPolicy}, logging a warning upon the first drop and then for every buffer full of dropped
+ * notifications. If the scheduler rejects the drain task, the pending notifications are delivered on the calling thread.
+ *
+ * @since 4.0
+ */
+public final class ListenerNotificationQueue implements Runnable {
+
+  private static final Logger LOGGER = getLogger(ListenerNotificationQueue.class);
+
+  private final NotificationListener listener;
+  private final Scheduler scheduler;
+  private final NotificationOverflowPolicy overflowPolicy;
+  private final int sampleRate;
+  private final int batchSize;
+
+  private final Notification[] buffer;
+  // The position each slot is ready for: its index when free for the producers, the position plus one when it holds a value
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  // Only written by the drain task
+  private volatile long head;
+
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private final AtomicLong sampleCounter = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * @param listener       the listener to deliver the notifications to
+   * @param scheduler      the scheduler where the notifications are delivered
+   * @param capacity       the maximum number of pending notifications. It is rounded up to a power of two
+   * @param batchSize      the maximum number of notifications delivered by each drain task
+   * @param overflowPolicy what to do when the buffer fills up
+   * @param sampleRate     one of how many notifications are kept when sampling
+   */
+  public ListenerNotificationQueue(NotificationListener listener, Scheduler scheduler, int capacity, int batchSize,
+                                   NotificationOverflowPolicy overflowPolicy, int sampleRate) {
+    this.listener = listener;
+    this.scheduler = scheduler;
+    this.batchSize = batchSize;
+    this.overflowPolicy = overflowPolicy;
+    this.sampleRate = sampleRate;
+
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    buffer = new Notification[size];
+    sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; ++i) {
+      sequences.set(i, i);
+    }
+    mask = size - 1;
+  }
+
+  /**
+   * Buffers {@code notification} to be delivered to the listener, unless it has to be dropped.
+   *
+   * @return whether the notification was buffered
+   */
+  public boolean offer(Notification notification) {
+    if (overflowPolicy == SAMPLE && size() > buffer.length / 2 && sampleCounter.incrementAndGet() % sampleRate != 0) {
+      notificationDropped(notification);
+      return false;
+    }
+
+    long position = tail.get();
+    while (true) {
+      int index = (int) (position & mask);
+      long available = sequences.get(index) - position;
+      if (available == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          buffer[index] = notification;
+          sequences.set(index, position + 1);
+          break;
+        }
+        position = tail.get();
+      } else if (available < 0) {
+        notificationDropped(notification);
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+
+    schedule();
+    return true;
+  }
+
+  private Notification poll() {
+    long position = head;
+    int index = (int) (position & mask);
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+
+    Notification notification = buffer[index];
+    buffer[index] = null;
+    sequences.set(index, position + buffer.length);
+    head = position + 1;
+    return notification;
+  }
+
+  private boolean hasPending() {
+    long position = head;
+    return sequences.get((int) (position & mask)) == position + 1;
+  }
+
+  private void schedule() {
+    while (scheduled.compareAndSet(false, true)) {
+      if (scheduler.isShutdown()) {
+        // The scheduler may be stopped only while the notification manager is being disposed
+        scheduled.set(false);
+        LOGGER.debug("Could not schedule delivery of notifications to " + listener + ", the scheduler is stopped");
+        return;
+      }
+      try {
+        scheduler.submit(this);
+        return;
+      } catch (RejectedExecutionException e) {
+        // Nothing else may be fired for this listener, so the pending notifications can't wait for the next drain task
+        LOGGER.debug("Could not schedule delivery of notifications to " + listener + ", delivering them on the calling thread",
+                     e);
+        deliverBatch();
+        scheduled.set(false);
+        if (!hasPending()) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Delivers a batch of the pending notifications and schedules itself again if there are more.
+   */
+  @Override
+  public void run() {
+    try {
+      deliverBatch();
+    } finally {
+      scheduled.set(false);
+      // A notification buffered while the flag was still set wasn't able to schedule the delivery itself
+      if (hasPending()) {
+        schedule();
+      }
+    }
+  }
+
+  private void deliverBatch() {
+    Notification notification;
+    for (int i = 0; i < batchSize && (notification = poll()) != null; ++i) {
+      try {
+        listener.onNotification(notification);
+      } catch (Exception e) {
+        LOGGER.warn("Listener " + listener + " failed to process notification " + notification, e);
+      }
+    }
+  }
+
+  private void notificationDropped(Notification notification) {
+    long droppedCount = dropped.incrementAndGet();
+    if (droppedCount == 1 || droppedCount % buffer.length == 0) {
+      LOGGER.warn(droppedCount + " notifications for listener " + listener
+          + " have been dropped because it is not keeping up with them");
+    } else if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Dropped notification " + notification + " for listener " + listener);
+    }
+  }
+
+  /**
+   * @return the number of notifications pending delivery
+   */
+  public int size() {
+    return (int) Math.max(0, tail.get() - head);
+  }
+
+  /**
+   * @return the number of notifications dropped because the listener didn't keep up with them
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+}
@@ -6,30 +6,35 @@
  */
 package org.mule.runtime.core.internal.event;
 
-import static java.util.stream.Collectors.toList;
-import static org.mule.runtime.core.internal.util.rx.Operators.requestUnbounded;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
 import static reactor.core.publisher.Mono.empty;
 import static reactor.core.publisher.Mono.from;
 import static reactor.core.publisher.Mono.just;
-import static reactor.core.publisher.Mono.when;
 
 import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.api.event.BaseEventContext;
 import org.mule.runtime.core.api.exception.MessagingException;
 import org.mule.runtime.core.api.exception.MessagingExceptionHandler;
 import org.mule.runtime.core.api.exception.NullExceptionHandler;
+import org.mule.runtime.core.internal.streaming.EventStreamingState;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import reactor.core.Disposable;
-import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
 
 /**
  * Base class for implementations of {@link BaseEventContext}
+ * <p>
+ * Completion is tracked with a counter of the things this context still waits for: its response, the external completion
+ * publisher and every child context that hasn't completed yet. Registering a child context just increments it, and the context
+ * completes when it drops to zero. The response, before response and completion publishers are only created when someone asks
+ * for them, already terminated if what they publish has already happened.
  *
  * @since 4.0
  */
@@ -37,14 +42,26 @@ abstract class AbstractEventContext implements BaseEventContext {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AbstractEventContext.class);
   protected static final MessagingExceptionHandler NULL_EXCEPTION_HANDLER = NullExceptionHandler.getInstance();
+  private static final AtomicReferenceFieldUpdater<AbstractEventContext, EventStreamingState> STREAMING_STATE_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(AbstractEventContext.class, EventStreamingState.class, "streamingState");
+  private static final AtomicIntegerFieldUpdater<AbstractEventContext> OUTSTANDING_UPDATER =
+      newUpdater(AbstractEventContext.class, "outstanding");
 
+  // The response, the external completion publisher and the child contexts not completed yet
+  private transient volatile int outstanding = 2;
+
+  // @GuardedBy this
+  private transient boolean responded = false;
+  private transient BaseEvent result;
+  private transient Throwable error;
+  private transient boolean completed = false;
   private transient MonoProcessor<BaseEvent> beforeResponseProcessor;
   private transient MonoProcessor<BaseEvent> responseProcessor;
   private transient MonoProcessor<Void> completionProcessor;
-  private transient Disposable completionSubscriberDisposable;
-  private transient final List<BaseEventContext> childContexts = new LinkedList<>();
-  private transient Mono<Void> completionCallback = empty();
+  private transient List<Runnable> completionCallbacks;
+
   private transient MessagingExceptionHandler exceptionHandler;
+  private transient volatile EventStreamingState streamingState;
 
   public AbstractEventContext() {
     this(NULL_EXCEPTION_HANDLER, empty());
@@ -55,46 +72,68 @@ abstract class AbstractEventContext implements BaseEventContext {
   }
 
   public AbstractEventContext(MessagingExceptionHandler exceptionHandler, Publisher<Void> completionCallback) {
-    this.completionCallback = from(completionCallback);
     this.exceptionHandler = exceptionHandler;
-    initCompletionProcessor();
+    from(completionCallback).subscribe(null, e -> outstandingDone(), this::outstandingDone);
   }
 
-  private void initCompletionProcessor() {
-    beforeResponseProcessor = MonoProcessor.create();
-    responseProcessor = MonoProcessor.create();
-    responseProcessor.doOnEach(s -> s.accept(beforeResponseProcessor)).subscribe(requestUnbounded());
-    completionProcessor = MonoProcessor.create();
-    completionProcessor.doFinally(e -> {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(this + " execution completed.");
+  void addChildContext(BaseEventContext childContext) {
+    int current;
+    do {
+      current = outstanding;
+      if (current == 0) {
+        // Already completed, so it can't wait for the child anymore
+        return;
       }
-    }).subscribe();
-    // When there are no child contexts response triggers completion directly.
-    completionSubscriberDisposable = Mono.<Void>whenDelayError(completionCallback,
-                                                               responseProcessor.materialize().then())
-        .doOnEach(s -> s.accept(completionProcessor)).subscribe();
+    } while (!OUTSTANDING_UPDATER.compareAndSet(this, current, current + 1));
+
+    if (childContext instanceof AbstractEventContext) {
+      ((AbstractEventContext) childContext).onCompletion(this::outstandingDone);
+    } else {
+      from(childContext.getCompletionPublisher()).subscribe(null, e -> outstandingDone(), this::outstandingDone);
+    }
   }
 
-  void addChildContext(BaseEventContext childContext) {
-    synchronized (this) {
-      childContexts.add(childContext);
-      updateCompletionPublisher();
+  private void outstandingDone() {
+    if (OUTSTANDING_UPDATER.decrementAndGet(this) == 0) {
+      complete();
     }
   }
 
-  private void updateCompletionPublisher() {
-    // When a new child is added dispose existing subscription that triggers completion processor and re-subscribe adding child
-    // completion condition.
-    completionSubscriberDisposable.dispose();
-    completionSubscriberDisposable =
-        responseProcessor.onErrorResume(throwable -> empty()).and(completionCallback).and(getChildCompletionPublisher())
-            .materialize().then()
-            .doOnEach(s -> s.accept(completionProcessor)).subscribe();
+  private void complete() {
+    MonoProcessor<Void> processor;
+    List<Runnable> callbacks;
+    synchronized (this) {
+      completed = true;
+      processor = completionProcessor;
+      callbacks = completionCallbacks;
+      completionCallbacks = null;
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(this + " execution completed.");
+    }
+    if (processor != null) {
+      processor.onComplete();
+    }
+    if (callbacks != null) {
+      callbacks.forEach(Runnable::run);
+    }
   }
 
-  private Mono<Void> getChildCompletionPublisher() {
-    return when(childContexts.stream().map(eventContext -> from(eventContext.getCompletionPublisher())).collect(toList()));
+  /**
+   * Runs {@code callback} once this context completes, or right away if it already has.
+   */
+  private void onCompletion(Runnable callback) {
+    synchronized (this) {
+      if (!completed) {
+        if (completionCallbacks == null) {
+          completionCallbacks = new ArrayList<>(2);
+        }
+        completionCallbacks.add(callback);
+        return;
+      }
+    }
+    callback.run();
   }
 
   /**
@@ -102,17 +141,15 @@ abstract class AbstractEventContext implements BaseEventContext {
    */
   @Override
   public final void success() {
-    synchronized (this) {
-      if (responseProcessor.isTerminated()) {
-        LOGGER.debug(this + " empty response was already completed, ignoring.");
-        return;
-      }
+    if (!respond(null, null)) {
+      LOGGER.debug(this + " empty response was already completed, ignoring.");
+      return;
+    }
 
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(this + " response completed with no result.");
-      }
-      responseProcessor.onComplete();
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(this + " response completed with no result.");
     }
+    outstandingDone();
   }
 
   /**
@@ -120,17 +157,15 @@ abstract class AbstractEventContext implements BaseEventContext {
    */
   @Override
   public final void success(BaseEvent event) {
-    synchronized (this) {
-      if (responseProcessor.isTerminated()) {
-        LOGGER.debug(this + " response was already completed, ignoring.");
-        return;
-      }
+    if (!respond(event, null)) {
+      LOGGER.debug(this + " response was already completed, ignoring.");
+      return;
+    }
 
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(this + " response completed with result.");
-      }
-      responseProcessor.onNext(event);
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(this + " response completed with result.");
     }
+    outstandingDone();
   }
 
   /**
@@ -139,49 +174,125 @@ abstract class AbstractEventContext implements BaseEventContext {
   @Override
   public final Publisher<Void> error(Throwable throwable) {
     synchronized (this) {
-      if (responseProcessor.isTerminated()) {
+      if (responded) {
         LOGGER.debug(this + " error response was already completed, ignoring.");
         return empty();
       }
+    }
 
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug(this + " response completed with error.");
+    }
+
+    if (throwable instanceof MessagingException) {
       if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug(this + " response completed with error.");
+        LOGGER.debug(this + " handling messaging exception.");
       }
+      return just((MessagingException) throwable)
+          .flatMapMany(exceptionHandler)
+          .doOnNext(handled -> success(handled))
+          .doOnError(rethrown -> {
+            if (respond(null, rethrown)) {
+              outstandingDone();
+            }
+          })
+          .materialize()
+          .then()
+          .subscribe();
 
-      if (throwable instanceof MessagingException) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug(this + " handling messaging exception.");
-        }
-        return just((MessagingException) throwable)
-            .flatMapMany(exceptionHandler)
-            .doOnNext(handled -> success(handled))
-            .doOnError(rethrown -> responseProcessor.onError(rethrown))
-            .materialize()
-            .then()
-            .subscribe();
-
-      } else {
-        responseProcessor.onError(throwable);
-        return empty();
+    } else {
+      if (respond(null, throwable)) {
+        outstandingDone();
       }
+      return empty();
+    }
+  }
+
+  /**
+   * Records the response and signals it to the before response subscribers and then to the response subscribers.
+   *
+   * @return {@code false} if the response had already been set
+   */
+  private synchronized boolean respond(BaseEvent result, Throwable error) {
+    if (responded) {
+      return false;
+    }
+    responded = true;
+    this.result = result;
+    this.error = error;
+
+    if (beforeResponseProcessor != null) {
+      signalResponse(beforeResponseProcessor);
+    }
+    if (responseProcessor != null) {
+      signalResponse(responseProcessor);
+    }
+    return true;
+  }
+
+  private void signalResponse(MonoProcessor<BaseEvent> processor) {
+    if (error != null) {
+      processor.onError(error);
+    } else if (result != null) {
+      processor.onNext(result);
+    } else {
+      processor.onComplete();
     }
   }
 
   @Override
-  public Publisher<BaseEvent> getBeforeResponsePublisher() {
+  public synchronized Publisher<BaseEvent> getBeforeResponsePublisher() {
+    if (beforeResponseProcessor == null) {
+      beforeResponseProcessor = MonoProcessor.create();
+      if (responded) {
+        signalResponse(beforeResponseProcessor);
+      }
+    }
     return beforeResponseProcessor;
   }
 
   @Override
-  public Publisher<BaseEvent> getResponsePublisher() {
+  public synchronized Publisher<BaseEvent> getResponsePublisher() {
+    if (responseProcessor == null) {
+      responseProcessor = MonoProcessor.create();
+      if (responded) {
+        signalResponse(responseProcessor);
+      }
+    }
     return responseProcessor;
   }
 
   @Override
-  public Publisher<Void> getCompletionPublisher() {
+  public synchronized Publisher<Void> getCompletionPublisher() {
+    if (completionProcessor == null) {
+      completionProcessor = MonoProcessor.create();
+      if (completed) {
+        completionProcessor.onComplete();
+      }
+    }
     return completionProcessor;
   }
 
+  /**
+   * {@inheritDoc}
+   * The state is disposed through a single completion callback, registered by the thread which sets it.
+   */
+  @Override
+  public EventStreamingState getStreamingState(Supplier<EventStreamingState> factory) {
+    EventStreamingState state = streamingState;
+    if (state != null) {
+      return state;
+    }
+
+    state = factory.get();
+    if (STREAMING_STATE_UPDATER.compareAndSet(this, null, state)) {
+      onCompletion(state::onContextCompletion);
+      return state;
+    }
+
+    return streamingState;
+  }
+
   protected MessagingExceptionHandler getExceptionHandler() {
     return exceptionHandler;
   }
@@ -8,7 +8,6 @@ package org.mule.runtime.core.internal.event;
 
 
 import static java.lang.System.lineSeparator;
-import static java.util.Collections.unmodifiableMap;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
@@ -45,7 +44,7 @@ import org.mule.runtime.core.internal.context.notification.DefaultFlowCallStack;
 import org.mule.runtime.core.internal.message.DefaultMessageBuilder;
 import org.mule.runtime.core.internal.message.InternalMessage;
 import org.mule.runtime.core.internal.message.InternalEvent;
-import org.mule.runtime.core.internal.util.CopyOnWriteCaseInsensitiveMap;
+import org.mule.runtime.core.internal.util.PersistentCaseInsensitiveMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,7 +53,6 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -64,18 +62,18 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
   private BaseEventContext context;
   private Message message;
-  private Map<String, TypedValue<?>> flowVariables = new HashMap<>();
-  private Map<String, TypedValue<?>> moduleProperties = new HashMap<>();
-  private Map<String, TypedValue<?>> moduleParameters = new HashMap<>();
-  private Map<String, Object> internalParameters = new HashMap<>();
+  private PersistentCaseInsensitiveMap<TypedValue<?>> flowVariables = PersistentCaseInsensitiveMap.empty();
+  private PersistentCaseInsensitiveMap<TypedValue<?>> moduleProperties = PersistentCaseInsensitiveMap.empty();
+  private PersistentCaseInsensitiveMap<TypedValue<?>> moduleParameters = PersistentCaseInsensitiveMap.empty();
+  private PersistentCaseInsensitiveMap<Object> internalParameters = PersistentCaseInsensitiveMap.empty();
   private Error error;
   private FlowConstruct flow;
   private Optional<GroupCorrelation> groupCorrelation = empty();
   private String legacyCorrelationId;
-  private FlowCallStack flowCallStack = new DefaultFlowCallStack();
+  private FlowCallStack flowCallStack;
   private ReplyToHandler replyToHandler;
   private Object replyToDestination;
-  private MuleSession session = new DefaultMuleSession();
+  private MuleSession session;
   private SecurityContext securityContext;
   private BaseEvent originalEvent;
   private boolean modified;
@@ -83,6 +81,8 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
   public DefaultEventBuilder(BaseEventContext messageContext) {
     this.context = messageContext;
+    this.flowCallStack = new DefaultFlowCallStack();
+    this.session = new DefaultMuleSession();
   }
 
   public DefaultEventBuilder(InternalEvent event) {
@@ -100,10 +100,11 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
     this.error = event.getError().orElse(null);
     this.notificationsEnabled = event.isNotificationsEnabled();
 
-    this.flowVariables.putAll(event.getVariables());
-    this.moduleProperties.putAll(event.getProperties());
-    this.moduleParameters.putAll(event.getParameters());
-    this.internalParameters.putAll(event.getInternalParameters());
+    // the maps of events built by this builder are immutable, so they are shared instead of copied
+    this.flowVariables = PersistentCaseInsensitiveMap.copyOf(event.getVariables());
+    this.moduleProperties = PersistentCaseInsensitiveMap.copyOf(event.getProperties());
+    this.moduleParameters = PersistentCaseInsensitiveMap.copyOf(event.getParameters());
+    this.internalParameters = PersistentCaseInsensitiveMap.copyOf(event.getInternalParameters());
   }
 
   public DefaultEventBuilder(BaseEventContext messageContext, InternalEvent event) {
@@ -122,13 +123,13 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
   @Override
   public BaseEvent.Builder variables(Map<String, ?> flowVariables) {
-    copyFromTo(flowVariables, this.flowVariables);
+    this.flowVariables = toTypedValues(flowVariables);
     return this;
   }
 
   @Override
   public BaseEvent.Builder addVariable(String key, Object value) {
-    flowVariables.put(key, new TypedValue<>(value, DataType.fromObject(value)));
+    flowVariables = flowVariables.plus(key, new TypedValue<>(value, DataType.fromObject(value)));
     this.modified = true;
     return this;
 
@@ -136,32 +137,34 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
   @Override
   public BaseEvent.Builder addVariable(String key, Object value, DataType dataType) {
-    flowVariables.put(key, new TypedValue<>(value, dataType));
+    flowVariables = flowVariables.plus(key, new TypedValue<>(value, dataType));
     this.modified = true;
     return this;
   }
 
   @Override
   public BaseEvent.Builder removeVariable(String key) {
-    this.modified = flowVariables.remove(key) != null || modified;
+    PersistentCaseInsensitiveMap<TypedValue<?>> updated = flowVariables.minus(key);
+    this.modified = updated != flowVariables || modified;
+    this.flowVariables = updated;
     return this;
   }
 
   @Override
   public Builder properties(Map<String, ?> properties) {
-    copyFromTo(properties, this.moduleProperties);
+    this.moduleProperties = toTypedValues(properties);
     return this;
   }
 
   @Override
   public Builder parameters(Map<String, ?> parameters) {
-    copyFromTo(parameters, this.moduleParameters);
+    this.moduleParameters = toTypedValues(parameters);
     return this;
   }
 
   @Override
   public BaseEvent.Builder addParameter(String key, Object value) {
-    moduleParameters.put(key, new TypedValue<>(value, DataType.fromObject(value)));
+    moduleParameters = moduleParameters.plus(key, new TypedValue<>(value, DataType.fromObject(value)));
     this.modified = true;
     return this;
 
@@ -169,35 +172,38 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
   @Override
   public BaseEvent.Builder addParameter(String key, Object value, DataType dataType) {
-    moduleParameters.put(key, new TypedValue<>(value, dataType));
+    moduleParameters = moduleParameters.plus(key, new TypedValue<>(value, dataType));
     this.modified = true;
     return this;
   }
 
   @Override
   public Builder internalParameters(Map<String, ?> internalParameters) {
-    this.internalParameters.clear();
-    this.internalParameters.putAll(internalParameters);
+    this.internalParameters = PersistentCaseInsensitiveMap.copyOf(internalParameters);
     this.modified = true;
     return this;
   }
 
   @Override
   public BaseEvent.Builder addInternalParameter(String key, Object value) {
-    internalParameters.put(key, value);
+    internalParameters = internalParameters.plus(key, value);
     this.modified = true;
     return this;
   }
 
   @Override
   public Builder removeInternalParameter(String key) {
-    this.modified = internalParameters.remove(key) != null || modified;
+    PersistentCaseInsensitiveMap<Object> updated = internalParameters.minus(key);
+    this.modified = updated != internalParameters || modified;
+    this.internalParameters = updated;
     return this;
   }
 
   @Override
   public BaseEvent.Builder removeParameter(String key) {
-    this.modified = moduleParameters.remove(key) != null || modified;
+    PersistentCaseInsensitiveMap<TypedValue<?>> updated = moduleParameters.minus(key);
+    this.modified = updated != moduleParameters || modified;
+    this.moduleParameters = updated;
     return this;
   }
 
@@ -279,11 +285,15 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
     }
   }
 
-  private void copyFromTo(Map<String, ?> source, Map<String, TypedValue<?>> target) {
-    target.clear();
-    source.forEach((s, o) -> target
-        .put(s, o instanceof TypedValue ? (TypedValue<Object>) o : new TypedValue<>(o, DataType.fromObject(o))));
+  private PersistentCaseInsensitiveMap<TypedValue<?>> toTypedValues(Map<String, ?> source) {
+    PersistentCaseInsensitiveMap<TypedValue<?>> target = PersistentCaseInsensitiveMap.empty();
+    for (Map.Entry<String, ?> entry : source.entrySet()) {
+      Object o = entry.getValue();
+      target = target.plus(entry.getKey(),
+                           o instanceof TypedValue ? (TypedValue<?>) o : new TypedValue<>(o, DataType.fromObject(o)));
+    }
     this.modified = true;
+    return target;
   }
 
   /**
@@ -315,12 +325,12 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
     private final boolean notificationsEnabled;
 
-    private final CopyOnWriteCaseInsensitiveMap<String, TypedValue<?>> variables = new CopyOnWriteCaseInsensitiveMap<>();
-    private final Map<String, TypedValue<?>> properties;
-    private final Map<String, TypedValue<?>> parameters;
-    private final Map<String, ?> internalParameters;
+    private final PersistentCaseInsensitiveMap<TypedValue<?>> variables;
+    private final PersistentCaseInsensitiveMap<TypedValue<?>> properties;
+    private final PersistentCaseInsensitiveMap<TypedValue<?>> parameters;
+    private final PersistentCaseInsensitiveMap<Object> internalParameters;
 
-    private FlowCallStack flowCallStack = new DefaultFlowCallStack();
+    private final FlowCallStack flowCallStack;
     private final String legacyCorrelationId;
     private final Error error;
 
@@ -328,9 +338,12 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
     private String flowName;
 
     // Use this constructor from the builder
-    private InternalEventImplementation(BaseEventContext context, Message message, Map<String, TypedValue<?>> variables,
-                                        Map<String, TypedValue<?>> properties, Map<String, TypedValue<?>> parameters,
-                                        Map<String, ?> internalParameters, FlowConstruct flowConstruct, MuleSession session,
+    private InternalEventImplementation(BaseEventContext context, Message message,
+                                        PersistentCaseInsensitiveMap<TypedValue<?>> variables,
+                                        PersistentCaseInsensitiveMap<TypedValue<?>> properties,
+                                        PersistentCaseInsensitiveMap<TypedValue<?>> parameters,
+                                        PersistentCaseInsensitiveMap<Object> internalParameters,
+                                        FlowConstruct flowConstruct, MuleSession session,
                                         SecurityContext securityContext, Object replyToDestination, ReplyToHandler replyToHandler,
                                         FlowCallStack flowCallStack, Optional<GroupCorrelation> groupCorrelation, Error error,
                                         String legacyCorrelationId, boolean notificationsEnabled) {
@@ -342,7 +355,7 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
       this.session = session;
       this.securityContext = securityContext;
       this.message = message;
-      variables.forEach((s, value) -> this.variables.put(s, new TypedValue<>(value.getValue(), value.getDataType())));
+      this.variables = variables;
       this.properties = properties;
       this.parameters = parameters;
       this.internalParameters = internalParameters;
@@ -534,17 +547,17 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
     @Override
     public Map<String, TypedValue<?>> getProperties() {
-      return unmodifiableMap(properties);
+      return properties;
     }
 
     @Override
     public Map<String, TypedValue<?>> getVariables() {
-      return unmodifiableMap(variables);
+      return variables;
     }
 
     @Override
     public Map<String, TypedValue<?>> getParameters() {
-      return unmodifiableMap(parameters);
+      return parameters;
     }
 
     @Override
@@ -566,7 +579,7 @@ public class DefaultEventBuilder implements BaseEvent.Builder {
 
     @Override
     public Map<String, ?> getInternalParameters() {
-      return unmodifiableMap(internalParameters);
+      return internalParameters;
     }
 
     @Override
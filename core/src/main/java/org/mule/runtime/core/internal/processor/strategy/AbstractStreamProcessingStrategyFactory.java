@@ -8,9 +8,11 @@ package org.mule.runtime.core.internal.processor.strategy;
 
 import static java.lang.Integer.getInteger;
 import static java.lang.Runtime.getRuntime;
+import static java.lang.Long.getLong;
 import static java.lang.System.getProperty;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.function.Function.identity;
 import static org.mule.runtime.core.internal.processor.strategy.AbstractStreamProcessingStrategyFactory.AbstractStreamProcessingStrategy.WaitStrategy.LITE_BLOCKING;
 import static org.mule.runtime.core.internal.processor.strategy.AbstractStreamProcessingStrategyFactory.AbstractStreamProcessingStrategy.WaitStrategy.valueOf;
 import static reactor.util.concurrent.QueueSupplier.SMALL_BUFFER_SIZE;
@@ -24,6 +26,7 @@ import static reactor.util.concurrent.WaitStrategy.sleeping;
 import static reactor.util.concurrent.WaitStrategy.yielding;
 
 import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.construct.FlowConstruct;
 import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.api.processor.ReactiveProcessor;
@@ -59,10 +62,16 @@ abstract class AbstractStreamProcessingStrategyFactory extends AbstractProcessin
       getInteger(SYSTEM_PROPERTY_PREFIX + "DEFAULT_SUBSCRIBER_COUNT", getRuntime().availableProcessors() / 12 + 1);
   public static final String DEFAULT_WAIT_STRATEGY =
       getProperty(SYSTEM_PROPERTY_PREFIX + "DEFAULT_WAIT_STRATEGY", LITE_BLOCKING.name());
+  // Events are published to the ring-buffer one by one by default.
+  public static final int DEFAULT_MAX_BATCH_SIZE = getInteger(SYSTEM_PROPERTY_PREFIX + "DEFAULT_MAX_BATCH_SIZE", 1);
+  public static final long DEFAULT_BATCH_WINDOW = getLong(SYSTEM_PROPERTY_PREFIX + "DEFAULT_BATCH_WINDOW", 1);
   protected static String RING_BUFFER_SCHEDULER_NAME_SUFFIX = ".ring-buffer";
+  protected static String BATCH_TIMER_SCHEDULER_NAME_SUFFIX = ".batch-timer";
   private int bufferSize = DEFAULT_BUFFER_SIZE;
   private int subscriberCount = DEFAULT_SUBSCRIBER_COUNT;
   private String waitStrategy = DEFAULT_WAIT_STRATEGY;
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+  private long batchWindow = DEFAULT_BATCH_WINDOW;
 
   /**
    * Configure the size of the ring-buffer size used to buffer and de-multiplexes events from multiple source threads. This value
@@ -98,6 +107,33 @@ abstract class AbstractStreamProcessingStrategyFactory extends AbstractProcessin
     this.waitStrategy = waitStrategy;
   }
 
+  /**
+   * Configure the maximum number of events that are grouped and published to the ring-buffer as a single entry. Grouping events
+   * amortizes the cost of claiming a ring-buffer slot and waking up a subscriber among all the events of the group, which is
+   * useful for sources that emit many events in bursts. A value of {@code 1} disables batching.
+   *
+   * @param maxBatchSize maximum number of events to publish to the ring-buffer at once.
+   */
+  public void setMaxBatchSize(int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 1");
+    }
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Configure the maximum time, in milliseconds, an event waits for more events to be grouped with before the group is published
+   * to the ring-buffer. Only used when {@link #setMaxBatchSize(int)} is greater than {@code 1}.
+   *
+   * @param batchWindow maximum time in milliseconds to wait for a batch to be completed.
+   */
+  public void setBatchWindow(long batchWindow) {
+    if (batchWindow < 1) {
+      throw new IllegalArgumentException("batchWindow must be at least 1");
+    }
+    this.batchWindow = batchWindow;
+  }
+
   protected int getBufferSize() {
     return bufferSize;
   }
@@ -110,6 +146,29 @@ abstract class AbstractStreamProcessingStrategyFactory extends AbstractProcessin
     return waitStrategy;
   }
 
+  protected int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  protected long getBatchWindow() {
+    return batchWindow;
+  }
+
+  /**
+   * Provides the {@link Scheduler} that publishes groups of events to the ring-buffer when their batch window elapses. It is
+   * separate from the ring-buffer scheduler so that publishing a group does not wait for busy subscribers.
+   *
+   * @param muleContext the context of the flow the processing strategy is created for.
+   * @param schedulersNamePrefix the prefix for the names of the schedulers of the processing strategy.
+   * @return the supplier of the scheduler for the batch window timer.
+   */
+  protected Supplier<Scheduler> createBatchTimerSchedulerSupplier(MuleContext muleContext, String schedulersNamePrefix) {
+    return () -> muleContext.getSchedulerService()
+        .customScheduler(muleContext.getSchedulerBaseConfig()
+            .withName(schedulersNamePrefix + BATCH_TIMER_SCHEDULER_NAME_SUFFIX)
+            .withMaxConcurrentTasks(1));
+  }
+
   @Override
   public Class<? extends ProcessingStrategy> getProcessingStrategyType() {
     return AbstractStreamProcessingStrategy.class;
@@ -130,18 +189,40 @@ abstract class AbstractStreamProcessingStrategyFactory extends AbstractProcessin
     final protected int subscribers;
     final protected WaitStrategy waitStrategy;
     final protected int maxConcurrency;
+    final protected int maxBatchSize;
+    final protected long batchWindow;
+    final protected Supplier<Scheduler> batchTimerSchedulerSupplier;
 
     protected AbstractStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier, int bufferSize, int subscribers,
                                                String waitStrategy, int maxConcurrency) {
+      this(ringBufferSchedulerSupplier, bufferSize, subscribers, waitStrategy, maxConcurrency, 1, DEFAULT_BATCH_WINDOW, null);
+    }
+
+    protected AbstractStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier, int bufferSize, int subscribers,
+                                               String waitStrategy, int maxConcurrency, int maxBatchSize, long batchWindow,
+                                               Supplier<Scheduler> batchTimerSchedulerSupplier) {
       this.subscribers = requireNonNull(subscribers);
       this.waitStrategy = valueOf(waitStrategy);
       this.bufferSize = requireNonNull(bufferSize);
       this.ringBufferSchedulerSupplier = requireNonNull(ringBufferSchedulerSupplier);
       this.maxConcurrency = requireNonNull(maxConcurrency);
+      this.maxBatchSize = maxBatchSize;
+      this.batchWindow = batchWindow;
+      this.batchTimerSchedulerSupplier =
+          maxBatchSize > 1 ? requireNonNull(batchTimerSchedulerSupplier) : batchTimerSchedulerSupplier;
     }
 
     @Override
     public Sink createSink(FlowConstruct flowConstruct, ReactiveProcessor function) {
+      if (maxBatchSize > 1) {
+        WorkQueueProcessor<List<BaseEvent>> processor =
+            WorkQueueProcessor.share(ringBufferSchedulerSupplier.get(), bufferSize, waitStrategy.getReactorWaitStrategy(), false);
+        List<Disposable> subscriptions = new ArrayList<>();
+        for (int i = 0; i < (maxConcurrency < subscribers ? maxConcurrency : subscribers); i++) {
+          subscriptions.add(processor.<BaseEvent>concatMapIterable(identity()).transform(function).subscribe());
+        }
+        return createBatchingSink(processor, subscriptions);
+      }
       WorkQueueProcessor<BaseEvent> processor =
           WorkQueueProcessor.share(ringBufferSchedulerSupplier.get(), bufferSize, waitStrategy.getReactorWaitStrategy(), false);
       List<Disposable> disposables = new ArrayList<>();
@@ -153,6 +234,24 @@ abstract class AbstractStreamProcessingStrategyFactory extends AbstractProcessin
                              createOnEventConsumer());
     }
 
+    /**
+     * Creates a {@link BatchingSink} that groups accepted events, up to {@link #maxBatchSize} events or for at most
+     * {@link #batchWindow} milliseconds, and publishes each group to the given ring-buffer {@code processor} as a single entry.
+     * The subscriptions to {@code processor} are expected to process the events of each group one by one.
+     *
+     * @param processor the ring-buffer to publish groups of events to.
+     * @param subscriptions the subscriptions to {@code processor}, disposed together with the sink.
+     * @return the sink for the flow.
+     */
+    protected Sink createBatchingSink(WorkQueueProcessor<List<BaseEvent>> processor, List<Disposable> subscriptions) {
+      Scheduler batchTimerScheduler = batchTimerSchedulerSupplier.get();
+      List<Disposable> disposables = new ArrayList<>(subscriptions);
+      disposables.add(() -> processor.shutdown());
+      disposables.add(() -> batchTimerScheduler.stop());
+      return new BatchingSink(processor.connectSink(), () -> disposables.forEach(disposable -> disposable.dispose()),
+                              createOnEventConsumer(), batchTimerScheduler, maxBatchSize, batchWindow);
+    }
+
     protected enum WaitStrategy {
       BLOCKING(blocking()),
 
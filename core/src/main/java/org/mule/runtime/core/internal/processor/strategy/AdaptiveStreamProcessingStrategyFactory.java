@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.management.ManagementFactory.getOperatingSystemMXBean;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_INTENSIVE;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.FlowConstruct;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.api.processor.ReactiveProcessor;
+import org.mule.runtime.core.api.processor.Sink;
+import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
+
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.publisher.WorkQueueProcessor;
+
+/**
+ * Creates {@link AdaptiveStreamProcessingStrategy} instances. These behave like the
+ * {@link ProactorStreamProcessingStrategyFactory.ProactorStreamProcessingStrategy} but rather than using a fixed number of
+ * ring-buffer subscribers, the number of subscribers is adapted periodically between {@link #setMinSubscriberCount(int)} and
+ * {@link #setMaxSubscriberCount(int)} based on the depth of the ring-buffer and the load average per core.
+ * <p>
+ * All subscribers claim events from the same work sequence of the ring-buffer, so a subscriber that is added when the
+ * ring-buffer backs up immediately starts taking the pending events that other subscribers have not yet claimed. Events are
+ * always published to the ring-buffer one by one, {@link #setMaxBatchSize(int)} is not supported by this strategy, neither is
+ * {@link #setCpuLightAffinity(boolean)}.
+ * <p/>
+ * This processing strategy is not suitable for transactional flows and will fail if used with an active transaction.
+ *
+ * @since 4.0
+ */
+public class AdaptiveStreamProcessingStrategyFactory extends ProactorStreamProcessingStrategyFactory {
+
+  private static final String SYSTEM_PROPERTY_PREFIX = AdaptiveStreamProcessingStrategyFactory.class.getName() + ".";
+
+  public static final int DEFAULT_MIN_SUBSCRIBER_COUNT = getInteger(SYSTEM_PROPERTY_PREFIX + "DEFAULT_MIN_SUBSCRIBER_COUNT", 1);
+  public static final int DEFAULT_MAX_SUBSCRIBER_COUNT =
+      getInteger(SYSTEM_PROPERTY_PREFIX + "DEFAULT_MAX_SUBSCRIBER_COUNT", getRuntime().availableProcessors());
+  public static final int DEFAULT_ADAPTATION_INTERVAL_MS =
+      getInteger(SYSTEM_PROPERTY_PREFIX + "DEFAULT_ADAPTATION_INTERVAL_MS", 100);
+
+  private int minSubscriberCount = DEFAULT_MIN_SUBSCRIBER_COUNT;
+  private int maxSubscriberCount = DEFAULT_MAX_SUBSCRIBER_COUNT;
+  private long adaptationInterval = DEFAULT_ADAPTATION_INTERVAL_MS;
+
+  /**
+   * Configure the minimum number of ring-buffer subscribers, used when the flow is idle.
+   *
+   * @param minSubscriberCount minimum number of subscribers.
+   */
+  public void setMinSubscriberCount(int minSubscriberCount) {
+    if (minSubscriberCount < 1) {
+      throw new IllegalArgumentException("minSubscriberCount must be at least 1");
+    }
+    this.minSubscriberCount = minSubscriberCount;
+  }
+
+  /**
+   * Configure the maximum number of ring-buffer subscribers, used when the ring-buffer is backing up and there are idle cores.
+   *
+   * @param maxSubscriberCount maximum number of subscribers.
+   */
+  public void setMaxSubscriberCount(int maxSubscriberCount) {
+    if (maxSubscriberCount < 1) {
+      throw new IllegalArgumentException("maxSubscriberCount must be at least 1");
+    }
+    this.maxSubscriberCount = maxSubscriberCount;
+  }
+
+  /**
+   * Configure how often, in milliseconds, the number of subscribers is re-evaluated.
+   *
+   * @param adaptationInterval interval in milliseconds.
+   */
+  public void setAdaptationInterval(long adaptationInterval) {
+    if (adaptationInterval < 1) {
+      throw new IllegalArgumentException("adaptationInterval must be at least 1");
+    }
+    this.adaptationInterval = adaptationInterval;
+  }
+
+  @Override
+  public void setMaxBatchSize(int maxBatchSize) {
+    if (maxBatchSize != 1) {
+      throw new IllegalArgumentException("Batching is not supported by " + getClass().getSimpleName());
+    }
+    super.setMaxBatchSize(maxBatchSize);
+  }
+
+  @Override
+  public void setCpuLightAffinity(boolean cpuLightAffinity) {
+    if (cpuLightAffinity) {
+      throw new IllegalArgumentException("CPU light affinity is not supported by " + getClass().getSimpleName());
+    }
+    super.setCpuLightAffinity(cpuLightAffinity);
+  }
+
+  @Override
+  public ProcessingStrategy create(MuleContext muleContext, String schedulersNamePrefix) {
+    if (getMaxConcurrency() == 1) {
+      return super.create(muleContext, schedulersNamePrefix);
+    } else {
+      int maxSubscribers = max(minSubscriberCount, maxSubscriberCount);
+      return new AdaptiveStreamProcessingStrategy(() -> muleContext.getSchedulerService()
+          .customScheduler(muleContext.getSchedulerBaseConfig()
+              .withName(schedulersNamePrefix + RING_BUFFER_SCHEDULER_NAME_SUFFIX)
+              .withMaxConcurrentTasks(maxSubscribers + 1)),
+                                                  getBufferSize(),
+                                                  minSubscriberCount,
+                                                  maxSubscribers,
+                                                  adaptationInterval,
+                                                  getWaitStrategy(), () -> muleContext.getSchedulerService()
+                                                      .cpuLightScheduler(muleContext.getSchedulerBaseConfig()
+                                                          .withName(schedulersNamePrefix + "." + CPU_LITE.name())),
+                                                  createBlockingSchedulerSupplier(muleContext, schedulersNamePrefix),
+                                                  () -> muleContext.getSchedulerService()
+                                                      .cpuIntensiveScheduler(muleContext.getSchedulerBaseConfig()
+                                                          .withName(schedulersNamePrefix + "." + CPU_INTENSIVE.name())),
+                                                  getMaxConcurrency());
+    }
+  }
+
+  @Override
+  public Class<? extends ProcessingStrategy> getProcessingStrategyType() {
+    if (getMaxConcurrency() == 1) {
+      return super.getProcessingStrategyType();
+    } else {
+      return AdaptiveStreamProcessingStrategy.class;
+    }
+  }
+
+  static class AdaptiveStreamProcessingStrategy extends ProactorStreamProcessingStrategy {
+
+    private final int maxSubscribers;
+    private final long adaptationInterval;
+
+    AdaptiveStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier,
+                                     int bufferSize,
+                                     int minSubscribers,
+                                     int maxSubscribers,
+                                     long adaptationInterval,
+                                     String waitStrategy,
+                                     Supplier<Scheduler> cpuLightSchedulerSupplier,
+                                     Supplier<Scheduler> blockingSchedulerSupplier,
+                                     Supplier<Scheduler> cpuIntensiveSchedulerSupplier,
+                                     int maxConcurrency) {
+      super(ringBufferSchedulerSupplier, bufferSize, minSubscribers, waitStrategy, cpuLightSchedulerSupplier,
+            blockingSchedulerSupplier, cpuIntensiveSchedulerSupplier, maxConcurrency);
+      this.maxSubscribers = maxSubscribers;
+      this.adaptationInterval = adaptationInterval;
+    }
+
+    @Override
+    public Sink createSink(FlowConstruct flowConstruct, ReactiveProcessor function) {
+      WorkQueueProcessor<BaseEvent> processor =
+          WorkQueueProcessor.share(ringBufferSchedulerSupplier.get(), bufferSize, waitStrategy.getReactorWaitStrategy(), false);
+      SubscriberCountController controller =
+          new SubscriberCountController(() -> processor.transform(function).subscribe(), min(subscribers, maxConcurrency),
+                                        min(maxSubscribers, maxConcurrency), () -> processor.getPending(), bufferSize,
+                                        new LoadPerCoreSupplier());
+      controller.start();
+      ScheduledFuture<?> adaptationTask =
+          getCpuLightScheduler().scheduleWithFixedDelay(controller, adaptationInterval, adaptationInterval, MILLISECONDS);
+      return new ReactorSink(processor.connectSink(), () -> {
+        adaptationTask.cancel(false);
+        controller.dispose();
+        processor.shutdown();
+      }, createOnEventConsumer());
+    }
+
+    /**
+     * Maintains a number of subscribers between a minimum and a maximum, adding a subscriber each time it runs while the
+     * ring-buffer has a backlog and the cores are not saturated, and removing one after the ring-buffer has been drained for a
+     * number of consecutive runs. The idle run count is used to avoid adding and removing subscribers repeatedly under bursty
+     * load.
+     */
+    static class SubscriberCountController implements Runnable {
+
+      private static final Logger LOGGER = getLogger(SubscriberCountController.class);
+
+      static final int IDLE_RUNS_BEFORE_SCALE_DOWN = 10;
+      static final double MAX_LOAD_PER_CORE_FOR_SCALE_UP = 1.0;
+
+      private final Supplier<Disposable> subscriberFactory;
+      private final int minSubscribers;
+      private final int maxSubscribers;
+      private final LongSupplier pendingSupplier;
+      private final long scaleUpThreshold;
+      private final DoubleSupplier loadPerCoreSupplier;
+      private final Deque<Disposable> subscribers = new ConcurrentLinkedDeque<>();
+      private int idleRuns;
+      private volatile boolean disposed;
+
+      SubscriberCountController(Supplier<Disposable> subscriberFactory, int minSubscribers, int maxSubscribers,
+                                LongSupplier pendingSupplier, int bufferSize, DoubleSupplier loadPerCoreSupplier) {
+        this.subscriberFactory = subscriberFactory;
+        this.minSubscribers = minSubscribers;
+        this.maxSubscribers = max(minSubscribers, maxSubscribers);
+        this.pendingSupplier = pendingSupplier;
+        // Scale up once more than an eighth of the ring-buffer is pending.
+        this.scaleUpThreshold = max(1, bufferSize / 8);
+        this.loadPerCoreSupplier = loadPerCoreSupplier;
+      }
+
+      void start() {
+        for (int i = 0; i < minSubscribers; i++) {
+          subscribers.push(subscriberFactory.get());
+        }
+      }
+
+      @Override
+      public synchronized void run() {
+        if (disposed) {
+          return;
+        }
+        long pending = pendingSupplier.getAsLong();
+        if (pending >= scaleUpThreshold) {
+          idleRuns = 0;
+          if (subscribers.size() < maxSubscribers && loadPerCoreSupplier.getAsDouble() < MAX_LOAD_PER_CORE_FOR_SCALE_UP) {
+            subscribers.push(subscriberFactory.get());
+            LOGGER.debug("Ring-buffer has {} pending events, increased subscribers to {}", pending, subscribers.size());
+          }
+        } else if (pending == 0 && subscribers.size() > minSubscribers) {
+          if (++idleRuns >= IDLE_RUNS_BEFORE_SCALE_DOWN) {
+            idleRuns = 0;
+            subscribers.pop().dispose();
+            LOGGER.debug("Ring-buffer is idle, decreased subscribers to {}", subscribers.size());
+          }
+        } else {
+          idleRuns = 0;
+        }
+      }
+
+      int getSubscriberCount() {
+        return subscribers.size();
+      }
+
+      synchronized void dispose() {
+        disposed = true;
+        Disposable subscriber;
+        while ((subscriber = subscribers.poll()) != null) {
+          subscriber.dispose();
+        }
+      }
+    }
+
+    /**
+     * Provides the system load average divided by the number of available cores, or {@code 0} when the platform does not
+     * provide a load average so that scaling is driven by ring-buffer depth alone.
+     */
+    static class LoadPerCoreSupplier implements DoubleSupplier {
+
+      private final OperatingSystemMXBean operatingSystem = getOperatingSystemMXBean();
+
+      @Override
+      public double getAsDouble() {
+        double loadAverage = operatingSystem.getSystemLoadAverage();
+        return loadAverage < 0 ? 0 : loadAverage / getRuntime().availableProcessors();
+      }
+    }
+  }
+
+}
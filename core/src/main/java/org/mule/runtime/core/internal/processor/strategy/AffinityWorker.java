@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ExecutorService} that runs tasks on a single-threaded {@link Scheduler} owned by one ring-buffer subscriber. While one
+ * of its tasks is running, the worker is available through {@link #current()} so that processing that leaves the worker thread
+ * can be resumed on the same worker, and therefore on the same thread, afterwards.
+ *
+ * @since 4.0
+ */
+class AffinityWorker extends AbstractExecutorService {
+
+  private static final ThreadLocal<AffinityWorker> CURRENT = new ThreadLocal<>();
+
+  /**
+   * @return the worker running the current task, or {@code null} if the current thread is not running a task of a worker.
+   */
+  static AffinityWorker current() {
+    return CURRENT.get();
+  }
+
+  private final Scheduler scheduler;
+
+  /**
+   * Creates a new {@link AffinityWorker}.
+   *
+   * @param scheduler a scheduler with a single thread dedicated to this worker.
+   */
+  AffinityWorker(Scheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    scheduler.execute(() -> {
+      AffinityWorker previous = CURRENT.get();
+      CURRENT.set(this);
+      try {
+        command.run();
+      } finally {
+        if (previous == null) {
+          CURRENT.remove();
+        } else {
+          CURRENT.set(previous);
+        }
+      }
+    });
+  }
+
+  /**
+   * Stops the scheduler of this worker.
+   */
+  void stop() {
+    scheduler.stop();
+  }
+
+  @Override
+  public void shutdown() {
+    scheduler.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return scheduler.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return scheduler.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return scheduler.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return scheduler.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return scheduler.getName();
+  }
+}
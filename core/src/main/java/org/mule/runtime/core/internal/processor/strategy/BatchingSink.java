@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static reactor.core.publisher.BlockingSink.Emission.BACKPRESSURED;
+
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.api.processor.Sink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+import reactor.core.publisher.BlockingSink;
+
+/**
+ * {@link Sink} implementation that groups accepted events and publishes each group to a {@link BlockingSink} as a single
+ * element. A group is published when it reaches {@code maxBatchSize} events, or {@code batchWindow} milliseconds after its first
+ * event was accepted.
+ * <p>
+ * Backpressure from the {@link BlockingSink} is honoured the same as by {@link AbstractProcessingStrategy.ReactorSink}:
+ * {@link #accept(BaseEvent)} blocks until a full group can be published, and {@link #emit(BaseEvent)} returns {@code false},
+ * without keeping the event, if the group it completes cannot be published. Groups published because of the window are retried
+ * after another window if they are backpressured.
+ *
+ * @since 4.0
+ */
+class BatchingSink implements Sink, Disposable {
+
+  private final BlockingSink<List<BaseEvent>> blockingSink;
+  private final reactor.core.Disposable disposable;
+  private final Consumer<BaseEvent> onEventConsumer;
+  private final ScheduledExecutorService timer;
+  private final int maxBatchSize;
+  private final long batchWindow;
+
+  private List<BaseEvent> batch;
+  private long batchNumber = 0;
+  private ScheduledFuture<?> flushTask;
+
+  /**
+   * Creates a new instance
+   *
+   * @param blockingSink    the sink to publish the groups of events to
+   * @param disposable      disposed after this sink, typically the subscribers of {@code blockingSink}
+   * @param onEventConsumer event consumer called just before each event is accepted
+   * @param timer           the executor which publishes the groups when their window elapses
+   * @param maxBatchSize    the maximum number of events of a group
+   * @param batchWindow     the maximum time in milliseconds a group waits for more events
+   */
+  BatchingSink(BlockingSink<List<BaseEvent>> blockingSink, reactor.core.Disposable disposable,
+               Consumer<BaseEvent> onEventConsumer, ScheduledExecutorService timer, int maxBatchSize, long batchWindow) {
+    this.blockingSink = blockingSink;
+    this.disposable = disposable;
+    this.onEventConsumer = onEventConsumer;
+    this.timer = timer;
+    this.maxBatchSize = maxBatchSize;
+    this.batchWindow = batchWindow;
+    this.batch = new ArrayList<>(maxBatchSize);
+  }
+
+  @Override
+  public void accept(BaseEvent event) {
+    onEventConsumer.accept(event);
+    List<BaseEvent> full;
+    synchronized (this) {
+      batch.add(event);
+      if (batch.size() < maxBatchSize) {
+        scheduleFlushIfNeeded();
+        return;
+      }
+      full = takeBatch();
+    }
+    // block outside of the lock, so that other sources can keep adding events to the next group
+    blockingSink.accept(full);
+  }
+
+  @Override
+  public boolean emit(BaseEvent event) {
+    onEventConsumer.accept(event);
+    synchronized (this) {
+      batch.add(event);
+      if (batch.size() < maxBatchSize) {
+        scheduleFlushIfNeeded();
+        return true;
+      }
+
+      if (blockingSink.emit(batch) == BACKPRESSURED) {
+        batch.remove(batch.size() - 1);
+        return false;
+      }
+      takeBatch();
+      return true;
+    }
+  }
+
+  private void flush(long flushedBatchNumber) {
+    synchronized (this) {
+      if (flushedBatchNumber != batchNumber || batch.isEmpty()) {
+        return;
+      }
+
+      if (blockingSink.emit(batch) == BACKPRESSURED) {
+        flushTask = timer.schedule(() -> flush(flushedBatchNumber), batchWindow, MILLISECONDS);
+        return;
+      }
+      takeBatch();
+    }
+  }
+
+  private void scheduleFlushIfNeeded() {
+    if (flushTask == null) {
+      long scheduledBatchNumber = batchNumber;
+      flushTask = timer.schedule(() -> flush(scheduledBatchNumber), batchWindow, MILLISECONDS);
+    }
+  }
+
+  private List<BaseEvent> takeBatch() {
+    List<BaseEvent> taken = batch;
+    batch = new ArrayList<>(maxBatchSize);
+    batchNumber++;
+    if (flushTask != null) {
+      flushTask.cancel(false);
+      flushTask = null;
+    }
+    return taken;
+  }
+
+  @Override
+  public void dispose() {
+    List<BaseEvent> pending;
+    synchronized (this) {
+      pending = batch.isEmpty() ? null : takeBatch();
+    }
+    if (pending != null) {
+      blockingSink.accept(pending);
+    }
+
+    blockingSink.complete();
+    disposable.dispose();
+  }
+}
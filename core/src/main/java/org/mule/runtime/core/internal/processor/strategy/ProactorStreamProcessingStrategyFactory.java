@@ -6,28 +6,35 @@
  */
 package org.mule.runtime.core.internal.processor.strategy;
 
-import static java.time.Duration.ofMillis;
+import static java.lang.Math.min;
+import static java.util.function.Function.identity;
 import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.BLOCKING;
 import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_INTENSIVE;
 import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE;
-import static org.slf4j.LoggerFactory.getLogger;
 import static reactor.core.publisher.Flux.from;
 import static reactor.core.publisher.Flux.just;
-import static reactor.core.publisher.Mono.delay;
 import static reactor.core.scheduler.Schedulers.fromExecutorService;
 
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.scheduler.Scheduler;
 import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.FlowConstruct;
+import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.api.processor.ReactiveProcessor;
 import org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType;
+import org.mule.runtime.core.api.processor.Sink;
 import org.mule.runtime.core.api.processor.strategy.ProcessingStrategy;
 import org.mule.runtime.core.api.scheduler.SchedulerService;
+import org.mule.runtime.core.internal.util.rx.ParkingExecutorServiceDecorator;
 
-import java.util.concurrent.RejectedExecutionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
-import org.slf4j.Logger;
+import reactor.core.Disposable;
+import reactor.core.publisher.WorkQueueProcessor;
 
 /**
  * Creates {@link ReactorProcessingStrategyFactory.ReactorProcessingStrategy} instance that implements the proactor pattern by
@@ -37,6 +44,10 @@ import org.slf4j.Logger;
  * {@link ProcessingType#BLOCKING} processors differently and schedules there execution on dedicated
  * {@link SchedulerService#cpuIntensiveScheduler()} and {@link SchedulerService#ioScheduler()} ()} schedulers.
  * <p/>
+ * When {@link #setCpuLightAffinity(boolean)} is enabled, each ring-buffer subscriber owns a dedicated single-threaded cpu-light
+ * worker instead of sharing the {@link SchedulerService#cpuLightScheduler()}, and events resume on the worker of their
+ * subscriber after being processed by {@link ProcessingType#CPU_INTENSIVE} or {@link ProcessingType#BLOCKING} processors.
+ * <p/>
  * This processing strategy is not suitable for transactional flows and will fail if used with an active transaction.
  *
  * @since 4.0
@@ -46,10 +57,52 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
   private static final ReactorProcessingStrategyFactory NOT_CONCURRENT_TX_AWARE_PS_FACTORY =
       new ReactorProcessingStrategyFactory();
 
+  protected static String AFFINITY_WORKER_SCHEDULER_NAME_SUFFIX = ".cpu-light-affinity-";
+
+  private boolean cpuLightAffinity = false;
+
+  /**
+   * Configure whether each ring-buffer subscriber owns a dedicated cpu-light worker thread that processes all of the events the
+   * subscriber takes from the ring-buffer, rather than dispatching them to the shared cpu-light scheduler. Keeping an event on
+   * the same thread while it is not offloaded avoids the cache misses caused by moving it between cores, at the cost of not
+   * balancing cpu-light work between subscribers.
+   *
+   * @param cpuLightAffinity {@code true} to use a dedicated cpu-light worker per subscriber.
+   */
+  public void setCpuLightAffinity(boolean cpuLightAffinity) {
+    this.cpuLightAffinity = cpuLightAffinity;
+  }
+
+  protected boolean isCpuLightAffinity() {
+    return cpuLightAffinity;
+  }
+
   @Override
   public ProcessingStrategy create(MuleContext muleContext, String schedulersNamePrefix) {
     if (getMaxConcurrency() == 1) {
       return NOT_CONCURRENT_TX_AWARE_PS_FACTORY.create(muleContext, schedulersNamePrefix);
+    } else if (cpuLightAffinity) {
+      return new AffinityProactorStreamProcessingStrategy(() -> muleContext.getSchedulerService()
+          .customScheduler(muleContext.getSchedulerBaseConfig()
+              .withName(schedulersNamePrefix + RING_BUFFER_SCHEDULER_NAME_SUFFIX)
+              .withMaxConcurrentTasks(getSubscriberCount() + 1)),
+                                                          getBufferSize(),
+                                                          getSubscriberCount(),
+                                                          getWaitStrategy(), () -> muleContext.getSchedulerService()
+                                                              .cpuLightScheduler(muleContext.getSchedulerBaseConfig()
+                                                                  .withName(schedulersNamePrefix + "." + CPU_LITE.name())),
+                                                          createBlockingSchedulerSupplier(muleContext, schedulersNamePrefix),
+                                                          () -> muleContext.getSchedulerService()
+                                                              .cpuIntensiveScheduler(muleContext.getSchedulerBaseConfig()
+                                                                  .withName(schedulersNamePrefix + "."
+                                                                      + CPU_INTENSIVE.name())),
+                                                          index -> muleContext.getSchedulerService()
+                                                              .customScheduler(muleContext.getSchedulerBaseConfig()
+                                                                  .withName(schedulersNamePrefix
+                                                                      + AFFINITY_WORKER_SCHEDULER_NAME_SUFFIX + index)
+                                                                  .withMaxConcurrentTasks(1), getBufferSize()),
+                                                          getMaxConcurrency(), getMaxBatchSize(), getBatchWindow(),
+                                                          createBatchTimerSchedulerSupplier(muleContext, schedulersNamePrefix));
     } else {
       return new ProactorStreamProcessingStrategy(() -> muleContext.getSchedulerService()
           .customScheduler(muleContext.getSchedulerBaseConfig()
@@ -60,20 +113,33 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
                                                   getWaitStrategy(), () -> muleContext.getSchedulerService()
                                                       .cpuLightScheduler(muleContext.getSchedulerBaseConfig()
                                                           .withName(schedulersNamePrefix + "." + CPU_LITE.name())),
-                                                  () -> muleContext.getSchedulerService()
-                                                      .ioScheduler(muleContext.getSchedulerBaseConfig()
-                                                          .withName(schedulersNamePrefix + "." + BLOCKING.name())),
+                                                  createBlockingSchedulerSupplier(muleContext, schedulersNamePrefix),
                                                   () -> muleContext.getSchedulerService()
                                                       .cpuIntensiveScheduler(muleContext.getSchedulerBaseConfig()
                                                           .withName(schedulersNamePrefix + "." + CPU_INTENSIVE.name())),
-                                                  getMaxConcurrency());
+                                                  getMaxConcurrency(), getMaxBatchSize(), getBatchWindow(),
+                                                  createBatchTimerSchedulerSupplier(muleContext, schedulersNamePrefix));
     }
   }
 
+  /**
+   * Provides the {@link Scheduler} to use for {@link ProcessingType#BLOCKING} processors.
+   *
+   * @param muleContext the context of the flow the processing strategy is created for.
+   * @param schedulersNamePrefix the prefix for the names of the schedulers of the processing strategy.
+   * @return the supplier of the scheduler for blocking processors.
+   */
+  protected Supplier<Scheduler> createBlockingSchedulerSupplier(MuleContext muleContext, String schedulersNamePrefix) {
+    return () -> muleContext.getSchedulerService()
+        .ioScheduler(muleContext.getSchedulerBaseConfig().withName(schedulersNamePrefix + "." + BLOCKING.name()));
+  }
+
   @Override
   public Class<? extends ProcessingStrategy> getProcessingStrategyType() {
     if (getMaxConcurrency() == 1) {
       return NOT_CONCURRENT_TX_AWARE_PS_FACTORY.getProcessingStrategyType();
+    } else if (cpuLightAffinity) {
+      return AffinityProactorStreamProcessingStrategy.class;
     } else {
       return ProactorStreamProcessingStrategy.class;
     }
@@ -81,13 +147,12 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
 
   static class ProactorStreamProcessingStrategy extends ReactorStreamProcessingStrategy {
 
-    private static Logger LOGGER = getLogger(ProactorStreamProcessingStrategy.class);
-    private static int SCHEDULER_BUSY_RETRY_INTERVAL_MS = 10;
-
     private Supplier<Scheduler> blockingSchedulerSupplier;
     private Supplier<Scheduler> cpuIntensiveSchedulerSupplier;
     private Scheduler blockingScheduler;
     private Scheduler cpuIntensiveScheduler;
+    private ExecutorService blockingExecutor;
+    private ExecutorService cpuIntensiveExecutor;
 
     public ProactorStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier,
                                             int bufferSize,
@@ -104,15 +169,50 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
       this.cpuIntensiveSchedulerSupplier = cpuIntensiveSchedulerSupplier;
     }
 
+    public ProactorStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier,
+                                            int bufferSize,
+                                            int subscriberCount,
+                                            String waitStrategy,
+                                            Supplier<Scheduler> cpuLightSchedulerSupplier,
+                                            Supplier<Scheduler> blockingSchedulerSupplier,
+                                            Supplier<Scheduler> cpuIntensiveSchedulerSupplier,
+                                            int maxConcurrency,
+                                            int maxBatchSize,
+                                            long batchWindow,
+                                            Supplier<Scheduler> batchTimerSchedulerSupplier) {
+      super(ringBufferSchedulerSupplier, bufferSize, subscriberCount, waitStrategy, cpuLightSchedulerSupplier, maxConcurrency,
+            maxBatchSize, batchWindow, batchTimerSchedulerSupplier);
+      this.blockingSchedulerSupplier = blockingSchedulerSupplier;
+      this.cpuIntensiveSchedulerSupplier = cpuIntensiveSchedulerSupplier;
+    }
+
     @Override
     public void start() throws MuleException {
       super.start();
       this.blockingScheduler = blockingSchedulerSupplier.get();
       this.cpuIntensiveScheduler = cpuIntensiveSchedulerSupplier.get();
+      this.blockingExecutor = createParkingExecutor(blockingScheduler);
+      this.cpuIntensiveExecutor = createParkingExecutor(cpuIntensiveScheduler);
+    }
+
+    /**
+     * Events for which the given scheduler has no capacity are parked in a queue bounded to the ring-buffer size and resumed as
+     * soon as one of the tasks of this flow in that scheduler completes. When none is in flight, or the queue is full, the event
+     * is processed by the thread offloading it instead, holding back the ring-buffer subscriber.
+     */
+    private ExecutorService createParkingExecutor(Scheduler scheduler) {
+      return new ParkingExecutorServiceDecorator(decorateScheduler(scheduler), bufferSize);
     }
 
     @Override
     public void stop() throws MuleException {
+      // runs the parked events before their scheduler stops
+      if (blockingExecutor != null) {
+        blockingExecutor.shutdown();
+      }
+      if (cpuIntensiveExecutor != null) {
+        cpuIntensiveExecutor.shutdown();
+      }
       if (blockingScheduler != null) {
         blockingScheduler.stop();
       }
@@ -125,28 +225,115 @@ public class ProactorStreamProcessingStrategyFactory extends ReactorStreamProces
     @Override
     public ReactiveProcessor onProcessor(ReactiveProcessor processor) {
       if (processor.getProcessingType() == BLOCKING && maxConcurrency > subscribers) {
-        return proactor(processor, blockingScheduler);
+        return proactor(processor, blockingExecutor);
       } else if (processor.getProcessingType() == CPU_INTENSIVE && maxConcurrency > subscribers) {
-        return proactor(processor, cpuIntensiveScheduler);
+        return proactor(processor, cpuIntensiveExecutor);
       } else {
         return super.onProcessor(processor);
       }
     }
 
-    private ReactiveProcessor proactor(ReactiveProcessor processor, Scheduler scheduler) {
+    private ReactiveProcessor proactor(ReactiveProcessor processor, ExecutorService executor) {
       return publisher -> from(publisher)
           .flatMap(event -> just(event).transform(processor)
-              .publishOn(fromExecutorService(decorateScheduler(getCpuLightScheduler())))
-              .subscribeOn(fromExecutorService(decorateScheduler(scheduler)))
-              .doOnError(RejectedExecutionException.class, throwable -> LOGGER.trace("Shared scheduler " + scheduler.getName()
-                  + " is busy.  Scheduling of the current event will be retried after " + SCHEDULER_BUSY_RETRY_INTERVAL_MS
-                  + "ms."))
-              .retryWhen(errors -> errors
-                  .flatMap(error -> delay(ofMillis(SCHEDULER_BUSY_RETRY_INTERVAL_MS),
-                                          fromExecutorService(getCpuLightScheduler())))),
+              .publishOn(fromExecutorService(getResumeExecutor()))
+              .subscribeOn(fromExecutorService(executor)),
                    maxConcurrency);
     }
 
+    /**
+     * Provides the executor on which processing of the current event is resumed after a {@link ProcessingType#CPU_INTENSIVE} or
+     * {@link ProcessingType#BLOCKING} processor. Invoked for each event on the thread that offloads it.
+     *
+     * @return the executor to resume processing with.
+     */
+    protected ExecutorService getResumeExecutor() {
+      return decorateScheduler(getCpuLightScheduler());
+    }
+
+  }
+
+  /**
+   * {@link ProactorStreamProcessingStrategy} in which each ring-buffer subscriber owns an {@link AffinityWorker} that runs all of
+   * the cpu-light processing of the events the subscriber takes from the ring-buffer. Events offloaded to the cpu-intensive or
+   * blocking schedulers return to the worker that offloaded them.
+   * <p/>
+   * The JVM does not provide a way to pin threads to cores, so affinity is to a dedicated thread, which the operating system
+   * scheduler tends to keep on the same core.
+   */
+  static class AffinityProactorStreamProcessingStrategy extends ProactorStreamProcessingStrategy {
+
+    private final IntFunction<Scheduler> workerSchedulerFactory;
+    private final List<AffinityWorker> workers = new ArrayList<>();
+
+    AffinityProactorStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier,
+                                             int bufferSize,
+                                             int subscriberCount,
+                                             String waitStrategy,
+                                             Supplier<Scheduler> cpuLightSchedulerSupplier,
+                                             Supplier<Scheduler> blockingSchedulerSupplier,
+                                             Supplier<Scheduler> cpuIntensiveSchedulerSupplier,
+                                             IntFunction<Scheduler> workerSchedulerFactory,
+                                             int maxConcurrency,
+                                             int maxBatchSize,
+                                             long batchWindow,
+                                             Supplier<Scheduler> batchTimerSchedulerSupplier) {
+      super(ringBufferSchedulerSupplier, bufferSize, subscriberCount, waitStrategy, cpuLightSchedulerSupplier,
+            blockingSchedulerSupplier, cpuIntensiveSchedulerSupplier, maxConcurrency, maxBatchSize, batchWindow,
+            batchTimerSchedulerSupplier);
+      this.workerSchedulerFactory = workerSchedulerFactory;
+    }
+
+    @Override
+    public void start() throws MuleException {
+      super.start();
+      for (int i = 0; i < min(maxConcurrency, subscribers); i++) {
+        workers.add(new AffinityWorker(workerSchedulerFactory.apply(i)));
+      }
+    }
+
+    @Override
+    public void stop() throws MuleException {
+      workers.forEach(worker -> worker.stop());
+      workers.clear();
+      super.stop();
+    }
+
+    @Override
+    public Sink createSink(FlowConstruct flowConstruct, ReactiveProcessor function) {
+      if (maxBatchSize > 1) {
+        WorkQueueProcessor<List<BaseEvent>> processor =
+            WorkQueueProcessor.share(ringBufferSchedulerSupplier.get(), bufferSize, waitStrategy.getReactorWaitStrategy(), false);
+        List<Disposable> subscriptions = new ArrayList<>();
+        for (AffinityWorker worker : workers) {
+          subscriptions.add(processor.publishOn(fromExecutorService(worker)).<BaseEvent>concatMapIterable(identity())
+              .transform(function).subscribe());
+        }
+        return createBatchingSink(processor, subscriptions);
+      }
+      WorkQueueProcessor<BaseEvent> processor =
+          WorkQueueProcessor.share(ringBufferSchedulerSupplier.get(), bufferSize, waitStrategy.getReactorWaitStrategy(), false);
+      List<Disposable> disposables = new ArrayList<>();
+      for (AffinityWorker worker : workers) {
+        disposables.add(processor.publishOn(fromExecutorService(worker)).transform(function).subscribe());
+      }
+      disposables.add(() -> processor.shutdown());
+      return new ReactorSink(processor.connectSink(), () -> disposables.forEach(disposable -> disposable.dispose()),
+                             createOnEventConsumer());
+    }
+
+    @Override
+    public ReactiveProcessor onPipeline(ReactiveProcessor pipeline) {
+      // Events are already on the worker of their subscriber, so they are not dispatched to the shared cpu-light scheduler.
+      return pipeline;
+    }
+
+    @Override
+    protected ExecutorService getResumeExecutor() {
+      AffinityWorker worker = AffinityWorker.current();
+      return worker != null ? worker : super.getResumeExecutor();
+    }
+
   }
 
 }
@@ -47,7 +47,8 @@ public class ReactorStreamProcessingStrategyFactory extends AbstractStreamProces
                                                () -> muleContext.getSchedulerService()
                                                    .cpuLightScheduler(muleContext.getSchedulerBaseConfig()
                                                        .withName(schedulersNamePrefix + "." + CPU_LITE.name())),
-                                               getMaxConcurrency());
+                                               getMaxConcurrency(), getMaxBatchSize(), getBatchWindow(),
+                                               createBatchTimerSchedulerSupplier(muleContext, schedulersNamePrefix));
   }
 
   @Override
@@ -66,6 +67,14 @@ public class ReactorStreamProcessingStrategyFactory extends AbstractStreamProces
       this.cpuLightSchedulerSupplier = cpuLightSchedulerSupplier;
     }
 
+    ReactorStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier, int bufferSize, int subscribers,
+                                    String waitStrategy, Supplier<Scheduler> cpuLightSchedulerSupplier, int maxConcurrency,
+                                    int maxBatchSize, long batchWindow, Supplier<Scheduler> batchTimerSchedulerSupplier) {
+      super(ringBufferSchedulerSupplier, bufferSize, subscribers, waitStrategy, maxConcurrency, maxBatchSize, batchWindow,
+            batchTimerSchedulerSupplier);
+      this.cpuLightSchedulerSupplier = cpuLightSchedulerSupplier;
+    }
+
     @Override
     public ReactiveProcessor onPipeline(ReactiveProcessor pipeline) {
       if (maxConcurrency > subscribers) {
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType;
+import org.mule.runtime.core.api.scheduler.SchedulerService;
+
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Creates {@link ProactorStreamProcessingStrategyFactory.ProactorStreamProcessingStrategy} instances that, on JVMs that support
+ * virtual threads, run {@link ProcessingType#BLOCKING} processors each on its own virtual thread instead of on a thread of the
+ * {@link SchedulerService#ioScheduler()}. The number of blocking processors running concurrently is then limited only by the
+ * configured max concurrency instead of by the size of the IO thread pool, which suits flows with many concurrent IO-bound
+ * operations.
+ * <p>
+ * On JVMs without virtual threads this processing strategy behaves as the {@link ProactorStreamProcessingStrategyFactory}.
+ * <p/>
+ * This processing strategy is not suitable for transactional flows and will fail if used with an active transaction.
+ *
+ * @since 4.0
+ */
+public class VirtualThreadProactorStreamProcessingStrategyFactory extends ProactorStreamProcessingStrategyFactory {
+
+  private static final Logger LOGGER = getLogger(VirtualThreadProactorStreamProcessingStrategyFactory.class);
+
+  @Override
+  protected Supplier<Scheduler> createBlockingSchedulerSupplier(MuleContext muleContext, String schedulersNamePrefix) {
+    Supplier<Scheduler> ioSchedulerSupplier = super.createBlockingSchedulerSupplier(muleContext, schedulersNamePrefix);
+    if (!VirtualThreadScheduler.isSupported()) {
+      LOGGER.warn("Virtual threads are not supported by this JVM, blocking processors of '{}' will use the IO scheduler",
+                  schedulersNamePrefix);
+      return ioSchedulerSupplier;
+    }
+    return () -> new VirtualThreadScheduler(ioSchedulerSupplier.get(), getMaxConcurrency());
+  }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.processor.strategy;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.scheduler.Scheduler;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link Scheduler} that runs each submitted task on a new virtual thread, limiting the number of tasks running concurrently
+ * with a {@link Semaphore} rather than with a number of platform threads. Tasks submitted when there are no permits available
+ * are rejected with a {@link RejectedExecutionException}, the same as a busy Mule scheduler does.
+ * <p>
+ * Delayed, periodic and cron tasks are not run on virtual threads but by the delegate {@link Scheduler}, which also provides the
+ * name of this scheduler.
+ * <p>
+ * Virtual threads are only available in Java 21 and later and are accessed reflectively. Use {@link #isSupported()} before
+ * creating an instance.
+ *
+ * @since 4.0
+ */
+class VirtualThreadScheduler extends AbstractExecutorService implements Scheduler {
+
+  private static final Logger LOGGER = getLogger(VirtualThreadScheduler.class);
+
+  private static final Method OF_VIRTUAL;
+  private static final Method BUILDER_NAME;
+  private static final Method BUILDER_FACTORY;
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderFactory = null;
+    Method newThreadPerTaskExecutor = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builderName = builderClass.getMethod("name", String.class, long.class);
+      builderFactory = builderClass.getMethod("factory");
+      newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      // Fails on JVMs where virtual threads are a preview feature that has not been enabled.
+      ofVirtual.invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      LOGGER.debug("Virtual threads are not supported by this JVM", e);
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_FACTORY = builderFactory;
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+  }
+
+  /**
+   * @return whether the running JVM supports virtual threads.
+   */
+  static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  private final Scheduler delegate;
+  private final ExecutorService virtualThreadsExecutor;
+  private final Semaphore permits;
+  private final int maxConcurrency;
+
+  /**
+   * Creates a new {@link VirtualThreadScheduler}.
+   *
+   * @param delegate the scheduler to use for delayed, periodic and cron tasks.
+   * @param maxConcurrency the maximum number of tasks that may run at the same time.
+   */
+  VirtualThreadScheduler(Scheduler delegate, int maxConcurrency) {
+    if (!isSupported()) {
+      throw new IllegalStateException("Virtual threads are not supported by this JVM");
+    }
+    this.delegate = delegate;
+    this.maxConcurrency = maxConcurrency;
+    this.permits = new Semaphore(maxConcurrency);
+    this.virtualThreadsExecutor = createVirtualThreadsExecutor(delegate.getName() + ".virtual.");
+  }
+
+  private static ExecutorService createVirtualThreadsExecutor(String threadNamePrefix) {
+    try {
+      Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), threadNamePrefix, 0L);
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, BUILDER_FACTORY.invoke(builder));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Unable to create virtual threads executor", e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("Unable to create virtual threads executor", e.getCause());
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (!permits.tryAcquire()) {
+      throw new RejectedExecutionException("Scheduler " + getName() + " is already running " + maxConcurrency + " tasks");
+    }
+    try {
+      virtualThreadsExecutor.execute(() -> {
+        try {
+          command.run();
+        } finally {
+          permits.release();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return delegate.schedule(command, delay, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return delegate.schedule(callable, delay, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+    return delegate.scheduleAtFixedRate(command, initialDelay, period, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    return delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithCronExpression(Runnable command, String cronExpression) {
+    return delegate.scheduleWithCronExpression(command, cronExpression);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithCronExpression(Runnable command, String cronExpression, TimeZone timeZone) {
+    return delegate.scheduleWithCronExpression(command, cronExpression, timeZone);
+  }
+
+  @Override
+  public void stop() {
+    virtualThreadsExecutor.shutdownNow();
+    delegate.stop();
+  }
+
+  @Override
+  public void shutdown() {
+    virtualThreadsExecutor.shutdown();
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> notRun = new ArrayList<>(virtualThreadsExecutor.shutdownNow());
+    notRun.addAll(delegate.shutdownNow());
+    return notRun;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return virtualThreadsExecutor.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return virtualThreadsExecutor.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return virtualThreadsExecutor.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public String toString() {
+    return getName() + " (virtual threads, maxConcurrency " + maxConcurrency + ")";
+  }
+}
@@ -49,7 +49,8 @@ public class WorkQueueStreamProcessingStrategyFactory extends AbstractStreamProc
                                                  () -> muleContext.getSchedulerService()
                                                      .ioScheduler(muleContext.getSchedulerBaseConfig()
                                                          .withName(schedulersNamePrefix + "." + BLOCKING.name())),
-                                                 getMaxConcurrency());
+                                                 getMaxConcurrency(), getMaxBatchSize(), getBatchWindow(),
+                                                 createBatchTimerSchedulerSupplier(muleContext, schedulersNamePrefix));
   }
 
   @Override
@@ -72,6 +73,16 @@ public class WorkQueueStreamProcessingStrategyFactory extends AbstractStreamProc
       this.blockingSchedulerSupplier = requireNonNull(blockingSchedulerSupplier);
     }
 
+    protected WorkQueueStreamProcessingStrategy(Supplier<Scheduler> ringBufferSchedulerSupplier, int bufferSize,
+                                                int subscribers,
+                                                String waitStrategy, Supplier<Scheduler> blockingSchedulerSupplier,
+                                                int maxConcurrency, int maxBatchSize, long batchWindow,
+                                                Supplier<Scheduler> batchTimerSchedulerSupplier) {
+      super(ringBufferSchedulerSupplier, bufferSize, subscribers, waitStrategy, maxConcurrency, maxBatchSize, batchWindow,
+            batchTimerSchedulerSupplier);
+      this.blockingSchedulerSupplier = requireNonNull(blockingSchedulerSupplier);
+    }
+
     @Override
     public ReactiveProcessor onPipeline(ReactiveProcessor pipeline) {
       if (maxConcurrency > subscribers) {
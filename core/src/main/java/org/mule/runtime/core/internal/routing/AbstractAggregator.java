@@ -10,6 +10,7 @@ import static java.lang.String.format;
 import static org.mule.runtime.api.store.ObjectStoreManager.BASE_IN_MEMORY_OBJECT_STORE_KEY;
 import static org.mule.runtime.api.store.ObjectStoreManager.BASE_PERSISTENT_OBJECT_STORE_KEY;
 import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_STORE_MANAGER;
+import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_TIMING_WHEEL;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
 import static org.mule.runtime.core.api.rx.Exceptions.checkedFunction;
 import static org.mule.runtime.core.internal.util.rx.Operators.nullSafeMap;
@@ -83,6 +84,7 @@ public abstract class AbstractAggregator extends AbstractInterceptingMessageProc
 
     eventCorrelator.setTimeout(timeout);
     eventCorrelator.setFailOnTimeout(isFailOnTimeout());
+    eventCorrelator.setTimingWheel(muleContext.getRegistry().lookupObject(OBJECT_TIMING_WHEEL));
   }
 
   protected void initProcessedGroupsObjectStore() {
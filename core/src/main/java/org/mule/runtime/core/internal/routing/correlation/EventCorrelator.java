@@ -8,9 +8,11 @@ package org.mule.runtime.core.internal.routing.correlation;
 
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
 import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.correlationTimedOut;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.objectIsNull;
@@ -45,10 +47,17 @@ import org.mule.runtime.core.api.util.StringMessageUtils;
 import org.mule.runtime.core.api.util.monitor.Expirable;
 import org.mule.runtime.core.api.util.monitor.ExpiryMonitor;
 import org.mule.runtime.core.internal.routing.EventGroup;
+import org.mule.runtime.core.internal.util.timer.TimingWheel;
+import org.mule.runtime.core.internal.util.timer.TimingWheel.Timeout;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,9 +73,25 @@ public class EventCorrelator implements Startable, Stoppable {
 
   private static final long DELAY_TIME = 10;
 
-  protected final Object groupsLock = new Object();
+  /**
+   * Interval at which the primary node looks for stored groups without a registered deadline, such as the ones recovered from a
+   * persistent store or added by another node of the cluster.
+   */
+  private static final long RECONCILE_INTERVAL = MINUTES.toMillis(1);
+
+  /**
+   * Number of locks among which the groups are distributed. Must be a power of two.
+   */
+  private static final int GROUP_LOCK_STRIPES = 64;
 
-  // @GuardedBy groupsLock
+  /**
+   * Locks which ensure that each group is evaluated by only one thread at a time, while events for groups guarded by
+   * different locks are processed concurrently. The group instances can't be used as locks since a persistent store returns a
+   * new instance each time a group is retrieved.
+   */
+  private final Object[] groupLocks = new Object[GROUP_LOCK_STRIPES];
+
+  // @GuardedBy the lock of each group
   protected ObjectStore<Long> processedGroups = null;
 
   private long timeout = -1; // undefined
@@ -90,6 +115,13 @@ public class EventCorrelator implements Startable, Stoppable {
 
   private Scheduler scheduler;
   private ExpiringGroupMonitoringRunnable expiringGroupRunnable;
+
+  private volatile TimingWheel timingWheel;
+  private boolean ownsTimingWheel = false;
+  private volatile boolean expiryEnabled = false;
+  private final ConcurrentMap<String, GroupDeadline> groupDeadlines = new ConcurrentHashMap<>();
+  private final Queue<String> expiredGroupIds = new ConcurrentLinkedQueue<>();
+
   private final String name;
 
   private final FlowConstruct flowConstruct;
@@ -117,6 +149,18 @@ public class EventCorrelator implements Startable, Stoppable {
     this.correlatorStore = correlatorStore;
     this.storePrefix = storePrefix;
     this.processedGroups = processedGroups;
+    for (int i = 0; i < groupLocks.length; i++) {
+      groupLocks[i] = new Object();
+    }
+  }
+
+  /**
+   * @param groupId the id of an event group
+   * @return the lock which guards the evaluation of the group
+   */
+  protected Object getGroupLock(Object groupId) {
+    int hash = Objects.hashCode(groupId);
+    return groupLocks[(hash ^ (hash >>> 16)) & (GROUP_LOCK_STRIPES - 1)];
   }
 
   public void forceGroupExpiry(String groupId) throws MuleException {
@@ -185,7 +229,16 @@ public class EventCorrelator implements Startable, Stoppable {
       }
 
       // ensure that only one thread at a time evaluates this EventGroup
-      synchronized (groupsLock) {
+      synchronized (getGroupLock(groupId)) {
+        try {
+          // the group may have been aggregated by another thread since it was retrieved
+          if (isGroupAlreadyProcessed(groupId)) {
+            continue;
+          }
+        } catch (ObjectStoreException e) {
+          throw new RoutingException(timeoutMessageProcessor, e);
+        }
+
         if (logger.isDebugEnabled()) {
           logger.debug("Adding event to aggregator group: " + groupId);
         }
@@ -249,6 +302,7 @@ public class EventCorrelator implements Startable, Stoppable {
   protected EventGroup addEventGroup(EventGroup group) throws ObjectStoreException {
     try {
       correlatorStore.store((String) group.getGroupId(), group, getEventGroupsPartitionKey());
+      scheduleGroupExpiry(group);
       return group;
     } catch (ObjectAlreadyExistsException e) {
       return getEventGroup((String) group.getGroupId());
@@ -257,24 +311,62 @@ public class EventCorrelator implements Startable, Stoppable {
 
   protected void removeEventGroup(EventGroup group) throws ObjectStoreException {
     final Object groupId = group.getGroupId();
-    synchronized (groupsLock) {
+    synchronized (getGroupLock(groupId)) {
       if (!isGroupAlreadyProcessed(groupId)) {
         correlatorStore.remove((String) groupId, getEventGroupsPartitionKey());
         addProcessedGroup(groupId);
       }
     }
+    cancelGroupExpiry((String) groupId);
+  }
+
+  /**
+   * Registers the deadline of the given group in the {@link TimingWheel}, unless it already has one.
+   */
+  private void scheduleGroupExpiry(EventGroup group) {
+    final TimingWheel wheel = timingWheel;
+    if (!expiryEnabled || wheel == null) {
+      return;
+    }
+
+    final String groupId = (String) group.getGroupId();
+    GroupDeadline deadline = new GroupDeadline(groupId);
+    if (groupDeadlines.putIfAbsent(groupId, deadline) == null) {
+      // the group is expired once the current time is strictly after its deadline
+      deadline.timeout = wheel.schedule(deadline, group.getCreated() + getTimeout() - currentTimeMillis() + 1,
+                                        MILLISECONDS);
+    }
+  }
+
+  private void cancelGroupExpiry(String groupId) {
+    GroupDeadline deadline = groupDeadlines.remove(groupId);
+    if (deadline != null && deadline.timeout != null) {
+      deadline.timeout.cancel();
+    }
+  }
+
+  /**
+   * Sets the {@link TimingWheel} in which the deadlines of the groups are registered. If none is set, this correlator drives
+   * its own wheel while it is started.
+   *
+   * @param timingWheel the wheel shared by the components of the application
+   */
+  public void setTimingWheel(TimingWheel timingWheel) {
+    this.timingWheel = timingWheel;
   }
 
   protected void addProcessedGroup(Object id) throws ObjectStoreException {
-    synchronized (groupsLock) {
+    synchronized (getGroupLock(id)) {
       processedGroups.store((String) id, currentTimeMillis());
     }
   }
 
+  /**
+   * Checks without locking, since the store of processed groups is thread safe. Callers which need the result to still hold
+   * when acting on it must hold the lock of the group.
+   */
   protected boolean isGroupAlreadyProcessed(Object id) throws ObjectStoreException {
-    synchronized (groupsLock) {
-      return processedGroups.contains((String) id);
-    }
+    return processedGroups.contains((String) id);
   }
 
   public boolean isFailOnTimeout() {
@@ -351,6 +443,13 @@ public class EventCorrelator implements Startable, Stoppable {
   public void start() throws MuleException {
     logger.info("Starting event correlator: " + name);
     if (timeout != 0) {
+      if (timingWheel == null) {
+        timingWheel = new TimingWheel();
+        timingWheel.setMuleContext(muleContext);
+        ownsTimingWheel = true;
+      }
+      expiryEnabled = true;
+
       scheduler = muleContext.getSchedulerService().customScheduler(muleContext.getSchedulerBaseConfig().withName(name)
           .withMaxConcurrentTasks(1).withShutdownTimeout(0, MILLISECONDS));
       expiringGroupRunnable = new ExpiringGroupMonitoringRunnable();
@@ -368,11 +467,45 @@ public class EventCorrelator implements Startable, Stoppable {
       expiringGroupRunnable.dispose();
       expiringGroupRunnable = null;
     }
+
+    expiryEnabled = false;
+    for (String groupId : groupDeadlines.keySet()) {
+      cancelGroupExpiry(groupId);
+    }
+    expiredGroupIds.clear();
+    if (ownsTimingWheel) {
+      timingWheel.dispose();
+      timingWheel = null;
+      ownsTimingWheel = false;
+    }
+  }
+
+  /**
+   * The deadline of a group registered in the {@link TimingWheel}. When reached, the id of the group is handed to the
+   * {@link ExpiringGroupMonitoringRunnable}, since the expiration of the group can't be done by the thread of the wheel.
+   */
+  private final class GroupDeadline implements Runnable {
+
+    private final String groupId;
+    private volatile Timeout timeout;
+
+    private GroupDeadline(String groupId) {
+      this.groupId = groupId;
+    }
+
+    @Override
+    public void run() {
+      if (groupDeadlines.remove(groupId, this)) {
+        expiredGroupIds.add(groupId);
+      }
+    }
   }
 
   private final class ExpiringGroupMonitoringRunnable implements Runnable, Expirable, Disposable {
 
     private ExpiryMonitor expiryMonitor;
+    private long lastReconcile;
+    private boolean reconciled = false;
 
     public ExpiringGroupMonitoringRunnable() {
       this.expiryMonitor = new ExpiryMonitor(name, MINUTES.toMillis(1), muleContext, true);
@@ -404,20 +537,32 @@ public class EventCorrelator implements Startable, Stoppable {
       //// start the thread on the primary node only, and then use a notification schema to start a new thread
       //// in a different node when the primary goes down.
       if (!muleContext.isPrimaryPollingInstance()) {
+        // the primary node will register the deadlines of these groups when reconciling
+        expiredGroupIds.clear();
+        reconciled = false;
         return;
       }
 
+      if (!reconciled || NANOSECONDS.toMillis(nanoTime() - lastReconcile) >= RECONCILE_INTERVAL) {
+        reconcile();
+      }
+
       List<EventGroup> expired = new ArrayList<>(1);
-      try {
-        for (String o : (List<String>) correlatorStore.allKeys(getEventGroupsPartitionKey())) {
-          EventGroup group = getEventGroup(o);
-          // group may have been removed by another thread right after eventGroups.allKeys()
-          if (group != null && group.getCreated() + getTimeout() < currentTimeMillis()) {
-            expired.add(group);
+      String groupId;
+      while ((groupId = expiredGroupIds.poll()) != null) {
+        try {
+          EventGroup group = getEventGroup(groupId);
+          // group may have been removed by another thread after its deadline was reached
+          if (group != null) {
+            if (group.getCreated() + getTimeout() < currentTimeMillis()) {
+              expired.add(group);
+            } else {
+              scheduleGroupExpiry(group);
+            }
           }
+        } catch (ObjectStoreException e) {
+          logger.warn("expiry failed dues to ObjectStoreException " + e);
         }
-      } catch (ObjectStoreException e) {
-        logger.warn("expiry failed dues to ObjectStoreException " + e);
       }
       for (final EventGroup group : expired) {
         try {
@@ -430,6 +575,27 @@ public class EventCorrelator implements Startable, Stoppable {
       }
     }
 
+    /**
+     * Registers the deadlines of the stored groups which don't have one yet.
+     */
+    private void reconcile() {
+      reconciled = true;
+      lastReconcile = nanoTime();
+      try {
+        for (String o : (List<String>) correlatorStore.allKeys(getEventGroupsPartitionKey())) {
+          if (!groupDeadlines.containsKey(o)) {
+            EventGroup group = getEventGroup(o);
+            // group may have been removed by another thread right after eventGroups.allKeys()
+            if (group != null) {
+              scheduleGroupExpiry(group);
+            }
+          }
+        }
+      } catch (ObjectStoreException e) {
+        logger.warn("expiry failed dues to ObjectStoreException " + e);
+      }
+    }
+
     @Override
     public void dispose() {
       if (expiryMonitor != null) {
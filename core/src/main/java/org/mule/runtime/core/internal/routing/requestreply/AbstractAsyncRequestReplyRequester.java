@@ -7,9 +7,13 @@
 package org.mule.runtime.core.internal.routing.requestreply;
 
 import static java.lang.String.format;
+import static java.lang.System.nanoTime;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mule.runtime.core.api.config.MuleProperties.MULE_SESSION_PROPERTY;
 import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_STORE_MANAGER;
+import static org.mule.runtime.core.api.config.MuleProperties.OBJECT_TIMING_WHEEL;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.responseTimedOutWaitingForId;
 import static org.mule.runtime.core.api.context.notification.RoutingNotification.ASYNC_REPLY_TIMEOUT;
 import static org.mule.runtime.core.api.context.notification.RoutingNotification.MISSED_ASYNC_REPLY;
@@ -44,6 +48,7 @@ import org.mule.runtime.core.api.util.concurrent.Latch;
 import org.mule.runtime.core.internal.message.InternalMessage;
 import org.mule.runtime.core.internal.message.InternalEvent;
 import org.mule.runtime.core.privileged.event.PrivilegedEvent;
+import org.mule.runtime.core.internal.util.timer.TimingWheel;
 import org.mule.runtime.core.privileged.processor.AbstractInterceptingMessageProcessorBase;
 
 import org.apache.commons.collections.buffer.BoundedFifoBuffer;
@@ -51,7 +56,10 @@ import org.apache.commons.collections.buffer.BoundedFifoBuffer;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 
 public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterceptingMessageProcessorBase
@@ -61,6 +69,13 @@ public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterce
   private static final long UNCLAIMED_TIME_TO_LIVE = 60000;
   private static final long UNCLAIMED_INTERVAL = 60000;
   private static final String NAME_TEMPLATE = "%s.%s.%s.asyncReplies";
+  private static final long REPLY_RECHECK_INTERVAL = 100;
+
+  /**
+   * Interval at which the store is looked for replies which were not received by this instance, such as the ones stored by
+   * another node of the cluster or recovered from a persistent store.
+   */
+  private static final long RECONCILE_INTERVAL = SECONDS.toMillis(1);
 
   protected String name;
 
@@ -71,6 +86,11 @@ public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterce
   private Scheduler scheduler;
   private NotificationDispatcher notificationFirer;
   private AsyncReplyMonitoringRunnable replyRunnable;
+  private volatile TimingWheel timingWheel;
+  private boolean ownsTimingWheel = false;
+  // ids of the replies which couldn't be settled when received, and are checked again once their recheck deadline is reached
+  private final Set<String> rechecksScheduled = ConcurrentHashMap.newKeySet();
+  private final Queue<String> repliesToRecheck = new ConcurrentLinkedQueue<>();
   protected final Map<String, RequestReplyLatch> locks = new ConcurrentHashMap<>();
   private String storePrefix = "";
 
@@ -155,10 +175,16 @@ public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterce
     } catch (RegistrationException e) {
       throw new InitialisationException(e, this);
     }
+    timingWheel = muleContext.getRegistry().lookupObject(OBJECT_TIMING_WHEEL);
   }
 
   @Override
   public void start() throws MuleException {
+    if (timingWheel == null) {
+      timingWheel = new TimingWheel();
+      timingWheel.setMuleContext(muleContext);
+      ownsTimingWheel = true;
+    }
     scheduler = muleContext.getSchedulerService().customScheduler(muleContext.getSchedulerBaseConfig().withName(name)
         .withMaxConcurrentTasks(1)
         .withShutdownTimeout(0, MILLISECONDS));
@@ -171,6 +197,13 @@ public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterce
     if (scheduler != null) {
       scheduler.stop();
     }
+    rechecksScheduled.clear();
+    repliesToRecheck.clear();
+    if (ownsTimingWheel) {
+      timingWheel.dispose();
+      timingWheel = null;
+      ownsTimingWheel = false;
+    }
   }
 
   @Override
@@ -297,7 +330,7 @@ public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterce
         multipleEvent.addEvent(event);
         store.store(messageId, multipleEvent);
       }
-      replyRunnable.run();
+      replyRunnable.processReply(messageId);
       return null;
     }
   }
@@ -307,68 +340,111 @@ public abstract class AbstractAsyncRequestReplyRequester extends AbstractInterce
     return ObjectUtils.toString(this);
   }
 
+  /**
+   * Matches the received replies with the requests waiting for them. Each reply is processed when received and, if it can't be
+   * settled yet, once more each time its recheck deadline in the {@link TimingWheel} is reached, until it is or it's evicted
+   * from the store. Replies which were not received by this instance are found by reconciling with the store upon start and
+   * every {@link #RECONCILE_INTERVAL}.
+   */
   private class AsyncReplyMonitoringRunnable implements Runnable {
 
+    private long lastReconcile;
+    private boolean reconciled = false;
+
     @Override
     public void run() {
+      if (!reconciled || NANOSECONDS.toMillis(nanoTime() - lastReconcile) >= RECONCILE_INTERVAL) {
+        reconcile();
+      }
+
+      String correlationId;
+      while ((correlationId = repliesToRecheck.poll()) != null) {
+        processReply(correlationId);
+      }
+    }
+
+    /**
+     * Processes the stored replies for requests of this instance which don't have a recheck scheduled yet.
+     */
+    private void reconcile() {
+      reconciled = true;
+      lastReconcile = nanoTime();
       try {
         List<Serializable> ids = store.allKeys();
-        logger.debug("Found " + ids.size() + " objects in store");
         for (Serializable id : ids) {
-          try {
-            boolean deleteEvent = false;
-            String correlationId = (String) id;
-            MultipleRequestReplierEvent multipleEvent = (MultipleRequestReplierEvent) store.retrieve(correlationId);
+          String correlationId = (String) id;
+          if (!rechecksScheduled.contains(correlationId) && (locks.containsKey(correlationId)
+              || isAlreadyProcessed(new ProcessedEvents(correlationId, EndReason.FINISHED_BY_TIMEOUT)))) {
+            processReply(correlationId);
+          }
+        }
+      } catch (ObjectStoreException e) {
+        logger.debug("Error reconciling async replies", e);
+      }
+    }
 
-            if (isAlreadyProcessed(new ProcessedEvents(correlationId, EndReason.FINISHED_BY_TIMEOUT))) {
-              deleteEvent = true;
-              BaseEvent event = multipleEvent.getEvent();
-              if (logger.isDebugEnabled()) {
-                logger.debug("An event was received for an event group that has already been processed, "
-                    + "this is because the async-reply timed out. GroupCorrelation Id is: "
-                    + correlationId + ". Dropping event");
+    private void processReply(String correlationId) {
+      try {
+        boolean deleteEvent = false;
+        MultipleRequestReplierEvent multipleEvent = (MultipleRequestReplierEvent) store.retrieve(correlationId);
+
+        if (isAlreadyProcessed(new ProcessedEvents(correlationId, EndReason.FINISHED_BY_TIMEOUT))) {
+          deleteEvent = true;
+          BaseEvent event = multipleEvent.getEvent();
+          if (logger.isDebugEnabled()) {
+            logger.debug("An event was received for an event group that has already been processed, "
+                + "this is because the async-reply timed out. GroupCorrelation Id is: "
+                + correlationId + ". Dropping event");
+          }
+          // Fire a notification to say we received this message
+          notificationFirer.dispatch(new RoutingNotification(event.getMessage(), event.getContext().getOriginatingLocation()
+              .getComponentIdentifier().getIdentifier().getNamespace(), MISSED_ASYNC_REPLY));
+        } else {
+          RequestReplyLatch requestReplyLatch = locks.get(correlationId);
+          if (requestReplyLatch != null) {
+            BaseEvent event = retrieveEvent(correlationId);
+
+            BaseEvent previousResult = responseEvents.putIfAbsent(correlationId, event);
+            if (previousResult != null) {
+              // this would indicate that we need a better way to prevent
+              // continued aggregation for a group that is currently being
+              // processed. Can this actually happen?
+              throw new IllegalStateException("Detected duplicate result message with id: " + correlationId);
+            }
+            if (requestReplyLatch.isSequenceEvent()) {
+              if (requestReplyLatch.isLastEvent()) {
+                addProcessed(new ProcessedEvents(correlationId));
+                deleteEvent = true;
               }
-              // Fire a notification to say we received this message
-              notificationFirer.dispatch(new RoutingNotification(event.getMessage(), event.getContext().getOriginatingLocation()
-                  .getComponentIdentifier().getIdentifier().getNamespace(), MISSED_ASYNC_REPLY));
             } else {
-              RequestReplyLatch requestReplyLatch = locks.get(correlationId);
-              if (requestReplyLatch != null) {
-                BaseEvent event = retrieveEvent(correlationId);
-
-                BaseEvent previousResult = responseEvents.putIfAbsent(correlationId, event);
-                if (previousResult != null) {
-                  // this would indicate that we need a better way to prevent
-                  // continued aggregation for a group that is currently being
-                  // processed. Can this actually happen?
-                  throw new IllegalStateException("Detected duplicate result message with id: " + correlationId);
-                }
-                if (requestReplyLatch.isSequenceEvent()) {
-                  if (requestReplyLatch.isLastEvent()) {
-                    addProcessed(new ProcessedEvents(correlationId));
-                    deleteEvent = true;
-                  }
-                } else {
-                  addProcessed(new ProcessedEvents(correlationId));
-                  deleteEvent = true;
-                }
-
-                requestReplyLatch.countDown();
-                multipleEvent.removeEvent();
-              }
+              addProcessed(new ProcessedEvents(correlationId));
+              deleteEvent = true;
             }
 
-            if (deleteEvent) {
-              store.remove(correlationId);
-            }
-          } catch (Exception ex) {
-            logger.debug("Error processing async replies", ex);
+            requestReplyLatch.countDown();
+            multipleEvent.removeEvent();
           }
         }
+
+        if (deleteEvent) {
+          store.remove(correlationId);
+        } else if (store.contains(correlationId)) {
+          scheduleRecheck(correlationId);
+        }
       } catch (Exception ex) {
         logger.debug("Error processing async replies", ex);
       }
     }
+
+    private void scheduleRecheck(String correlationId) {
+      TimingWheel wheel = timingWheel;
+      if (wheel != null && rechecksScheduled.add(correlationId)) {
+        wheel.schedule(() -> {
+          rechecksScheduled.remove(correlationId);
+          repliesToRecheck.add(correlationId);
+        }, REPLY_RECHECK_INTERVAL, MILLISECONDS);
+      }
+    }
   }
 
   private BaseEvent retrieveEvent(String correlationId) throws ObjectStoreException, DefaultMuleException {
@@ -36,6 +36,20 @@ public abstract class AbstractSerializationProtocol implements SerializationProt
    */
   protected abstract byte[] doSerialize(Object object) throws Exception;
 
+  /**
+   * Serializes the given object into {@code out}. Should not care about error handling nor closing the stream.
+   * <p>
+   * This default implementation writes the result of {@link #doSerialize(Object)}. Implementations that can write to the stream
+   * directly should override it to avoid building the intermediate array.
+   *
+   * @param object the object to be serialized
+   * @param out    the stream to write to
+   * @throws Exception any exception thrown. Base class will handle accordingly
+   */
+  protected void doSerialize(Object object, OutputStream out) throws Exception {
+    out.write(doSerialize(object));
+  }
+
   /**
    * Deserializes the given {@code inputStream} using the provided {@code classLoader}. No need to worry about error handling or
    * deserialization post initialization. Base class does all of that automatically
@@ -68,11 +82,14 @@ public abstract class AbstractSerializationProtocol implements SerializationProt
   @Override
   public void serialize(Object object, OutputStream out) throws SerializationException {
     try {
-      byte[] bytes = serialize(object);
-      out.write(bytes);
+      doSerialize(object, out);
       out.flush();
+    } catch (SerializationException e) {
+      throw e;
     } catch (IOException e) {
       throw new SerializationException("Could not write to output stream", e);
+    } catch (Exception e) {
+      throw new SerializationException("Could not serialize object", e);
     } finally {
       closeQuietly(out);
     }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.serialization;
+
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.context.MuleContextAware;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes objects used internally by the runtime, such as the contents of persistent queues, object stores and correlation
+ * stores, with a {@link CompactSerializationProtocol}. The external protocol still uses the default Java serialization, so what
+ * is exchanged with other systems doesn't change.
+ * <p>
+ * An application selects it by declaring it and referencing it from the {@code defaultObjectSerializer-ref} attribute of its
+ * {@code configuration} element. Additional classes to be written as a registered id may be given through
+ * {@link #setRegisteredClasses(List)}.
+ *
+ * @since 4.0
+ */
+public class CompactObjectSerializer implements ObjectSerializer, MuleContextAware {
+
+  private final JavaExternalSerializerProtocol javaSerializerProtocol = new JavaExternalSerializerProtocol();
+  private volatile CompactSerializationProtocol compactSerializerProtocol = new CompactSerializationProtocol();
+  private MuleContext muleContext;
+
+  @Override
+  public SerializationProtocol getInternalProtocol() {
+    return compactSerializerProtocol;
+  }
+
+  @Override
+  public SerializationProtocol getExternalProtocol() {
+    return javaSerializerProtocol;
+  }
+
+  /**
+   * @param registeredClasses the names of the classes to register on top of the default ones of
+   *                          {@link CompactSerializationProtocol}
+   */
+  public void setRegisteredClasses(List<String> registeredClasses) {
+    CompactSerializationProtocol protocol = new CompactSerializationProtocol(new ArrayList<>(registeredClasses));
+    if (muleContext != null) {
+      protocol.setMuleContext(muleContext);
+    }
+    compactSerializerProtocol = protocol;
+  }
+
+  @Override
+  public void setMuleContext(MuleContext context) {
+    this.muleContext = context;
+    javaSerializerProtocol.setMuleContext(context);
+    compactSerializerProtocol.setMuleContext(context);
+  }
+}
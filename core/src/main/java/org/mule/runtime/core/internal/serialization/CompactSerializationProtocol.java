@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.mule.runtime.core.api.util.IOUtils.toByteArray;
+
+import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.input.ClassLoaderObjectInputStream;
+
+/**
+ * Implementation of {@link SerializationProtocol} that keeps the semantics of Java serialization, so custom
+ * {@code writeObject}/{@code readObject} methods and {@link Serializable} contracts are honored, but with a much more compact
+ * encoding of the class metadata, which is what dominates the size of serialized events and messages.
+ * <p>
+ * Instead of the full class descriptor, with the name and type of every field, each class is written as:
+ * <ul>
+ * <li>a small numeric id, for the classes registered in this protocol. Events, messages, typed values, event groups and the
+ * classes they are built from are registered by default</li>
+ * <li>its name, for any other class that can be resolved by name on the reading side</li>
+ * <li>the full Java descriptor, for arrays, primitives and interfaces which are not registered</li>
+ * </ul>
+ * The reading side uses the descriptor of its own version of each class, so the writer and the reader must run the same
+ * version of the classes and register the same ones in the same order, as the nodes of a cluster or a persistent store of the
+ * same application do. Objects are written directly to the target stream.
+ *
+ * @since 4.0
+ */
+public class CompactSerializationProtocol extends AbstractSerializationProtocol {
+
+  private static final int STREAM_VERSION = 1;
+
+  private static final int DESCRIPTOR_REGISTERED = 0;
+  private static final int DESCRIPTOR_NAME = 1;
+  private static final int DESCRIPTOR_FULL = 2;
+
+  private static final int MAX_REGISTERED_CLASSES = 0xFFFF;
+
+  /**
+   * The classes registered by default. New entries must only be appended, since the position of each class is its id.
+   */
+  private static final List<String> DEFAULT_REGISTERED_CLASSES = unmodifiableList(asList(
+      "java.lang.Number",
+      "java.lang.Integer",
+      "java.lang.Long",
+      "java.lang.Short",
+      "java.lang.Byte",
+      "java.lang.Double",
+      "java.lang.Float",
+      "java.lang.Boolean",
+      "java.lang.Character",
+      "java.lang.Enum",
+      "[B",
+      "[Ljava.lang.Object;",
+      "[Ljava.lang.String;",
+      "java.util.ArrayList",
+      "java.util.LinkedList",
+      "java.util.HashMap",
+      "java.util.LinkedHashMap",
+      "java.util.TreeMap",
+      "java.util.HashSet",
+      "java.util.LinkedHashSet",
+      "java.util.Date",
+      "org.mule.runtime.api.metadata.TypedValue",
+      "org.mule.runtime.api.metadata.MediaType",
+      "org.mule.runtime.api.util.CaseInsensitiveMapWrapper",
+      "org.mule.runtime.core.internal.metadata.SimpleDataType",
+      "org.mule.runtime.core.internal.metadata.DefaultCollectionDataType",
+      "org.mule.runtime.core.internal.metadata.DefaultMapDataType",
+      "org.mule.runtime.core.internal.metadata.DefaultFunctionDataType",
+      "org.mule.runtime.core.internal.message.DefaultMessageBuilder$MessageImplementation",
+      "org.mule.runtime.core.internal.message.DefaultExceptionPayload",
+      "org.mule.runtime.core.internal.event.DefaultEventBuilder$InternalEventImplementation",
+      "org.mule.runtime.core.internal.event.DefaultEventContext",
+      "org.mule.runtime.core.internal.event.DefaultEventContext$ChildEventContext",
+      "org.mule.runtime.core.internal.context.notification.DefaultProcessorsTrace",
+      "org.mule.runtime.core.internal.context.notification.DefaultFlowCallStack",
+      "org.mule.runtime.core.internal.util.PersistentCaseInsensitiveMap",
+      "org.mule.runtime.core.api.management.stats.ProcessingTime",
+      "org.mule.runtime.core.api.session.DefaultMuleSession",
+      "org.mule.runtime.core.api.message.GroupCorrelation",
+      "org.mule.runtime.core.api.message.ErrorBuilder$ErrorImplementation",
+      "org.mule.runtime.core.internal.routing.EventGroup"));
+
+  private final List<String> registeredClasses;
+  private final Map<String, Integer> registeredClassIds;
+
+  public CompactSerializationProtocol() {
+    this(new ArrayList<>());
+  }
+
+  /**
+   * @param additionalClasses the names of classes to register on top of the default ones, so they are written as an id. Every
+   *                          node reading what this protocol writes must register the same classes in the same order
+   */
+  public CompactSerializationProtocol(List<String> additionalClasses) {
+    List<String> classes = new ArrayList<>(DEFAULT_REGISTERED_CLASSES);
+    classes.addAll(additionalClasses);
+    checkArgument(classes.size() <= MAX_REGISTERED_CLASSES, "Cannot register more than " + MAX_REGISTERED_CLASSES + " classes");
+    registeredClasses = unmodifiableList(classes);
+
+    registeredClassIds = new HashMap<>();
+    for (int i = 0; i < registeredClasses.size(); ++i) {
+      registeredClassIds.putIfAbsent(registeredClasses.get(i), i);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected byte[] doSerialize(Object object) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    doSerialize(object, out);
+    return out.toByteArray();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void doSerialize(Object object, OutputStream out) throws Exception {
+    if (object instanceof CursorStreamProvider) {
+      try (CursorStream cursor = ((CursorStreamProvider) object).openCursor()) {
+        object = toByteArray(cursor);
+      }
+    }
+    if (object != null && !(object instanceof Serializable)) {
+      throw new SerializationException(format("Was expecting a Serializable type. %s was found instead",
+                                              object.getClass().getName()));
+    }
+
+    ObjectOutputStream objectOut = new CompactObjectOutputStream(out);
+    objectOut.writeObject(object);
+    objectOut.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected <T> T doDeserialize(InputStream inputStream, ClassLoader classLoader) throws Exception {
+    checkArgument(inputStream != null, "Cannot deserialize a null stream");
+    checkArgument(classLoader != null, "Cannot deserialize with a null classloader");
+
+    return (T) new CompactObjectInputStream(classLoader, inputStream).readObject();
+  }
+
+  private class CompactObjectOutputStream extends ObjectOutputStream {
+
+    private CompactObjectOutputStream(OutputStream out) throws IOException {
+      super(out);
+    }
+
+    @Override
+    protected void writeStreamHeader() throws IOException {
+      writeByte(STREAM_VERSION);
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+      Integer id = registeredClassIds.get(desc.getName());
+      if (id != null) {
+        writeByte(DESCRIPTOR_REGISTERED);
+        writeShort(id);
+        return;
+      }
+
+      Class<?> type = desc.forClass();
+      if (type == null || type.isPrimitive() || type.isArray() || type.isInterface()) {
+        writeByte(DESCRIPTOR_FULL);
+        super.writeClassDescriptor(desc);
+      } else {
+        writeByte(DESCRIPTOR_NAME);
+        writeUTF(desc.getName());
+      }
+    }
+  }
+
+  private class CompactObjectInputStream extends ClassLoaderObjectInputStream {
+
+    private final ClassLoader classLoader;
+    // Each registered class is resolved once per stream
+    private final Class<?>[] resolvedClasses = new Class<?>[registeredClasses.size()];
+
+    private CompactObjectInputStream(ClassLoader classLoader, InputStream in) throws IOException {
+      super(classLoader, in);
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    protected void readStreamHeader() throws IOException {
+      int version = readByte();
+      if (version != STREAM_VERSION) {
+        throw new StreamCorruptedException(format("Unsupported stream version %d, expected %d", version, STREAM_VERSION));
+      }
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+      int kind = readByte();
+      switch (kind) {
+        case DESCRIPTOR_REGISTERED:
+          int id = readUnsignedShort();
+          if (id >= resolvedClasses.length) {
+            throw new StreamCorruptedException("Unknown registered class id " + id);
+          }
+          if (resolvedClasses[id] == null) {
+            resolvedClasses[id] = Class.forName(registeredClasses.get(id), false, classLoader);
+          }
+          return ObjectStreamClass.lookupAny(resolvedClasses[id]);
+        case DESCRIPTOR_NAME:
+          return ObjectStreamClass.lookupAny(Class.forName(readUTF(), false, classLoader));
+        case DESCRIPTOR_FULL:
+          return super.readClassDescriptor();
+        default:
+          throw new StreamCorruptedException("Unexpected class descriptor kind " + kind);
+      }
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      // Descriptors of registered and named classes were already resolved when read
+      Class<?> type = desc.forClass();
+      return type != null ? type : super.resolveClass(desc);
+    }
+  }
+}
@@ -6,9 +6,12 @@
  */
 package org.mule.runtime.core.internal.streaming;
 
+import org.mule.runtime.api.streaming.Cursor;
 import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.core.api.event.BaseEventContext;
 
+import java.util.Set;
+
 /**
  * Groups a {@link CursorProvider} with information about its context
  *
@@ -18,16 +21,23 @@ public final class CursorContext {
 
   private final CursorProvider cursorProvider;
   private final BaseEventContext ownerContext;
+  private final EventStreamingState streamingState;
+  private final Set<Cursor> openCursors;
 
   /**
    * Creates a new instance
    *
    * @param cursorProvider the {@link CursorProvider} which will be managed
    * @param ownerContext   the {@link BaseEventContext} which owns the {@code cursorProvider}
+   * @param streamingState the {@link EventStreamingState} of the {@code ownerContext}
+   * @param openCursors    the set in which the {@code streamingState} tracks the open cursors of the {@code cursorProvider}
    */
-  public CursorContext(CursorProvider cursorProvider, BaseEventContext ownerContext) {
+  public CursorContext(CursorProvider cursorProvider, BaseEventContext ownerContext, EventStreamingState streamingState,
+                       Set<Cursor> openCursors) {
     this.cursorProvider = cursorProvider;
     this.ownerContext = ownerContext;
+    this.streamingState = streamingState;
+    this.openCursors = openCursors;
   }
 
   /**
@@ -43,4 +53,12 @@ public final class CursorContext {
   public BaseEventContext getOwnerContext() {
     return ownerContext;
   }
+
+  EventStreamingState getStreamingState() {
+    return streamingState;
+  }
+
+  Set<Cursor> getOpenCursors() {
+    return openCursors;
+  }
 }
@@ -7,7 +7,6 @@
 package org.mule.runtime.core.internal.streaming;
 
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
-import static reactor.core.publisher.Mono.from;
 
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.streaming.Cursor;
@@ -19,38 +18,23 @@ import org.mule.runtime.core.api.event.BaseEventContext;
 import org.mule.runtime.core.internal.streaming.bytes.ManagedCursorStreamProvider;
 import org.mule.runtime.core.internal.streaming.object.ManagedCursorIteratorProvider;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalNotification;
-
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 /**
  * Keeps track of active {@link Cursor cursors} and their {@link CursorProvider providers}
+ * <p>
+ * The tracking state is attached to the root {@link BaseEventContext} of the event which created each provider, which disposes
+ * it upon completion. Hence, no lookups nor completion subscriptions other than the first one for each root context are
+ * performed while managing providers and cursors.
  *
  * @since 4.0
  */
 public class CursorManager {
 
-  private static Logger LOGGER = LoggerFactory.getLogger(CursorManager.class);
-
-  private final LoadingCache<String, EventStreamingState> registry =
-      CacheBuilder.newBuilder()
-          .removalListener((RemovalNotification<String, EventStreamingState> notification) -> notification.getValue().dispose())
-          .build(new CacheLoader<String, EventStreamingState>() {
-
-            @Override
-            public EventStreamingState load(String key) throws Exception {
-              return new EventStreamingState();
-            }
-          });
-
-  private MutableStreamingStatistics statistics;
+  private final MutableStreamingStatistics statistics;
+  private final Supplier<EventStreamingState> streamingStateFactory;
 
   /**
    * Creates a new instance
@@ -59,6 +43,7 @@ public class CursorManager {
    */
   public CursorManager(MutableStreamingStatistics statistics) {
     this.statistics = statistics;
+    streamingStateFactory = () -> new EventStreamingState(statistics);
   }
 
   /**
@@ -71,10 +56,10 @@ public class CursorManager {
    */
   public CursorProvider manage(CursorProvider provider, BaseEvent creatorEvent) {
     final BaseEventContext ownerContext = getRoot(((BaseEventContext) creatorEvent.getContext()));
-    registerEventContext(ownerContext);
-    registry.getUnchecked(ownerContext.getId()).addProvider(provider);
+    final EventStreamingState streamingState = ownerContext.getStreamingState(streamingStateFactory);
+    final Set<Cursor> openCursors = streamingState.addProvider(provider);
 
-    final CursorContext context = new CursorContext(provider, ownerContext);
+    final CursorContext context = new CursorContext(provider, ownerContext, streamingState, openCursors);
     if (provider instanceof CursorStreamProvider) {
       return new ManagedCursorStreamProvider(context, this);
     } else if (provider instanceof CursorIteratorProvider) {
@@ -91,7 +76,7 @@ public class CursorManager {
    * @param providerHandle the handle for the provider that generated it
    */
   public void onOpen(Cursor cursor, CursorContext providerHandle) {
-    registry.getUnchecked(providerHandle.getOwnerContext().getId()).addCursor(providerHandle.getCursorProvider(), cursor);
+    providerHandle.getOpenCursors().add(cursor);
     statistics.incrementOpenCursors();
   }
 
@@ -103,111 +88,22 @@ public class CursorManager {
    * @param handle the handle for the provider that generated it
    */
   public void onClose(Cursor cursor, CursorContext handle) {
-    final String eventId = handle.getOwnerContext().getId();
-    EventStreamingState state = registry.getIfPresent(eventId);
-
-    if (state != null && state.removeCursor(handle.getCursorProvider(), cursor)) {
-      state.dispose();
-      registry.invalidate(eventId);
+    final Set<Cursor> openCursors = handle.getOpenCursors();
+    if (openCursors.remove(cursor)) {
+      statistics.decrementOpenCursors();
     }
-  }
 
-  private void terminated(BaseEventContext rootContext) {
-    EventStreamingState state = registry.getIfPresent(rootContext.getId());
-    if (state != null) {
-      state.dispose();
-      registry.invalidate(rootContext.getId());
+    if (openCursors.isEmpty() && handle.getCursorProvider().isClosed()) {
+      handle.getStreamingState().dispose();
     }
   }
 
-  /**
-   * Duplicate registration will occur if cursors are opened in multiple child flows or processing branches. This means terminate
-   * will fire multiple times sequentially during completion of the parent EventContext. After the first terminate all other
-   * invocation will literally be no-ops. This is preferred to introducing contention here given multiple thread may be opening
-   * cursors concurrently.
-   */
-  private void registerEventContext(BaseEventContext eventContext) {
-    from(eventContext.getCompletionPublisher()).subscribe(null, null, () -> terminated(eventContext));
-  }
-
   private BaseEventContext getRoot(BaseEventContext eventContext) {
-    return eventContext.getParentContext()
-        .map(this::getRoot)
-        .orElse(eventContext);
-  }
-
-  private class EventStreamingState {
-
-    private boolean disposed = false;
-
-    private final LoadingCache<CursorProvider, List<Cursor>> cursors = CacheBuilder.newBuilder()
-        .build(new CacheLoader<CursorProvider, List<Cursor>>() {
-
-          @Override
-          public List<Cursor> load(CursorProvider key) throws Exception {
-            statistics.incrementOpenProviders();
-            return new LinkedList<>();
-          }
-        });
-
-    private synchronized void addProvider(CursorProvider adapter) {
-      cursors.getUnchecked(adapter);
-    }
-
-    private void addCursor(CursorProvider provider, Cursor cursor) {
-      cursors.getUnchecked(provider).add(cursor);
-    }
-
-    private boolean removeCursor(CursorProvider provider, Cursor cursor) {
-      List<Cursor> openCursors = cursors.getUnchecked(provider);
-      if (openCursors.remove(cursor)) {
-        statistics.decrementOpenCursors();
-      }
-
-      if (openCursors.isEmpty()) {
-        if (provider.isClosed()) {
-          dispose();
-          cursors.invalidate(provider);
-          return true;
-        }
-      }
-
-      return false;
+    Optional<BaseEventContext> parent;
+    while ((parent = eventContext.getParentContext()).isPresent()) {
+      eventContext = parent.get();
     }
 
-    private void dispose() {
-      if (disposed) {
-        return;
-      }
-
-      cursors.asMap().forEach((provider, cursors) -> {
-        try {
-          closeProvider(provider);
-          releaseAll(cursors);
-        } finally {
-          provider.releaseResources();
-        }
-      });
-
-      disposed = true;
-    }
-
-    private void releaseAll(List<Cursor> cursors) {
-      cursors.forEach(cursor -> {
-        try {
-          cursor.release();
-          statistics.decrementOpenCursors();
-        } catch (Exception e) {
-          LOGGER.warn("Exception was found trying to close cursor. Execution will continue", e);
-        }
-      });
-    }
-
-    private void closeProvider(CursorProvider provider) {
-      if (!provider.isClosed()) {
-        provider.close();
-        statistics.decrementOpenProviders();
-      }
-    }
+    return eventContext;
   }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming;
+
+import static java.util.concurrent.ConcurrentHashMap.newKeySet;
+
+import org.mule.runtime.api.streaming.Cursor;
+import org.mule.runtime.api.streaming.CursorProvider;
+import org.mule.runtime.core.api.event.BaseEventContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the {@link CursorProvider providers} and {@link Cursor cursors} which were opened during the execution of a
+ * root {@link BaseEventContext}.
+ * <p>
+ * Instances are attached to the context itself through {@link BaseEventContext#getStreamingState(java.util.function.Supplier)},
+ * which also takes care of invoking {@link #onContextCompletion()} once the context completes. Providers added after that are
+ * closed and released right away, since nothing else would.
+ *
+ * @since 4.0
+ */
+public final class EventStreamingState {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventStreamingState.class);
+
+  private final MutableStreamingStatistics statistics;
+  private final ConcurrentMap<CursorProvider, Set<Cursor>> providers = new ConcurrentHashMap<>(4);
+  private volatile boolean contextCompleted = false;
+
+  /**
+   * Creates a new instance
+   *
+   * @param statistics statistics which values should be kept updated
+   */
+  EventStreamingState(MutableStreamingStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Starts tracking the given {@code provider}. Adding the same provider more than once has no effect.
+   *
+   * @param provider the provider to track
+   * @return the set in which the open cursors of the {@code provider} are to be tracked
+   */
+  Set<Cursor> addProvider(CursorProvider provider) {
+    Set<Cursor> cursors = providers.computeIfAbsent(provider, key -> {
+      statistics.incrementOpenProviders();
+      return newKeySet();
+    });
+
+    // checked after adding the provider, so that either this or the disposal upon completion sees it
+    if (contextCompleted) {
+      dispose();
+    }
+    return cursors;
+  }
+
+  /**
+   * Disposes this state because its context completed. Providers added afterwards are disposed as soon as they are added.
+   */
+  public void onContextCompletion() {
+    contextCompleted = true;
+    dispose();
+  }
+
+  /**
+   * Closes and releases all the tracked providers and their open cursors. Each provider is released only once, even if this
+   * method is invoked concurrently, and stops being tracked afterwards.
+   */
+  public void dispose() {
+    providers.forEach((provider, cursors) -> {
+      if (providers.remove(provider, cursors)) {
+        try {
+          closeProvider(provider);
+          releaseAll(cursors);
+        } finally {
+          provider.releaseResources();
+        }
+      }
+    });
+  }
+
+  private void releaseAll(Set<Cursor> cursors) {
+    cursors.forEach(cursor -> {
+      if (cursors.remove(cursor)) {
+        try {
+          cursor.release();
+          statistics.decrementOpenCursors();
+        } catch (Exception e) {
+          LOGGER.warn("Exception was found trying to close cursor. Execution will continue", e);
+        }
+      }
+    });
+  }
+
+  private void closeProvider(CursorProvider provider) {
+    if (!provider.isClosed()) {
+      provider.close();
+      statistics.decrementOpenProviders();
+    }
+  }
+}
@@ -9,6 +9,8 @@ package org.mule.runtime.core.internal.streaming;
 import org.mule.runtime.core.api.streaming.StreamingStatistics;
 
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Mutable implementation of {@link StreamingStatistics}
@@ -19,6 +21,8 @@ public class MutableStreamingStatistics implements StreamingStatistics {
 
   private final AtomicInteger openProviders = new AtomicInteger(0);
   private final AtomicInteger openCursors = new AtomicInteger(0);
+  private final AtomicLong reservedBufferMemory = new AtomicLong(0);
+  private final LongAdder bufferMemoryInUse = new LongAdder();
 
   void incrementOpenProviders() {
     openProviders.incrementAndGet();
@@ -36,6 +40,38 @@ public class MutableStreamingStatistics implements StreamingStatistics {
     openCursors.decrementAndGet();
   }
 
+  /**
+   * Records a change in the amount of memory reserved by a buffer manager, whether it is in use or pooled.
+   *
+   * @param delta the amount of bytes reserved, or released if negative
+   */
+  public void addReservedBufferMemory(long delta) {
+    reservedBufferMemory.addAndGet(delta);
+  }
+
+  /**
+   * Records a change in the amount of buffer memory currently handed out to streams.
+   *
+   * @param delta the amount of bytes allocated, or deallocated if negative
+   */
+  public void addBufferMemoryInUse(long delta) {
+    bufferMemoryInUse.add(delta);
+  }
+
+  /**
+   * @return the amount of bytes reserved by the buffer manager, whether they are in use or pooled
+   */
+  public long getReservedBufferMemory() {
+    return reservedBufferMemory.get();
+  }
+
+  /**
+   * @return the amount of bytes of the buffers currently handed out to streams
+   */
+  public long getBufferMemoryInUse() {
+    return bufferMemoryInUse.sum();
+  }
+
   /**
    * {@inheritDoc}
    */
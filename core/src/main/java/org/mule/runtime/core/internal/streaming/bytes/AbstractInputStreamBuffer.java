@@ -171,7 +171,12 @@ public abstract class AbstractInputStreamBuffer extends AbstractStreamingBuffer
   private ByteBuffer softCopy(long position, int length) {
     final int offset = toIntExact(position);
     final ByteBuffer b = buffer.get();
-    return ByteBuffer.wrap(b.array(), offset, min(length, b.limit() - offset)).slice();
+    length = min(length, b.limit() - offset);
+    if (b.hasArray()) {
+      return ByteBuffer.wrap(b.array(), b.arrayOffset() + offset, length).slice();
+    }
+
+    return view(b, offset, length).slice();
   }
 
   private ByteBuffer hardCopy(long position, int length) {
@@ -180,7 +185,23 @@ public abstract class AbstractInputStreamBuffer extends AbstractStreamingBuffer
     length = min(length, bf.limit() - offset);
 
     byte[] b = new byte[length];
-    arraycopy(bf.array(), offset, b, 0, length);
+    if (bf.hasArray()) {
+      arraycopy(bf.array(), bf.arrayOffset() + offset, b, 0, length);
+    } else {
+      view(bf, offset, length).get(b);
+    }
     return ByteBuffer.wrap(b);
   }
+
+  /**
+   * Used for buffers which are not backed by an array, such as direct ones.
+   *
+   * @return a duplicate of {@code b} positioned at {@code offset} and limited to {@code length} bytes from there
+   */
+  private ByteBuffer view(ByteBuffer b, int offset, int length) {
+    ByteBuffer view = b.duplicate();
+    view.limit(offset + length);
+    view.position(offset);
+    return view;
+  }
 }
@@ -6,13 +6,21 @@
  */
 package org.mule.runtime.core.internal.streaming.bytes;
 
+import static java.lang.String.format;
+import static java.lang.System.getProperty;
+import static org.mule.runtime.api.config.PoolingProfile.DEFAULT_MAX_POOL_WAIT;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_STREAMING_BUFFER_MANAGER;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.api.streaming.bytes.factory.InMemoryCursorStreamProviderFactory;
+import org.mule.runtime.core.internal.streaming.bytes.factory.FileStoreCursorStreamProviderFactory;
 import org.mule.runtime.core.internal.streaming.bytes.factory.NullCursorStreamProviderFactory;
 import org.mule.runtime.core.api.streaming.StreamingManager;
 import org.mule.runtime.core.api.streaming.bytes.ByteStreamingManager;
 import org.mule.runtime.core.api.streaming.bytes.CursorStreamProviderFactory;
 import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.internal.streaming.DefaultMemoryManager;
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
 
 /**
  * Default implementation of {@link ByteStreamingManager}
@@ -21,6 +29,18 @@ import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
  */
 public class DefaultByteStreamingManager implements ByteStreamingManager {
 
+  /**
+   * Value of the {@link org.mule.runtime.core.api.config.MuleProperties#MULE_STREAMING_BUFFER_MANAGER} system property that
+   * selects the {@link PoolingByteBufferManager}. This is the default.
+   */
+  public static final String POOLING_BUFFER_MANAGER = "pooling";
+
+  /**
+   * Value of the {@link org.mule.runtime.core.api.config.MuleProperties#MULE_STREAMING_BUFFER_MANAGER} system property that
+   * selects the {@link SlabByteBufferManager}.
+   */
+  public static final String SLAB_BUFFER_MANAGER = "slab";
+
   private final ByteBufferManager bufferManager;
   protected final StreamingManager streamingManager;
 
@@ -37,6 +57,17 @@ public class DefaultByteStreamingManager implements ByteStreamingManager {
     return new InMemoryCursorStreamProviderFactory(bufferManager, config, streamingManager);
   }
 
+  /**
+   * Creates a {@link CursorStreamProviderFactory} which buffers in memory up to
+   * {@link FileStoreCursorStreamConfig#getMaxInMemorySize()} and in a temporal file afterwards.
+   *
+   * @param config the configuration for the produced {@link CursorStreamProvider} instances
+   * @return a new {@link CursorStreamProviderFactory}
+   */
+  public CursorStreamProviderFactory getFileStoreCursorProviderFactory(FileStoreCursorStreamConfig config) {
+    return new FileStoreCursorStreamProviderFactory(bufferManager, config, streamingManager);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -53,6 +84,25 @@ public class DefaultByteStreamingManager implements ByteStreamingManager {
     return new InMemoryCursorStreamProviderFactory(bufferManager, InMemoryCursorStreamConfig.getDefault(), streamingManager);
   }
 
+  /**
+   * Creates the {@link ByteBufferManager} selected through the
+   * {@link org.mule.runtime.core.api.config.MuleProperties#MULE_STREAMING_BUFFER_MANAGER} system property.
+   *
+   * @param statistics the {@link MutableStreamingStatistics} the buffer manager reports its memory usage to, if supported
+   * @return a new {@link ByteBufferManager}
+   */
+  public static ByteBufferManager createBufferManager(MutableStreamingStatistics statistics) {
+    String bufferManager = getProperty(MULE_STREAMING_BUFFER_MANAGER, POOLING_BUFFER_MANAGER);
+    if (POOLING_BUFFER_MANAGER.equals(bufferManager)) {
+      return new PoolingByteBufferManager();
+    } else if (SLAB_BUFFER_MANAGER.equals(bufferManager)) {
+      return new SlabByteBufferManager(new DefaultMemoryManager(), DEFAULT_MAX_POOL_WAIT, statistics);
+    } else {
+      throw new IllegalArgumentException(format("Invalid value for system property '%s'. One of '%s' or '%s' was expected, "
+          + "got '%s' instead", MULE_STREAMING_BUFFER_MANAGER, POOLING_BUFFER_MANAGER, SLAB_BUFFER_MANAGER, bufferManager));
+    }
+  }
+
   protected ByteBufferManager getBufferManager() {
     return bufferManager;
   }
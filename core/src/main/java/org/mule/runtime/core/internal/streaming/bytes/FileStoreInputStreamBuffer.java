@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.internal.streaming.TempBufferFileUtils.createBufferFile;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.util.LazyValue;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An implementation of {@link AbstractInputStreamBuffer} which holds the first bytes of the stream in memory and, once the
+ * memory buffer is full, spills the rest of the stream into a temporal file.
+ * <p>
+ * The in memory buffer is never expanded, so the amount of memory used is bounded by
+ * {@link FileStoreCursorStreamConfig#getMaxInMemorySize()} no matter how big the stream is. Data in the file is read with
+ * positional reads of a {@link FileChannel}, which do not alter the channel position and can therefore be performed
+ * concurrently by all the cursors of the stream.
+ * <p>
+ * The file is created lazily when the stream doesn't fit in memory, and deleted when this buffer is closed.
+ *
+ * @since 4.0
+ */
+public class FileStoreInputStreamBuffer extends AbstractInputStreamBuffer {
+
+  private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+
+  private final int maxInMemorySize;
+  private final LazyValue<ByteBuffer> spillBuffer;
+  private FileChannel fileChannel;
+  private long bufferTip = 0;
+
+  /**
+   * Creates a new instance
+   *
+   * @param stream        the stream to be buffered
+   * @param config        this buffer's configuration.
+   * @param bufferManager the {@link ByteBufferManager} that will be used to allocate all buffers
+   */
+  public FileStoreInputStreamBuffer(InputStream stream, FileStoreCursorStreamConfig config, ByteBufferManager bufferManager) {
+    super(stream, bufferManager, config.getMaxInMemorySize().toBytes());
+    this.maxInMemorySize = config.getMaxInMemorySize().toBytes();
+    this.spillBuffer = new LazyValue<>(() -> bufferManager.allocate(SPILL_BUFFER_SIZE));
+  }
+
+  @Override
+  protected ByteBuffer doGet(long position, int length) {
+    return withReadLock(releaser -> {
+      ByteBuffer presentRead = getFromCurrentData(position, length);
+      if (presentRead != null) {
+        return presentRead;
+      }
+
+      releaser.release();
+      return withWriteLock(() -> {
+        ByteBuffer refetch = getFromCurrentData(position, length);
+        while (refetch == null && !isStreamFullyConsumed()) {
+          try {
+            consumeForwardData();
+          } catch (IOException e) {
+            throw new MuleRuntimeException(createStaticMessage("Could not read stream"), e);
+          }
+          refetch = getFromCurrentData(position, length);
+        }
+
+        return refetch;
+      });
+    });
+  }
+
+  private ByteBuffer getFromCurrentData(long position, int length) throws IOException {
+    if (position >= bufferTip) {
+      return null;
+    }
+
+    length = toIntExact(min(length, bufferTip - position));
+    if (position < maxInMemorySize) {
+      return copy(position, toIntExact(min(length, maxInMemorySize - position)));
+    }
+
+    return readFromFile(position - maxInMemorySize, length);
+  }
+
+  private ByteBuffer readFromFile(long filePosition, int length) throws IOException {
+    ByteBuffer data = ByteBuffer.allocate(length);
+    while (data.hasRemaining()) {
+      if (fileChannel.read(data, filePosition + data.position()) < 0) {
+        break;
+      }
+    }
+    data.flip();
+    return data;
+  }
+
+  /**
+   * {@inheritDoc}
+   * Data is read into the memory buffer while it has remaining capacity, and appended to the buffer file afterwards.
+   */
+  @Override
+  public int consumeForwardData() throws IOException {
+    ByteBuffer memoryBuffer = buffer.get();
+    int read;
+    if (memoryBuffer.hasRemaining()) {
+      read = consumeStream(memoryBuffer);
+    } else {
+      ByteBuffer spill = spillBuffer.get();
+      spill.clear();
+      spill.limit(SPILL_BUFFER_SIZE);
+      read = consumeStream(spill);
+      if (read > 0) {
+        spill.flip();
+        FileChannel channel = getFileChannel();
+        long filePosition = bufferTip - maxInMemorySize;
+        while (spill.hasRemaining()) {
+          filePosition += channel.write(spill, filePosition);
+        }
+      }
+    }
+
+    if (read > 0) {
+      bufferTip += read;
+    } else {
+      streamFullyConsumed();
+    }
+
+    return read;
+  }
+
+  private FileChannel getFileChannel() throws IOException {
+    if (fileChannel == null) {
+      File bufferFile = createBufferFile("file-store-stream");
+      fileChannel = FileChannel.open(bufferFile.toPath(), CREATE, TRUNCATE_EXISTING, READ, WRITE, DELETE_ON_CLOSE);
+    }
+    return fileChannel;
+  }
+
+  /**
+   * {@inheritDoc}
+   * Closes and deletes the buffer file, if one was created.
+   */
+  @Override
+  public void doClose() {
+    spillBuffer.ifComputed(this::deallocate);
+    if (fileChannel != null) {
+      closeSafely(fileChannel::close);
+    }
+  }
+
+  /**
+   * The data in the memory buffer is never moved nor overwritten, so it can always be shared.
+   */
+  @Override
+  protected boolean canDoSoftCopy() {
+    return true;
+  }
+}
@@ -8,10 +8,10 @@ package org.mule.runtime.core.internal.streaming.bytes;
 
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
+import static java.util.Arrays.copyOf;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.streaming.exception.StreamingBufferSizeExceededException;
-import org.mule.runtime.api.util.LazyValue;
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
 
@@ -23,10 +23,15 @@ import java.nio.ByteBuffer;
  * An implementation of {@link AbstractInputStreamBuffer} which holds the buffered
  * information in memory.
  * <p>
- * If the buffer does not have enough capacity to hold all the data, then it will
- * expanded up to a certain threshold configured in the constructor. Once that threshold
- * is reached, a {@link StreamingBufferSizeExceededException} will be thrown. If no threshold
- * is provided, then the buffer will be allowed to grow indefinitely.
+ * The information is held in an append only chain of segments. The first one has the initial buffer size and each
+ * subsequent one has the size of the buffer increment. Once the segments reach a certain threshold configured in the
+ * constructor, a {@link StreamingBufferSizeExceededException} will be thrown. If no threshold is provided, then the
+ * buffer will be allowed to grow indefinitely.
+ * <p>
+ * Data which has already been buffered is never moved nor overwritten. The position up to which the segments have been
+ * filled is published through a volatile field, so cursors reading data behind it do so without any locking and get
+ * read-only slices of the segments instead of copies. Only cursors which need data which hasn't been buffered yet contend
+ * for the lock which guards the consumption of the stream.
  *
  * @since 4.0
  */
@@ -34,10 +39,21 @@ public class InMemoryStreamBuffer extends AbstractInputStreamBuffer {
 
   private static final int STREAM_FINISHED_PROBE = 10;
 
+  private final int initialBufferSize;
   private final int bufferSizeIncrement;
   private final int maxBufferSize;
-  private long bufferTip = 0;
-  private boolean streamFullyConsumed = false;
+
+  /**
+   * The segments in stream order. The array is replaced, never modified, each time a segment is added.
+   */
+  private volatile ByteBuffer[] segments = new ByteBuffer[0];
+  private volatile long bufferTip = 0;
+
+  /**
+   * A view of the last segment which is only used to write into it, so that the published segments are never modified.
+   */
+  private ByteBuffer writeSegment;
+  private long capacity = 0;
 
   /**
    * Creates a new instance
@@ -48,6 +64,7 @@ public class InMemoryStreamBuffer extends AbstractInputStreamBuffer {
   public InMemoryStreamBuffer(InputStream stream, InMemoryCursorStreamConfig config, ByteBufferManager bufferManager) {
     super(stream, bufferManager, config.getInitialBufferSize().toBytes());
 
+    this.initialBufferSize = config.getInitialBufferSize().toBytes();
     this.bufferSizeIncrement = config.getBufferSizeIncrement() != null
         ? config.getBufferSizeIncrement().toBytes()
         : 0;
@@ -57,147 +74,153 @@ public class InMemoryStreamBuffer extends AbstractInputStreamBuffer {
 
   @Override
   protected ByteBuffer doGet(long position, int length) {
-    return doGet(position, length, true);
-  }
-
-  private ByteBuffer doGet(long position, int length, boolean consumeStreamIfNecessary) {
-    return withReadLock(releaser -> {
+    ByteBuffer presentRead = getFromCurrentData(position, length);
+    if (presentRead != null) {
+      return presentRead;
+    }
 
-      ByteBuffer presentRead = getFromCurrentData(position, length);
-      if (presentRead != null) {
-        return presentRead;
+    return withWriteLock(() -> {
+      ByteBuffer refetch = getFromCurrentData(position, length);
+      while (refetch == null && !isStreamFullyConsumed()) {
+        try {
+          consumeForwardData();
+        } catch (IOException e) {
+          throw new MuleRuntimeException(createStaticMessage("Could not read stream"), e);
+        }
+        refetch = getFromCurrentData(position, length);
       }
 
-      if (consumeStreamIfNecessary) {
-        releaser.release();
-        return withWriteLock(() -> {
-
-          ByteBuffer refetch;
-          refetch = getFromCurrentData(position, length);
-          if (refetch != null) {
-            return refetch;
-          }
-
-          final long requiredUpperBound = position + length;
-          while (!isStreamFullyConsumed() && bufferTip < requiredUpperBound) {
-            try {
-              final int read = consumeForwardData();
-              if (read > 0) {
-                refetch = getFromCurrentData(position, min(length, read));
-                if (refetch != null) {
-                  return refetch;
-                }
-              } else {
-                streamFullyConsumed();
-                buffer.get().limit(buffer.get().position());
-              }
-            } catch (IOException e) {
-              throw new MuleRuntimeException(createStaticMessage("Could not read stream"), e);
-            }
-          }
-
-          return doGet(position, length, false);
-        });
-      } else {
-        return getFromCurrentData(position, length);
-      }
+      return refetch;
     });
   }
 
   private ByteBuffer getFromCurrentData(long position, int length) {
-    if (isStreamFullyConsumed() && position > bufferTip) {
+    final long tip = bufferTip;
+    if (position >= tip) {
       return null;
     }
 
-    if (position < bufferTip) {
-      length = min(length, toIntExact(bufferTip - position));
-      return copy(position, length);
+    final int index = segmentIndex(position);
+    final long segmentStart = segmentStart(index);
+    final int offset = toIntExact(position - segmentStart);
+    length = toIntExact(min(length, min(tip, segmentStart + segmentSize(index)) - position));
+
+    ByteBuffer slice = segments[index].asReadOnlyBuffer();
+    slice.limit(offset + length);
+    slice.position(offset);
+    return slice.slice();
+  }
+
+  private int segmentIndex(long position) {
+    if (position < initialBufferSize || bufferSizeIncrement <= 0) {
+      return 0;
     }
 
-    return null;
+    return toIntExact(1 + (position - initialBufferSize) / bufferSizeIncrement);
+  }
+
+  private long segmentStart(int index) {
+    return index == 0 ? 0 : initialBufferSize + (long) (index - 1) * bufferSizeIncrement;
+  }
+
+  private int segmentSize(int index) {
+    return index == 0 ? initialBufferSize : bufferSizeIncrement;
   }
 
   /**
    * {@inheritDoc}
+   * Releases all the segments but the first one, which is the {@code buffer} of the parent class.
    */
   @Override
   public void doClose() {
-    // no - op
+    ByteBuffer[] segments = this.segments;
+    for (int i = 1; i < segments.length; i++) {
+      deallocate(segments[i]);
+    }
   }
 
   /**
    * {@inheritDoc}
-   * If {@code buffer} doesn't have any remaining capacity, then {@link #expandBuffer()}
-   * is invoked before attempting to consume new information.
+   * If the last segment doesn't have any remaining capacity, then a new one is added before attempting to consume new
+   * information.
    *
-   * @throws StreamingBufferSizeExceededException if the buffer is not big enough and cannot be expanded
+   * @throws StreamingBufferSizeExceededException if the segments are full and no more can be added
    */
   @Override
   public int consumeForwardData() throws IOException {
-    ByteBuffer b = buffer.get();
-    ByteBuffer readBuffer = b.hasRemaining()
-        ? b
-        : bufferManager.allocate(bufferSizeIncrement > 0 ? bufferSizeIncrement : STREAM_FINISHED_PROBE);
-
-    final boolean auxBuffer = readBuffer != b;
-    final int read;
-
-    try {
-      read = consumeStream(readBuffer);
-
-      if (read > 0) {
-        if (auxBuffer) {
-          b = expandBuffer();
-          readBuffer.flip();
-          b.put(readBuffer);
-          buffer = new LazyValue<>(b);
-        }
-
-        bufferTip += read;
-      } else {
-        streamFullyConsumed = true;
-      }
-    } finally {
-      if (auxBuffer) {
-        bufferManager.deallocate(readBuffer);
-      }
+    if ((writeSegment == null || !writeSegment.hasRemaining()) && !addSegment()) {
+      return probeStreamFinished();
     }
 
+    final int read = consumeStream(writeSegment);
+    if (read > 0) {
+      bufferTip += read;
+    } else {
+      streamFullyConsumed();
+    }
 
     return read;
   }
 
   /**
-   * Expands the size of the buffer by {@link #bufferSizeIncrement}
+   * Adds a new segment, unless that would exceed {@link #maxBufferSize}
    *
-   * @return a new, expanded {@link ByteBuffer}
+   * @return whether the segment was added
    */
-  private ByteBuffer expandBuffer() {
-    ByteBuffer b = buffer.get();
-    int newSize = b.capacity() + bufferSizeIncrement;
-    if (!canBeExpandedTo(newSize)) {
-      throw new StreamingBufferSizeExceededException(maxBufferSize);
+  private boolean addSegment() {
+    final int index = segments.length;
+    final int size = segmentSize(index);
+    final ByteBuffer segment;
+    if (index == 0) {
+      segment = buffer.get();
+    } else if (canBeExpandedTo(capacity + size)) {
+      segment = bufferManager.allocate(size);
+    } else {
+      return false;
     }
 
-    ByteBuffer newBuffer = bufferManager.allocate(newSize);
-    b.position(0);
-    newBuffer.put(b);
-    ByteBuffer oldBuffer = b;
-    b = newBuffer;
-    buffer = new LazyValue<>(b);
-    deallocate(oldBuffer);
+    writeSegment = segment.duplicate();
+    writeSegment.limit(size);
+    writeSegment.position(0);
+    capacity += size;
 
-    return b;
+    ByteBuffer[] newSegments = copyOf(segments, index + 1);
+    newSegments[index] = segment;
+    segments = newSegments;
+
+    return true;
   }
 
+  /**
+   * Invoked when the segments are full and cannot be expanded, to tell whether the stream is finished or
+   * it is actually bigger than the maximum buffer size.
+   *
+   * @throws StreamingBufferSizeExceededException if there's still data to be read
+   */
+  private int probeStreamFinished() throws IOException {
+    ByteBuffer probe = bufferManager.allocate(STREAM_FINISHED_PROBE);
+    try {
+      final int read = consumeStream(probe);
+      if (read > 0) {
+        throw new StreamingBufferSizeExceededException(maxBufferSize);
+      }
+
+      streamFullyConsumed();
+      return read;
+    } finally {
+      bufferManager.deallocate(probe);
+    }
+  }
+
+  /**
+   * Buffered data is never moved nor overwritten, so it can always be shared.
+   */
   @Override
   protected boolean canDoSoftCopy() {
-    return streamFullyConsumed ||
-        buffer.get().capacity() >= maxBufferSize ||
-        bufferSizeIncrement == 0;
+    return true;
   }
 
-  private boolean canBeExpandedTo(int newSize) {
+  private boolean canBeExpandedTo(long newSize) {
     if (bufferSizeIncrement <= 0) {
       return false;
     } else if (maxBufferSize == 0) {
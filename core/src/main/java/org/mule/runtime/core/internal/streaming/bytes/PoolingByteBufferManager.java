@@ -112,7 +112,12 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
     this.waitTimeoutMillis = waitTimeoutMillis;
   }
 
-  private long calculateMaxStreamingMemory(MemoryManager memoryManager) {
+  /**
+   * @param memoryManager a {@link MemoryManager} used to determine the runtime's max memory
+   * @return the value of the {@link org.mule.runtime.core.api.config.MuleProperties#MULE_STREAMING_MAX_MEMORY} system property
+   *         if set, 50% of the {@code memoryManager} max memory otherwise
+   */
+  static long calculateMaxStreamingMemory(MemoryManager memoryManager) {
     String maxMemoryProperty = getProperty(MULE_STREAMING_MAX_MEMORY);
     if (maxMemoryProperty == null) {
       return round(memoryManager.getMaxMemory() * 0.5);
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mule.runtime.api.config.PoolingProfile.DEFAULT_MAX_POOL_WAIT;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.internal.streaming.bytes.PoolingByteBufferManager.calculateMaxStreamingMemory;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+import org.mule.runtime.core.internal.streaming.DefaultMemoryManager;
+import org.mule.runtime.core.internal.streaming.MemoryManager;
+import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ByteBufferManager} implementation which allocates direct buffers out of the heap and pools them in power of two size
+ * classes.
+ * <p>
+ * A request is served with a buffer of the smallest size class that fits it, with its {@link ByteBuffer#limit() limit} set to
+ * the requested capacity. Buffers of the smaller size classes are carved out of slabs of {@link #SLAB_SIZE} bytes so that
+ * small allocations don't pay for a direct allocation each, and each thread keeps a small magazine of them so that most
+ * allocations and deallocations don't touch any shared state. Buffers of the bigger size classes are allocated individually
+ * and pooled in lock-free queues shared by all threads. Requests bigger than the biggest size class are not pooled. When
+ * memory is scarce, returned buffers skip the magazines so that they are available to any thread.
+ * <p>
+ * The memory of all the buffers allocated by this manager, whether in use or pooled, counts towards the
+ * {@link org.mule.runtime.core.api.config.MuleProperties#MULE_STREAMING_MAX_MEMORY} limit. When that limit is reached, pooled
+ * buffers of the bigger size classes are released to make room and if that is not enough, invocations to
+ * {@link #allocate(int)} block until a buffer of the required size class is returned or more memory becomes available. If
+ * {@link #allocate(int)} is blocked by more than {@link #waitTimeoutMillis} milliseconds, then a
+ * {@link MaxStreamingMemoryExceededException} is thrown. Memory of the slabs is retained until this manager is disposed.
+ *
+ * @since 4.0
+ */
+public class SlabByteBufferManager implements ByteBufferManager, Disposable {
+
+  static final int MIN_SIZE_CLASS_SHIFT = 6;
+  static final int MAX_SIZE_CLASS_SHIFT = 24;
+  static final int MAX_POOLED_CAPACITY = 1 << MAX_SIZE_CLASS_SHIFT;
+  static final int SLAB_SIZE = 64 * 1024;
+  static final int MAGAZINE_SIZE = 4;
+  private static final int MAX_MAGAZINE_SIZE_CLASS_SHIFT = 14;
+
+  private final long maxStreamingMemory;
+  private final long waitTimeoutMillis;
+  private final MutableStreamingStatistics statistics;
+
+  private final AtomicLong streamingMemory = new AtomicLong(0);
+  private final SizeClass[] sizeClasses = new SizeClass[MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1];
+  private final ThreadLocal<Magazine> magazines = ThreadLocal.withInitial(this::createMagazine);
+  private final Set<MagazineReference> magazineReferences = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<Thread> deadThreads = new ReferenceQueue<>();
+  private final AtomicInteger waiters = new AtomicInteger(0);
+  private final Object memoryMonitor = new Object();
+  private volatile boolean disposed = false;
+
+  /**
+   * Creates a new instance which allows the pool to grow up to 50% of the runtime's max memory and has a wait timeout of 10
+   * seconds. The definition of max memory is that of {@link MemoryManager#getMaxMemory()}
+   */
+  public SlabByteBufferManager() {
+    this(new DefaultMemoryManager(), DEFAULT_MAX_POOL_WAIT, new MutableStreamingStatistics());
+  }
+
+  /**
+   * Creates a new instance which allows the pool to grow up to 50% of calling {@link MemoryManager#getMaxMemory()} on the given
+   * {@code memoryManager}, and has {@code waitTimeoutMillis} as wait timeout.
+   *
+   * @param memoryManager     a {@link MemoryManager} used to determine the runtime's max memory
+   * @param waitTimeoutMillis how long to wait when the pool is exhausted
+   * @param statistics        the {@link MutableStreamingStatistics} to report the reserved and in use memory to
+   */
+  public SlabByteBufferManager(MemoryManager memoryManager, long waitTimeoutMillis, MutableStreamingStatistics statistics) {
+    this.maxStreamingMemory = calculateMaxStreamingMemory(memoryManager);
+    this.waitTimeoutMillis = waitTimeoutMillis;
+    this.statistics = statistics;
+    for (int i = 0; i < sizeClasses.length; i++) {
+      sizeClasses[i] = new SizeClass(i);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The capacity of the returned buffer is that of its size class, its limit is the given {@code capacity}.
+   */
+  @Override
+  public ByteBuffer allocate(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+    }
+    if (disposed) {
+      throw new IllegalStateException("Buffer manager is disposed");
+    }
+
+    ByteBuffer buffer;
+    if (capacity > MAX_POOLED_CAPACITY) {
+      reserve(capacity, null);
+      buffer = allocateDirect(capacity);
+    } else {
+      buffer = sizeClasses[sizeClassIndex(capacity)].take();
+      buffer.clear();
+      buffer.limit(capacity);
+    }
+    statistics.addBufferMemoryInUse(buffer.capacity());
+    return buffer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void deallocate(ByteBuffer byteBuffer) {
+    int capacity = byteBuffer.capacity();
+    if (capacity > MAX_POOLED_CAPACITY) {
+      statistics.addBufferMemoryInUse(-capacity);
+      release(capacity);
+    } else if (byteBuffer.isDirect() && bitCount(capacity) == 1 && capacity >= 1 << MIN_SIZE_CLASS_SHIFT) {
+      statistics.addBufferMemoryInUse(-capacity);
+      if (!disposed) {
+        sizeClasses[sizeClassIndex(capacity)].give(byteBuffer);
+      }
+    }
+  }
+
+  @Override
+  public void dispose() {
+    disposed = true;
+    for (SizeClass sizeClass : sizeClasses) {
+      sizeClass.idle.clear();
+    }
+    magazineReferences.clear();
+    statistics.addReservedBufferMemory(-streamingMemory.getAndSet(0));
+    synchronized (memoryMonitor) {
+      memoryMonitor.notifyAll();
+    }
+  }
+
+  static int sizeClassIndex(int capacity) {
+    int shift = capacity <= 1 ? 0 : 32 - numberOfLeadingZeros(capacity - 1);
+    return max(shift, MIN_SIZE_CLASS_SHIFT) - MIN_SIZE_CLASS_SHIFT;
+  }
+
+  private boolean tryReserve(long bytes) {
+    if (streamingMemory.addAndGet(bytes) <= maxStreamingMemory) {
+      statistics.addReservedBufferMemory(bytes);
+      return true;
+    }
+
+    streamingMemory.addAndGet(-bytes);
+    return false;
+  }
+
+  /**
+   * @return whether there are threads waiting for memory or more than three quarters of the streaming memory are reserved
+   */
+  private boolean isMemoryScarce() {
+    return waiters.get() > 0 || streamingMemory.get() > maxStreamingMemory - (maxStreamingMemory >> 2);
+  }
+
+  private void release(long bytes) {
+    if (!disposed) {
+      streamingMemory.addAndGet(-bytes);
+      statistics.addReservedBufferMemory(-bytes);
+    }
+    signalWaiters();
+  }
+
+  private void signalWaiters() {
+    if (waiters.get() > 0) {
+      synchronized (memoryMonitor) {
+        memoryMonitor.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Reserves {@code bytes} of streaming memory, releasing idle pooled buffers and then waiting if necessary.
+   *
+   * @param bytes     the amount of memory to reserve
+   * @param sizeClass if not {@code null}, waiting ends when an idle buffer of this size class becomes available
+   * @return an idle buffer of {@code sizeClass}, or {@code null} if the memory was reserved
+   */
+  private ByteBuffer reserve(long bytes, SizeClass sizeClass) {
+    if (tryReserve(bytes)) {
+      return null;
+    }
+
+    final long deadline = nanoTime() + MILLISECONDS.toNanos(waitTimeoutMillis);
+    waiters.incrementAndGet();
+    try {
+      synchronized (memoryMonitor) {
+        while (true) {
+          if (sizeClass != null) {
+            ByteBuffer idle = sizeClass.idle.poll();
+            if (idle != null) {
+              return idle;
+            }
+          }
+          if (tryReserve(bytes) || (trimIdle(bytes) && tryReserve(bytes))) {
+            return null;
+          }
+          if (disposed) {
+            throw new IllegalStateException("Buffer manager is disposed");
+          }
+
+          long remaining = deadline - nanoTime();
+          if (remaining <= 0) {
+            throw new MaxStreamingMemoryExceededException(createStaticMessage(format(
+                                                                                     "Max streaming memory limit of %d bytes was exceeded",
+                                                                                     maxStreamingMemory)));
+          }
+          memoryMonitor.wait(max(1, NANOSECONDS.toMillis(remaining)));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MuleRuntimeException(createStaticMessage("Interrupted while waiting for streaming memory"), e);
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Releases idle buffers of the size classes that are not carved out of slabs, starting with the biggest, until at least
+   * {@code bytes} have been released or there are no more idle buffers to release.
+   *
+   * @return whether any memory was released
+   */
+  private boolean trimIdle(long bytes) {
+    reclaimDeadMagazines();
+    long released = 0;
+    for (int i = sizeClasses.length - 1; i >= 0 && released < bytes; i--) {
+      SizeClass sizeClass = sizeClasses[i];
+      if (sizeClass.blocksPerSlab > 1) {
+        break;
+      }
+      while (released < bytes && sizeClass.idle.poll() != null) {
+        released += sizeClass.blockCapacity;
+      }
+    }
+    if (released > 0) {
+      streamingMemory.addAndGet(-released);
+      statistics.addReservedBufferMemory(-released);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the buffers held in the magazines of threads that no longer exist to their size classes.
+   */
+  private void reclaimDeadMagazines() {
+    MagazineReference reference;
+    while ((reference = (MagazineReference) deadThreads.poll()) != null) {
+      if (magazineReferences.remove(reference)) {
+        reference.magazine.drain();
+      }
+    }
+  }
+
+  private Magazine createMagazine() {
+    Magazine magazine = new Magazine();
+    magazineReferences.add(new MagazineReference(Thread.currentThread(), magazine, deadThreads));
+    return magazine;
+  }
+
+  private class SizeClass {
+
+    private final int index;
+    private final int blockCapacity;
+    private final int blocksPerSlab;
+    private final boolean magazined;
+    private final Queue<ByteBuffer> idle = new ConcurrentLinkedQueue<>();
+
+    private SizeClass(int index) {
+      this.index = index;
+      this.blockCapacity = 1 << (index + MIN_SIZE_CLASS_SHIFT);
+      this.blocksPerSlab = max(1, SLAB_SIZE / blockCapacity);
+      this.magazined = index + MIN_SIZE_CLASS_SHIFT <= MAX_MAGAZINE_SIZE_CLASS_SHIFT;
+    }
+
+    private ByteBuffer take() {
+      ByteBuffer buffer = magazined ? magazines.get().poll(index) : null;
+      if (buffer == null) {
+        buffer = idle.poll();
+      }
+      return buffer != null ? buffer : create();
+    }
+
+    private void give(ByteBuffer buffer) {
+      // Buffers kept in a magazine are only available to its thread, so they are shared when memory is scarce.
+      if (!magazined || isMemoryScarce() || !magazines.get().offer(index, buffer)) {
+        idle.offer(buffer);
+        signalWaiters();
+      }
+    }
+
+    private ByteBuffer create() {
+      if (blocksPerSlab > 1) {
+        reclaimDeadMagazines();
+        ByteBuffer buffer = idle.poll();
+        if (buffer != null) {
+          return buffer;
+        }
+        if (tryReserve((long) blocksPerSlab * blockCapacity)) {
+          return carveSlab();
+        }
+      }
+
+      ByteBuffer idleBuffer = reserve(blockCapacity, this);
+      return idleBuffer != null ? idleBuffer : allocateDirect(blockCapacity);
+    }
+
+    private ByteBuffer carveSlab() {
+      ByteBuffer slab = allocateDirect(blocksPerSlab * blockCapacity);
+      ByteBuffer first = null;
+      for (int i = 0; i < blocksPerSlab; i++) {
+        slab.limit((i + 1) * blockCapacity);
+        slab.position(i * blockCapacity);
+        ByteBuffer block = slab.slice();
+        if (first == null) {
+          first = block;
+        } else {
+          idle.offer(block);
+        }
+      }
+      return first;
+    }
+  }
+
+  /**
+   * Per thread cache of idle buffers of the size classes up to {@link #MAX_MAGAZINE_SIZE_CLASS_SHIFT}. Only accessed by its
+   * owner thread, until that thread no longer exists.
+   */
+  private class Magazine {
+
+    private final ByteBuffer[][] buffers = new ByteBuffer[MAX_MAGAZINE_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1][MAGAZINE_SIZE];
+    private final int[] counts = new int[buffers.length];
+
+    private ByteBuffer poll(int index) {
+      if (counts[index] == 0) {
+        return null;
+      }
+      int count = --counts[index];
+      ByteBuffer buffer = buffers[index][count];
+      buffers[index][count] = null;
+      return buffer;
+    }
+
+    private boolean offer(int index, ByteBuffer buffer) {
+      if (counts[index] == MAGAZINE_SIZE) {
+        return false;
+      }
+      buffers[index][counts[index]++] = buffer;
+      return true;
+    }
+
+    private void drain() {
+      for (int index = 0; index < buffers.length; index++) {
+        ByteBuffer buffer;
+        while ((buffer = poll(index)) != null) {
+          sizeClasses[index].idle.offer(buffer);
+        }
+      }
+      signalWaiters();
+    }
+  }
+
+  /**
+   * Keeps the {@link Magazine} of a thread reachable so that its buffers can be reclaimed once the thread is collected.
+   */
+  private static class MagazineReference extends WeakReference<Thread> {
+
+    private final SlabByteBufferManager.Magazine magazine;
+
+    private MagazineReference(Thread thread, SlabByteBufferManager.Magazine magazine, ReferenceQueue<Thread> queue) {
+      super(thread, queue);
+      this.magazine = magazine;
+    }
+  }
+}
@@ -14,38 +14,47 @@ import org.mule.runtime.core.api.transformer.Transformer;
 import org.mule.runtime.core.api.config.i18n.CoreMessages;
 
 import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TransformerResolver} that finds the {@link Converter} between two {@link DataType}s by looking for a path between them
+ * in a {@link TransformationGraph}.
+ * <p>
+ * Lookup results, including the lack of a converter, are cached without locking, keyed by the source and the result data types.
+ * Each cached result is stamped with the version of the graph it was found in, so it is ignored once converters are added or
+ * removed. The cache is cleared when it exceeds its maximum size.
+ */
+public class GraphTransformerResolver implements TransformerResolver {
 
-import org.apache.commons.collections.map.LRUMap;
+  private static final int MAX_CACHE_SIZE = 1000;
 
-public class GraphTransformerResolver implements TransformerResolver {
+  private final Object graphLock = new Object();
+  private final TransformationGraph graph;
+  private final CompositeConverterFilter converterFilter;
+  private final TransformationGraphLookupStrategy lookupStrategyTransformation;
 
-  private ReentrantReadWriteLock readWriteLock;
-  private TransformationGraph graph;
-  private CompositeConverterFilter converterFilter;
-  private LRUMap cache;
-  private TransformationGraphLookupStrategy lookupStrategyTransformation;
+  private final ConcurrentMap<DataType, ConcurrentMap<DataType, CachedConverter>> cache = new ConcurrentHashMap<>();
+  private final AtomicInteger cacheSize = new AtomicInteger();
 
   public GraphTransformerResolver() {
-    this.readWriteLock = new ReentrantReadWriteLock();
     this.graph = new TransformationGraph();
     lookupStrategyTransformation = new TransformationGraphLookupStrategy(graph);
     converterFilter = new CompositeConverterFilter(new TransformationLengthConverterFilter(),
                                                    new PriorityWeightingConverterFilter(), new NameConverterFilter());
-    cache = new LRUMap();
   }
 
   @Override
   public Transformer resolve(DataType source, DataType result) throws ResolverException {
-    String cacheKey = getDataTypeSourceResultPairHash(source, result);
+    long version = graph.getVersion();
 
-    readWriteLock.readLock().lock();
-    try {
-      if (cache.containsKey(cacheKey)) {
-        return (Converter) cache.get(cacheKey);
+    ConcurrentMap<DataType, CachedConverter> resultCache = cache.get(source);
+    if (resultCache != null) {
+      CachedConverter cached = resultCache.get(result);
+      if (cached != null && cached.version == version) {
+        return cached.converter;
       }
-    } finally {
-      readWriteLock.readLock().unlock();
     }
 
     List<Converter> converters =
@@ -57,46 +66,53 @@ public class GraphTransformerResolver implements TransformerResolver {
 
     Transformer converter = (converters.size() == 0) ? null : converters.get(0);
 
-
-    readWriteLock.writeLock().lock();
-    try {
-      cache.put(cacheKey, converter);
-    } finally {
-      readWriteLock.writeLock().unlock();
-    }
+    cacheConverter(source, result, new CachedConverter(version, converter));
 
     return converter;
   }
 
-  private String getDataTypeSourceResultPairHash(DataType source, DataType result) {
-    StringBuilder builder = new StringBuilder();
-    builder.append(source.getClass().getName());
-    builder.append(source.hashCode());
-    builder.append(":");
-    builder.append(result.getClass().getName());
-    builder.append(result.hashCode());
+  private void cacheConverter(DataType source, DataType result, CachedConverter cached) {
+    if (cacheSize.get() >= MAX_CACHE_SIZE) {
+      cache.clear();
+      cacheSize.set(0);
+    }
 
-    return builder.toString();
+    ConcurrentMap<DataType, CachedConverter> resultCache = cache.computeIfAbsent(source, k -> new ConcurrentHashMap<>());
+    if (resultCache.put(result, cached) == null) {
+      cacheSize.incrementAndGet();
+    }
   }
 
   @Override
   public void transformerChange(Transformer transformer, RegistryAction registryAction) {
-    readWriteLock.writeLock().lock();
-
-    try {
-      if (!(transformer instanceof Converter)) {
-        return;
-      }
-
-      cache.clear();
+    if (!(transformer instanceof Converter)) {
+      return;
+    }
 
+    synchronized (graphLock) {
       if (registryAction == RegistryAction.ADDED) {
         graph.addConverter((Converter) transformer);
       } else if (registryAction == RegistryAction.REMOVED) {
         graph.removeConverter((Converter) transformer);
       }
-    } finally {
-      readWriteLock.writeLock().unlock();
+    }
+
+    // Entries are already invalidated by the new graph version, this just releases them
+    cache.clear();
+    cacheSize.set(0);
+  }
+
+  /**
+   * The result of looking up a converter in a given version of the graph. {@code converter} is {@code null} if there was none.
+   */
+  private static final class CachedConverter {
+
+    private final long version;
+    private final Transformer converter;
+
+    private CachedConverter(long version, Transformer converter) {
+      this.version = version;
+      this.converter = converter;
     }
   }
 }
@@ -24,6 +24,7 @@ public class TransformationGraph extends DirectedMultigraph<DataType, Transforma
   protected final Logger logger = LoggerFactory.getLogger(getClass());
 
   private Set<Converter> registeredConverters = new HashSet<>();
+  private volatile long version = 0;
 
   public TransformationGraph() {
     super(TransformationEdge.class);
@@ -52,6 +53,7 @@ public class TransformationGraph extends DirectedMultigraph<DataType, Transforma
     }
 
     registeredConverters.add(converter);
+    version++;
   }
 
   public void removeConverter(Converter converter) {
@@ -88,5 +90,14 @@ public class TransformationGraph extends DirectedMultigraph<DataType, Transforma
     }
 
     registeredConverters.remove(converter);
+    version++;
+  }
+
+  /**
+   * @return a stamp that changes every time a {@link Converter} is added to or removed from this graph, so the results of
+   *         lookups performed on it can be validated
+   */
+  public long getVersion() {
+    return version;
   }
 }
@@ -0,0 +1,549 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util;
+
+import static java.lang.Character.toLowerCase;
+import static java.lang.Character.toUpperCase;
+import static java.lang.Integer.bitCount;
+import static java.lang.Integer.compareUnsigned;
+import static java.lang.System.arraycopy;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable {@link Map} with {@link String} keys which are compared without case sensitivity, as in
+ * {@link org.mule.runtime.core.api.util.CaseInsensitiveHashMap}. The original case of the keys is preserved.
+ * <p>
+ * The map is a hash array mapped trie, so instead of modifying it, {@link #plus(String, Object)} and {@link #minus(String)}
+ * return a new map which shares with this one all the nodes of the trie that the change doesn't affect. Changes and lookups are
+ * O(log<sub>32</sub> n) and copying the map is free, since it can be shared as is.
+ * <p>
+ * The mutator methods of the {@link Map} interface throw {@link UnsupportedOperationException}.
+ * <p>
+ * This implementation is thread-safe.
+ *
+ * @since 4.0
+ */
+public final class PersistentCaseInsensitiveMap<V> extends AbstractMap<String, V> implements Serializable {
+
+  private static final long serialVersionUID = 3563947258129471350L;
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final int MAX_DEPTH = 8;
+
+  private static final PersistentCaseInsensitiveMap EMPTY = new PersistentCaseInsensitiveMap(BitmapNode.EMPTY, 0);
+
+  private transient Node root;
+  private transient int size;
+  private transient Set<Entry<String, V>> entrySet;
+
+  private PersistentCaseInsensitiveMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * @return an empty map
+   */
+  public static <V> PersistentCaseInsensitiveMap<V> empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @param map the entries of the new map
+   * @return a map with the entries of the given map. If it is a {@link PersistentCaseInsensitiveMap}, it is returned as is
+   */
+  public static <V> PersistentCaseInsensitiveMap<V> copyOf(Map<String, ? extends V> map) {
+    if (map instanceof PersistentCaseInsensitiveMap) {
+      return (PersistentCaseInsensitiveMap<V>) map;
+    }
+    return PersistentCaseInsensitiveMap.<V>empty().plusAll(map);
+  }
+
+  /**
+   * @param key   the key of the entry
+   * @param value the value of the entry
+   * @return a map with the entries of this one plus the given one. If the map already contains the key, its value is replaced
+   *         but the case of the key already in the map is kept
+   */
+  public PersistentCaseInsensitiveMap<V> plus(String key, V value) {
+    requireNonNull(key);
+    Leaf leaf = new Leaf(key, value, hash(key));
+    boolean[] added = new boolean[1];
+    Node newRoot = root.put(0, leaf, added);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentCaseInsensitiveMap<>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * @param entries the entries to add
+   * @return a map with the entries of this one plus the given ones
+   */
+  public PersistentCaseInsensitiveMap<V> plusAll(Map<String, ? extends V> entries) {
+    PersistentCaseInsensitiveMap<V> result = this;
+    for (Entry<String, ? extends V> entry : entries.entrySet()) {
+      result = result.plus(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * @param key the key of the entry to remove
+   * @return a map with the entries of this one but the one for the given key. If there is no such entry, this same instance
+   */
+  public PersistentCaseInsensitiveMap<V> minus(String key) {
+    if (key == null) {
+      return this;
+    }
+    Node newRoot = root.remove(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == null ? empty() : new PersistentCaseInsensitiveMap<>(newRoot, size - 1);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && root.find(0, hash((String) key), (String) key) != null;
+  }
+
+  @Override
+  public V get(Object key) {
+    if (!(key instanceof String)) {
+      return null;
+    }
+    Leaf leaf = root.find(0, hash((String) key), (String) key);
+    return leaf == null ? null : (V) leaf.value;
+  }
+
+  @Override
+  public Set<Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  /**
+   * Computes the hash of a key from its characters in a single case, consistently with
+   * {@link String#equalsIgnoreCase(String)} and without creating a lower case copy of the key.
+   */
+  private static int hash(String key) {
+    int h = 0;
+    for (int i = 0; i < key.length(); ++i) {
+      h = 31 * h + toLowerCase(toUpperCase(key.charAt(i)));
+    }
+    return h ^ (h >>> 16);
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    out.writeInt(size);
+    for (Entry<String, V> entry : entrySet()) {
+      out.writeObject(entry.getKey());
+      out.writeObject(entry.getValue());
+    }
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    int entries = in.readInt();
+    PersistentCaseInsensitiveMap<V> map = empty();
+    for (int i = 0; i < entries; ++i) {
+      map = map.plus((String) in.readObject(), (V) in.readObject());
+    }
+    root = map.root;
+    size = map.size;
+  }
+
+  private class EntrySet extends AbstractSet<Entry<String, V>> {
+
+    @Override
+    public Iterator<Entry<String, V>> iterator() {
+      return new EntryIterator<>(root);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  /**
+   * Walks the trie depth first, keeping the path to the current position in a stack.
+   */
+  private static class EntryIterator<V> implements Iterator<Entry<String, V>> {
+
+    private final Object[][] stack = new Object[MAX_DEPTH + 1][];
+    private final int[] positions = new int[MAX_DEPTH + 1];
+    private int depth = 0;
+    private Leaf next;
+
+    private EntryIterator(Node root) {
+      stack[0] = root.slots();
+      advance();
+    }
+
+    private void advance() {
+      next = null;
+      while (depth >= 0) {
+        Object[] slots = stack[depth];
+        if (positions[depth] < slots.length) {
+          Object slot = slots[positions[depth]++];
+          if (slot instanceof Leaf) {
+            next = (Leaf) slot;
+            return;
+          }
+          ++depth;
+          stack[depth] = ((Node) slot).slots();
+          positions[depth] = 0;
+        } else {
+          stack[depth--] = null;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Entry<String, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Entry current = next;
+      advance();
+      return current;
+    }
+  }
+
+  /**
+   * An entry of the map, stored in the trie along with the hash of its key.
+   */
+  private static final class Leaf implements Entry<String, Object> {
+
+    private final String key;
+    private final Object value;
+    private final int hash;
+
+    private Leaf(String key, Object value, int hash) {
+      this.key = key;
+      this.value = value;
+      this.hash = hash;
+    }
+
+    private boolean matches(int hash, String key) {
+      return this.hash == hash && this.key.equalsIgnoreCase(key);
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public Object getValue() {
+      return value;
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> that = (Entry<?, ?>) o;
+      return key.equals(that.getKey()) && Objects.equals(value, that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  private interface Node {
+
+    /**
+     * @return this node if the trie is not changed, or a copy of it with the leaf in it
+     */
+    Node put(int shift, Leaf leaf, boolean[] added);
+
+    /**
+     * @return this node if it doesn't have the key, a copy of it without the key, or {@code null} if the node is left empty
+     */
+    Node remove(int shift, int hash, String key);
+
+    Leaf find(int shift, int hash, String key);
+
+    /**
+     * @return the leaves and nodes of this node
+     */
+    Object[] slots();
+  }
+
+  /**
+   * A node with up to 32 slots, each holding a {@link Leaf} or a child {@link Node}. Only the slots in use are allocated, and
+   * the bitmap tells which ones those are.
+   */
+  private static final class BitmapNode implements Node {
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+    private final Object[] slots;
+
+    private BitmapNode(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+
+    private int index(int bit) {
+      return bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    public Node put(int shift, Leaf leaf, boolean[] added) {
+      int bit = bit(leaf.hash, shift);
+      int index = index(bit);
+
+      if ((bitmap & bit) == 0) {
+        Object[] newSlots = new Object[slots.length + 1];
+        arraycopy(slots, 0, newSlots, 0, index);
+        newSlots[index] = leaf;
+        arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+        added[0] = true;
+        return new BitmapNode(bitmap | bit, newSlots);
+      }
+
+      Object slot = slots[index];
+      Object newSlot;
+      if (slot instanceof Node) {
+        newSlot = ((Node) slot).put(shift + BITS, leaf, added);
+      } else {
+        Leaf existing = (Leaf) slot;
+        if (existing.matches(leaf.hash, leaf.key)) {
+          if (existing.value == leaf.value) {
+            return this;
+          }
+          newSlot = new Leaf(existing.key, leaf.value, existing.hash);
+        } else {
+          newSlot = createNode(shift + BITS, existing, leaf);
+          added[0] = true;
+        }
+      }
+
+      if (newSlot == slot) {
+        return this;
+      }
+      Object[] newSlots = slots.clone();
+      newSlots[index] = newSlot;
+      return new BitmapNode(bitmap, newSlots);
+    }
+
+    @Override
+    public Node remove(int shift, int hash, String key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int index = index(bit);
+
+      Object slot = slots[index];
+      Object newSlot;
+      if (slot instanceof Node) {
+        Node newChild = ((Node) slot).remove(shift + BITS, hash, key);
+        if (newChild == slot) {
+          return this;
+        }
+        // a child left with a single leaf is replaced by the leaf, so the trie doesn't grow deeper than needed
+        newSlot = newChild == null ? null : singleLeafOf(newChild);
+      } else if (((Leaf) slot).matches(hash, key)) {
+        newSlot = null;
+      } else {
+        return this;
+      }
+
+      if (newSlot == null) {
+        if (slots.length == 1) {
+          return null;
+        }
+        Object[] newSlots = new Object[slots.length - 1];
+        arraycopy(slots, 0, newSlots, 0, index);
+        arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+        return new BitmapNode(bitmap & ~bit, newSlots);
+      }
+
+      Object[] newSlots = slots.clone();
+      newSlots[index] = newSlot;
+      return new BitmapNode(bitmap, newSlots);
+    }
+
+    private static Object singleLeafOf(Node node) {
+      Object[] childSlots = node.slots();
+      if (childSlots.length == 1 && childSlots[0] instanceof Leaf) {
+        return childSlots[0];
+      }
+      return node;
+    }
+
+    @Override
+    public Leaf find(int shift, int hash, String key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      Object slot = slots[index(bit)];
+      if (slot instanceof Node) {
+        return ((Node) slot).find(shift + BITS, hash, key);
+      }
+      return ((Leaf) slot).matches(hash, key) ? (Leaf) slot : null;
+    }
+
+    @Override
+    public Object[] slots() {
+      return slots;
+    }
+  }
+
+  /**
+   * Creates the node that holds two leaves with different keys which hash to the same slot up to the given shift.
+   */
+  private static Node createNode(int shift, Leaf first, Leaf second) {
+    if (first.hash == second.hash) {
+      return new CollisionNode(first.hash, new Leaf[] {first, second});
+    }
+
+    int firstBit = bit(first.hash, shift);
+    int secondBit = bit(second.hash, shift);
+    if (firstBit == secondBit) {
+      return new BitmapNode(firstBit, new Object[] {createNode(shift + BITS, first, second)});
+    }
+    return new BitmapNode(firstBit | secondBit, compareUnsigned(firstBit, secondBit) < 0
+        ? new Object[] {first, second}
+        : new Object[] {second, first});
+  }
+
+  /**
+   * A node for leaves whose keys have the same hash.
+   */
+  private static final class CollisionNode implements Node {
+
+    private final int hash;
+    private final Leaf[] leaves;
+
+    private CollisionNode(int hash, Leaf[] leaves) {
+      this.hash = hash;
+      this.leaves = leaves;
+    }
+
+    private int indexOf(String key) {
+      for (int i = 0; i < leaves.length; ++i) {
+        if (leaves[i].key.equalsIgnoreCase(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public Node put(int shift, Leaf leaf, boolean[] added) {
+      if (leaf.hash != hash) {
+        // the new leaf only shares a prefix of the hash, so this node has to be nested in a bitmap node
+        return new BitmapNode(bit(hash, shift), new Object[] {this}).put(shift, leaf, added);
+      }
+
+      int index = indexOf(leaf.key);
+      if (index < 0) {
+        Leaf[] newLeaves = new Leaf[leaves.length + 1];
+        arraycopy(leaves, 0, newLeaves, 0, leaves.length);
+        newLeaves[leaves.length] = leaf;
+        added[0] = true;
+        return new CollisionNode(hash, newLeaves);
+      }
+
+      Leaf existing = leaves[index];
+      if (existing.value == leaf.value) {
+        return this;
+      }
+      Leaf[] newLeaves = leaves.clone();
+      newLeaves[index] = new Leaf(existing.key, leaf.value, hash);
+      return new CollisionNode(hash, newLeaves);
+    }
+
+    @Override
+    public Node remove(int shift, int hash, String key) {
+      if (hash != this.hash) {
+        return this;
+      }
+      int index = indexOf(key);
+      if (index < 0) {
+        return this;
+      }
+      if (leaves.length == 1) {
+        return null;
+      }
+      Leaf[] newLeaves = new Leaf[leaves.length - 1];
+      arraycopy(leaves, 0, newLeaves, 0, index);
+      arraycopy(leaves, index + 1, newLeaves, index, leaves.length - index - 1);
+      return new CollisionNode(hash, newLeaves);
+    }
+
+    @Override
+    public Leaf find(int shift, int hash, String key) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int index = indexOf(key);
+      return index < 0 ? null : leaves[index];
+    }
+
+    @Override
+    public Object[] slots() {
+      return leaves;
+    }
+  }
+}
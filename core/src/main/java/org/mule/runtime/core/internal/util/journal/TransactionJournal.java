@@ -6,14 +6,22 @@
  */
 package org.mule.runtime.core.internal.util.journal;
 
+import static java.lang.Long.getLong;
+import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.util.Preconditions;
+import org.mule.runtime.core.internal.util.journal.TransactionJournalFile.Batch;
 
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,31 +29,51 @@ import org.slf4j.LoggerFactory;
 /**
  * Keeps track of transactional operation made over a transactional resource.
  *
- * Uses two files for keeping track of the transactions and empties a file once all the entries in such file are resolved.
+ * Uses a set of files for keeping track of the transactions and empties a file once all the entries in such file are resolved.
+ * New transactions are logged in the current file until it exceeds its maximum size, at which point the journal rolls over to a
+ * file with no pending transactions, creating a new one if all of them still have pending transactions.
  *
  * Keeps a memory cache of the log entries for performance reasons. Once a transaction finishes the client of this class must
  * manually remove the entries related to such transaction to clear the cache.
+ *
+ * When the {@link #GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY} system property is set, the journal works in group commit mode: the
+ * entries logged concurrently are written together and forced to disk with a single operation, and the logging methods don't
+ * return until the entry is durable.
  */
 public class TransactionJournal<T, K extends JournalEntry<T>> {
 
   public static final String TX1_LOG_FILE_NAME = "tx1.log";
   public static final String TX2_LOG_FILE_NAME = "tx2.log";
 
+  /**
+   * System property with the maximum time, in milliseconds, that a batch of entries waits for other concurrent entries before
+   * being written. Setting it enables the group commit mode of the journal. {@code 0} writes a batch as soon as the previous one
+   * is done, grouping only the entries logged while it was being written.
+   */
+  public static final String GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY = "mule.queue.journal.groupCommitMaxLatency";
+
+  private static final String LOG_FILE_NAME_PREFIX = "tx";
+  private static final String LOG_FILE_NAME_SUFFIX = ".log";
+  private static final int MAXIMUM_LOG_FILES = 8;
   private static final int MAXIMUM_LOG_FILE_ENTRIES = 50000;
   private static final int ONE_MEGABYTE_IN_BYTES = 1024 * 1024;
 
   private transient Logger logger = LoggerFactory.getLogger(getClass());
 
   private final TransactionCompletePredicate transactionCompletePredicate;
+  private final JournalEntrySerializer<T, K> journalEntrySerializer;
+  private final File logFilesDirectory;
+  private final Long maxBatchLatencyMillis;
 
   /**
-   * Log file in which we are currently writing new entries.
+   * Log files, in order of creation.
    */
-  private TransactionJournalFile<T, K> currentLogFile;
+  private final List<TransactionJournalFile<T, K>> logFiles = new CopyOnWriteArrayList<>();
+
   /**
-   * Log file which has old entries and will be cleared as soon as all the transaction in it are resolved.
+   * Log file in which we are currently writing new entries.
    */
-  private TransactionJournalFile<T, K> notCurrentLogFile;
+  private TransactionJournalFile<T, K> currentLogFile;
 
   /**
    * Maximum transaction log file size in bytes.
@@ -68,16 +96,24 @@ public class TransactionJournal<T, K extends JournalEntry<T>> {
                                "Could not create directory for queue transaction logger " + logFileDirectory);
     }
     calculateJournalFileSize(maximumFileSizeInMegabytes);
+    this.logFilesDirectory = logFileDirectory;
+    this.journalEntrySerializer = journalEntrySerializer;
+    this.transactionCompletePredicate = transactionCompletePredicate;
+    this.maxBatchLatencyMillis = getLong(GROUP_COMMIT_MAX_LATENCY_PROPERTY_KEY);
+    Preconditions.checkArgument(maxBatchLatencyMillis == null || maxBatchLatencyMillis >= 0,
+                                "Group commit maximum latency can't be negative");
+
     File logFile1 = new File(logFileDirectory, TX1_LOG_FILE_NAME);
     File logFile2 = new File(logFileDirectory, TX2_LOG_FILE_NAME);
     logger.info(String.format("Using files for tx logs %s and %s", logFile1.getAbsolutePath(), logFile2.getAbsolutePath()));
 
-    this.currentLogFile =
-        new TransactionJournalFile(logFile1, journalEntrySerializer, transactionCompletePredicate, clearFileMinimumSizeInBytes);
-    this.notCurrentLogFile =
-        new TransactionJournalFile(logFile2, journalEntrySerializer, transactionCompletePredicate, clearFileMinimumSizeInBytes);
-    this.transactionCompletePredicate = transactionCompletePredicate;
-
+    logFiles.add(createLogFile(logFile1));
+    logFiles.add(createLogFile(logFile2));
+    File rolledLogFile;
+    while ((rolledLogFile = logFileForIndex(logFiles.size() + 1)).exists()) {
+      logFiles.add(createLogFile(rolledLogFile));
+    }
+    this.currentLogFile = logFiles.get(0);
   }
 
   private void calculateJournalFileSize(Integer maximumFileSizeInMegabytes) {
@@ -87,14 +123,29 @@ public class TransactionJournal<T, K extends JournalEntry<T>> {
     }
   }
 
+  private File logFileForIndex(int index) {
+    return new File(logFilesDirectory, LOG_FILE_NAME_PREFIX + index + LOG_FILE_NAME_SUFFIX);
+  }
+
+  private TransactionJournalFile<T, K> createLogFile(File file) {
+    return new TransactionJournalFile(file, journalEntrySerializer, transactionCompletePredicate, clearFileMinimumSizeInBytes,
+                                      maxBatchLatencyMillis);
+  }
+
   /**
    * Log an update operation over a transactional resource
    *
    * @param journalEntry journal entry with the update operation details
    */
-  public synchronized void logUpdateOperation(JournalEntry<T> journalEntry) {
-    TransactionJournalFile logFile = determineLogFile(journalEntry.getTxId());
-    logFile.logOperation(journalEntry);
+  public void logUpdateOperation(JournalEntry<T> journalEntry) {
+    byte[] serializedEntry = serialize(journalEntry);
+    TransactionJournalFile logFile;
+    Batch batch;
+    synchronized (this) {
+      logFile = determineLogFile(journalEntry.getTxId());
+      batch = logFile.logOperation(journalEntry, serializedEntry);
+    }
+    awaitWritten(logFile, batch);
   }
 
   /**
@@ -104,11 +155,35 @@ public class TransactionJournal<T, K extends JournalEntry<T>> {
    *
    * @param journalEntry journal entry with the checkpoint operation details
    */
-  public synchronized void logCheckpointOperation(JournalEntry<T> journalEntry) {
-    TransactionJournalFile logFile = determineLogFile(journalEntry.getTxId());
-    logFile.logOperation(journalEntry);
-    if (transactionCompletePredicate.isTransactionComplete(journalEntry)) {
-      logFile.clearEntriesForTransaction(journalEntry.getTxId());
+  public void logCheckpointOperation(JournalEntry<T> journalEntry) {
+    byte[] serializedEntry = serialize(journalEntry);
+    TransactionJournalFile logFile;
+    Batch batch;
+    synchronized (this) {
+      logFile = determineLogFile(journalEntry.getTxId());
+      batch = logFile.logOperation(journalEntry, serializedEntry);
+      if (transactionCompletePredicate.isTransactionComplete(journalEntry)) {
+        logFile.clearEntriesForTransaction(journalEntry.getTxId());
+      }
+    }
+    awaitWritten(logFile, batch);
+  }
+
+  private byte[] serialize(JournalEntry<T> journalEntry) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream dataOutputStream = new DataOutputStream(bytes);
+    journalEntrySerializer.serialize((K) journalEntry, dataOutputStream);
+    try {
+      dataOutputStream.flush();
+    } catch (IOException e) {
+      throw new MuleRuntimeException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private void awaitWritten(TransactionJournalFile logFile, Batch batch) {
+    if (batch != null) {
+      logFile.awaitWritten(batch);
     }
   }
 
@@ -129,8 +204,9 @@ public class TransactionJournal<T, K extends JournalEntry<T>> {
    */
   public synchronized Multimap<T, K> getAllLogEntries() {
     LinkedHashMultimap<T, K> logEntries = LinkedHashMultimap.create();
-    logEntries.putAll(currentLogFile.getAllLogEntries());
-    logEntries.putAll(notCurrentLogFile.getAllLogEntries());
+    for (TransactionJournalFile<T, K> logFile : logFiles) {
+      logEntries.putAll(logFile.getAllLogEntries());
+    }
     return logEntries;
   }
 
@@ -138,16 +214,18 @@ public class TransactionJournal<T, K extends JournalEntry<T>> {
    * Release the resources used by the transaction journal
    */
   public synchronized void close() {
-    currentLogFile.close();
-    notCurrentLogFile.close();
+    for (TransactionJournalFile<T, K> logFile : logFiles) {
+      logFile.close();
+    }
   }
 
   /**
    * Removes all the entries from the transactional journal
    */
   public synchronized void clear() {
-    currentLogFile.clear();
-    notCurrentLogFile.clear();
+    for (TransactionJournalFile<T, K> logFile : logFiles) {
+      logFile.clear();
+    }
   }
 
   private TransactionJournalFile determineLogFile(T txId) {
@@ -157,38 +235,50 @@ public class TransactionJournal<T, K extends JournalEntry<T>> {
     }
     // we keep this condition for backward compatibility.
     if (maximumFileSizeInBytes == null) {
-      if (currentLogFile.size() > MAXIMUM_LOG_FILE_ENTRIES && notCurrentLogFile.size() == 0) {
-        debugLogFilesSwap();
-        changeCurrentLogFile();
+      if (currentLogFile.size() > MAXIMUM_LOG_FILE_ENTRIES) {
+        rollOver();
       }
     } else {
-      if (currentLogFile.fileLength() > maximumFileSizeInBytes && notCurrentLogFile.size() == 0) {
-        debugLogFilesSwap();
-        changeCurrentLogFile();
+      if (currentLogFile.fileLength() > maximumFileSizeInBytes) {
+        rollOver();
       }
     }
     return currentLogFile;
   }
 
-  private void debugLogFilesSwap() {
-    if (logger.isDebugEnabled()) {
-      logger.debug("Changing files, current file size: " + currentLogFile.fileLength() + " other file size: "
-          + notCurrentLogFile.fileLength());
+  private void rollOver() {
+    for (TransactionJournalFile<T, K> logFile : logFiles) {
+      if (logFile != currentLogFile && logFile.size() == 0) {
+        debugLogFilesSwap(logFile);
+        if (logFile.fileLength() > 0) {
+          logFile.clear();
+        }
+        currentLogFile = logFile;
+        return;
+      }
+    }
+
+    // all the files have pending transactions, so a new one is added unless the limit was reached
+    if (logFiles.size() < MAXIMUM_LOG_FILES) {
+      TransactionJournalFile<T, K> logFile = createLogFile(logFileForIndex(logFiles.size() + 1));
+      debugLogFilesSwap(logFile);
+      logFiles.add(logFile);
+      currentLogFile = logFile;
     }
   }
 
-  private void changeCurrentLogFile() {
-    TransactionJournalFile aux = currentLogFile;
-    currentLogFile = notCurrentLogFile;
-    notCurrentLogFile = aux;
+  private void debugLogFilesSwap(TransactionJournalFile<T, K> newLogFile) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Changing files, current file size: " + currentLogFile.fileLength() + " new file "
+          + newLogFile.getJournalFile().getName() + " size: " + newLogFile.fileLength());
+    }
   }
 
   private TransactionJournalFile determineLogFileWithoutModifyingCurrent(T txId) {
-    if (currentLogFile.containsTx(txId)) {
-      return currentLogFile;
-    }
-    if (notCurrentLogFile.containsTx(txId)) {
-      return notCurrentLogFile;
+    for (TransactionJournalFile<T, K> logFile : logFiles) {
+      if (logFile.containsTx(txId)) {
+        return logFile;
+      }
     }
     return null;
   }
@@ -6,30 +6,40 @@
  */
 package org.mule.runtime.core.internal.util.journal;
 
+import static java.lang.System.nanoTime;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 
-import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Manages a transaction journal file.
+ * <p>
+ * Entries are appended already serialized, with a single write each. When created with a {@code maxBatchLatencyMillis}, the
+ * journal works in group commit mode: appended entries are accumulated in a pending batch and the writers wait through
+ * {@link #awaitWritten(Batch)} until the batch has been written and forced to disk. The first waiter becomes the leader of the
+ * batch and writes it on behalf of all the other writers, which keep appending to the next batch in the meantime.
  *
  * @param <T> type of the transaction identifier
  * @param <K> type of the journal entry
@@ -42,43 +52,157 @@ class TransactionJournalFile<T, K extends JournalEntry<T>> {
    */
   private static final int MINIMUM_ENTRIES_TO_CLEAR_FILE = 10000;
 
+  /**
+   * Size of the pending batch from which the leader stops waiting for more entries.
+   */
+  private static final int MAXIMUM_BATCH_SIZE_IN_BYTES = 1024 * 1024;
+
   protected transient Logger logger = LoggerFactory.getLogger(getClass());
 
   private final File journalFile;
   private final JournalEntrySerializer<T, K> journalEntrySerializer;
   private final Long clearFileMinimumSizeInBytes;
+  private final Long maxBatchLatencyMillis;
 
   private Multimap<T, K> entries = LinkedHashMultimap.create();
 
-  private DataOutputStream logFileOutputStream;
+  private FileChannel logFileChannel;
   private int journalOperations = 0;
+  private long length = 0;
+
+  private Batch pendingBatch = new Batch();
+  private boolean writing = false;
 
   /**
    * @param journalFile journal file to use. Will be created if it doesn't exists. If exists then transaction entries will get
    *        loaded from it.
    * @param journalEntrySerializer serializer for {@link JournalEntry}
    * @param transactionCompletePredicate a callback to determine if a transaction is complete.
+   * @param maxBatchLatencyMillis maximum time the leader of a batch waits for more entries before writing it, or {@code null}
+   *        to write each entry as soon as it's logged, without forcing it to disk.
    */
   public TransactionJournalFile(File journalFile, JournalEntrySerializer journalEntrySerializer,
-                                TransactionCompletePredicate transactionCompletePredicate, Long clearFileMinimumSizeInBytes) {
+                                TransactionCompletePredicate transactionCompletePredicate, Long clearFileMinimumSizeInBytes,
+                                Long maxBatchLatencyMillis) {
     this.journalFile = journalFile;
     this.journalEntrySerializer = journalEntrySerializer;
     this.clearFileMinimumSizeInBytes = clearFileMinimumSizeInBytes;
-    if (journalFile.exists()) {
+    this.maxBatchLatencyMillis = maxBatchLatencyMillis;
+    openLogFileChannel();
+    if (length > 0) {
       loadAllEntries(transactionCompletePredicate);
     }
-    createLogOutputStream();
   }
 
   /**
    * Adds a journal entry for an operation done over a transactional resource
-   * 
+   *
    * @param journalEntry operation details
+   * @param serializedEntry the journal entry, as serialized by the {@link JournalEntrySerializer} of this file
+   * @return the {@link Batch} the entry was added to, or {@code null} if the entry was already written
    */
-  public synchronized void logOperation(K journalEntry) {
+  public synchronized Batch logOperation(K journalEntry, byte[] serializedEntry) {
     entries.put(journalEntry.getTxId(), journalEntry);
-    journalEntrySerializer.serialize(journalEntry, logFileOutputStream);
     journalOperations++;
+    length += serializedEntry.length;
+    if (maxBatchLatencyMillis == null) {
+      try {
+        writeFully(ByteBuffer.wrap(serializedEntry));
+      } catch (IOException e) {
+        throw new MuleRuntimeException(e);
+      }
+      return null;
+    }
+
+    pendingBatch.append(serializedEntry);
+    if (pendingBatch.size() >= MAXIMUM_BATCH_SIZE_IN_BYTES) {
+      notifyAll();
+    }
+    return pendingBatch;
+  }
+
+  /**
+   * Waits until the given batch has been written and forced to disk, writing it if no other writer is doing so.
+   *
+   * @param batch a batch returned by {@link #logOperation(JournalEntry, byte[])}
+   */
+  public void awaitWritten(Batch batch) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        Batch batchToWrite;
+        synchronized (this) {
+          while (!batch.isDone() && writing) {
+            try {
+              wait();
+            } catch (InterruptedException e) {
+              interrupted = true;
+            }
+          }
+          if (batch.isDone()) {
+            batch.checkWritten(journalFile);
+            return;
+          }
+
+          writing = true;
+          interrupted |= awaitBatchLatency();
+          batchToWrite = pendingBatch;
+          pendingBatch = new Batch();
+        }
+
+        IOException failure = null;
+        try {
+          writeFully(batchToWrite.asByteBuffer());
+          logFileChannel.force(false);
+        } catch (IOException e) {
+          failure = e;
+        }
+
+        synchronized (this) {
+          batchToWrite.done(failure);
+          writing = false;
+          notifyAll();
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private boolean awaitBatchLatency() {
+    long remaining = MILLISECONDS.toNanos(maxBatchLatencyMillis);
+    final long deadline = nanoTime() + remaining;
+    while (remaining > 0 && pendingBatch.size() < MAXIMUM_BATCH_SIZE_IN_BYTES) {
+      try {
+        NANOSECONDS.timedWait(this, remaining);
+      } catch (InterruptedException e) {
+        return true;
+      }
+      remaining = deadline - nanoTime();
+    }
+    return false;
+  }
+
+  private void awaitCurrentWrite() {
+    boolean interrupted = false;
+    while (writing) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeFully(ByteBuffer data) throws IOException {
+    while (data.hasRemaining()) {
+      logFileChannel.write(data);
+    }
   }
 
   /**
@@ -105,11 +229,9 @@ class TransactionJournalFile<T, K extends JournalEntry<T>> {
       if (clearFileMinimumSizeInBytes != null) {
         if (fileLength() > clearFileMinimumSizeInBytes) {
           clear();
-          journalOperations = 0;
         }
       } else if (journalOperations > MINIMUM_ENTRIES_TO_CLEAR_FILE) {
         clear();
-        journalOperations = 0;
       }
     }
   }
@@ -120,8 +242,19 @@ class TransactionJournalFile<T, K extends JournalEntry<T>> {
    * Will not remove the transaction context.
    */
   public synchronized void close() {
+    if (!logFileChannel.isOpen()) {
+      return;
+    }
     try {
-      logFileOutputStream.close();
+      if (maxBatchLatencyMillis != null && pendingBatch.size() > 0) {
+        awaitWritten(pendingBatch);
+      }
+    } catch (MuleRuntimeException e) {
+      logger.warn("Error writing pending entries of transaction journal file " + journalFile.getAbsolutePath(), e);
+    }
+    awaitCurrentWrite();
+    try {
+      logFileChannel.close();
     } catch (IOException e) {
       logger.warn(e.getMessage());
       if (logger.isDebugEnabled()) {
@@ -154,32 +287,45 @@ class TransactionJournalFile<T, K extends JournalEntry<T>> {
 
   /**
    * Remove all the entries from the transaction journal and cleans the transaction journal fle.
+   * <p>
+   * Entries pending to be written are discarded along with the rest, and their writers are released once the file has been
+   * truncated.
    */
   public synchronized void clear() {
-    close();
+    awaitCurrentWrite();
     entries.clear();
-    FileUtils.deleteQuietly(journalFile);
-    createLogOutputStream();
-  }
-
-  private void createLogOutputStream() {
-    if (!journalFile.exists()) {
-      try {
-        journalFile.createNewFile();
-      } catch (IOException e) {
-        throw new MuleRuntimeException(e);
+    journalOperations = 0;
+    length = 0;
+    IOException failure = null;
+    try {
+      logFileChannel.truncate(0);
+      if (maxBatchLatencyMillis != null) {
+        logFileChannel.force(false);
       }
+    } catch (IOException e) {
+      failure = e;
+    }
+    pendingBatch.done(failure);
+    pendingBatch = new Batch();
+    notifyAll();
+    if (failure != null) {
+      throw new MuleRuntimeException(failure);
     }
+  }
+
+  private void openLogFileChannel() {
     try {
-      this.logFileOutputStream = new DataOutputStream(new FileOutputStream(journalFile, true));
-    } catch (FileNotFoundException e) {
+      this.logFileChannel = FileChannel.open(journalFile.toPath(), CREATE, WRITE);
+      this.length = logFileChannel.size();
+      logFileChannel.position(length);
+    } catch (IOException e) {
       throw new MuleRuntimeException(e);
     }
   }
 
   /**
    * This will NOT load transactions that are already complete, according to the given {@code transactionCompletePredicate}.
-   * 
+   *
    * @param transactionCompletePredicate a callback to determine if a transaction is complete.
    */
   private void loadAllEntries(TransactionCompletePredicate transactionCompletePredicate) {
@@ -246,10 +392,49 @@ class TransactionJournalFile<T, K extends JournalEntry<T>> {
   }
 
   /**
-   * @return the file length in bytes
+   * @return the file length in bytes, including the entries pending to be written
    */
-  public long fileLength() {
-    return journalFile.length();
+  public synchronized long fileLength() {
+    return length;
   }
-}
 
+  /**
+   * @return the journal file managed by this instance
+   */
+  File getJournalFile() {
+    return journalFile;
+  }
+
+  /**
+   * A group of serialized entries which are written to the journal file together.
+   */
+  static final class Batch extends ByteArrayOutputStream {
+
+    private boolean done = false;
+    private IOException failure;
+
+    private void append(byte[] serializedEntry) {
+      write(serializedEntry, 0, serializedEntry.length);
+    }
+
+    private ByteBuffer asByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+
+    private boolean isDone() {
+      return done;
+    }
+
+    private void done(IOException failure) {
+      this.done = true;
+      this.failure = failure;
+    }
+
+    private void checkWritten(File journalFile) {
+      if (failure != null) {
+        throw new MuleRuntimeException(new IOException("Could not write to transaction journal file "
+            + journalFile.getAbsolutePath(), failure));
+      }
+    }
+  }
+}
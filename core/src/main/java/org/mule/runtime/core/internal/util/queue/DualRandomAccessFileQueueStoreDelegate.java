@@ -95,6 +95,15 @@ public class DualRandomAccessFileQueueStoreDelegate extends AbstractQueueStoreDe
     return new File(getQueuesDirectory(workingDirectory), queueName + QUEUE_STORE_1_SUFFIX);
   }
 
+  /**
+   * @return whether there are files with data for the given queue
+   */
+  static boolean hasData(String queueName, String workingDirectory) {
+    File queuesDirectory = getQueuesDirectory(workingDirectory);
+    return new File(queuesDirectory, queueName + QUEUE_STORE_1_SUFFIX).length() > 0
+        || new File(queuesDirectory, queueName + QUEUE_STORE_2_SUFFIX).length() > 0;
+  }
+
   @Override
   protected void addFirst(Serializable item) throws InterruptedException {
     switchWriteFileIfFull();
@@ -0,0 +1,659 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.queue;
+
+import static java.lang.Boolean.getBoolean;
+import static java.lang.Integer.getInteger;
+import static java.lang.Math.max;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.comparingLong;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.mule.runtime.core.internal.util.queue.DualRandomAccessFileQueueStoreDelegate.MAX_LENGTH_PER_FILE_PROPERTY_KEY;
+import static org.mule.runtime.core.internal.util.queue.QueueFileProvider.toHex;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.util.Preconditions;
+import org.mule.runtime.core.api.MuleContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TransactionalQueueStoreDelegate} implementation which stores the queue data in memory mapped, append only segment
+ * files.
+ * <p/>
+ * Each entry is appended to the current segment along with a sequence number that determines its position in the queue, so
+ * entries returned to the head of the queue are appended as well. When the current segment is full a new one is created.
+ * Removing an entry just flags it as removed, and a segment file is deleted once all its entries have been removed. Segments
+ * which are left with few live entries behind the head of the queue are compacted by copying those entries to the current
+ * segment.
+ * <p/>
+ * The list of segments is kept in an index file, which is only rewritten when a segment is created or deleted. Upon startup,
+ * the index is used to scan the segments and rebuild the queue, ordering the live entries by their sequence number.
+ * <p/>
+ * Each change is flushed to disk right away, so entries survive a crash of the operating system as well as of the JVM. Setting
+ * the {@link #RELAXED_SYNC_PROPERTY_KEY} system property to {@code true} leaves changes in the page cache until their segment is
+ * closed instead, which is faster but only guarantees that entries survive a crash of the JVM.
+ * <p/>
+ * Data left by a {@link DualRandomAccessFileQueueStoreDelegate} for the same queue is moved to this store upon creation.
+ */
+public class MappedSegmentQueueStoreDelegate extends AbstractQueueStoreDelegate implements TransactionalQueueStoreDelegate {
+
+  public static final String RELAXED_SYNC_PROPERTY_KEY = "mule.queue.relaxedSync";
+
+  private static final int ONE_MEGABYTE = 1024 * 1024;
+  private static final String QUEUE_STORE_DIRECTORY = "queuestore";
+  private static final String INDEX_SUFFIX = "-idx";
+  private static final String INDEX_TEMP_SUFFIX = ".tmp";
+  private static final String SEGMENT_SUFFIX = "-seg";
+  private static final int INDEX_MAGIC = 0x4d515331;
+
+  private static final byte END = 0;
+  private static final byte LIVE = 1;
+  private static final byte REMOVED = 2;
+
+  /**
+   * Status, sequence number and length of the data
+   */
+  private static final int HEADER_SIZE = 1 + 8 + 4;
+
+  /**
+   * A segment is compacted when its live data is less than this fraction of its size
+   */
+  private static final int COMPACTION_RATIO = 4;
+
+  protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+  private final ObjectSerializer serializer;
+  private final File queuesDirectory;
+  private final String fileNamePrefix;
+  private final File indexFile;
+  private final int segmentSize;
+  private final boolean syncWrites;
+
+  private final List<Segment> segments = new ArrayList<>();
+  private final Deque<Entry> entries = new ArrayDeque<>();
+  private Segment writeSegment;
+  private long nextSequence = 0;
+
+  public MappedSegmentQueueStoreDelegate(String queueName, String workingDirectory, MuleContext muleContext, int capacity) {
+    super(capacity);
+    serializer = muleContext.getObjectSerializer();
+    segmentSize = getInteger(MAX_LENGTH_PER_FILE_PROPERTY_KEY, ONE_MEGABYTE);
+    syncWrites = !getBoolean(RELAXED_SYNC_PROPERTY_KEY);
+    queuesDirectory = getQueuesDirectory(workingDirectory);
+    if (!queuesDirectory.exists()) {
+      Preconditions.checkState(queuesDirectory.mkdirs(),
+                               "Could not create queue store directory " + queuesDirectory.getAbsolutePath());
+    }
+    fileNamePrefix = getFileNamePrefix(queuesDirectory, queueName);
+    indexFile = new File(queuesDirectory, fileNamePrefix + INDEX_SUFFIX);
+
+    recover();
+    if (DualRandomAccessFileQueueStoreDelegate.hasData(queueName, workingDirectory)) {
+      migrate(new DualRandomAccessFileQueueStoreDelegate(queueName, workingDirectory, muleContext, capacity));
+    }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug(String.format("Queue %s has %s messages", queueName, getSize()));
+    }
+  }
+
+  private static File getQueuesDirectory(String workingDirectory) {
+    return new File(workingDirectory + File.separator + QUEUE_STORE_DIRECTORY);
+  }
+
+  public static File getFirstQueueFileForTesting(String queueName, String workingDirectory) {
+    return new File(getQueuesDirectory(workingDirectory), queueName + SEGMENT_SUFFIX + 0);
+  }
+
+  /**
+   * If the file system does not support the queue name, then a hex representation of the name is used.
+   */
+  private static String getFileNamePrefix(File queuesDirectory, String queueName) {
+    try {
+      File file = new File(queuesDirectory, queueName + INDEX_SUFFIX);
+      if (file.exists() || file.createNewFile()) {
+        return queueName;
+      }
+    } catch (IOException e) {
+      // fall back to the hex representation
+    }
+    return toHex(queueName);
+  }
+
+  @Override
+  protected void addFirst(Serializable item) throws InterruptedException {
+    long sequence = entries.isEmpty() ? nextSequence++ : entries.getFirst().sequence - 1;
+    entries.addFirst(append(serialize(item), sequence));
+  }
+
+  @Override
+  protected void add(Serializable item) {
+    entries.addLast(append(serialize(item), nextSequence++));
+  }
+
+  @Override
+  protected Serializable removeFirst() throws InterruptedException {
+    Entry entry = entries.pollFirst();
+    if (entry == null) {
+      return null;
+    }
+
+    Serializable value = deserialize(read(entry));
+    markRemoved(entry, true);
+    return value;
+  }
+
+  @Override
+  protected Serializable getFirst() throws InterruptedException {
+    Entry entry = entries.peekFirst();
+    return entry != null ? deserialize(read(entry)) : null;
+  }
+
+  @Override
+  protected int size() {
+    return entries.size();
+  }
+
+  @Override
+  protected boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  @Override
+  protected void doClear() {
+    entries.clear();
+    for (Segment segment : segments) {
+      segment.delete();
+    }
+    segments.clear();
+    writeSegment = null;
+    writeIndex();
+  }
+
+  @Override
+  protected boolean doAddAll(Collection<? extends Serializable> items) {
+    for (Serializable item : items) {
+      add(item);
+    }
+    return true;
+  }
+
+  public synchronized Collection<Serializable> allElements() {
+    List<Serializable> elements = new LinkedList<>();
+    for (Entry entry : entries) {
+      try {
+        elements.add(deserialize(read(entry)));
+      } catch (Exception e) {
+        logger.warn("Failure trying to deserialize value " + e.getMessage());
+        if (logger.isDebugEnabled()) {
+          logger.debug("Failure trying to deserialize value", e);
+        }
+      }
+    }
+    return elements;
+  }
+
+  @Override
+  public synchronized void remove(Serializable value) {
+    Iterator<Entry> iterator = entries.iterator();
+    while (iterator.hasNext()) {
+      Entry entry = iterator.next();
+      if (deserialize(read(entry)).equals(value)) {
+        iterator.remove();
+        markRemoved(entry, true);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public synchronized boolean contains(Serializable value) {
+    for (Entry entry : entries) {
+      if (deserialize(read(entry)).equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized void close() {
+    for (Segment segment : segments) {
+      segment.buffer.force();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void dispose() {
+    entries.clear();
+    for (Segment segment : segments) {
+      segment.delete();
+    }
+    segments.clear();
+    writeSegment = null;
+    deleteQuietly(indexFile);
+  }
+
+  private byte[] serialize(Serializable item) {
+    return serializer.getInternalProtocol().serialize(item);
+  }
+
+  private Serializable deserialize(byte[] bytes) {
+    return serializer.getInternalProtocol().deserialize(bytes);
+  }
+
+  /**
+   * Appends the given {@code data} to the current segment. The entry is written as removed and flagged as live only after
+   * its data and the end mark that follows it are in place, so that a partially written entry is never recovered.
+   */
+  private Entry append(byte[] data, long sequence) {
+    final int required = HEADER_SIZE + data.length + 1;
+    if (writeSegment == null || writeSegment.remaining() < required) {
+      rollSegment(required);
+    }
+
+    final Segment segment = writeSegment;
+    final MappedByteBuffer buffer = segment.buffer;
+    final int position = segment.writePosition;
+    buffer.putLong(position + 1, sequence);
+    buffer.putInt(position + 9, data.length);
+    ByteBuffer dataView = buffer.duplicate();
+    dataView.position(position + HEADER_SIZE);
+    dataView.put(data);
+    buffer.put(position + HEADER_SIZE + data.length, END);
+    if (syncWrites) {
+      force(buffer);
+    }
+    buffer.put(position, LIVE);
+    if (syncWrites) {
+      force(buffer);
+    }
+
+    segment.writePosition += HEADER_SIZE + data.length;
+    segment.liveEntries++;
+    segment.liveBytes += HEADER_SIZE + data.length;
+    return new Entry(segment, position, sequence, data.length);
+  }
+
+  /**
+   * Flushes the changes made to the given buffer to disk, as done after each change unless relaxed sync is enabled.
+   */
+  void force(MappedByteBuffer buffer) {
+    buffer.force();
+  }
+
+  private byte[] read(Entry entry) {
+    byte[] data = new byte[entry.length];
+    ByteBuffer view = entry.segment.buffer.duplicate();
+    view.position(entry.position + HEADER_SIZE);
+    view.get(data);
+    return data;
+  }
+
+  private void markRemoved(Entry entry, boolean compact) {
+    final Segment segment = entry.segment;
+    segment.buffer.put(entry.position, REMOVED);
+    if (syncWrites) {
+      force(segment.buffer);
+    }
+
+    segment.liveEntries--;
+    segment.liveBytes -= HEADER_SIZE + entry.length;
+    if (segment == writeSegment) {
+      return;
+    }
+
+    if (segment.liveEntries == 0) {
+      releaseSegment(segment);
+    } else if (compact && isSparse(segment)) {
+      compact(segment);
+    }
+  }
+
+  /**
+   * A segment left with few live entries is only worth compacting when it doesn't hold the head of the queue, since in that
+   * case it will be released as the queue is consumed.
+   */
+  private boolean isSparse(Segment segment) {
+    Entry head = entries.peekFirst();
+    return (head == null || head.segment != segment) && segment.liveBytes * COMPACTION_RATIO < segment.size();
+  }
+
+  /**
+   * Moves the live entries of the given {@code segment} to the current one, keeping their sequence numbers, and releases it.
+   * Should the process stop midway, recovery will find some entries twice and discard the duplicates.
+   */
+  private void compact(Segment segment) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("compacting segment " + segment.file.getName() + " with " + segment.liveEntries + " live entries");
+    }
+    for (Entry entry : entries) {
+      if (entry.segment == segment) {
+        Entry moved = append(read(entry), entry.sequence);
+        segment.buffer.put(entry.position, REMOVED);
+        segment.liveEntries--;
+        entry.segment = moved.segment;
+        entry.position = moved.position;
+      }
+    }
+    releaseSegment(segment);
+  }
+
+  private void rollSegment(int required) {
+    if (writeSegment != null && writeSegment.liveEntries == 0 && writeSegment.size() >= required) {
+      writeSegment.reset();
+      return;
+    }
+
+    final Segment previous = writeSegment;
+    final long id = segments.isEmpty() ? 0 : segments.get(segments.size() - 1).id + 1;
+    writeSegment = Segment.create(segmentFile(id), id, max(segmentSize, required));
+    segments.add(writeSegment);
+    writeIndex();
+
+    if (previous != null) {
+      previous.buffer.force();
+      if (previous.liveEntries == 0) {
+        releaseSegment(previous);
+      }
+    }
+  }
+
+  private void releaseSegment(Segment segment) {
+    segments.remove(segment);
+    writeIndex();
+    segment.delete();
+  }
+
+  private File segmentFile(long id) {
+    return new File(queuesDirectory, fileNamePrefix + SEGMENT_SUFFIX + id);
+  }
+
+  private void writeIndex() {
+    ByteBuffer index = ByteBuffer.allocate(8 + segments.size() * 8 + 8);
+    index.putInt(INDEX_MAGIC);
+    index.putInt(segments.size());
+    for (Segment segment : segments) {
+      index.putLong(segment.id);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(index.array(), 0, index.position());
+    index.putLong(crc.getValue());
+    index.flip();
+
+    File tempFile = new File(queuesDirectory, indexFile.getName() + INDEX_TEMP_SUFFIX);
+    try (FileChannel channel = FileChannel.open(tempFile.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+      while (index.hasRemaining()) {
+        channel.write(index);
+      }
+      channel.force(true);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(e);
+    }
+
+    try {
+      Files.move(tempFile.toPath(), indexFile.toPath(), ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(e);
+    }
+  }
+
+  /**
+   * @return the ids of the segments in the index, or {@code null} if there's no valid index
+   */
+  private List<Long> readIndex() {
+    if (indexFile.length() < 16) {
+      return null;
+    }
+
+    try {
+      ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile.toPath()));
+      if (index.getInt() != INDEX_MAGIC) {
+        return null;
+      }
+      int count = index.getInt();
+      if (count < 0 || index.remaining() != count * 8 + 8) {
+        return null;
+      }
+      List<Long> ids = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        ids.add(index.getLong());
+      }
+      CRC32 crc = new CRC32();
+      crc.update(index.array(), 0, index.position());
+      return index.getLong() == crc.getValue() ? ids : null;
+    } catch (IOException e) {
+      logger.warn("Could not read queue store index " + indexFile.getAbsolutePath() + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Lists the ids of the segment files found in the queues directory. Used when the index is missing or corrupted.
+   */
+  private List<Long> listSegments() {
+    List<Long> ids = new ArrayList<>();
+    final String segmentPrefix = fileNamePrefix + SEGMENT_SUFFIX;
+    File[] files = queuesDirectory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        if (name.startsWith(segmentPrefix) && name.length() > segmentPrefix.length()
+            && name.substring(segmentPrefix.length()).chars().allMatch(Character::isDigit)) {
+          ids.add(Long.valueOf(name.substring(segmentPrefix.length())));
+        }
+      }
+    }
+    ids.sort(null);
+    return ids;
+  }
+
+  private void recover() {
+    List<Long> ids = readIndex();
+    if (ids == null) {
+      if (indexFile.length() > 0) {
+        logger.warn("Queue store index " + indexFile.getAbsolutePath() + " is corrupted, recovering from the segment files");
+      }
+      ids = listSegments();
+    } else {
+      deleteStraySegments(ids);
+    }
+
+    List<Entry> recovered = new ArrayList<>();
+    for (Long id : ids) {
+      File file = segmentFile(id);
+      if (!file.exists()) {
+        continue;
+      }
+      Segment segment = Segment.open(file, id);
+      segments.add(segment);
+      scan(segment, recovered);
+    }
+
+    if (!segments.isEmpty()) {
+      writeSegment = segments.get(segments.size() - 1);
+    }
+
+    recovered.sort(comparingLong(entry -> entry.sequence));
+    Entry previous = null;
+    for (Entry entry : recovered) {
+      if (previous != null && previous.sequence == entry.sequence) {
+        // a compaction was interrupted, keep the copy
+        markRemoved(previous, false);
+        entries.pollLast();
+      }
+      entries.addLast(entry);
+      previous = entry;
+    }
+
+    if (!recovered.isEmpty()) {
+      nextSequence = entries.getLast().sequence + 1;
+    }
+    for (Segment segment : new ArrayList<>(segments)) {
+      if (segment != writeSegment && segment.liveEntries == 0) {
+        releaseSegment(segment);
+      }
+    }
+    writeIndex();
+  }
+
+  private void deleteStraySegments(List<Long> ids) {
+    for (Long id : listSegments()) {
+      if (!ids.contains(id)) {
+        deleteQuietly(segmentFile(id));
+      }
+    }
+  }
+
+  private void scan(Segment segment, List<Entry> recovered) {
+    final MappedByteBuffer buffer = segment.buffer;
+    int position = 0;
+    while (position + HEADER_SIZE <= buffer.limit()) {
+      byte status = buffer.get(position);
+      if (status != LIVE && status != REMOVED) {
+        if (status != END) {
+          logger.warn("Found corrupted data in queue segment " + segment.file.getAbsolutePath() + " at position " + position);
+        }
+        break;
+      }
+
+      long sequence = buffer.getLong(position + 1);
+      int length = buffer.getInt(position + 9);
+      if (length < 0 || position + HEADER_SIZE + length > buffer.limit()) {
+        logger.warn("Found corrupted data in queue segment " + segment.file.getAbsolutePath() + " at position " + position);
+        break;
+      }
+
+      if (status == LIVE) {
+        recovered.add(new Entry(segment, position, sequence, length));
+        segment.liveEntries++;
+        segment.liveBytes += HEADER_SIZE + length;
+      }
+      position += HEADER_SIZE + length;
+    }
+    segment.writePosition = position;
+  }
+
+  private void migrate(DualRandomAccessFileQueueStoreDelegate legacyStore) {
+    try {
+      Serializable item;
+      while ((item = legacyStore.getFirst()) != null) {
+        add(item);
+        legacyStore.removeFirst();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MuleRuntimeException(e);
+    }
+    legacyStore.dispose();
+  }
+
+  /**
+   * The location of an entry of the queue.
+   */
+  private static final class Entry {
+
+    private Segment segment;
+    private int position;
+    private final long sequence;
+    private final int length;
+
+    private Entry(Segment segment, int position, long sequence, int length) {
+      this.segment = segment;
+      this.position = position;
+      this.sequence = sequence;
+      this.length = length;
+    }
+  }
+
+  /**
+   * A segment file, mapped into memory in its entirety.
+   */
+  private static final class Segment {
+
+    private final File file;
+    private final long id;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int liveEntries;
+    private long liveBytes;
+
+    private Segment(File file, long id, MappedByteBuffer buffer) {
+      this.file = file;
+      this.id = id;
+      this.buffer = buffer;
+    }
+
+    private static Segment create(File file, long id, int size) {
+      return new Segment(file, id, map(file, size));
+    }
+
+    private static Segment open(File file, long id) {
+      return new Segment(file, id, map(file, file.length()));
+    }
+
+    private static MappedByteBuffer map(File file, long size) {
+      try (FileChannel channel = FileChannel.open(file.toPath(), CREATE, READ, WRITE)) {
+        // the mapping remains valid after the channel is closed
+        return channel.map(READ_WRITE, 0, size);
+      } catch (IOException e) {
+        throw new MuleRuntimeException(e);
+      }
+    }
+
+    private int size() {
+      return buffer.limit();
+    }
+
+    /**
+     * @return the room left in this segment
+     */
+    private int remaining() {
+      return buffer.limit() - writePosition;
+    }
+
+    private void reset() {
+      buffer.put(0, END);
+      writePosition = 0;
+      liveBytes = 0;
+    }
+
+    /**
+     * Mapped files are unmapped when the buffer is garbage collected. Platforms which don't allow deleting a mapped file
+     * will have it deleted as a stray segment upon the next recovery.
+     */
+    private void delete() {
+      deleteQuietly(file);
+    }
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.rx;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link ExecutorService} decorator that, rather than failing, parks the tasks that the delegate executor service rejects
+ * because it is busy in a bounded pending queue. Parked tasks are resubmitted, in order, as soon as one of the tasks submitted
+ * through this decorator completes, using the thread of the completed task.
+ * <p>
+ * When the delegate is busy with tasks not submitted through this decorator, no completion will trigger the resubmission, so
+ * in that case, as well as when the pending queue is full, tasks are run in the calling thread, holding back the caller until
+ * the delegate has capacity again.
+ * <p>
+ * Tasks are only rejected by this decorator after {@link #shutdown()}, which runs the tasks still parked in the calling thread
+ * rather than dropping them.
+ *
+ * @since 4.0
+ */
+public class ParkingExecutorServiceDecorator extends AbstractExecutorService {
+
+  private static final Logger LOGGER = getLogger(ParkingExecutorServiceDecorator.class);
+
+  private final ExecutorService delegate;
+  private final int maxPending;
+
+  private final Deque<Runnable> pending = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile boolean shutdown = false;
+
+  /**
+   * Create a new executor service decorator.
+   *
+   * @param delegate the executor service to run tasks with.
+   * @param maxPending the maximum number of tasks to park while the delegate is busy.
+   */
+  public ParkingExecutorServiceDecorator(ExecutorService delegate, int maxPending) {
+    this.delegate = delegate;
+    this.maxPending = maxPending;
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Executor for " + delegate + " is shut down");
+    }
+    if (pendingCount.get() == 0 && trySubmit(command)) {
+      return;
+    }
+    if (!park(command)) {
+      LOGGER.trace("Pending queue for busy executor {} is full. Running task in the calling thread.", delegate);
+      command.run();
+      return;
+    }
+    drain();
+    // The task may have been parked after the shutdown ran the parked ones
+    if (shutdown) {
+      runPending();
+    }
+  }
+
+  private boolean trySubmit(Runnable command) {
+    inFlight.incrementAndGet();
+    try {
+      delegate.execute(() -> {
+        try {
+          // The capacity this thread holds in the delegate is handed over to the parked tasks before releasing it.
+          Runnable next = command;
+          while (next != null) {
+            next.run();
+            next = pollPending();
+          }
+        } finally {
+          inFlight.decrementAndGet();
+          drain();
+        }
+      });
+      return true;
+    } catch (RejectedExecutionException e) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+  }
+
+  private boolean park(Runnable command) {
+    if (pendingCount.incrementAndGet() > maxPending) {
+      pendingCount.decrementAndGet();
+      return false;
+    }
+    pending.offer(command);
+    return true;
+  }
+
+  private Runnable pollPending() {
+    Runnable next = pending.poll();
+    if (next != null) {
+      pendingCount.decrementAndGet();
+    }
+    return next;
+  }
+
+  private void drain() {
+    Runnable next;
+    while ((next = pending.poll()) != null) {
+      if (trySubmit(next)) {
+        pendingCount.decrementAndGet();
+      } else if (inFlight.get() == 0) {
+        // The delegate is busy with foreign tasks, whose completion won't resume the parked ones
+        pendingCount.decrementAndGet();
+        LOGGER.trace("Executor {} is busy with no in-flight tasks. Running parked task in the calling thread.", delegate);
+        runParked(next);
+      } else {
+        pending.offerFirst(next);
+        // Otherwise the in-flight task may have completed before the parked one was put back
+        if (inFlight.get() > 0) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void runPending() {
+    while (pendingCount.get() > 0) {
+      Runnable next = pollPending();
+      if (next == null) {
+        // A concurrent park or drain is about to put the task back in the queue, or submit it
+        Thread.yield();
+        continue;
+      }
+      runParked(next);
+    }
+  }
+
+  private void runParked(Runnable task) {
+    try {
+      task.run();
+    } catch (Exception e) {
+      LOGGER.warn("Parked task failed running in the calling thread of executor for " + delegate, e);
+    }
+  }
+
+  /**
+   * @return the number of tasks parked waiting for the delegate to have capacity.
+   */
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  /**
+   * Rejects any further task and runs the parked ones in the calling thread before shutting down the delegate, since it would
+   * otherwise not run them.
+   */
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    runPending();
+    delegate.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    List<Runnable> notRun = new ArrayList<>(delegate.shutdownNow());
+    Runnable next;
+    while ((next = pending.poll()) != null) {
+      pendingCount.decrementAndGet();
+      notRun.add(next);
+    }
+    return notRun;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown || delegate.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+}
@@ -8,13 +8,20 @@
 package org.mule.runtime.core.internal.util.store;
 
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Collections.unmodifiableList;
 import static org.apache.commons.io.FileUtils.moveFileToDirectory;
 import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.core.api.config.i18n.CoreMessages.failedToCreate;
 import static org.mule.runtime.core.api.util.FileUtils.cleanDirectory;
-import static org.mule.runtime.core.api.util.FileUtils.newFile;
 import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.serialization.ObjectSerializer;
@@ -26,45 +33,94 @@ import org.mule.runtime.api.store.TemplateObjectStore;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.store.DeserializationPostInitialisable;
 import org.mule.runtime.core.api.store.ExpirableObjectStore;
-import org.mule.runtime.core.api.util.UUID;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
-import org.apache.commons.collections.BidiMap;
-import org.apache.commons.collections.bidimap.TreeBidiMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * A persistent partition of an object store, which keeps all of its entries in a single append-only log file.
+ * <p>
+ * Each {@link #store(Serializable, Serializable)} appends a record with the key and the serialized value to the log, and each
+ * removal appends a record marking the key as removed. An in-memory index maps every key to the position of its value in the
+ * log, so only the retrieved values are ever deserialized. The index keeps the keys in the order in which they were stored,
+ * which lets {@link #expire(long, int)} evict the oldest entries without looking at the filesystem.
+ * <p>
+ * A snapshot of the index is written when the partition is closed and every time the log is compacted, so that reopening
+ * the partition only needs to read the snapshot and the records appended after it. The log is compacted once the removed
+ * records take more space than the live ones. That is checked by the periodic expiration of the store and, for stores which
+ * are never expired, when entries are removed.
+ * <p>
+ * Partitions written by previous versions, with one file per entry, are migrated to the log when they are first loaded.
+ */
 public class PersistentObjectStorePartition<T extends Serializable> extends TemplateObjectStore<T>
     implements ExpirableObjectStore<T> {
 
   private static final String OBJECT_FILE_EXTENSION = ".obj";
   private static final String PARTITION_DESCRIPTOR_FILE = "partition-descriptor";
+  private static final String PARTITION_LOG_FILE = "partition-log";
+  private static final String PARTITION_INDEX_FILE = "partition-index";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
   public static final String CORRUPTED_FOLDER = "corrupted-files";
 
+  private static final int LOG_MAGIC = 0x4d4f534c;
+  private static final int INDEX_MAGIC = 0x4d4f5349;
+  private static final int LOG_HEADER_SIZE = 4 + 8;
+  private static final byte STORE_RECORD = 1;
+  private static final byte REMOVE_RECORD = 2;
+  // type, timestamp, key length, value length
+  private static final int RECORD_HEADER_SIZE = 1 + 8 + 4 + 4;
+  private static final int RECORD_CRC_SIZE = 4;
+  private static final long MINIMUM_DEAD_BYTES_TO_COMPACT = 1024 * 1024;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(PersistentObjectStorePartition.class);
 
   private final MuleContext muleContext;
   private final ObjectSerializer serializer;
 
-  private boolean loaded = false;
+  private volatile boolean loaded = false;
 
   private File partitionDirectory;
   private String partitionName;
-  private final BidiMap realKeyToUUIDIndex = new TreeBidiMap();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Lock readLock = lock.readLock();
+  private final Lock writeLock = lock.writeLock();
+  private final LinkedHashMap<String, IndexEntry> index = new LinkedHashMap<>();
+  private FileChannel logChannel;
+  private long logGeneration;
+  private long logLength;
+  private long deadBytes;
+  private long indexedLogLength;
 
   public PersistentObjectStorePartition(MuleContext muleContext, String partitionName, File partitionDirectory) {
     this.muleContext = muleContext;
@@ -96,76 +152,108 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     createOrRetrievePartitionDescriptorFile();
   }
 
+  /**
+   * Writes a snapshot of the index and releases the log file. The partition is loaded again if it's used after being closed.
+   */
   @Override
-  public void close() throws ObjectStoreException {}
+  public void close() throws ObjectStoreException {
+    writeLock.lock();
+    try {
+      if (!loaded) {
+        return;
+      }
+      if (indexedLogLength != logLength) {
+        writeIndexSnapshot();
+      }
+      closeLog();
+    } finally {
+      writeLock.unlock();
+    }
+  }
 
   @Override
   public List<String> allKeys() throws ObjectStoreException {
-    assureLoaded();
-
-    synchronized (realKeyToUUIDIndex) {
-      return unmodifiableList(new ArrayList<String>(realKeyToUUIDIndex.keySet()));
+    lockLoaded(readLock);
+    try {
+      return unmodifiableList(new ArrayList<>(index.keySet()));
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   protected boolean doContains(String key) throws ObjectStoreException {
-    assureLoaded();
-
-    synchronized (realKeyToUUIDIndex) {
-      return realKeyToUUIDIndex.containsKey(key);
+    lockLoaded(readLock);
+    try {
+      return index.containsKey(key);
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   protected void doStore(String key, T value) throws ObjectStoreException {
-    assureLoaded();
-
-    synchronized (realKeyToUUIDIndex) {
-      if (realKeyToUUIDIndex.containsKey(key)) {
+    byte[] serializedValue = serializeValue(value);
+    lockLoaded(writeLock);
+    try {
+      if (index.containsKey(key)) {
         throw new ObjectAlreadyExistsException();
       }
-      File newFile = createFileToStoreObject();
-      realKeyToUUIDIndex.put(key, newFile.getName());
-      serialize(newFile, new StoreValue<T>(key, value));
+      long timestamp = currentTimeMillis();
+      ByteBuffer record = createRecord(STORE_RECORD, timestamp, key, serializedValue);
+      long position = append(record);
+      index.put(key, new IndexEntry(position, record.capacity(), serializedValue.length, timestamp));
+    } finally {
+      writeLock.unlock();
     }
   }
 
   @Override
   public void clear() throws ObjectStoreException {
-    synchronized (realKeyToUUIDIndex) {
+    writeLock.lock();
+    try {
+      closeLog();
       try {
         cleanDirectory(this.partitionDirectory);
       } catch (IOException e) {
         throw new ObjectStoreException(createStaticMessage("Could not clear ObjectStore"), e);
       }
 
-      realKeyToUUIDIndex.clear();
+      index.clear();
+      loaded = false;
+    } finally {
+      writeLock.unlock();
     }
   }
 
   @Override
   protected T doRetrieve(String key) throws ObjectStoreException {
-    assureLoaded();
-
-    synchronized (realKeyToUUIDIndex) {
-      if (!realKeyToUUIDIndex.containsKey(key)) {
+    lockLoaded(readLock);
+    try {
+      IndexEntry entry = index.get(key);
+      if (entry == null) {
         throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
       }
-      String filename = (String) realKeyToUUIDIndex.get(key);
-      File file = getValueFile(filename);
-      return deserialize(file).getValue();
+      return deserializeValue(readValue(entry));
+    } finally {
+      readLock.unlock();
     }
   }
 
   @Override
   protected T doRemove(String key) throws ObjectStoreException {
-    assureLoaded();
-
-    synchronized (realKeyToUUIDIndex) {
-      T value = retrieve(key);
-      deleteStoreFile(getValueFile((String) realKeyToUUIDIndex.get(key)));
+    lockLoaded(writeLock);
+    try {
+      IndexEntry entry = index.get(key);
+      if (entry == null) {
+        throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+      }
+      T value = deserializeValue(readValue(entry));
+      appendRemoveRecords(new String[] {key});
+      compactIfNeeded();
       return value;
+    } finally {
+      writeLock.unlock();
     }
   }
 
@@ -176,38 +264,48 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
 
   @Override
   public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
-    assureLoaded();
-
-    synchronized (realKeyToUUIDIndex) {
-      File[] files = listValuesFiles();
-      Arrays.sort(files, (f1, f2) -> {
-        int result = Long.valueOf(f1.lastModified()).compareTo(f2.lastModified());
-        if (result == 0) {
-          result = f1.getName().compareTo(f2.getName());
-        }
-        return result;
-      });
-      int startIndex = trimToMaxSize(files, maxEntries);
-
-      if (entryTTL == UNBOUNDED) {
-        return;
-      }
-
-      final long now = System.currentTimeMillis();
-      for (int i = startIndex; i < files.length; i++) {
-        Long lastModified = files[i].lastModified();
-        if ((now - lastModified) >= entryTTL) {
-          deleteStoreFile(files[i]);
+    lockLoaded(writeLock);
+    try {
+      List<String> expiredKeys = new ArrayList<>();
+      Iterator<Map.Entry<String, IndexEntry>> entries = index.entrySet().iterator();
+      int excess = maxEntries == UNBOUNDED ? 0 : index.size() - maxEntries;
+      final long now = currentTimeMillis();
+      while (entries.hasNext()) {
+        Map.Entry<String, IndexEntry> entry = entries.next();
+        if (expiredKeys.size() < excess
+            || (entryTTL != UNBOUNDED && (now - entry.getValue().timestamp) >= entryTTL)) {
+          expiredKeys.add(entry.getKey());
         } else {
           break;
         }
       }
+
+      if (!expiredKeys.isEmpty()) {
+        appendRemoveRecords(expiredKeys.toArray(new String[expiredKeys.size()]));
+      }
+      compactIfNeeded();
+    } finally {
+      writeLock.unlock();
     }
   }
 
   private void assureLoaded() throws ObjectStoreException {
     if (!loaded) {
-      loadStoredKeysAndFileNames();
+      loadStoredKeys();
+    }
+  }
+
+  /**
+   * Acquires the given lock once the partition is loaded, loading it again if it was closed before the lock was acquired.
+   */
+  private void lockLoaded(Lock lock) throws ObjectStoreException {
+    while (true) {
+      assureLoaded();
+      lock.lock();
+      if (loaded) {
+        return;
+      }
+      lock.unlock();
     }
   }
 
@@ -221,8 +319,9 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     moveFileToDirectory(file, corruptedFile.getParentFile(), true);
   }
 
-  private void loadStoredKeysAndFileNames() throws ObjectStoreException {
-    synchronized (realKeyToUUIDIndex) {
+  private void loadStoredKeys() throws ObjectStoreException {
+    writeLock.lock();
+    try {
       /*
        * by re-checking this condition here we can avoid contention in {@link #assureLoaded}. The amount of times that this
        * condition should evaluate to {@code true} is really limited, which provides better performance in the long run
@@ -232,26 +331,182 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
       }
 
       try {
-        File[] files = listValuesFiles();
-        for (File file : files) {
-          try {
-            StoreValue<T> storeValue = deserialize(file);
-            realKeyToUUIDIndex.put(storeValue.getKey(), file.getName());
-          } catch (ObjectStoreException e) {
-            if (LOGGER.isWarnEnabled()) {
-              LOGGER
-                  .warn(format("Could not deserialize the ObjectStore file: %s. The file will be skipped and moved to the Garbage folder",
-                               file.getName()));
+        openLog();
+        long position = readIndexSnapshot() ? indexedLogLength : LOG_HEADER_SIZE;
+        replayLog(position);
+        migrateObjectFiles();
+        loaded = true;
+        compactIfNeeded();
+      } catch (Exception e) {
+        index.clear();
+        closeLog();
+        throw new ObjectStoreException(createStaticMessage(format("Could not restore object store data from %1s",
+                                                                  partitionDirectory.getAbsolutePath())),
+                                       e);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void openLog() throws IOException {
+    File logFile = getLogFile();
+    logChannel = FileChannel.open(logFile.toPath(), CREATE, READ, WRITE);
+    if (logChannel.size() < LOG_HEADER_SIZE) {
+      logGeneration = ThreadLocalRandom.current().nextLong();
+      writeLogHeader(logChannel, logGeneration);
+    } else {
+      ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+      readFully(logChannel, header, 0);
+      header.flip();
+      if (header.getInt() != LOG_MAGIC) {
+        throw new IOException("Invalid object store log file " + logFile.getAbsolutePath());
+      }
+      logGeneration = header.getLong();
+    }
+    logLength = logChannel.size();
+    deadBytes = 0;
+    indexedLogLength = 0;
+  }
+
+  private void writeLogHeader(FileChannel channel, long generation) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+    header.putInt(LOG_MAGIC).putLong(generation).flip();
+    channel.truncate(0);
+    writeFully(channel, header, 0);
+  }
+
+  private void closeLog() {
+    if (logChannel != null) {
+      try {
+        logChannel.close();
+      } catch (IOException e) {
+        LOGGER.warn("Error closing object store log file of partition " + partitionName, e);
+      }
+      logChannel = null;
+    }
+    index.clear();
+    loaded = false;
+  }
+
+  /**
+   * Reads all the records of the log from the given position, updating the index. If a truncated or corrupted record is
+   * found, which can happen if the process died while appending it, the log is truncated to the last valid record.
+   */
+  private void replayLog(long position) throws IOException {
+    final long size = logChannel.size();
+    try (FileChannel readChannel = FileChannel.open(getLogFile().toPath(), READ);
+        DataInputStream input =
+            new DataInputStream(new BufferedInputStream(Channels.newInputStream(readChannel.position(position))))) {
+      CRC32 crc = new CRC32();
+      byte[] header = new byte[RECORD_HEADER_SIZE];
+      while (position < size) {
+        try {
+          input.readFully(header);
+          ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+          byte type = headerBuffer.get();
+          long timestamp = headerBuffer.getLong();
+          int keyLength = headerBuffer.getInt();
+          int valueLength = headerBuffer.getInt();
+          long recordLength = (long) RECORD_HEADER_SIZE + keyLength + valueLength + RECORD_CRC_SIZE;
+          if ((type != STORE_RECORD && type != REMOVE_RECORD) || keyLength < 0 || valueLength < 0
+              || position + recordLength > size) {
+            break;
+          }
+
+          crc.reset();
+          crc.update(header);
+          byte[] keyBytes = new byte[keyLength];
+          input.readFully(keyBytes);
+          crc.update(keyBytes);
+          updateCrc(input, crc, valueLength);
+          if ((int) crc.getValue() != input.readInt()) {
+            break;
+          }
+
+          String key = new String(keyBytes, UTF_8);
+          if (type == STORE_RECORD) {
+            IndexEntry previous = index.put(key, new IndexEntry(position, (int) recordLength, valueLength, timestamp));
+            if (previous != null) {
+              deadBytes += previous.recordLength;
             }
-            moveToCorruptedFilesFolder(file);
+          } else {
+            IndexEntry removed = index.remove(key);
+            deadBytes += recordLength + (removed != null ? removed.recordLength : 0);
           }
+          position += recordLength;
+        } catch (EOFException e) {
+          break;
         }
+      }
+    }
 
-        loaded = true;
-      } catch (Exception e) {
-        throw new ObjectStoreException(createStaticMessage(format("Could not restore object store data from %1s",
-                                                                  partitionDirectory.getAbsolutePath())));
+    if (position < size) {
+      LOGGER.warn(format("Object store log of partition %s has an incomplete record at position %d, it will be discarded",
+                         partitionName, position));
+      logChannel.truncate(position);
+    }
+    logLength = position;
+  }
+
+  private void updateCrc(DataInputStream input, CRC32 crc, int length) throws IOException {
+    byte[] buffer = new byte[8 * 1024];
+    while (length > 0) {
+      int read = input.read(buffer, 0, Math.min(length, buffer.length));
+      if (read < 0) {
+        throw new EOFException();
       }
+      crc.update(buffer, 0, read);
+      length -= read;
+    }
+  }
+
+  /**
+   * Appends the entries stored in the file per entry format of previous versions to the log, deleting their files once the
+   * log has been forced to disk.
+   */
+  private void migrateObjectFiles() throws IOException, ObjectStoreException {
+    File[] files = listValuesFiles();
+    if (files.length == 0) {
+      return;
+    }
+    Arrays.sort(files, (f1, f2) -> {
+      int result = Long.valueOf(f1.lastModified()).compareTo(f2.lastModified());
+      if (result == 0) {
+        result = f1.getName().compareTo(f2.getName());
+      }
+      return result;
+    });
+
+    List<File> migratedFiles = new ArrayList<>(files.length);
+    for (File file : files) {
+      StoreValue<T> storeValue;
+      try {
+        storeValue = deserialize(file);
+      } catch (ObjectStoreException e) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER
+              .warn(format("Could not deserialize the ObjectStore file: %s. The file will be skipped and moved to the Garbage folder",
+                           file.getName()));
+        }
+        moveToCorruptedFilesFolder(file);
+        continue;
+      }
+
+      String key = storeValue.getKey().toString();
+      if (!index.containsKey(key)) {
+        byte[] serializedValue = serializeValue(storeValue.getValue());
+        ByteBuffer record = createRecord(STORE_RECORD, file.lastModified(), key, serializedValue);
+        long position = append(record);
+        index.put(key, new IndexEntry(position, record.capacity(), serializedValue.length, file.lastModified()));
+      }
+      migratedFiles.add(file);
+    }
+
+    // The legacy files may only go away once their entries are durable in the log
+    logChannel.force(true);
+    for (File file : migratedFiles) {
+      Files.delete(file.toPath());
     }
   }
 
@@ -264,6 +519,234 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     return files;
   }
 
+  /**
+   * Loads the index from its snapshot, if there is one and it was taken from the current log.
+   *
+   * @return whether the index was loaded
+   */
+  private boolean readIndexSnapshot() {
+    File indexFile = getIndexFile();
+    if (!indexFile.exists()) {
+      return false;
+    }
+
+    CRC32 crc = new CRC32();
+    try (DataInputStream input =
+        new DataInputStream(new CheckedInputStream(new BufferedInputStream(new FileInputStream(indexFile)), crc))) {
+      if (input.readInt() != INDEX_MAGIC || input.readLong() != logGeneration) {
+        return false;
+      }
+      long snapshotLogLength = input.readLong();
+      long snapshotDeadBytes = input.readLong();
+      int size = input.readInt();
+      if (snapshotLogLength > logLength || size < 0) {
+        return false;
+      }
+
+      LinkedHashMap<String, IndexEntry> snapshot = new LinkedHashMap<>();
+      for (int i = 0; i < size; i++) {
+        byte[] keyBytes = new byte[input.readInt()];
+        input.readFully(keyBytes);
+        snapshot.put(new String(keyBytes, UTF_8),
+                     new IndexEntry(input.readLong(), input.readInt(), input.readInt(), input.readLong()));
+      }
+      long expectedCrc = crc.getValue();
+      if (input.readLong() != expectedCrc) {
+        return false;
+      }
+
+      index.putAll(snapshot);
+      deadBytes = snapshotDeadBytes;
+      indexedLogLength = snapshotLogLength;
+      return true;
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(format("Could not read the index of object store partition %s, its log will be read instead", partitionName),
+                  e);
+      return false;
+    }
+  }
+
+  private void writeIndexSnapshot() {
+    File indexFile = getIndexFile();
+    File tempFile = new File(partitionDirectory, PARTITION_INDEX_FILE + TEMP_FILE_SUFFIX);
+    CRC32 crc = new CRC32();
+    try (FileChannel channel = FileChannel.open(tempFile.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+      // the snapshot must never reference records which may not be on disk
+      logChannel.force(false);
+      DataOutputStream output =
+          new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), crc));
+      output.writeInt(INDEX_MAGIC);
+      output.writeLong(logGeneration);
+      output.writeLong(logLength);
+      output.writeLong(deadBytes);
+      output.writeInt(index.size());
+      for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+        byte[] keyBytes = entry.getKey().getBytes(UTF_8);
+        output.writeInt(keyBytes.length);
+        output.write(keyBytes);
+        IndexEntry indexEntry = entry.getValue();
+        output.writeLong(indexEntry.position);
+        output.writeInt(indexEntry.recordLength);
+        output.writeInt(indexEntry.valueLength);
+        output.writeLong(indexEntry.timestamp);
+      }
+      output.writeLong(crc.getValue());
+      output.flush();
+      channel.force(false);
+    } catch (IOException e) {
+      LOGGER.warn(format("Could not write the index of object store partition %s", partitionName), e);
+      return;
+    }
+
+    try {
+      Files.move(tempFile.toPath(), indexFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+      indexedLogLength = logLength;
+    } catch (IOException e) {
+      LOGGER.warn(format("Could not write the index of object store partition %s", partitionName), e);
+    }
+  }
+
+  /**
+   * Rewrites the log with only the records of the entries in the index, once the removed records take more space than the live
+   * ones.
+   */
+  private void compactIfNeeded() {
+    if (deadBytes < MINIMUM_DEAD_BYTES_TO_COMPACT || deadBytes < logLength - LOG_HEADER_SIZE - deadBytes) {
+      return;
+    }
+
+    File logFile = getLogFile();
+    File compactedFile = new File(partitionDirectory, PARTITION_LOG_FILE + TEMP_FILE_SUFFIX);
+    long compactedGeneration = logGeneration + 1;
+    long[] positions = new long[index.size()];
+    long compactedLength = LOG_HEADER_SIZE;
+    try (FileChannel compacted = FileChannel.open(compactedFile.toPath(), CREATE, READ, WRITE, TRUNCATE_EXISTING)) {
+      writeLogHeader(compacted, compactedGeneration);
+      compacted.position(compactedLength);
+      int i = 0;
+      for (IndexEntry entry : index.values()) {
+        positions[i++] = compactedLength;
+        long transferred = 0;
+        while (transferred < entry.recordLength) {
+          transferred +=
+              logChannel.transferTo(entry.position + transferred, entry.recordLength - transferred, compacted);
+        }
+        compactedLength += entry.recordLength;
+      }
+      compacted.force(false);
+    } catch (IOException e) {
+      LOGGER.warn(format("Could not compact the log of object store partition %s", partitionName), e);
+      compactedFile.delete();
+      return;
+    }
+
+    try {
+      logChannel.close();
+      Files.move(compactedFile.toPath(), logFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not compact the log of object store partition "
+          + partitionName), e);
+    } finally {
+      reopenLogAfterCompaction(logFile);
+    }
+
+    int i = 0;
+    for (IndexEntry entry : index.values()) {
+      entry.position = positions[i++];
+    }
+    logGeneration = compactedGeneration;
+    logLength = compactedLength;
+    deadBytes = 0;
+    writeIndexSnapshot();
+  }
+
+  private void reopenLogAfterCompaction(File logFile) {
+    try {
+      logChannel = FileChannel.open(logFile.toPath(), READ, WRITE);
+    } catch (IOException e) {
+      logChannel = null;
+      index.clear();
+      loaded = false;
+      throw new MuleRuntimeException(createStaticMessage("Could not reopen the log of object store partition "
+          + partitionName), e);
+    }
+  }
+
+  private ByteBuffer createRecord(byte type, long timestamp, String key, byte[] serializedValue) {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    ByteBuffer record =
+        ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + serializedValue.length + RECORD_CRC_SIZE);
+    record.put(type).putLong(timestamp).putInt(keyBytes.length).putInt(serializedValue.length);
+    record.put(keyBytes).put(serializedValue);
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), 0, record.position());
+    record.putInt((int) crc.getValue());
+    record.flip();
+    return record;
+  }
+
+  private void appendRemoveRecords(String[] keys) throws ObjectStoreException {
+    long timestamp = currentTimeMillis();
+    int length = 0;
+    ByteBuffer[] records = new ByteBuffer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      records[i] = createRecord(REMOVE_RECORD, timestamp, keys[i], new byte[0]);
+      length += records[i].capacity();
+    }
+
+    ByteBuffer removeRecords = ByteBuffer.allocate(length);
+    for (ByteBuffer record : records) {
+      removeRecords.put(record);
+    }
+    removeRecords.flip();
+    append(removeRecords);
+
+    for (int i = 0; i < keys.length; i++) {
+      deadBytes += index.remove(keys[i]).recordLength + records[i].capacity();
+    }
+  }
+
+  /**
+   * @return the position of the log at which the data was appended
+   */
+  private long append(ByteBuffer data) throws ObjectStoreException {
+    long position = logLength;
+    try {
+      writeFully(logChannel, data, position);
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not write to the log of object store partition "
+          + partitionName), e);
+    }
+    logLength += data.limit();
+    return position;
+  }
+
+  private byte[] readValue(IndexEntry entry) throws ObjectStoreException {
+    ByteBuffer value = ByteBuffer.allocate(entry.valueLength);
+    try {
+      readFully(logChannel, value, entry.valuePosition());
+    } catch (IOException e) {
+      throw new ObjectStoreException(e);
+    }
+    return value.array();
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+    while (data.hasRemaining()) {
+      position += channel.write(data, position);
+    }
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+    while (data.hasRemaining()) {
+      int read = channel.read(data, position);
+      if (read < 0) {
+        throw new EOFException();
+      }
+      position += read;
+    }
+  }
+
   protected void createDirectory(File directory) throws ObjectStoreException {
     try {
       // To support concurrency we need to check if directory exists again
@@ -277,17 +760,12 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     }
   }
 
-  private File getValueFile(String filename) {
-    return new File(partitionDirectory, filename);
+  private File getLogFile() {
+    return new File(partitionDirectory, PARTITION_LOG_FILE);
   }
 
-  protected File createFileToStoreObject() throws ObjectStoreException {
-    String filename = UUID.getUUID() + OBJECT_FILE_EXTENSION;
-    try {
-      return newFile(partitionDirectory, filename);
-    } catch (MuleRuntimeException mre) {
-      throw new ObjectStoreException(mre);
-    }
+  private File getIndexFile() {
+    return new File(partitionDirectory, PARTITION_INDEX_FILE);
   }
 
   protected File createOrRetrievePartitionDescriptorFile() throws ObjectStoreException {
@@ -310,16 +788,29 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     }
   }
 
-  protected void serialize(File outputFile, StoreValue<T> storeValue) throws ObjectStoreException {
-    try (ObjectOutputStream objectOutputStream =
-        new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
-      serializer.getInternalProtocol().serialize(storeValue, objectOutputStream);
-      objectOutputStream.flush();
-    } catch (Exception se) {
-      throw new ObjectStoreException(se);
+  protected byte[] serializeValue(T value) throws ObjectStoreException {
+    try {
+      return serializer.getInternalProtocol().serialize(value);
+    } catch (Exception e) {
+      throw new ObjectStoreException(e);
     }
   }
 
+  protected T deserializeValue(byte[] serializedValue) throws ObjectStoreException {
+    try {
+      T value = serializer.getInternalProtocol().deserialize(serializedValue);
+      if (value instanceof DeserializationPostInitialisable) {
+        DeserializationPostInitialisable.Implementation.init(value, muleContext);
+      }
+      return value;
+    } catch (Exception e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  /**
+   * Reads an entry stored in its own file by previous versions of this partition.
+   */
   @SuppressWarnings("unchecked")
   protected StoreValue<T> deserialize(File file) throws ObjectStoreException {
     try (ObjectInputStream objectInputStream = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
@@ -333,34 +824,30 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     }
   }
 
-  protected void deleteStoreFile(File file) throws ObjectStoreException {
-    if (file.exists()) {
-      if (!file.delete()) {
-        throw new ObjectStoreException(createStaticMessage("Deleting " + file.getAbsolutePath() + " failed"));
-      }
-      realKeyToUUIDIndex.removeValue(file.getName());
-    } else {
-      throw new ObjectDoesNotExistException();
-    }
+  public String getPartitionName() {
+    return partitionName;
   }
 
-  private int trimToMaxSize(File[] files, int maxEntries) throws ObjectStoreException {
-    if (maxEntries == UNBOUNDED) {
-      return 0;
-    }
-    int expired = 0;
-    int excess = (files.length - maxEntries);
-    if (excess > 0) {
-      for (int i = 0; i < excess; i++) {
-        deleteStoreFile(files[i]);
-        expired++;
-      }
+  /**
+   * Location in the log of the record of an entry.
+   */
+  private static final class IndexEntry {
+
+    private long position;
+    private final int recordLength;
+    private final int valueLength;
+    private final long timestamp;
+
+    private IndexEntry(long position, int recordLength, int valueLength, long timestamp) {
+      this.position = position;
+      this.recordLength = recordLength;
+      this.valueLength = valueLength;
+      this.timestamp = timestamp;
     }
-    return expired;
-  }
 
-  public String getPartitionName() {
-    return partitionName;
+    private long valuePosition() {
+      return position + recordLength - RECORD_CRC_SIZE - valueLength;
+    }
   }
 
   public static class StoreValue<T> implements Serializable {
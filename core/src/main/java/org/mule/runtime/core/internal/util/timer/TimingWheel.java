@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.timer;
+
+import static java.lang.Long.MAX_VALUE;
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.atomic.AtomicIntegerFieldUpdater.newUpdater;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.context.MuleContextAware;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.slf4j.Logger;
+
+/**
+ * A hashed timing wheel which components register deadlines with instead of periodically scanning everything they track.
+ * <p>
+ * Deadlines are hashed by tick into a fixed number of buckets, each entry carrying the number of full wheel rotations left
+ * before it is due. Scheduling and cancelling a {@link Timeout} are O(1) and don't block, since both only enqueue the request
+ * for the thread which advances the wheel. On each tick only the bucket of that tick is visited, so the cost of expiring an
+ * entry doesn't depend on how many entries are pending, and the precision of a deadline is always one tick.
+ * <p>
+ * Tasks are run by the thread which advances the wheel, so they must be short and must not block. Components should use them to
+ * hand the expired work off to their own threads.
+ * <p>
+ * The wheel starts ticking when the first deadline is scheduled.
+ *
+ * @since 4.0
+ */
+public class TimingWheel implements MuleContextAware, Disposable {
+
+  private static final Logger LOGGER = getLogger(TimingWheel.class);
+
+  public static final long DEFAULT_TICK_MILLIS = 10;
+  public static final int DEFAULT_WHEEL_SIZE = 512;
+
+  private final long tickNanos;
+  private final long tickMillis;
+  private final Bucket[] wheel;
+  private final int mask;
+
+  private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+  private MuleContext muleContext;
+  private volatile Scheduler scheduler;
+  private volatile long startTime;
+  // @GuardedBy this
+  private long tick;
+  // @GuardedBy this
+  private boolean disposed = false;
+
+  public TimingWheel() {
+    this(DEFAULT_TICK_MILLIS, MILLISECONDS, DEFAULT_WHEEL_SIZE);
+  }
+
+  /**
+   * @param tickDuration the duration of each tick, which is the precision of the deadlines
+   * @param unit         the unit of {@code tickDuration}
+   * @param wheelSize    the number of buckets of the wheel. It is rounded up to a power of two
+   */
+  public TimingWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+    if (tickDuration <= 0) {
+      throw new IllegalArgumentException("tickDuration must be greater than 0, but was " + tickDuration);
+    }
+    if (wheelSize <= 0) {
+      throw new IllegalArgumentException("wheelSize must be greater than 0, but was " + wheelSize);
+    }
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.tickMillis = max(1, unit.toMillis(tickDuration));
+
+    int size = Integer.highestOneBit(wheelSize);
+    if (size < wheelSize) {
+      size <<= 1;
+    }
+    wheel = new Bucket[size];
+    for (int i = 0; i < size; ++i) {
+      wheel[i] = new Bucket();
+    }
+    mask = size - 1;
+  }
+
+  /**
+   * Schedules {@code task} to be run once the given delay has elapsed.
+   *
+   * @param task  the task to run when the deadline is reached. It is run by the thread that advances this wheel
+   * @param delay the time from now after which the task is run
+   * @param unit  the unit of {@code delay}
+   * @return a {@link Timeout} which can be used to cancel the task
+   */
+  public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+    ensureStarted();
+
+    long deadline = getCurrentNanoTime() - startTime + unit.toNanos(max(0, delay));
+    Timeout timeout = new Timeout(this, task, deadline < 0 ? MAX_VALUE : deadline);
+    pendingTimeouts.add(timeout);
+    return timeout;
+  }
+
+  private void ensureStarted() {
+    if (scheduler == null) {
+      synchronized (this) {
+        if (disposed) {
+          throw new IllegalStateException("TimingWheel was already disposed");
+        }
+        if (scheduler == null) {
+          startTime = getCurrentNanoTime();
+          Scheduler tickScheduler = muleContext.getSchedulerService()
+              .customScheduler(muleContext.getSchedulerBaseConfig().withName("TimingWheel").withMaxConcurrentTasks(1)
+                  .withShutdownTimeout(0, MILLISECONDS));
+          tickScheduler.scheduleWithFixedDelay(this::advance, tickMillis, tickMillis, MILLISECONDS);
+          scheduler = tickScheduler;
+        }
+      }
+    }
+  }
+
+  /**
+   * Processes all the ticks elapsed since the last time the wheel was advanced.
+   */
+  synchronized void advance() {
+    if (disposed) {
+      return;
+    }
+
+    long elapsed = getCurrentNanoTime() - startTime;
+    while ((tick + 1) * tickNanos <= elapsed) {
+      transferPendingTimeouts();
+      removeCancelledTimeouts();
+      wheel[(int) (tick & mask)].expireDue();
+      ++tick;
+    }
+  }
+
+  private void transferPendingTimeouts() {
+    Timeout timeout;
+    while ((timeout = pendingTimeouts.poll()) != null) {
+      if (timeout.state != Timeout.ST_INIT) {
+        continue;
+      }
+
+      // the first tick at whose end the deadline has been reached
+      long calculated = (timeout.deadline - 1) / tickNanos;
+      timeout.remainingRounds = (calculated - tick) / wheel.length;
+      wheel[(int) (max(calculated, tick) & mask)].add(timeout);
+    }
+  }
+
+  private void removeCancelledTimeouts() {
+    Timeout timeout;
+    while ((timeout = cancelledTimeouts.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  /**
+   * @return the number of deadlines scheduled in this wheel which are neither expired nor cancelled yet
+   */
+  public synchronized int size() {
+    int size = 0;
+    for (Timeout timeout : pendingTimeouts) {
+      if (timeout.state == Timeout.ST_INIT) {
+        ++size;
+      }
+    }
+    for (Bucket bucket : wheel) {
+      for (Timeout timeout = bucket.head; timeout != null; timeout = timeout.next) {
+        if (timeout.state == Timeout.ST_INIT) {
+          ++size;
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Stops the wheel. Pending deadlines are discarded without running their tasks.
+   */
+  @Override
+  public synchronized void dispose() {
+    disposed = true;
+    if (scheduler != null) {
+      scheduler.stop();
+    }
+    pendingTimeouts.clear();
+    cancelledTimeouts.clear();
+    for (Bucket bucket : wheel) {
+      bucket.clear();
+    }
+  }
+
+  protected long getCurrentNanoTime() {
+    return System.nanoTime();
+  }
+
+  @Override
+  public void setMuleContext(MuleContext context) {
+    this.muleContext = context;
+  }
+
+  /**
+   * A deadline scheduled in a {@link TimingWheel}.
+   */
+  public static final class Timeout {
+
+    private static final int ST_INIT = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER = newUpdater(Timeout.class, "state");
+
+    private final TimingWheel timingWheel;
+    private final Runnable task;
+    private final long deadline;
+    private volatile int state = ST_INIT;
+
+    // Only accessed by the thread advancing the wheel
+    private long remainingRounds;
+    private Bucket bucket;
+    private Timeout next;
+    private Timeout prev;
+
+    private Timeout(TimingWheel timingWheel, Runnable task, long deadline) {
+      this.timingWheel = timingWheel;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the deadline, so its task is not run if it hasn't been already.
+     *
+     * @return {@code true} if this call cancelled the deadline, {@code false} if it had already expired or been cancelled
+     */
+    public boolean cancel() {
+      if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+        return false;
+      }
+      timingWheel.cancelledTimeouts.add(this);
+      return true;
+    }
+
+    public boolean isCancelled() {
+      return state == ST_CANCELLED;
+    }
+
+    public boolean isExpired() {
+      return state == ST_EXPIRED;
+    }
+
+    private void expire() {
+      if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+        return;
+      }
+      try {
+        task.run();
+      } catch (Throwable t) {
+        LOGGER.warn("Task of an expired timeout threw an exception", t);
+      }
+    }
+  }
+
+  /**
+   * The deadlines that hash to a slot of the wheel, as a doubly linked list so they can be removed in constant time. Only
+   * accessed by the thread advancing the wheel.
+   */
+  private static final class Bucket {
+
+    private Timeout head;
+    private Timeout tail;
+
+    private void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    private void expireDue() {
+      Timeout timeout = head;
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+          timeout.expire();
+        } else if (timeout.isCancelled()) {
+          remove(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+
+    private void remove(Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      if (timeout.prev != null) {
+        timeout.prev.next = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      }
+      if (timeout == head) {
+        head = timeout.next;
+      }
+      if (timeout == tail) {
+        tail = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+
+    private void clear() {
+      head = null;
+      tail = null;
+    }
+  }
+}
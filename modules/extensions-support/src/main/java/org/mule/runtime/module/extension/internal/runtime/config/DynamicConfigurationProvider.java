@@ -6,6 +6,9 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.config;
 
+import static java.lang.Integer.getInteger;
+import static java.lang.Math.min;
+import static java.util.Collections.unmodifiableList;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
@@ -13,8 +16,8 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
 import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
-import static org.mule.runtime.core.api.util.collection.Collectors.toImmutableList;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
 import static org.slf4j.LoggerFactory.getLogger;
 import org.mule.runtime.api.connection.ConnectionProvider;
@@ -27,7 +30,8 @@ import org.mule.runtime.api.meta.model.ExtensionModel;
 import org.mule.runtime.api.meta.model.config.ConfigurationModel;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.event.BaseEvent;
-import org.mule.runtime.api.util.Pair;
+import org.mule.runtime.core.api.time.TimeSupplier;
+import org.mule.runtime.core.internal.time.LocalTimeSupplier;
 import org.mule.runtime.extension.api.runtime.ExpirationPolicy;
 import org.mule.runtime.extension.api.runtime.config.ConfigurationInstance;
 import org.mule.runtime.extension.api.runtime.config.ConfigurationProvider;
@@ -38,12 +42,21 @@ import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSet;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSetResult;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver;
 
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import javax.inject.Inject;
 
 import org.slf4j.Logger;
 
@@ -55,6 +68,16 @@ import org.slf4j.Logger;
  * {@link #resolverSet#resolve(Object)}, the resulting {@link ResolverSetResult} might not end up generating a new instance. This
  * is so because {@link ResolverSetResult} instances are put in a cache to guarantee that equivalent evaluations of the
  * {@code resolverSet} return the same instance.
+ * <p>
+ * The cache holds as many instances as set through the {@link #MAX_INSTANCES_PROPERTY_NAME} system property (10000 by default).
+ * When it grows beyond that, the idle instance which was used the least frequently (as estimated by a {@link FrequencySketch})
+ * is evicted, and then handed to the registry through {@link #getExpired()} together with the ones that expired according to the
+ * {@link ExpirationPolicy}. Lookups never lock, and creating the instance for a new key only makes other lookups of that same
+ * key wait for it.
+ * <p>
+ * An instance only counts as idle once it has no inflight operations and has not been used for at least
+ * {@link #MIN_IDLE_MILLIS}. The operation which uses a returned instance only starts after the lookup, so this keeps the instance
+ * from being evicted in between.
  *
  * @since 4.0.0
  */
@@ -63,15 +86,30 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
 
   private static final Logger LOGGER = getLogger(DynamicConfigurationProvider.class);
 
+  /**
+   * System property with the maximum number of {@link ConfigurationInstance}s that each provider keeps cached
+   */
+  static final String MAX_INSTANCES_PROPERTY_NAME = SYSTEM_PROPERTY_PREFIX + "dynamicConfig.maxInstances";
+  private static final int DEFAULT_MAX_INSTANCES = 10000;
+
+  /**
+   * The minimum time in milliseconds an instance has to be unused for to be evicted
+   */
+  static final long MIN_IDLE_MILLIS = 10000;
+
   private final ConfigurationInstanceFactory configurationInstanceFactory;
   private final ResolverSet resolverSet;
   private final ConnectionProviderValueResolver connectionProviderResolver;
   private final ExpirationPolicy expirationPolicy;
 
-  private final Map<Pair<ResolverSetResult, ResolverSetResult>, ConfigurationInstance> cache = new ConcurrentHashMap<>();
-  private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
-  private final Lock cacheReadLock = cacheLock.readLock();
-  private final Lock cacheWriteLock = cacheLock.writeLock();
+  private final int maxInstances;
+
+  private final ConcurrentMap<ConfigurationKey, CacheEntry> cache = new ConcurrentHashMap<>();
+  private final FrequencySketch frequencies = new FrequencySketch();
+  private final Queue<ConfigurationInstance> evicted = new ConcurrentLinkedQueue<>();
+
+  @Inject
+  private TimeSupplier timeSupplier;
 
   /**
    * Creates a new instance
@@ -90,12 +128,25 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
                                       ConnectionProviderValueResolver connectionProviderResolver,
                                       ExpirationPolicy expirationPolicy,
                                       MuleContext muleContext) {
+    this(name, extensionModel, configurationModel, resolverSet, connectionProviderResolver, expirationPolicy,
+         getInteger(MAX_INSTANCES_PROPERTY_NAME, DEFAULT_MAX_INSTANCES), muleContext);
+  }
+
+  DynamicConfigurationProvider(String name,
+                               ExtensionModel extensionModel,
+                               ConfigurationModel configurationModel,
+                               ResolverSet resolverSet,
+                               ConnectionProviderValueResolver connectionProviderResolver,
+                               ExpirationPolicy expirationPolicy,
+                               int maxInstances,
+                               MuleContext muleContext) {
     super(name, extensionModel, configurationModel, muleContext);
     configurationInstanceFactory =
         new ConfigurationInstanceFactory<>(extensionModel, configurationModel, resolverSet, muleContext);
     this.resolverSet = resolverSet;
     this.connectionProviderResolver = connectionProviderResolver;
     this.expirationPolicy = expirationPolicy;
+    this.maxInstances = maxInstances;
   }
 
   /**
@@ -113,40 +164,85 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
       if (connectionProviderResolver.getResolverSet().isPresent()) {
         providerResult = ((ResolverSet) connectionProviderResolver.getResolverSet().get()).resolve(from((BaseEvent) event));
       }
-      return getConfiguration(new Pair<>(result, providerResult), (BaseEvent) event);
+      return getConfiguration(new ConfigurationKey(result, providerResult), (BaseEvent) event);
     });
   }
 
-  private ConfigurationInstance getConfiguration(Pair<ResolverSetResult, ResolverSetResult> resolverSetResult,
-                                                 BaseEvent event)
-      throws Exception {
-    ConfigurationInstance configuration;
-    cacheReadLock.lock();
-    try {
-      configuration = cache.get(resolverSetResult);
-      if (configuration != null) {
-        // important to account between the boundaries of the lock to prevent race condition
-        updateUsageStatistic(configuration);
+  private ConfigurationInstance getConfiguration(ConfigurationKey key, BaseEvent event) throws Exception {
+    frequencies.increment(key.hashCode());
+    while (true) {
+      CacheEntry entry = cache.get(key);
+      if (entry == null) {
+        CacheEntry created = new CacheEntry();
+        entry = cache.putIfAbsent(key, created);
+        if (entry == null) {
+          populate(key, created, event);
+          entry = created;
+        }
+      }
+
+      ConfigurationInstance configuration = entry.await();
+      // accounting before acquiring, so that an eviction which sees the acquisition also sees the usage
+      updateUsageStatistic(configuration);
+      if (entry.acquire()) {
         return configuration;
       }
-    } finally {
-      cacheReadLock.unlock();
+
+      // the entry is being evicted. Wait for it to be either removed or kept
+      Thread.yield();
     }
+  }
 
-    cacheWriteLock.lock();
+  private void populate(ConfigurationKey key, CacheEntry entry, BaseEvent event) throws MuleException {
+    ConfigurationInstance configuration;
     try {
-      // re-check in case some other thread beat us to it...
-      configuration = cache.get(resolverSetResult);
-      if (configuration == null) {
-        configuration = createConfiguration(resolverSetResult, event);
-        cache.put(resolverSetResult, configuration);
+      configuration = createConfiguration(key.getValues(), key.getProviderValues(), event);
+    } catch (Throwable t) {
+      cache.remove(key, entry);
+      entry.fail(t);
+      throw t;
+    }
+
+    entry.complete(configuration);
+    frequencies.ensureCapacity(min(cache.size(), maxInstances));
+    evictIfFull(entry);
+  }
+
+  /**
+   * Evicts the idle entries which were used the least frequently until the cache is back within {@link #maxInstances}, there are
+   * no more idle entries, or the chosen one gets used before it is evicted. The scan is linear on the size of the cache, which is
+   * negligible next to the cost of the instance creation that triggers it.
+   */
+  private void evictIfFull(CacheEntry inserted) {
+    while (cache.size() > maxInstances) {
+      ConfigurationKey victimKey = null;
+      CacheEntry victim = null;
+      int victimFrequency = 0;
+      long victimLastUsed = 0;
+
+      for (Map.Entry<ConfigurationKey, CacheEntry> candidate : cache.entrySet()) {
+        ConfigurationInstance configuration = candidate.getValue().getIfCreated();
+        if (candidate.getValue() == inserted || configuration == null || !isIdle(configuration)) {
+          continue;
+        }
+
+        int frequency = frequencies.frequency(candidate.getKey().hashCode());
+        long lastUsed = configuration.getStatistics().getLastUsedMillis();
+        if (victim == null || frequency < victimFrequency || (frequency == victimFrequency && lastUsed < victimLastUsed)) {
+          victimKey = candidate.getKey();
+          victim = candidate.getValue();
+          victimFrequency = frequency;
+          victimLastUsed = lastUsed;
+        }
       }
 
-      // accounting here for the same reasons as above
-      updateUsageStatistic(configuration);
-      return configuration;
-    } finally {
-      cacheWriteLock.unlock();
+      // give up if the victim got used meanwhile, the next creation will try again
+      if (victim == null || !victim.tryEvict(this::isIdle)) {
+        return;
+      }
+
+      cache.remove(victimKey, victim);
+      evicted.add(victim.getIfCreated());
     }
   }
 
@@ -155,21 +251,21 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     stats.updateLastUsed();
   }
 
-  private ConfigurationInstance createConfiguration(Pair<ResolverSetResult, ResolverSetResult> values, BaseEvent event)
+  private ConfigurationInstance createConfiguration(ResolverSetResult values, ResolverSetResult connectionProviderValues,
+                                                    BaseEvent event)
       throws MuleException {
 
     ConfigurationInstance configuration;
-    ResolverSetResult connectionProviderValues = values.getSecond();
     if (connectionProviderValues != null) {
       configuration =
           configurationInstanceFactory.createConfiguration(getName(),
-                                                           values.getFirst(),
+                                                           values,
                                                            event,
                                                            connectionProviderResolver,
                                                            connectionProviderValues);
     } else {
       configuration = configurationInstanceFactory
-          .createConfiguration(getName(), values.getFirst(), event, ofNullable(connectionProviderResolver));
+          .createConfiguration(getName(), values, event, ofNullable(connectionProviderResolver));
     }
 
     registerConfiguration(configuration);
@@ -216,24 +312,37 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
 
   @Override
   public List<ConfigurationInstance> getExpired() {
-    cacheWriteLock.lock();
-    try {
-      return cache.entrySet().stream().filter(entry -> isExpired(entry.getValue())).map(entry -> {
-        cache.remove(entry.getKey());
-        return entry.getValue();
-      }).collect(toImmutableList());
-    } finally {
-      cacheWriteLock.unlock();
+    List<ConfigurationInstance> expired = new LinkedList<>();
+    for (ConfigurationInstance configuration = evicted.poll(); configuration != null; configuration = evicted.poll()) {
+      expired.add(configuration);
     }
+
+    cache.forEach((key, entry) -> {
+      if (entry.tryEvict(this::isExpired)) {
+        cache.remove(key, entry);
+        expired.add(entry.getIfCreated());
+      }
+    });
+
+    return unmodifiableList(expired);
   }
 
-  private boolean isExpired(ConfigurationInstance configuration) {
+  private boolean isIdle(ConfigurationInstance configuration) {
     ConfigurationStats stats = configuration.getStatistics();
-    return stats.getInflightOperations() == 0 && expirationPolicy.isExpired(stats.getLastUsedMillis(), MILLISECONDS);
+    return stats.getInflightOperations() == 0 && timeSupplier.get() - stats.getLastUsedMillis() >= MIN_IDLE_MILLIS;
+  }
+
+  private boolean isExpired(ConfigurationInstance configuration) {
+    return isIdle(configuration)
+        && expirationPolicy.isExpired(configuration.getStatistics().getLastUsedMillis(), MILLISECONDS);
   }
 
   @Override
   protected void doInitialise() {
+    if (timeSupplier == null) {
+      timeSupplier = new LocalTimeSupplier();
+    }
+
     try {
       initialiseIfNeeded(resolverSet, muleContext);
       initialiseIfNeeded(connectionProviderResolver, muleContext);
@@ -247,4 +356,131 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     super.start();
     startIfNeeded(connectionProviderResolver);
   }
+
+  /**
+   * The key of a cached {@link ConfigurationInstance}: the values of the configuration and of its connection provider, if any.
+   * Its hash is computed only once, and compared before the values on {@link #equals(Object)}.
+   */
+  private static final class ConfigurationKey {
+
+    private final ResolverSetResult values;
+    private final ResolverSetResult providerValues;
+    private final int hash;
+
+    private ConfigurationKey(ResolverSetResult values, ResolverSetResult providerValues) {
+      this.values = values;
+      this.providerValues = providerValues;
+      hash = 31 * values.hashCode() + Objects.hashCode(providerValues);
+    }
+
+    private ResolverSetResult getValues() {
+      return values;
+    }
+
+    private ResolverSetResult getProviderValues() {
+      return providerValues;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof ConfigurationKey)) {
+        return false;
+      }
+
+      ConfigurationKey other = (ConfigurationKey) obj;
+      return hash == other.hash && values.equals(other.values) && Objects.equals(providerValues, other.providerValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * A cached {@link ConfigurationInstance}, which might still be being created.
+   * <p>
+   * Lookups and evictions coordinate without locks: a lookup counts itself as a use of the entry and then checks that it was not
+   * evicted, while an eviction marks the entry as evicted and then checks that it was not used in the meantime, reverting the
+   * mark if it was. Either way, an instance is never both returned by a lookup and evicted. Once returned, the instance is kept
+   * by the minimum idle time checked by the eviction condition until its operation is counted as inflight.
+   */
+  private static final class CacheEntry {
+
+    private final CompletableFuture<ConfigurationInstance> configuration = new CompletableFuture<>();
+    private final AtomicLong uses = new AtomicLong(0);
+    private final AtomicBoolean evicted = new AtomicBoolean(false);
+
+    private void complete(ConfigurationInstance instance) {
+      configuration.complete(instance);
+    }
+
+    private void fail(Throwable t) {
+      configuration.completeExceptionally(t);
+    }
+
+    /**
+     * Waits for the instance to be created
+     *
+     * @return the created instance
+     * @throws Exception the exception thrown while creating the instance
+     */
+    private ConfigurationInstance await() throws Exception {
+      try {
+        return configuration.join();
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+          throw (Exception) cause;
+        }
+        throw (Error) cause;
+      }
+    }
+
+    /**
+     * @return the instance, or {@code null} if it is still being created or its creation failed
+     */
+    private ConfigurationInstance getIfCreated() {
+      return configuration.isDone() && !configuration.isCompletedExceptionally() ? configuration.getNow(null) : null;
+    }
+
+    /**
+     * Counts a use of the instance
+     *
+     * @return whether the instance can be used, {@code false} if it is being evicted
+     */
+    private boolean acquire() {
+      uses.incrementAndGet();
+      return !evicted.get();
+    }
+
+    /**
+     * Marks the entry as evicted if the instance was created and satisfies the {@code condition}, and it was not acquired while
+     * checking so.
+     *
+     * @param condition the condition for the instance to be evicted
+     * @return whether the entry was evicted
+     */
+    private boolean tryEvict(Predicate<ConfigurationInstance> condition) {
+      ConfigurationInstance instance = getIfCreated();
+      if (instance == null) {
+        return false;
+      }
+
+      long usesBefore = uses.get();
+      if (!condition.test(instance) || !evicted.compareAndSet(false, true)) {
+        return false;
+      }
+
+      if (uses.get() != usesBefore) {
+        evicted.set(false);
+        return false;
+      }
+
+      return true;
+    }
+  }
 }
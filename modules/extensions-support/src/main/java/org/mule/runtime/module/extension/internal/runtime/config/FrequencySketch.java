@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.config;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * A probabilistic estimate of how often each key of a cache has been used recently, as used by the TinyLFU eviction policies.
+ * <p>
+ * Each key is counted in {@link #COUNTERS_PER_KEY} small counters of a shared table, and its frequency is estimated as the
+ * minimum of them (a count-min sketch). Counters saturate at {@link #MAX_COUNT} and are all halved once the number of increments
+ * reaches {@link #SAMPLE_FACTOR} times the capacity, so that keys which were popular in the past age out.
+ * <p>
+ * Instances are thread safe but not exact: concurrent increments may be lost, which only lowers the precision of the estimates.
+ *
+ * @since 4.0
+ */
+final class FrequencySketch {
+
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 24;
+  private static final int COUNTERS_PER_KEY = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int SAMPLE_FACTOR = 10;
+  private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+  private volatile byte[] table = new byte[MIN_CAPACITY * COUNTERS_PER_KEY];
+  private int additions = 0;
+
+  /**
+   * Grows the sketch so that it can tell apart the frequencies of at least {@code capacity} keys. Growing discards the counts
+   * gathered so far.
+   *
+   * @param capacity the number of keys being tracked
+   */
+  void ensureCapacity(int capacity) {
+    int length = tableSizeFor(capacity) * COUNTERS_PER_KEY;
+    if (length > table.length) {
+      synchronized (this) {
+        if (length > table.length) {
+          table = new byte[length];
+          additions = 0;
+        }
+      }
+    }
+  }
+
+  /**
+   * Records a use of the key with the given {@code hash}
+   *
+   * @param hash the key's hash code
+   */
+  void increment(int hash) {
+    byte[] counters = table;
+    int spread = spread(hash);
+    boolean added = false;
+    for (int i = 0; i < COUNTERS_PER_KEY; i++) {
+      int index = indexOf(spread, i, counters.length);
+      if (counters[index] < MAX_COUNT) {
+        counters[index]++;
+        added = true;
+      }
+    }
+
+    if (added && ++additions >= SAMPLE_FACTOR * (counters.length / COUNTERS_PER_KEY)) {
+      halve(counters);
+    }
+  }
+
+  /**
+   * @param hash the key's hash code
+   * @return the estimated number of recent uses of the key with the given {@code hash}, between {@code 0} and {@link #MAX_COUNT}
+   */
+  int frequency(int hash) {
+    byte[] counters = table;
+    int spread = spread(hash);
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < COUNTERS_PER_KEY; i++) {
+      frequency = min(frequency, counters[indexOf(spread, i, counters.length)]);
+    }
+    return frequency;
+  }
+
+  private void halve(byte[] counters) {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = (byte) (counters[i] >>> 1);
+    }
+    additions >>>= 1;
+  }
+
+  private static int spread(int hash) {
+    int spread = hash * 0x9E3779B9;
+    return spread ^ (spread >>> 16);
+  }
+
+  private static int indexOf(int hash, int counter, int length) {
+    int index = (hash + SEEDS[counter]) * SEEDS[counter];
+    index ^= index >>> 17;
+    return index & (length - 1);
+  }
+
+  private static int tableSizeFor(int capacity) {
+    int size = min(max(capacity, MIN_CAPACITY), MAX_CAPACITY);
+    int highestBit = Integer.highestOneBit(size);
+    return highestBit == size ? size : highestBit << 1;
+  }
+}
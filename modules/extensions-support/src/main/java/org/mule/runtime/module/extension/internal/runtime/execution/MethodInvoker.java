@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.execution;
+
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.springframework.util.ReflectionUtils.invokeMethod;
+import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+
+import org.slf4j.Logger;
+
+/**
+ * Invokes a {@link Method} on a fixed target instance.
+ * <p>
+ * Instances created through {@link #generate(Method, Object)} call the method through a {@link MethodHandle} which is bound to
+ * the target and adapted to take the arguments as an array, so each invocation skips the access checks and argument copying of
+ * a reflective call. When no handle can be created for the method, it falls back to invoking it reflectively.
+ * <p>
+ * Either way, exceptions thrown by the method are propagated the same: unchecked ones as they are, checked ones wrapped in an
+ * {@link java.lang.reflect.UndeclaredThrowableException}.
+ *
+ * @since 4.0
+ */
+abstract class MethodInvoker {
+
+  private static final Logger LOGGER = getLogger(MethodInvoker.class);
+
+  /**
+   * Creates an invoker which calls {@code method} through a {@link MethodHandle}, or reflectively if the handle cannot be created.
+   *
+   * @param method the method to invoke
+   * @param target the instance to invoke the method on. Ignored if the method is static
+   * @return a new {@link MethodInvoker}
+   */
+  static MethodInvoker generate(Method method, Object target) {
+    try {
+      MethodHandle handle = lookup().unreflect(method);
+      if (!isStatic(method.getModifiers())) {
+        handle = handle.bindTo(target);
+      }
+      return new MethodHandleInvoker(handle.asSpreader(Object[].class, method.getParameterCount())
+          .asType(methodType(Object.class, Object[].class)));
+    } catch (Exception e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Could not generate invoker for method " + method + ". It will be invoked reflectively", e);
+      }
+      return new ReflectiveInvoker(method, target);
+    }
+  }
+
+  /**
+   * Invokes the method with the given {@code args}
+   *
+   * @param args the method arguments, one for each of its parameters
+   * @return the value returned by the method, or {@code null} if it is {@code void}
+   */
+  abstract Object invoke(Object[] args);
+
+  private static final class MethodHandleInvoker extends MethodInvoker {
+
+    private final MethodHandle handle;
+
+    private MethodHandleInvoker(MethodHandle handle) {
+      this.handle = handle;
+    }
+
+    @Override
+    Object invoke(Object[] args) {
+      try {
+        return (Object) handle.invokeExact(args);
+      } catch (Throwable t) {
+        rethrowRuntimeException(t);
+        return null;
+      }
+    }
+  }
+
+  private static final class ReflectiveInvoker extends MethodInvoker {
+
+    private final Method method;
+    private final Object target;
+
+    private ReflectiveInvoker(Method method, Object target) {
+      this.method = method;
+      this.target = target;
+    }
+
+    @Override
+    Object invoke(Object[] args) {
+      return invokeMethod(method, target, args);
+    }
+  }
+}
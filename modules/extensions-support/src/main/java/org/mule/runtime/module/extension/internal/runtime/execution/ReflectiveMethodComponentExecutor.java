@@ -13,7 +13,6 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
 import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
 import static org.slf4j.LoggerFactory.getLogger;
-import static org.springframework.util.ReflectionUtils.invokeMethod;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.lifecycle.InitialisationException;
 import org.mule.runtime.api.lifecycle.Lifecycle;
@@ -34,6 +33,9 @@ import org.slf4j.Logger;
 
 /**
  * Executes a task associated to a {@link ExecutionContext} by invoking a given {@link Method}
+ * <p>
+ * The method is invoked through a {@link MethodInvoker} generated when this executor is initialised, or on its first execution
+ * if it is used without going through its lifecycle.
  *
  * @param <M> the generic type of the associated {@link ComponentModel}
  * @since 4.0
@@ -58,7 +60,10 @@ public class ReflectiveMethodComponentExecutor<M extends ComponentModel>
   private final Object componentInstance;
   private final ArgumentResolverDelegate argumentResolverDelegate;
   private final ClassLoader extensionClassLoader;
+  private final Class<?>[] parameterTypes;
 
+  // MethodInvoker instances are immutable, so a racy lazy generation at most generates an extra one
+  private MethodInvoker invoker;
   private MuleContext muleContext;
 
   public ReflectiveMethodComponentExecutor(List<ParameterGroupModel> parameterGroupModels, Method method,
@@ -69,12 +74,22 @@ public class ReflectiveMethodComponentExecutor<M extends ComponentModel>
         ? NO_ARGS_DELEGATE
         : new MethodArgumentResolverDelegate(parameterGroupModels, method);
     extensionClassLoader = method.getDeclaringClass().getClassLoader();
+    parameterTypes = method.getParameterTypes();
   }
 
   public Object execute(ExecutionContext<M> executionContext) throws Exception {
+    final MethodInvoker invoker = getInvoker();
     return withContextClassLoader(extensionClassLoader,
-                                  () -> invokeMethod(method, componentInstance,
-                                                     getParameterValues(executionContext, method.getParameterTypes())));
+                                  () -> invoker.invoke(getParameterValues(executionContext, parameterTypes)));
+  }
+
+  private MethodInvoker getInvoker() {
+    MethodInvoker invoker = this.invoker;
+    if (invoker == null) {
+      invoker = MethodInvoker.generate(method, componentInstance);
+      this.invoker = invoker;
+    }
+    return invoker;
   }
 
   private Object[] getParameterValues(ExecutionContext<M> executionContext, Class<?>[] parameterTypes) {
@@ -84,6 +99,7 @@ public class ReflectiveMethodComponentExecutor<M extends ComponentModel>
   @Override
   public void initialise() throws InitialisationException {
     initialiseIfNeeded(componentInstance, true, muleContext);
+    getInvoker();
   }
 
   @Override
@@ -114,7 +130,7 @@ public class ReflectiveMethodComponentExecutor<M extends ComponentModel>
     return ec -> withContextClassLoader(extensionClassLoader,
                                         () -> {
                                           final Object[] resolved =
-                                              getParameterValues(ec, method.getParameterTypes());
+                                              getParameterValues(ec, parameterTypes);
 
                                           final Map<String, Object> resolvedParams = new HashMap<>();
                                           for (int i = 0; i < method.getParameterCount(); ++i) {
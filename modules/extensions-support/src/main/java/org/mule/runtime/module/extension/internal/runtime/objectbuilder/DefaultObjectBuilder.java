@@ -6,9 +6,11 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.objectbuilder;
 
+import static java.util.Arrays.copyOf;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
 import static org.mule.runtime.module.extension.internal.runtime.objectbuilder.ObjectBuilderUtils.createInstance;
+import static org.mule.runtime.module.extension.internal.runtime.resolver.ResolverUtils.isConstant;
 import static org.mule.runtime.module.extension.internal.util.IntrospectionUtils.checkInstantiable;
 import static org.mule.runtime.module.extension.internal.util.IntrospectionUtils.getField;
 import static org.mule.runtime.module.extension.internal.util.MuleExtensionUtils.hasAnyDynamic;
@@ -16,22 +18,30 @@ import static org.mule.runtime.module.extension.internal.util.MuleExtensionUtils
 import static org.springframework.util.ReflectionUtils.setField;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverUtils;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext;
+import org.mule.runtime.module.extension.internal.util.FieldSetter;
 
 import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Default implementation of {@link ObjectBuilder} which creates instances through a provided {@link Class}.
+ * <p>
+ * Once the builder is reused, the configured properties are compiled into an {@link InjectionPlan}. Values of
+ * {@link ResolverUtils#isConstant(ValueResolver) constant} resolvers are resolved at that point and reused for every other
+ * instance, so each build only resolves the rest. Adding a property resolver discards the plan.
  *
  * @since 3.7.0
  */
 public class DefaultObjectBuilder<T> implements ObjectBuilder<T> {
 
   private final Class<T> prototypeClass;
-  private final Map<Field, ValueResolver<Object>> resolvers = new HashMap<>();
+  private final Map<Field, ValueResolver<Object>> resolvers = new LinkedHashMap<>();
+  private volatile InjectionPlan plan;
+  private volatile boolean built = false;
   private String name = null;
 
   /**
@@ -63,6 +73,7 @@ public class DefaultObjectBuilder<T> implements ObjectBuilder<T> {
 
     field.setAccessible(true);
     resolvers.put(field, (ValueResolver<Object>) resolver);
+    plan = null;
     return this;
   }
 
@@ -78,8 +89,19 @@ public class DefaultObjectBuilder<T> implements ObjectBuilder<T> {
   public T build(ValueResolvingContext context) throws MuleException {
     T object = createInstance(prototypeClass);
 
-    for (Map.Entry<Field, ValueResolver<Object>> entry : resolvers.entrySet()) {
-      setField(entry.getKey(), object, resolve(entry.getValue(), context));
+    InjectionPlan plan = this.plan;
+    if (plan != null) {
+      plan.inject(object, context);
+    } else if (!built) {
+      // builders which are used only once are not worth compiling a plan for
+      built = true;
+      for (Map.Entry<Field, ValueResolver<Object>> entry : resolvers.entrySet()) {
+        setField(entry.getKey(), object, resolve(entry.getValue(), context));
+      }
+    } else {
+      plan = new InjectionPlan(context);
+      this.plan = plan;
+      plan.inject(object, context);
     }
 
     if (name != null) {
@@ -106,4 +128,55 @@ public class DefaultObjectBuilder<T> implements ObjectBuilder<T> {
   public void setName(String name) {
     this.name = name;
   }
+
+  /**
+   * The ordered list of fields to set on each built instance, each one with either the value resolved upfront or the
+   * {@link ValueResolver} to resolve it from on each build.
+   */
+  private final class InjectionPlan {
+
+    private final FieldSetter<Object, Object>[] constantSetters;
+    private final Object[] constantValues;
+    private final FieldSetter<Object, Object>[] dynamicSetters;
+    private final ValueResolver<Object>[] dynamicResolvers;
+
+    private InjectionPlan(ValueResolvingContext context) throws MuleException {
+      int constantCount = 0;
+      int dynamicCount = 0;
+      FieldSetter<Object, Object>[] constantSetters = new FieldSetter[resolvers.size()];
+      Object[] constantValues = new Object[resolvers.size()];
+      FieldSetter<Object, Object>[] dynamicSetters = new FieldSetter[resolvers.size()];
+      ValueResolver<Object>[] dynamicResolvers = new ValueResolver[resolvers.size()];
+
+      for (Map.Entry<Field, ValueResolver<Object>> entry : resolvers.entrySet()) {
+        FieldSetter<Object, Object> setter = new FieldSetter<>(entry.getKey());
+        ValueResolver<Object> resolver = entry.getValue();
+        if (isConstant(resolver)) {
+          Object value = resolver.resolve(context);
+          // nested resolvers are resolved on each build, and so are stream providers since each instance needs its own cursor
+          if (!(value instanceof ValueResolver || value instanceof CursorStreamProvider)) {
+            constantSetters[constantCount] = setter;
+            constantValues[constantCount++] = value;
+            continue;
+          }
+        }
+        dynamicSetters[dynamicCount] = setter;
+        dynamicResolvers[dynamicCount++] = resolver;
+      }
+
+      this.constantSetters = copyOf(constantSetters, constantCount);
+      this.constantValues = copyOf(constantValues, constantCount);
+      this.dynamicSetters = copyOf(dynamicSetters, dynamicCount);
+      this.dynamicResolvers = copyOf(dynamicResolvers, dynamicCount);
+    }
+
+    private void inject(Object object, ValueResolvingContext context) throws MuleException {
+      for (int i = 0; i < constantSetters.length; i++) {
+        constantSetters[i].set(object, constantValues[i]);
+      }
+      for (int i = 0; i < dynamicSetters.length; i++) {
+        dynamicSetters[i].set(object, resolve(dynamicResolvers[i], context));
+      }
+    }
+  }
 }
@@ -6,29 +6,43 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.objectbuilder;
 
+import static org.mule.runtime.module.extension.internal.runtime.objectbuilder.ObjectBuilderUtils.createInstance;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
 import static org.mule.runtime.module.extension.api.util.MuleExtensionUtils.getInitialiserEvent;
+import static org.mule.runtime.module.extension.internal.util.IntrospectionUtils.getField;
 import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
 import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
 import org.mule.runtime.module.extension.internal.loader.ParameterGroupDescriptor;
 import org.mule.runtime.module.extension.api.runtime.privileged.EventedExecutionContext;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSetResult;
 import org.mule.runtime.module.extension.internal.runtime.resolver.StaticValueResolver;
+import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext;
+import org.mule.runtime.module.extension.internal.util.FieldSetter;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
  * An {@link ObjectBuilder} used to build pojos which are used with the {@link ParameterGroup}
  * annotation.
+ * <p>
+ * The fields of the group and their setters are looked up once, when the builder is created, so instances should be reused
+ * across builds of the same group.
  *
  * @param <T> the generic type of the object being built
  */
 public class ParameterGroupObjectBuilder<T> extends DefaultObjectBuilder<T> {
 
-  private final ParameterGroupDescriptor groupDescriptor;
+  private final Class<T> prototypeClass;
+  private final String[] fieldNames;
+  private final FieldSetter<Object, Object>[] fieldSetters;
 
   /**
    * Create a new instance
@@ -37,7 +51,18 @@ public class ParameterGroupObjectBuilder<T> extends DefaultObjectBuilder<T> {
    */
   public ParameterGroupObjectBuilder(ParameterGroupDescriptor groupDescriptor) {
     super(groupDescriptor.getType().getDeclaringClass());
-    this.groupDescriptor = groupDescriptor;
+    prototypeClass = (Class<T>) groupDescriptor.getType().getDeclaringClass();
+
+    List<String> names = new ArrayList<>();
+    List<FieldSetter<Object, Object>> setters = new ArrayList<>();
+    groupDescriptor.getType().getFields().forEach(fieldElement -> {
+      // a missing field is only reported if a value is built for it
+      Optional<Field> field = getField(prototypeClass, fieldElement.getName());
+      names.add(fieldElement.getName());
+      setters.add(field.map(FieldSetter<Object, Object>::new).orElse(null));
+    });
+    fieldNames = names.toArray(new String[names.size()]);
+    fieldSetters = setters.toArray(new FieldSetter[setters.size()]);
   }
 
   public T build(EventedExecutionContext executionContext) throws MuleException {
@@ -52,13 +77,23 @@ public class ParameterGroupObjectBuilder<T> extends DefaultObjectBuilder<T> {
 
   private T doBuild(Predicate<String> hasParameter, Function<String, Object> parameters, ValueResolvingContext context)
       throws MuleException {
-    groupDescriptor.getType().getFields().forEach(field -> {
-      String name = field.getName();
+    T object = createInstance(prototypeClass);
+
+    for (int i = 0; i < fieldNames.length; i++) {
+      String name = fieldNames[i];
       if (hasParameter.test(name)) {
-        addPropertyResolver(name, new StaticValueResolver<>(parameters.apply(name)));
+        if (fieldSetters[i] == null) {
+          throw new IllegalArgumentException(String.format("Class '%s' does not contain property '%s'",
+                                                           prototypeClass.getName(), name));
+        }
+        Object value = parameters.apply(name);
+        if (value instanceof ValueResolver || value instanceof CursorStreamProvider) {
+          value = resolve(new StaticValueResolver<>(value), context);
+        }
+        fieldSetters[i].set(object, value);
       }
-    });
+    }
 
-    return build(context);
+    return object;
   }
 }
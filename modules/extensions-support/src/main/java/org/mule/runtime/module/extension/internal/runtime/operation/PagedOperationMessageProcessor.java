@@ -6,8 +6,12 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.operation;
 
+import static java.lang.Integer.getInteger;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
+import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.meta.model.ExtensionModel;
 import org.mule.runtime.api.meta.model.operation.OperationModel;
+import org.mule.runtime.api.scheduler.Scheduler;
 import org.mule.runtime.core.api.extension.ExtensionManager;
 import org.mule.runtime.core.api.retry.policy.RetryPolicyTemplate;
 import org.mule.runtime.core.api.streaming.CursorProviderFactory;
@@ -27,12 +31,23 @@ import java.util.Optional;
 /**
  * A specialization of {@link OperationMessageProcessor} which supports auto paging by the means of a
  * {@link ConsumerStreamingIterator}
+ * <p>
+ * If the {@link #PREFETCH_PAGES_PROPERTY_NAME} system property is set to a positive number, that many pages are fetched in
+ * advance on the IO scheduler while the current one is consumed.
  *
  * @since 4.0
  */
 public class PagedOperationMessageProcessor extends OperationMessageProcessor {
 
+  /**
+   * System property with the number of pages to prefetch. Pages are not prefetched by default. When the consumer stops iterating
+   * before the last page, up to this number of extra pages will have been fetched from the paging provider anyway.
+   */
+  public static final String PREFETCH_PAGES_PROPERTY_NAME = SYSTEM_PROPERTY_PREFIX + "paging.prefetchPages";
+
   private final ExtensionConnectionSupplier connectionSupplier;
+  private final int prefetchPages = getInteger(PREFETCH_PAGES_PROPERTY_NAME, 0);
+  private Scheduler prefetchScheduler;
 
   public PagedOperationMessageProcessor(ExtensionModel extensionModel,
                                         OperationModel operationModel,
@@ -58,7 +73,7 @@ public class PagedOperationMessageProcessor extends OperationMessageProcessor {
       Optional<ConfigurationInstance> config = operationContext.getConfiguration();
       Producer<?> producer =
           new PagingProviderProducer((PagingProvider) value, config.get(),
-                                     operationContext, connectionSupplier);
+                                     operationContext, connectionSupplier, prefetchScheduler, prefetchPages);
 
       ListConsumer<?> consumer = new ListConsumer(producer);
       consumer.loadNextPage();
@@ -66,6 +81,29 @@ public class PagedOperationMessageProcessor extends OperationMessageProcessor {
     };
   }
 
+  @Override
+  public void doStart() throws MuleException {
+    super.doStart();
+    if (prefetchPages > 0 && prefetchScheduler == null) {
+      prefetchScheduler = muleContext.getSchedulerService().ioScheduler();
+    }
+  }
+
+  @Override
+  public void doStop() throws MuleException {
+    try {
+      super.doStop();
+    } finally {
+      if (prefetchScheduler != null) {
+        try {
+          prefetchScheduler.stop();
+        } finally {
+          prefetchScheduler = null;
+        }
+      }
+    }
+  }
+
   @Override
   protected ExecutionMediator createExecutionMediator() {
     return new DefaultExecutionMediator(extensionModel,
@@ -25,4 +25,9 @@ public class HashedResolverSet extends ResolverSet {
   ResolverSetResult.Builder getResolverSetBuilder() {
     return HashedResolverSetResult.newBuilder();
   }
+
+  @Override
+  ResolverSetResult createResult(ResolvedValues values) {
+    return new HashedResolverSetResult(values);
+  }
 }
@@ -66,6 +66,21 @@ public class HashedResolverSetResult extends ResolverSetResult {
     this.hashCode = hashCode;
   }
 
+  /**
+   * Creates an instance for the given {@code values}, calculating the same hashCode a {@link Builder} would if the values were
+   * added to it in order
+   *
+   * @param values the values resolved by a {@link ResolverSet}
+   */
+  HashedResolverSetResult(ResolvedValues values) {
+    super(values);
+    int hashCode = 1;
+    for (Object value : values.values()) {
+      hashCode = calculateValueHash(hashCode, value);
+    }
+    this.hashCode = hashCode;
+  }
+
   /**
    * A hashCode calculated based on the results
    *
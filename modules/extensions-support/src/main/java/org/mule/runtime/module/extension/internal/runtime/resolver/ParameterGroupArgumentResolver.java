@@ -16,11 +16,11 @@ import org.mule.runtime.module.extension.internal.runtime.objectbuilder.Paramete
 
 public final class ParameterGroupArgumentResolver<T> implements ArgumentResolver<T> {
 
-  private final ParameterGroupDescriptor group;
+  private final ParameterGroupObjectBuilder<T> groupBuilder;
 
   public ParameterGroupArgumentResolver(ParameterGroupDescriptor group) {
     checkInstantiable(group.getType().getDeclaringClass());
-    this.group = group;
+    groupBuilder = new ParameterGroupObjectBuilder<>(group);
   }
 
   /**
@@ -29,7 +29,7 @@ public final class ParameterGroupArgumentResolver<T> implements ArgumentResolver
   @Override
   public T resolve(ExecutionContext executionContext) {
     try {
-      return new ParameterGroupObjectBuilder<T>(group).build((EventedExecutionContext) executionContext);
+      return groupBuilder.build((EventedExecutionContext) executionContext);
     } catch (Exception e) {
       throw new MuleRuntimeException(createStaticMessage("Could not create parameter group"), e);
     }
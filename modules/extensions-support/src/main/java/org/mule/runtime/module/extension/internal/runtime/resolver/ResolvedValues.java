@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.resolver;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An unmodifiable {@link Map} with the values resolved by a {@link ResolverSet}.
+ * <p>
+ * The keys and their positions are shared by every instance produced by the same {@link ResolverSet}, so each resolution only
+ * allocates the array of values.
+ *
+ * @since 4.0
+ */
+final class ResolvedValues extends AbstractMap<String, Object> {
+
+  private final String[] keys;
+  private final Map<String, Integer> positions;
+  private final Object[] values;
+
+  /**
+   * @param keys      the keys, in iteration order
+   * @param positions the position in {@code keys} of each key
+   * @param values    the value of each key, in the same order as {@code keys}. It is not copied
+   */
+  ResolvedValues(String[] keys, Map<String, Integer> positions, Object[] values) {
+    this.keys = keys;
+    this.positions = positions;
+    this.values = values;
+  }
+
+  @Override
+  public Object get(Object key) {
+    Integer position = positions.get(key);
+    return position != null ? values[position] : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return positions.containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        return new Iterator<Entry<String, Object>>() {
+
+          private int position = 0;
+
+          @Override
+          public boolean hasNext() {
+            return position < keys.length;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = new SimpleImmutableEntry<>(keys[position], values[position]);
+            position++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+}
@@ -6,7 +6,9 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.resolver;
 
+import static java.util.Arrays.copyOf;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
+import static org.mule.runtime.module.extension.internal.runtime.resolver.ResolverUtils.isConstant;
 import static org.mule.runtime.core.api.util.StringUtils.isBlank;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.exception.MuleRuntimeException;
@@ -21,6 +23,7 @@ import org.mule.runtime.module.extension.internal.runtime.objectbuilder.ObjectBu
 
 import com.google.common.collect.ImmutableMap;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -33,6 +36,10 @@ import java.util.Map;
  * {@link ValueResolver}s but evaluated many times. With this goal in mind is that the return value of this resolver will always
  * be a {@link ResolverSetResult} which then can be used by a {@link ObjectBuilder} to generate an actual object.
  * <p>
+ * When initialised, the resolvers are split between the {@link ResolverUtils#isConstant(ValueResolver) constant} ones and the
+ * rest. The values of the former are resolved only the first time this set is resolved and then shared by all the following
+ * results, so each resolution only evaluates the rest. Adding a resolver discards that split until the set is initialised again.
+ * <p>
  * Instances of this class are to be considered thread safe and reusable
  *
  * @since 3.7.0
@@ -41,6 +48,7 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
 
   private Map<String, ValueResolver<?>> resolvers = new LinkedHashMap<>();
   private boolean dynamic = false;
+  private volatile ResolutionPlan plan;
   private final MuleContext muleContext;
 
   public ResolverSet(MuleContext muleContext) {
@@ -63,6 +71,7 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
     if (resolvers.put(key, resolver) != null) {
       throw new IllegalStateException("A value was already given for key " + key);
     }
+    plan = null;
 
     if (!dynamic && resolver.isDynamic()) {
       dynamic = true;
@@ -105,6 +114,11 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
    */
   @Override
   public ResolverSetResult resolve(ValueResolvingContext context) throws MuleException {
+    ResolutionPlan plan = this.plan;
+    if (plan != null) {
+      return createResult(plan.resolve(context));
+    }
+
     ResolverSetResult.Builder builder = getResolverSetBuilder();
 
     for (Map.Entry<String, ValueResolver<?>> entry : resolvers.entrySet()) {
@@ -114,7 +128,7 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
     return builder.build();
   }
 
-  private Object resolveValue(ValueResolver<?> resolver, ValueResolvingContext context)
+  private static Object resolveValue(ValueResolver<?> resolver, ValueResolvingContext context)
       throws MuleException {
     Object value = resolver.resolve(context);
 
@@ -167,10 +181,96 @@ public class ResolverSet implements ValueResolver<ResolverSetResult>, Initialisa
     } catch (MuleException e) {
       throw new MuleRuntimeException(e);
     }
+
+    plan = new ResolutionPlan(resolvers);
   }
 
   ResolverSetResult.Builder getResolverSetBuilder() {
     return ResolverSetResult.newBuilder();
   }
 
+  ResolverSetResult createResult(ResolvedValues values) {
+    return new ResolverSetResult(values);
+  }
+
+  /**
+   * Whether a value resolved by a constant resolver still needs to be resolved again for each result, because it yields a new
+   * cursor each time.
+   */
+  private static boolean requiresResolution(Object value) {
+    return value instanceof ValueResolver || value instanceof CursorProvider
+        || (value instanceof TypedValue && ((TypedValue) value).getValue() instanceof CursorProvider);
+  }
+
+  /**
+   * The resolvers of a {@link ResolverSet} along with the values of the constant ones.
+   */
+  private static final class ResolutionPlan {
+
+    private final String[] keys;
+    private final Map<String, Integer> positions;
+    private final ValueResolver<?>[] resolvers;
+    private volatile StaticValues staticValues;
+
+    private ResolutionPlan(Map<String, ValueResolver<?>> resolvers) {
+      keys = resolvers.keySet().toArray(new String[resolvers.size()]);
+      this.resolvers = resolvers.values().toArray(new ValueResolver<?>[resolvers.size()]);
+
+      Map<String, Integer> positions = new HashMap<>();
+      for (int i = 0; i < keys.length; ++i) {
+        positions.put(keys[i], i);
+      }
+      this.positions = positions;
+    }
+
+    private ResolvedValues resolve(ValueResolvingContext context) throws MuleException {
+      StaticValues staticValues = getStaticValues(context);
+      Object[] values = staticValues.values.clone();
+      for (int position : staticValues.dynamicPositions) {
+        values[position] = resolveValue(resolvers[position], context);
+      }
+
+      return new ResolvedValues(keys, positions, values);
+    }
+
+    private StaticValues getStaticValues(ValueResolvingContext context) throws MuleException {
+      StaticValues staticValues = this.staticValues;
+      if (staticValues == null) {
+        // constant resolvers return the same value each time, so a concurrent computation yields the same values
+        staticValues = new StaticValues(resolvers, context);
+        this.staticValues = staticValues;
+      }
+      return staticValues;
+    }
+  }
+
+  /**
+   * The values of the constant resolvers, in their position, along with the positions of the resolvers which need to be resolved
+   * for each result.
+   */
+  private static final class StaticValues {
+
+    private final Object[] values;
+    private final int[] dynamicPositions;
+
+    private StaticValues(ValueResolver<?>[] resolvers, ValueResolvingContext context) throws MuleException {
+      values = new Object[resolvers.length];
+      int[] dynamicPositions = new int[resolvers.length];
+      int dynamicCount = 0;
+
+      for (int i = 0; i < resolvers.length; ++i) {
+        if (isConstant(resolvers[i])) {
+          Object value = resolvers[i].resolve(context);
+          if (!requiresResolution(value)) {
+            values[i] = value;
+            continue;
+          }
+        }
+        dynamicPositions[dynamicCount++] = i;
+      }
+
+      this.dynamicPositions = copyOf(dynamicPositions, dynamicCount);
+    }
+  }
+
 }
@@ -77,6 +77,15 @@ public class ResolverSetResult {
     this.evaluationResult = new HashMap<>(evaluationResult);
   }
 
+  /**
+   * Creates an instance which exposes the given {@code values} without copying them, since they can't be modified
+   *
+   * @param values the values resolved by a {@link ResolverSet}
+   */
+  ResolverSetResult(ResolvedValues values) {
+    this.evaluationResult = values;
+  }
+
   /**
    * Returns the value associated with the {@link ParameterModel} of the given {@code parameterName}
    *
@@ -35,6 +35,22 @@ public class ResolverUtils {
 
   }
 
+  /**
+   * Whether the given {@code resolver} is known to return the same value no matter the {@link ValueResolvingContext}, so that
+   * value can be resolved once and reused.
+   * <p>
+   * Not being {@link ValueResolver#isDynamic() dynamic} is not enough, since some of those resolvers still build their value from
+   * the event or the configuration in the context.
+   *
+   * @param resolver a {@link ValueResolver}
+   * @return whether its value can be resolved only once
+   */
+  public static boolean isConstant(ValueResolver<?> resolver) {
+    return resolver instanceof StaticValueResolver
+        || resolver instanceof StaticLiteralValueResolver
+        || (resolver instanceof TypeSafeValueResolverWrapper && !resolver.isDynamic());
+  }
+
   static ValueResolver<?> getFieldDefaultValueValueResolver(ObjectFieldType field, MuleContext muleContext) {
     Optional<String> defaultValue = getDefaultValue(field);
     checkArgument(defaultValue.isPresent(), "No default value available for field :" + field.getKey().getName());
@@ -8,12 +8,15 @@
 package org.mule.runtime.module.extension.internal.runtime.streaming;
 
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
+import static org.mule.runtime.module.extension.internal.util.MuleExtensionUtils.getClassLoader;
 import org.mule.runtime.api.connection.ConnectionHandler;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.util.LazyValue;
 import org.mule.runtime.core.api.streaming.iterator.Producer;
 import org.mule.runtime.core.api.transaction.Transaction;
+import org.mule.runtime.core.api.transaction.TransactionConfig;
 import org.mule.runtime.core.api.transaction.TransactionCoordination;
 import org.mule.runtime.core.api.util.func.CheckedSupplier;
 import org.mule.runtime.extension.api.runtime.config.ConfigurationInstance;
@@ -23,11 +26,28 @@ import org.mule.runtime.module.extension.internal.runtime.connectivity.Extension
 import org.mule.runtime.module.extension.internal.runtime.transaction.ExtensionTransactionKey;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 /**
  * Implementation of {@link Producer} that uses an instance of {@link PagingProvider} to get its results.
+ * <p>
+ * Pages can optionally be prefetched: while the consumer processes a page, the following ones are fetched on a given
+ * {@link Executor} and kept in a buffer of a bounded amount of pages. Pages are still obtained one at a time and in order, with
+ * connections obtained and released as without prefetching, and with the extension's {@link ClassLoader} as the context one, as
+ * when the operation is executed. Prefetching is not done when the operation is transactional, since transactions are bound to
+ * the thread that executes it.
+ * <p>
+ * A page that the {@link Executor} didn't start fetching by the time the consumer needs it, for instance because the executor
+ * rejected or dropped the task, is fetched by the consumer itself, so it never waits for a fetch that won't happen.
  *
  * @param <T> the type of the elements returned by the {@link PagingProvider}.
  * @since 3.5.0
@@ -41,26 +61,116 @@ public final class PagingProviderProducer<T> implements Producer<List<T>> {
   private final ExecutionContextAdapter executionContext;
   private final ConnectionSupplierFactory connectionSupplierFactory;
 
+  private final Executor prefetchExecutor;
+  private final int prefetchPages;
+  private final ClassLoader extensionClassLoader;
+  private final Queue<PrefetchedPage> prefetchedPages = new ArrayDeque<>();
+  private final Object delegateLock = new Object();
+  private PrefetchedPage lastPrefetch;
+  private volatile boolean closed = false;
+
   public PagingProviderProducer(PagingProvider<Object, T> delegate,
                                 ConfigurationInstance config,
                                 ExecutionContextAdapter executionContext,
                                 ExtensionConnectionSupplier connectionSupplier) {
+    this(delegate, config, executionContext, connectionSupplier, null, 0);
+  }
+
+  /**
+   * Creates a new instance which prefetches up to {@code prefetchPages} pages ahead of the one being consumed
+   *
+   * @param delegate           the {@link PagingProvider} which obtains the pages
+   * @param config             the configuration of the paged operation
+   * @param executionContext   the context of the paged operation execution
+   * @param connectionSupplier the supplier of the connections to fetch the pages with
+   * @param prefetchExecutor   the {@link Executor} on which pages are prefetched
+   * @param prefetchPages      how many pages to prefetch. No pages are prefetched if lower than {@code 1}. If the consumer stops
+   *                           before the last page, up to this number of pages are fetched without being consumed
+   */
+  public PagingProviderProducer(PagingProvider<Object, T> delegate,
+                                ConfigurationInstance config,
+                                ExecutionContextAdapter executionContext,
+                                ExtensionConnectionSupplier connectionSupplier,
+                                Executor prefetchExecutor,
+                                int prefetchPages) {
     this.delegate = new PagingProviderWrapper(delegate);
     this.config = config;
     this.executionContext = executionContext;
     this.connectionSupplier = connectionSupplier;
 
     this.connectionSupplierFactory = createConnectionSupplierFactory();
+    this.prefetchExecutor = prefetchExecutor;
+    this.prefetchPages = prefetchExecutor != null && prefetchPages > 0 && !isTransacted() ? prefetchPages : 0;
+    this.extensionClassLoader = this.prefetchPages > 0 ? getClassLoader(executionContext.getExtensionModel()) : null;
   }
 
   /**
-   * Asks the delegate for the next page
+   * Asks the delegate for the next page, or waits for it to be prefetched
    */
   @Override
   public List<T> produce() {
+    if (prefetchPages == 0) {
+      return fetchPage();
+    }
+
+    prefetch();
+    PrefetchedPage page = prefetchedPages.poll();
+    // keep fetching the next pages while this one is consumed
+    prefetch();
+    return await(page);
+  }
+
+  private List<T> fetchPage() {
     return performWithConnection(connection -> delegate.getPage(connection));
   }
 
+  /**
+   * Fills the buffer of prefetched pages. Each page is fetched once the previous one was obtained, and only if that one was not
+   * the last.
+   */
+  private void prefetch() {
+    while (prefetchedPages.size() < prefetchPages) {
+      PrefetchedPage page = new PrefetchedPage(lastPrefetch);
+      if (lastPrefetch == null) {
+        executePrefetch(page);
+      } else {
+        lastPrefetch.page.whenComplete((previous, failure) -> executePrefetch(page));
+      }
+      lastPrefetch = page;
+      prefetchedPages.add(page);
+    }
+  }
+
+  private List<T> prefetchPage() {
+    return withContextClassLoader(extensionClassLoader, () -> closed ? null : fetchPage());
+  }
+
+  private void executePrefetch(PrefetchedPage page) {
+    try {
+      prefetchExecutor.execute(page);
+    } catch (RejectedExecutionException e) {
+      // the consumer fetches the page itself when it needs it
+    }
+  }
+
+  private boolean isLastPage(List<T> page) {
+    return page == null || page.isEmpty();
+  }
+
+  private List<T> await(PrefetchedPage page) {
+    try {
+      return page.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new MuleRuntimeException(cause);
+    }
+  }
+
   /**
    * Returns the total amount of available results informed by delegate
    */
@@ -77,27 +187,41 @@ public final class PagingProviderProducer<T> implements Producer<List<T>> {
    * @return
    */
   private <R> R performWithConnection(Function<Object, R> function) {
-    ConnectionSupplier connectionSupplier = null;
-    try {
-      connectionSupplier = connectionSupplierFactory.getConnectionSupplier();
-      return function.apply(connectionSupplier.getConnection());
-    } catch (MuleException e) {
-      throw new MuleRuntimeException(createStaticMessage(COULD_NOT_OBTAIN_A_CONNECTION), e);
-    } finally {
-      if (connectionSupplier != null) {
-        connectionSupplier.close();
+    // the delegate is stateful, so a prefetch and a call from the consumer must not use it at the same time
+    synchronized (delegateLock) {
+      ConnectionSupplier connectionSupplier = null;
+      try {
+        connectionSupplier = connectionSupplierFactory.getConnectionSupplier();
+        return function.apply(connectionSupplier.getConnection());
+      } catch (MuleException e) {
+        throw new MuleRuntimeException(createStaticMessage(COULD_NOT_OBTAIN_A_CONNECTION), e);
+      } finally {
+        if (connectionSupplier != null) {
+          connectionSupplier.close();
+        }
       }
     }
   }
 
   /**
-   * Closes the delegate
+   * Closes the delegate, after waiting for the page being prefetched, if any
    */
   @Override
   public void close() throws IOException {
+    closed = true;
+    for (PrefetchedPage page : prefetchedPages) {
+      try {
+        page.join();
+      } catch (CompletionException e) {
+        // the consumer already got or discarded this failure, it must not prevent the delegate from being closed
+      }
+    }
+
     try {
-      ConnectionSupplier connectionSupplier = connectionSupplierFactory.getConnectionSupplier();
-      delegate.close(connectionSupplier.getConnection());
+      synchronized (delegateLock) {
+        ConnectionSupplier connectionSupplier = connectionSupplierFactory.getConnectionSupplier();
+        delegate.close(connectionSupplier.getConnection());
+      }
     } catch (Exception e) {
       throw new MuleRuntimeException(createStaticMessage(COULD_NOT_OBTAIN_A_CONNECTION), e);
     } finally {
@@ -118,6 +242,50 @@ public final class PagingProviderProducer<T> implements Producer<List<T>> {
     return tx != null && tx.hasResource(new ExtensionTransactionKey(config));
   }
 
+  private boolean isTransacted() {
+    Optional<TransactionConfig> transactionConfig = executionContext.getTransactionConfig();
+    return isTransactional() || transactionConfig.map(TransactionConfig::isTransacted).orElse(false);
+  }
+
+  /**
+   * A page fetched once the previous one was obtained, either by the prefetch {@link Executor} or by the first thread that needs
+   * it, whichever starts first.
+   */
+  private class PrefetchedPage implements Runnable {
+
+    private final CompletableFuture<List<T>> page = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private PrefetchedPage previous;
+
+    private PrefetchedPage(PrefetchedPage previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        List<T> previousPage = previous != null ? previous.join() : null;
+        page.complete(previous != null && isLastPage(previousPage) ? previousPage : prefetchPage());
+      } catch (Throwable t) {
+        page.completeExceptionally(t instanceof CompletionException ? t.getCause() : t);
+      } finally {
+        // so that the consumed pages can be collected
+        previous = null;
+      }
+    }
+
+    /**
+     * Fetches the page in the calling thread unless that was already started, and waits for it.
+     */
+    private List<T> join() {
+      run();
+      return page.join();
+    }
+  }
+
   private interface ConnectionSupplierFactory {
 
     ConnectionSupplier getConnectionSupplier() throws MuleException;
@@ -6,12 +6,21 @@
  */
 package org.mule.runtime.module.extension.internal.util;
 
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static org.springframework.util.ReflectionUtils.rethrowRuntimeException;
+
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 
 import org.springframework.util.ReflectionUtils;
 
 /**
  * Utility class which allows setting the value of a {@link Field} on random compatible instances
+ * <p>
+ * The value is set through a setter {@link MethodHandle} generated when this instance is created. Values which the handle cannot
+ * take as they are, such as a {@code null} for a primitive field or a value which needs a widening conversion, are set
+ * reflectively, so the outcome is the same as with {@link Field#set(Object, Object)}.
  *
  * @param <Target> the generic type of the objects which contain the field
  * @param <Value> the field's generic type
@@ -22,10 +31,20 @@ public final class FieldSetter<Target, Value> {
    * The {@link Field} in which the value is to be assigned
    */
   private final Field field;
+  private final MethodHandle setter;
 
   public FieldSetter(Field field) {
     this.field = field;
     field.setAccessible(true);
+    setter = createSetter(field);
+  }
+
+  private static MethodHandle createSetter(Field field) {
+    try {
+      return lookup().unreflectSetter(field).asType(methodType(void.class, Object.class, Object.class));
+    } catch (Exception e) {
+      return null;
+    }
   }
 
   /**
@@ -35,6 +54,17 @@ public final class FieldSetter<Target, Value> {
    * @param value the value to set
    */
   public void set(Target target, Value value) {
+    if (setter != null) {
+      try {
+        setter.invokeExact((Object) target, (Object) value);
+        return;
+      } catch (ClassCastException | NullPointerException e) {
+        // fall back to reflection, which either converts the value or fails the same way it always did
+      } catch (Throwable t) {
+        rethrowRuntimeException(t);
+      }
+    }
+
     ReflectionUtils.setField(field, target, value);
   }
 
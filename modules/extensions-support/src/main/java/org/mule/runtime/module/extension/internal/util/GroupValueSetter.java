@@ -8,7 +8,6 @@ package org.mule.runtime.module.extension.internal.util;
 
 import static org.mule.runtime.api.meta.model.parameter.ParameterGroupModel.DEFAULT_GROUP_NAME;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
-import static org.springframework.util.ReflectionUtils.setField;
 import org.mule.runtime.api.exception.MuleException;
 import org.mule.runtime.api.meta.model.EnrichableModel;
 import org.mule.runtime.api.meta.model.parameter.ParameterizedModel;
@@ -54,8 +53,8 @@ public final class GroupValueSetter implements ValueSetter {
     return setters.build();
   }
 
-  private final ParameterGroupDescriptor groupDescriptor;
-  private final Field container;
+  private final ParameterGroupObjectBuilder<?> groupBuilder;
+  private final FieldSetter<Object, Object> containerSetter;
 
   /**
    * Creates a new instance that can set values defined in the given {@code group}
@@ -63,14 +62,13 @@ public final class GroupValueSetter implements ValueSetter {
    * @param groupDescriptor a {@link ParameterGroupDescriptor}
    */
   public GroupValueSetter(ParameterGroupDescriptor groupDescriptor) {
-    this.groupDescriptor = groupDescriptor;
     checkArgument(groupDescriptor.getContainer() instanceof Field, "Only field contained parameter groups are allowed");
-    container = (Field) groupDescriptor.getContainer();
+    groupBuilder = new ParameterGroupObjectBuilder<>(groupDescriptor);
+    containerSetter = new FieldSetter<>((Field) groupDescriptor.getContainer());
   }
 
   @Override
   public void set(Object target, ResolverSetResult result) throws MuleException {
-    container.setAccessible(true);
-    setField(container, target, new ParameterGroupObjectBuilder<>(groupDescriptor).build(result));
+    containerSetter.set(target, groupBuilder.build(result));
   }
 }
@@ -11,6 +11,8 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mule.runtime.module.extension.internal.util.IntrospectionUtils.getField;
 
@@ -18,6 +20,7 @@ import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.internal.message.InternalMessage;
 import org.mule.runtime.module.extension.internal.runtime.objectbuilder.DefaultObjectBuilder;
+import org.mule.runtime.module.extension.internal.runtime.resolver.StaticValueResolver;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext;
 import org.mule.tck.junit4.AbstractMuleTestCase;
@@ -33,6 +36,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
 @SmallTest
@@ -90,6 +94,31 @@ public class DefaultObjectBuilderTestCase extends AbstractMuleTestCase {
     verify(info3);
   }
 
+  @Test
+  public void constantValuesAreNotResolvedOnEveryBuild() throws Exception {
+    ValueResolver constantResolver = spy(new StaticValueResolver<>(NAME));
+    ValueResolver nonDynamicResolver = getResolver(AGE, false);
+    builder.addPropertyResolver(nameField.getName(), constantResolver);
+    builder.addPropertyResolver(ageField.getName(), nonDynamicResolver);
+
+    for (int i = 0; i < 5; i++) {
+      verify(builder.build(resolvingContext));
+    }
+
+    Mockito.verify(constantResolver, times(2)).resolve(resolvingContext);
+    Mockito.verify(nonDynamicResolver, times(5)).resolve(resolvingContext);
+  }
+
+  @Test
+  public void addedResolverIsAppliedAfterReuse() throws Exception {
+    builder.addPropertyResolver(nameField.getName(), getResolver(NAME, false));
+    builder.build(resolvingContext);
+    builder.build(resolvingContext);
+
+    builder.addPropertyResolver(ageField.getName(), getResolver(AGE, false));
+    verify(builder.build(resolvingContext));
+  }
+
   private void verify(PersonalInfo personalInfo) {
     assertThat(personalInfo.getName(), is(NAME));
     assertThat(personalInfo.getAge(), is(AGE));
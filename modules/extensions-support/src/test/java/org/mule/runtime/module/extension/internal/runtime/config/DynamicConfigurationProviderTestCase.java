@@ -9,10 +9,12 @@ package org.mule.runtime.module.extension.internal.runtime.config;
 import static java.util.Arrays.asList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
@@ -28,6 +30,7 @@ import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 import static org.mule.runtime.api.util.ExtensionModelTestUtils.visitableMock;
 import static org.mule.runtime.core.api.util.collection.Collectors.toImmutableList;
+import static org.mule.runtime.module.extension.internal.runtime.config.DynamicConfigurationProvider.MIN_IDLE_MILLIS;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
 import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.mockClassLoaderModelProperty;
 import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.mockConfigurationInstance;
@@ -199,6 +202,68 @@ public class DynamicConfigurationProviderTestCase extends AbstractConfigurationP
     assertThat(configs, containsInAnyOrder(instance1, instance2));
   }
 
+  @Test
+  public void evictLeastFrequentlyUsedWhenFull() throws Exception {
+    useProviderWithMaxInstances(2);
+
+    ConfigurationInstance frequent = resolveWith(resolverSetResult);
+    for (int i = 0; i < 4; i++) {
+      provider.get(event);
+    }
+    ConfigurationInstance infrequent = resolveWith(mock(ResolverSetResult.class));
+    timeSupplier.move(MIN_IDLE_MILLIS, MILLISECONDS);
+    resolveWith(mock(ResolverSetResult.class));
+
+    DynamicConfigurationProvider provider = (DynamicConfigurationProvider) this.provider;
+    assertThat(provider.getExpired(), contains(infrequent));
+    assertThat(provider.getExpired().isEmpty(), is(true));
+
+    assertThat(resolveWith(resolverSetResult), is(sameInstance(frequent)));
+  }
+
+  @Test
+  public void doNotEvictInflightWhenFull() throws Exception {
+    useProviderWithMaxInstances(1);
+
+    ConfigurationInstance busy = resolveWith(resolverSetResult);
+    ((MutableConfigurationStats) busy.getStatistics()).addInflightOperation();
+    timeSupplier.move(MIN_IDLE_MILLIS, MILLISECONDS);
+    resolveWith(mock(ResolverSetResult.class));
+
+    assertThat(((DynamicConfigurationProvider) provider).getExpired().isEmpty(), is(true));
+    assertThat(resolveWith(resolverSetResult), is(sameInstance(busy)));
+  }
+
+  @Test
+  public void doNotEvictRecentlyUsedWhenFull() throws Exception {
+    useProviderWithMaxInstances(1);
+
+    ConfigurationInstance recent = resolveWith(resolverSetResult);
+    timeSupplier.move(MIN_IDLE_MILLIS - 1, MILLISECONDS);
+    resolveWith(mock(ResolverSetResult.class));
+
+    assertThat(((DynamicConfigurationProvider) provider).getExpired().isEmpty(), is(true));
+    assertThat(resolveWith(resolverSetResult), is(sameInstance(recent)));
+  }
+
+  private void useProviderWithMaxInstances(int maxInstances) throws MuleException {
+    provider.stop();
+    provider.dispose();
+
+    provider = new DynamicConfigurationProvider(CONFIG_NAME, extensionModel, configurationModel, resolverSet,
+                                                connectionProviderResolver, expirationPolicy, maxInstances, muleContext);
+    muleContext.getInjector().inject(provider);
+    provider.initialise();
+    provider.start();
+  }
+
+  private ConfigurationInstance resolveWith(ResolverSetResult result) throws Exception {
+    mockConfigurationInstance(configurationModel, MODULE_CLASS.newInstance());
+    when(resolverSet.resolve(from(event))).thenReturn(result);
+
+    return provider.get(event);
+  }
+
   private HeisenbergExtension makeAlternateInstance() throws Exception {
     ResolverSetResult alternateResult = mock(ResolverSetResult.class, Mockito.RETURNS_DEEP_STUBS);
     when(alternateResult.asMap()).thenReturn(new HashMap<>());
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import org.junit.Test;
+
+@SmallTest
+public class FrequencySketchTestCase extends AbstractMuleTestCase {
+
+  private static final int KEY = "key".hashCode();
+
+  private FrequencySketch sketch = new FrequencySketch();
+
+  @Test
+  public void unknownKey() {
+    assertThat(sketch.frequency(KEY), is(0));
+  }
+
+  @Test
+  public void increment() {
+    for (int i = 0; i < 5; i++) {
+      sketch.increment(KEY);
+    }
+    sketch.increment(KEY + 1);
+
+    assertThat(sketch.frequency(KEY), is(5));
+    assertThat(sketch.frequency(KEY + 1), is(1));
+  }
+
+  @Test
+  public void saturates() {
+    for (int i = 0; i < 100; i++) {
+      sketch.increment(KEY);
+    }
+
+    assertThat(sketch.frequency(KEY), is(15));
+  }
+
+  @Test
+  public void agesOut() {
+    for (int i = 0; i < 15; i++) {
+      sketch.increment(KEY);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      sketch.increment(i * 7919);
+    }
+
+    assertThat(sketch.frequency(KEY), is(lessThan(15)));
+  }
+
+  @Test
+  public void growingResetsCounts() {
+    sketch.increment(KEY);
+    sketch.ensureCapacity(1000);
+
+    assertThat(sketch.frequency(KEY), is(0));
+  }
+}
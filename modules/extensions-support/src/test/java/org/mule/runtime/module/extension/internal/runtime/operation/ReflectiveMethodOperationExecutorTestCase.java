@@ -139,6 +139,23 @@ public class ReflectiveMethodOperationExecutorTestCase extends AbstractMuleTestC
     assertResult(execute(), HEISENBERG);
   }
 
+  @Test
+  public void initialisedOperationWithArgumentsAndReturnValue() throws Exception {
+    Map<String, Object> parametersMap = new HashMap<>();
+    parametersMap.put("index", 0);
+    when(parameters.asMap()).thenReturn(parametersMap);
+    init();
+
+    Method method =
+        ClassUtils.getMethod(HeisenbergOperations.class, "getEnemy", new Class<?>[] {HeisenbergExtension.class, int.class});
+    executor = new ReflectiveMethodOperationExecutor(operationModel, method, operations);
+    executor.setMuleContext(muleContext);
+    executor.initialise();
+
+    assertResult(((Result) execute()).getOutput(), "Hank");
+    assertResult(((Result) execute()).getOutput(), "Hank");
+  }
+
   @Test
   public void exceptionIsPropagated() throws Exception {
     final RuntimeException exception = new RuntimeException();
@@ -9,10 +9,15 @@ package org.mule.runtime.module.extension.internal.runtime.resolver;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.getParameter;
 import org.mule.runtime.api.lifecycle.Lifecycle;
 import org.mule.runtime.api.meta.model.parameter.ParameterModel;
+import org.mule.runtime.core.api.Injector;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.context.MuleContextAware;
 import org.mule.runtime.core.api.event.BaseEvent;
@@ -57,6 +62,7 @@ public class ResolverSetTestCase extends AbstractMuleTestCase {
 
     when(resolvingContext.getEvent()).thenReturn(event);
     when(resolvingContext.getConfig()).thenReturn(Optional.empty());
+    when(muleContext.getInjector()).thenReturn(mock(Injector.class));
 
     set = buildSet(mapping);
   }
@@ -100,6 +106,52 @@ public class ResolverSetTestCase extends AbstractMuleTestCase {
     assertThat(set.isDynamic(), is(true));
   }
 
+  @Test
+  public void initialisedSetResolvesConstantValuesOnce() throws Exception {
+    ValueResolver constantResolver = spy(new StaticValueResolver<>(NAME));
+    ValueResolver dynamicResolver = getResolver(AGE);
+    when(dynamicResolver.isDynamic()).thenReturn(true);
+    set = new ResolverSet(muleContext);
+    set.add("constant", constantResolver);
+    set.add("dynamic", dynamicResolver);
+    set.initialise();
+
+    for (int i = 0; i < 3; i++) {
+      ResolverSetResult result = set.resolve(resolvingContext);
+      assertThat(result.get("constant"), is(NAME));
+      assertThat(result.get("dynamic"), is(AGE));
+      assertThat(result.asMap().size(), is(2));
+    }
+
+    verify(constantResolver, times(1)).resolve(resolvingContext);
+    verify(dynamicResolver, times(3)).resolve(resolvingContext);
+  }
+
+  @Test
+  public void addAfterInitialise() throws Exception {
+    set.initialise();
+    set.resolve(resolvingContext);
+
+    set.add("whatever", new StaticValueResolver<>("value"));
+    assertThat(set.resolve(resolvingContext).get("whatever"), is("value"));
+  }
+
+  @Test
+  public void initialisedHashedSetHasSameResult() throws Exception {
+    ResolverSet initialised = new HashedResolverSet(muleContext);
+    ResolverSet notInitialised = new HashedResolverSet(muleContext);
+    mapping.forEach((key, value) -> {
+      initialised.add(key.getName(), value);
+      notInitialised.add(key.getName(), value);
+    });
+    initialised.initialise();
+
+    ResolverSetResult result = initialised.resolve(resolvingContext);
+    ResolverSetResult expected = notInitialised.resolve(resolvingContext);
+    assertThat(result, is(expected));
+    assertThat(result.hashCode(), is(expected.hashCode()));
+  }
+
   private void assertResult(ResolverSetResult result, Map<ParameterModel, ValueResolver> mapping) throws Exception {
     assertThat(result, is(notNullValue()));
     for (Map.Entry<ParameterModel, ValueResolver> entry : mapping.entrySet()) {
@@ -6,8 +6,12 @@
  */
 package org.mule.runtime.module.extension.internal.runtime.streaming;
 
+import static java.lang.Thread.currentThread;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
@@ -17,18 +21,27 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.mule.test.module.extension.internal.util.ExtensionsTestUtils.mockClassLoaderModelProperty;
 import org.mule.runtime.api.connection.ConnectionHandler;
 import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.meta.model.ExtensionModel;
 import org.mule.runtime.core.api.DefaultMuleException;
+import org.mule.runtime.core.api.transaction.TransactionConfig;
 import org.mule.runtime.extension.api.runtime.config.ConfigurationInstance;
 import org.mule.runtime.extension.api.runtime.streaming.PagingProvider;
 import org.mule.runtime.module.extension.api.runtime.privileged.ExecutionContextAdapter;
 import org.mule.runtime.module.extension.internal.runtime.connectivity.ExtensionConnectionSupplier;
 import org.mule.tck.size.SmallTest;
 
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -44,6 +57,7 @@ public class PagingProviderProducerTestCase {
   private ExecutionContextAdapter executionContext = mock(ExecutionContextAdapter.class);
   private PagingProvider<Object, String> delegate = mock(PagingProvider.class);
   private ConfigurationInstance config = mock(ConfigurationInstance.class);
+  private ClassLoader extensionClassLoader = new URLClassLoader(new URL[0]);
 
   @InjectMocks
   private PagingProviderProducer<String> producer = createProducer();
@@ -58,6 +72,10 @@ public class PagingProviderProducerTestCase {
     ConnectionHandler handler = mock(ConnectionHandler.class);
     when(handler.getConnection()).thenReturn(new Object());
     when(extensionConnectionSupplier.getConnection(executionContext)).thenReturn(handler);
+
+    ExtensionModel extensionModel = mock(ExtensionModel.class);
+    mockClassLoaderModelProperty(extensionModel, extensionClassLoader);
+    when(executionContext.getExtensionModel()).thenReturn(extensionModel);
   }
 
   @Test
@@ -115,4 +133,106 @@ public class PagingProviderProducerTestCase {
     doThrow(new DefaultMuleException(new Exception())).when(delegate).close(any());
     producer.close();
   }
+
+  @Test
+  public void prefetch() throws Exception {
+    List<String> page1 = asList("page1");
+    List<String> page2 = asList("page2");
+    List<String> page3 = asList("page3");
+    when(delegate.getPage(anyObject())).thenReturn(page1, page2, page3, emptyList());
+    when(executionContext.getTransactionConfig()).thenReturn(Optional.empty());
+
+    ConnectionHandler connectionHandler = mock(ConnectionHandler.class);
+    when(extensionConnectionSupplier.getConnection(any())).thenReturn(connectionHandler);
+
+    ExecutorService executor = newSingleThreadExecutor();
+    try {
+      producer = createPrefetchingProducer(executor);
+      assertThat(producer.produce(), sameInstance(page1));
+      assertThat(producer.produce(), sameInstance(page2));
+      assertThat(producer.produce(), sameInstance(page3));
+      assertThat(producer.produce().isEmpty(), is(true));
+      assertThat(producer.produce().isEmpty(), is(true));
+      producer.close();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(delegate, times(4)).getPage(anyObject());
+    verify(connectionHandler, times(4)).release();
+  }
+
+  @Test
+  public void prefetchWithExtensionClassLoader() throws Exception {
+    List<ClassLoader> fetchClassLoaders = new CopyOnWriteArrayList<>();
+    when(delegate.getPage(anyObject())).thenAnswer(invocation -> {
+      fetchClassLoaders.add(currentThread().getContextClassLoader());
+      return fetchClassLoaders.size() == 1 ? asList("page1") : emptyList();
+    });
+    when(executionContext.getTransactionConfig()).thenReturn(Optional.empty());
+
+    ExecutorService executor = newSingleThreadExecutor();
+    try {
+      producer = createPrefetchingProducer(executor);
+      producer.produce();
+      producer.produce();
+      producer.close();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(fetchClassLoaders, everyItem(sameInstance(extensionClassLoader)));
+    assertThat(fetchClassLoaders.isEmpty(), is(false));
+  }
+
+  @Test
+  public void fetchPagesNotStartedByExecutor() throws Exception {
+    List<String> page1 = asList("page1");
+    List<String> page2 = asList("page2");
+    when(delegate.getPage(anyObject())).thenReturn(page1, page2, emptyList());
+    when(executionContext.getTransactionConfig()).thenReturn(Optional.empty());
+
+    // like a stopped scheduler that drops its queued tasks
+    producer = createPrefetchingProducer(task -> {
+    });
+    assertThat(producer.produce(), sameInstance(page1));
+    assertThat(producer.produce(), sameInstance(page2));
+    assertThat(producer.produce().isEmpty(), is(true));
+    producer.close();
+
+    verify(delegate, times(3)).getPage(anyObject());
+  }
+
+  @Test
+  public void noPrefetchWhenTransacted() throws Exception {
+    TransactionConfig transactionConfig = mock(TransactionConfig.class);
+    when(transactionConfig.isTransacted()).thenReturn(true);
+    when(executionContext.getTransactionConfig()).thenReturn(Optional.of(transactionConfig));
+
+    Executor executor = mock(Executor.class);
+    producer = createPrefetchingProducer(executor);
+    produce();
+
+    verifyZeroInteractions(executor);
+  }
+
+  @Test
+  public void prefetchFailure() throws Exception {
+    RuntimeException failure = new RuntimeException("Fetch failed!");
+    when(delegate.getPage(anyObject())).thenThrow(failure);
+    when(executionContext.getTransactionConfig()).thenReturn(Optional.empty());
+
+    producer = createPrefetchingProducer(Runnable::run);
+    try {
+      producer.produce();
+    } catch (RuntimeException e) {
+      assertThat(e, sameInstance(failure));
+      return;
+    }
+    throw new AssertionError("Fetch failure was not propagated");
+  }
+
+  private PagingProviderProducer<String> createPrefetchingProducer(Executor executor) {
+    return new PagingProviderProducer<>(delegate, config, executionContext, extensionConnectionSupplier, executor, 2);
+  }
 }
@@ -225,6 +225,7 @@ public interface AllureConstants {
       String REACTOR = "Reactor";
       String DIRECT = "Direct";
       String WORK_QUEUE = "Work Queue";
+      String ADAPTIVE = "Adaptive";
     }
 
   }
@@ -34,6 +34,7 @@ public class EventBenchmark extends AbstractBenchmark {
   private Flow flow;
   private BaseEvent event;
   private BaseEvent eventWith10VariablesProperties;
+  private BaseEvent eventWith30VariablesProperties;
   private BaseEvent eventWith50VariablesProperties;
   private BaseEvent eventWith100VariablesProperties;
 
@@ -48,8 +49,9 @@ public class EventBenchmark extends AbstractBenchmark {
         BaseEvent.builder(create(flow, CONNECTOR_LOCATION)).message(messageBuilder.build());
     event = eventBuilder.build();
     eventWith10VariablesProperties = createMuleEventWithFlowVarsAndProperties(10);
+    eventWith30VariablesProperties = createMuleEventWithFlowVarsAndProperties(30);
     eventWith50VariablesProperties = createMuleEventWithFlowVarsAndProperties(50);
-    eventWith100VariablesProperties = createMuleEventWithFlowVarsAndProperties(50);
+    eventWith100VariablesProperties = createMuleEventWithFlowVarsAndProperties(100);
   }
 
   @TearDown
@@ -73,6 +75,11 @@ public class EventBenchmark extends AbstractBenchmark {
     return BaseEvent.builder(eventWith10VariablesProperties).build();
   }
 
+  @Benchmark
+  public BaseEvent copyEventWith30VariablesProperties() {
+    return BaseEvent.builder(eventWith30VariablesProperties).build();
+  }
+
   @Benchmark
   public BaseEvent copyEventWith100VariablesProperties() {
     return BaseEvent.builder(eventWith100VariablesProperties).build();
@@ -111,6 +118,11 @@ public class EventBenchmark extends AbstractBenchmark {
     return BaseEvent.builder(eventWith10VariablesProperties).addVariable(KEY, VALUE).build();
   }
 
+  @Benchmark
+  public BaseEvent addEventVariableEventWith30VariablesProperties() {
+    return BaseEvent.builder(eventWith30VariablesProperties).addVariable(KEY, VALUE).build();
+  }
+
   @Benchmark
   public BaseEvent addEventVariableEventWith50VariablesProperties() {
     return BaseEvent.builder(eventWith50VariablesProperties).addVariable(KEY, VALUE).build();
@@ -121,6 +133,28 @@ public class EventBenchmark extends AbstractBenchmark {
     return BaseEvent.builder(eventWith100VariablesProperties).addVariable(KEY, VALUE).build();
   }
 
+  @Benchmark
+  public BaseEvent removeEventVariableEventWith30VariablesProperties() {
+    return BaseEvent.builder(eventWith30VariablesProperties).removeVariable("FlOwVaRiAbLeKeY1").build();
+  }
+
+  @Benchmark
+  public BaseEvent removeEventVariableEventWith100VariablesProperties() {
+    return BaseEvent.builder(eventWith100VariablesProperties).removeVariable("FlOwVaRiAbLeKeY1").build();
+  }
+
+  /**
+   * Copies the event as a chain of 10 processors would, each of them updating a variable.
+   */
+  @Benchmark
+  public BaseEvent copyThrough10ProcessorsUpdatingVariableEventWith30VariablesProperties() {
+    BaseEvent current = eventWith30VariablesProperties;
+    for (int i = 1; i <= 10; i++) {
+      current = BaseEvent.builder(current).addVariable("FlOwVaRiAbLeKeY" + i, VALUE).build();
+    }
+    return current;
+  }
+
 
   @Benchmark
   public BaseEvent copyWith10FlowVarsAnd10PropertiesWrite1OfEach() throws Exception {
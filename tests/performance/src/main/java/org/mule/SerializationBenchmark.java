@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule;
+
+import static org.mule.runtime.core.api.event.BaseEventContext.create;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.message.Message;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.Flow;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.api.scheduler.SchedulerService;
+import org.mule.runtime.core.internal.serialization.CompactObjectSerializer;
+import org.mule.runtime.core.internal.serialization.JavaObjectSerializer;
+
+import java.io.ByteArrayOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+public class SerializationBenchmark extends AbstractBenchmark {
+
+  private MuleContext muleContext;
+  private SerializationProtocol javaProtocol;
+  private SerializationProtocol compactProtocol;
+
+  private BaseEvent event;
+  private byte[] javaSerializedEvent;
+  private byte[] compactSerializedEvent;
+  private byte[] javaSerializedMessage;
+  private byte[] compactSerializedMessage;
+
+  @Setup
+  public void setup() throws Exception {
+    muleContext = createMuleContextWithServices();
+    muleContext.start();
+    Flow flow = createFlow(muleContext);
+    muleContext.getRegistry().registerFlowConstruct(flow);
+
+    JavaObjectSerializer javaSerializer = new JavaObjectSerializer();
+    javaSerializer.setMuleContext(muleContext);
+    javaProtocol = javaSerializer.getInternalProtocol();
+    CompactObjectSerializer compactSerializer = new CompactObjectSerializer();
+    compactSerializer.setMuleContext(muleContext);
+    compactProtocol = compactSerializer.getInternalProtocol();
+
+    BaseEvent.Builder builder = BaseEvent.builder(create(flow, CONNECTOR_LOCATION)).message(Message.of(PAYLOAD));
+    for (int i = 1; i <= 10; i++) {
+      builder.addVariable("FlOwVaRiAbLeKeY" + i, "val");
+    }
+    event = builder.build();
+
+    javaSerializedEvent = javaProtocol.serialize(event);
+    compactSerializedEvent = compactProtocol.serialize(event);
+    javaSerializedMessage = javaProtocol.serialize(event.getMessage());
+    compactSerializedMessage = compactProtocol.serialize(event.getMessage());
+  }
+
+  @TearDown
+  public void teardown() throws MuleException {
+    stopIfNeeded(muleContext.getRegistry().lookupObject(SchedulerService.class));
+    muleContext.dispose();
+  }
+
+  @Benchmark
+  public byte[] serializeEventJava() {
+    return javaProtocol.serialize(event);
+  }
+
+  @Benchmark
+  public byte[] serializeEventCompact() {
+    return compactProtocol.serialize(event);
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serializeEventToStreamJava() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    javaProtocol.serialize(event, out);
+    return out;
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream serializeEventToStreamCompact() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    compactProtocol.serialize(event, out);
+    return out;
+  }
+
+  @Benchmark
+  public BaseEvent deserializeEventJava() {
+    return javaProtocol.deserialize(javaSerializedEvent);
+  }
+
+  @Benchmark
+  public BaseEvent deserializeEventCompact() {
+    return compactProtocol.deserialize(compactSerializedEvent);
+  }
+
+  @Benchmark
+  public byte[] serializeMessageJava() {
+    return javaProtocol.serialize(event.getMessage());
+  }
+
+  @Benchmark
+  public byte[] serializeMessageCompact() {
+    return compactProtocol.serialize(event.getMessage());
+  }
+
+  @Benchmark
+  public Message deserializeMessageJava() {
+    return javaProtocol.deserialize(javaSerializedMessage);
+  }
+
+  @Benchmark
+  public Message deserializeMessageCompact() {
+    return compactProtocol.deserialize(compactSerializedMessage);
+  }
+
+}